@@ -3,6 +3,7 @@ package org.jellyfin.apiclient.interaction
 import android.content.Context
 import org.jellyfin.apiclient.interaction.device.IDevice
 import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient
+import org.jellyfin.apiclient.interaction.tasks.BlockingExecutors
 import org.jellyfin.apiclient.logging.AndroidLogger
 import org.jellyfin.apiclient.logging.ILogger
 
@@ -23,17 +24,15 @@ class AndroidApiClient(
 	device,
 	apiEventListener
 ) {
-	override fun getResponseStream(address: String, response: Response<ResponseStreamInfo>) {
-		val thread = Thread(Runnable { getResponseStreamInternal(address, response) })
-		thread.start()
-	}
-
-	override fun detectBitrate(downloadBytes: Long, response: Response<Long>) {
-		val thread = Thread(Runnable { detectBitrateInternal(downloadBytes, response) })
-		thread.start()
+	init {
+		// Keep blocking I/O off the calling thread, which is usually the main thread
+		blockingExecutor = sharedBlockingExecutor
 	}
 
 	companion object {
+		// Android has no virtual threads, so this is a bounded pool shared by every client
+		private val sharedBlockingExecutor by lazy { BlockingExecutors.CreateDefault() }
+
 		fun fromContext(
 			context: Context,
 			serverAddress: String,
@@ -0,0 +1,45 @@
+package org.jellyfin.apiclient.interaction;
+
+import com.android.volley.AuthFailureError;
+import com.android.volley.Request;
+import com.android.volley.toolbox.HttpResponse;
+import com.android.volley.toolbox.HurlStack;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.Map;
+
+/**
+ * A {@link HurlStack} handing each connection to its {@link VolleyStringRequest}, so cancelling the token of the
+ * request disconnects it. The network dispatcher blocked on the socket is then released right away instead of
+ * after the timeout.
+ */
+public class CancellableHurlStack extends HurlStack {
+
+    // createConnection only gets the url, the request being executed on this thread is tracked here
+    private final ThreadLocal<Request<?>> currentRequest = new ThreadLocal<>();
+
+    @Override
+    public HttpResponse executeRequest(Request<?> request, Map<String, String> additionalHeaders)
+            throws IOException, AuthFailureError {
+        currentRequest.set(request);
+        try {
+            return super.executeRequest(request, additionalHeaders);
+        } finally {
+            currentRequest.remove();
+        }
+    }
+
+    @Override
+    protected HttpURLConnection createConnection(URL url) throws IOException {
+        HttpURLConnection connection = super.createConnection(url);
+
+        Request<?> request = currentRequest.get();
+        if (request instanceof VolleyStringRequest) {
+            ((VolleyStringRequest) request).Attach(connection);
+        }
+
+        return connection;
+    }
+}
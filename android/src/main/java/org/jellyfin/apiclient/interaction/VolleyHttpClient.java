@@ -9,7 +9,6 @@ import com.android.volley.Request;
 import com.android.volley.RequestQueue;
 import com.android.volley.toolbox.BasicNetwork;
 import com.android.volley.toolbox.DiskBasedCache;
-import com.android.volley.toolbox.HurlStack;
 import com.android.volley.toolbox.StringRequest;
 
 import org.jellyfin.apiclient.interaction.http.HttpRequest;
@@ -46,7 +45,7 @@ public class VolleyHttpClient implements IAsyncHttpClient {
         // created when it is accessed for the first time
         if (requestQueue == null) {
             Cache cache = new DiskBasedCache(context.getCacheDir(), DEFAULT_DISK_USAGE_BYTES);
-            Network network = new BasicNetwork(new HurlStack());
+            Network network = new BasicNetwork(new CancellableHurlStack());
             requestQueue = new RequestQueue(cache, network);
             requestQueue.start();
         }
@@ -3,23 +3,31 @@ package org.jellyfin.apiclient.interaction;
 import com.android.volley.AuthFailureError;
 import com.android.volley.NetworkResponse;
 import com.android.volley.Response;
+import com.android.volley.VolleyError;
 import com.android.volley.toolbox.StringRequest;
-import org.jellyfin.apiclient.interaction.http.HttpHeaders;
 import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.HttpURLConnection;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.zip.GZIPOutputStream;
 
 public class VolleyStringRequest extends StringRequest {
     /* HTTP Headers */
-    private static final String AUTHORIZATION_HEADER = "X-Emby-Authorization";
     private static final String CONTENT_TYPE_HEADER = "Content-Type";
+    private static final String CONTENT_ENCODING_HEADER = "Content-Encoding";
     /* Content Types */
     private static final String JSON_TYPE = "application/json";
     private static final String TEXT_TYPE = "text/plain";
     private static final String VTT_TYPE = "text/vtt";
+    /* Bodies smaller than this are not worth compressing */
+    private static final int MIN_COMPRESSED_LENGTH = 1024;
 
     private HttpRequest request;
+    private volatile CancellationToken.Registration registration;
 
     public VolleyStringRequest(int method, String url, Response.Listener<String> listener, Response.ErrorListener errorListener, HttpRequest request) {
         super(method, url, listener, errorListener);
@@ -31,8 +39,60 @@ public class VolleyStringRequest extends StringRequest {
         this.request = request;
     }
 
+    @Override
+    public boolean isCanceled() {
+        // Volley checks this before sending and before delivering, which drops the response of a cancelled request
+        CancellationToken cancellationToken = request.getCancellationToken();
+        return super.isCanceled() || (cancellationToken != null && cancellationToken.isCancellationRequested());
+    }
+
+    /**
+     * Disconnects the connection when the token of the request is cancelled, aborting the request in flight.
+     * Called by {@link CancellableHurlStack} on the network thread.
+     */
+    void Attach(final HttpURLConnection connection) {
+        CancellationToken cancellationToken = request.getCancellationToken();
+        if (cancellationToken == null) {
+            return;
+        }
+
+        Detach();
+        registration = cancellationToken.register(new Runnable() {
+            @Override
+            public void run() {
+                connection.disconnect();
+            }
+        });
+    }
+
+    private void Detach() {
+        CancellationToken.Registration current = registration;
+        if (current != null) {
+            current.unregister();
+            registration = null;
+        }
+    }
+
+    @Override
+    protected void deliverResponse(String response) {
+        Detach();
+        super.deliverResponse(response);
+    }
+
+    @Override
+    public void deliverError(VolleyError error) {
+        Detach();
+        super.deliverError(error);
+    }
+
     @Override
     public Map<String, String> getHeaders() throws AuthFailureError {
+        // Snapshots already carry the rendered wire headers, so share them unless this request adds its own
+        if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(request.getRequestContentType())
+                && !ShouldCompress()) {
+            return request.getWireHeaders();
+        }
+
         Map<String, String> headers = new HashMap<String,String>();
         AddHeaders(headers, request);
         return headers;
@@ -73,9 +133,34 @@ public class VolleyStringRequest extends StringRequest {
             return super.getBody();
         }
 
+        if (ShouldCompress()) {
+            return Compress(postContent.getBytes());
+        }
+
         return postContent.getBytes();
     }
 
+    private boolean ShouldCompress() {
+        return request.getEnableRequestCompression()
+                && request.getRequestContent() != null
+                && request.getRequestContent().length() >= MIN_COMPRESSED_LENGTH;
+    }
+
+    private static byte[] Compress(byte[] body) {
+        ByteArrayOutputStream output = new ByteArrayOutputStream(body.length / 4);
+
+        try {
+            GZIPOutputStream gzip = new GZIPOutputStream(output);
+            gzip.write(body);
+            gzip.close();
+        } catch (IOException e) {
+            // Writing to memory does not fail
+            throw new IllegalStateException(e);
+        }
+
+        return output.toByteArray();
+    }
+
     @Override
     protected com.android.volley.Response<String> parseNetworkResponse(NetworkResponse response) {
         String contentType = response.headers.get(CONTENT_TYPE_HEADER);
@@ -90,24 +175,16 @@ public class VolleyStringRequest extends StringRequest {
 
     private void AddHeaders(Map<String, String> headers, HttpRequest request)
     {
-        HttpHeaders requestHeaders = request.getRequestHeaders();
-
-        for (String key : requestHeaders.keySet()) {
-            headers.put(key, requestHeaders.get(key));
-        }
+        headers.putAll(request.getWireHeaders());
 
         if (!tangible.DotNetToJavaStringHelper.isNullOrEmpty(request.getRequestContentType()))
         {
             headers.put(CONTENT_TYPE_HEADER, request.getRequestContentType());
         }
 
-        String parameter = requestHeaders.getAuthorizationParameter();
-
-        if (!tangible.DotNetToJavaStringHelper.isNullOrEmpty(parameter))
+        if (ShouldCompress())
         {
-            String value = requestHeaders.getAuthorizationScheme() + " " + parameter;
-
-            headers.put(AUTHORIZATION_HEADER, value);
+            headers.put(CONTENT_ENCODING_HEADER, "gzip");
         }
     }
 
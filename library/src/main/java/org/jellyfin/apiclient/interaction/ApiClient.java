@@ -1,8 +1,17 @@
 package org.jellyfin.apiclient.interaction;
 
+import org.jellyfin.apiclient.interaction.cache.ItemCache;
+import org.jellyfin.apiclient.interaction.cache.UserDataIndex;
 import org.jellyfin.apiclient.interaction.device.IDevice;
+import org.jellyfin.apiclient.interaction.images.ImageCache;
+import org.jellyfin.apiclient.interaction.http.HttpExchange;
+import org.jellyfin.apiclient.interaction.http.HttpHeaders;
+import org.jellyfin.apiclient.interaction.http.HttpHeadersSnapshot;
+import org.jellyfin.apiclient.interaction.http.HttpInterceptor;
 import org.jellyfin.apiclient.interaction.http.HttpRequest;
 import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.interaction.http.SingleFlight;
+import org.jellyfin.apiclient.interaction.tasks.BlockingExecutors;
 import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
 import org.jellyfin.apiclient.interaction.tasks.IProgress;
 import org.jellyfin.apiclient.interaction.websocket.ApiWebSocket;
@@ -17,9 +26,14 @@ import org.jellyfin.apiclient.model.configuration.ServerConfiguration;
 import org.jellyfin.apiclient.model.configuration.UserConfiguration;
 import org.jellyfin.apiclient.model.devices.ContentUploadHistory;
 import org.jellyfin.apiclient.model.devices.LocalFileInfo;
+import org.jellyfin.apiclient.model.dlna.CompiledDeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.StreamDecision;
+import org.jellyfin.apiclient.model.dlna.StreamDecisionEngine;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
 import org.jellyfin.apiclient.model.dto.ItemCounts;
 import org.jellyfin.apiclient.model.dto.ItemIndex;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
 import org.jellyfin.apiclient.model.dto.UserDto;
 import org.jellyfin.apiclient.model.dto.UserItemDataDto;
 import org.jellyfin.apiclient.model.entities.DisplayPreferences;
@@ -75,6 +89,7 @@ import org.jellyfin.apiclient.model.search.SearchQuery;
 import org.jellyfin.apiclient.model.session.ClientCapabilities;
 import org.jellyfin.apiclient.model.session.GeneralCommand;
 import org.jellyfin.apiclient.model.session.MessageCommand;
+import org.jellyfin.apiclient.model.session.PlayMethod;
 import org.jellyfin.apiclient.model.session.PlayRequest;
 import org.jellyfin.apiclient.model.session.PlaybackProgressInfo;
 import org.jellyfin.apiclient.model.session.PlaybackStartInfo;
@@ -87,22 +102,187 @@ import org.jellyfin.apiclient.model.sync.SyncJob;
 import org.jellyfin.apiclient.model.system.PublicSystemInfo;
 import org.jellyfin.apiclient.model.system.SystemInfo;
 import org.jellyfin.apiclient.model.users.AuthenticationResult;
+import org.jellyfin.apiclient.serialization.DeviceProfileDigest;
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer;
+import org.jellyfin.apiclient.serialization.PlaybackInfoRequestSerializer;
 
+import java.io.ByteArrayOutputStream;
 import java.io.DataOutputStream;
 import java.io.FileInputStream;
+import java.io.FilterInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.HttpURLConnection;
 import java.net.URL;
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.Map;
 import java.util.Observable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
 public class ApiClient extends BaseApiClient {
  
     protected IAsyncHttpClient httpClient;
     private ApiEventListener apiEventListener;
     private ApiWebSocket apiWebSocket;
+    private StreamDecisionEngine streamDecisionEngine;
+    private long streamDecisionEngineDigest;
+    private PlaybackInfoRequestSerializer playbackInfoRequestSerializer;
+    private GsonJsonSerializer playbackInfoRequestSerializerSource;
+
+    private ItemCache itemCache;
+    public ItemCache getItemCache() {
+        return itemCache;
+    }
+
+    // Opt-in: single item lookups are served from this cache, which the web socket keeps current and clears when it reconnects
+    public void setItemCache(ItemCache value) {
+        itemCache = value;
+    }
+
+    public String getItemCacheServerId() {
+        if (serverInfo != null && serverInfo.getId() != null) {
+            return serverInfo.getId();
+        }
+
+        return getServerAddress();
+    }
+
+    private ImageCache imageCache;
+    public ImageCache getImageCache() {
+        return imageCache;
+    }
+
+    // Opt-in: GetImageAsync serves tagged image urls from this cache
+    public void setImageCache(ImageCache value) {
+        imageCache = value;
+    }
+
+    private UserDataIndex userDataIndex;
+    public UserDataIndex getUserDataIndex() {
+        return userDataIndex;
+    }
+
+    // Opt-in: user data of the items fetched for the current user is patched in place from UserDataChanged
+    public void setUserDataIndex(UserDataIndex value) {
+        userDataIndex = value;
+    }
+
+    private boolean enableRequestCompression;
+    public boolean getEnableRequestCompression() {
+        return enableRequestCompression;
+    }
+
+    // Gzip large request bodies (PlaybackInfo) when the server is known to accept compressed requests
+    public void setEnableRequestCompression(boolean value) {
+        enableRequestCompression = value;
+    }
+
+    private volatile Executor blockingExecutor;
+    public Executor getBlockingExecutor() {
+        return blockingExecutor;
+    }
+
+    /**
+     * Sets the executor running blocking I/O: response streams, bitrate detection and image downloads.
+     * When null they run on the calling thread. See {@link BlockingExecutors} for virtual thread and pooled executors.
+     */
+    public void setBlockingExecutor(Executor value) {
+        blockingExecutor = value;
+    }
+
+    private final CopyOnWriteArrayList<HttpInterceptor> interceptors = new CopyOnWriteArrayList<>();
+
+    /**
+     * Adds an interceptor observing every request and response stream, see {@link HttpInterceptor}.
+     */
+    public void addInterceptor(HttpInterceptor interceptor) {
+        if (interceptor == null) {
+            throw new IllegalArgumentException("interceptor");
+        }
+
+        interceptors.add(interceptor);
+    }
+
+    public void removeInterceptor(HttpInterceptor interceptor) {
+        interceptors.remove(interceptor);
+    }
+
+    private HttpExchange OnRequest(HttpRequest request) {
+        if (interceptors.isEmpty()) {
+            return null;
+        }
+
+        HttpExchange exchange = new HttpExchange(request);
+        for (HttpInterceptor interceptor : interceptors) {
+            try {
+                interceptor.OnRequest(exchange);
+            } catch (RuntimeException ex) {
+                Logger.error("Error in http interceptor", ex);
+            }
+        }
+        return exchange;
+    }
+
+    private void OnResponse(HttpExchange exchange, Integer statusCode, long bytesReceived, Exception error) {
+        if (exchange == null || !exchange.Complete(statusCode, bytesReceived, error)) {
+            return;
+        }
+
+        for (HttpInterceptor interceptor : interceptors) {
+            try {
+                interceptor.OnResponse(exchange);
+            } catch (RuntimeException ex) {
+                Logger.error("Error in http interceptor", ex);
+            }
+        }
+    }
+
+    private static Integer GetStatusCode(Exception error) {
+        return error instanceof HttpException ? ((HttpException) error).getStatusCode() : null;
+    }
+
+    // Reports the outcome of the request to the interceptors before the caller gets it
+    private Response<String> InterceptResponse(final HttpExchange exchange, final Response<String> response) {
+        return new Response<String>(response) {
+            @Override
+            public void onResponse(String result) {
+                OnResponse(exchange, 200, HttpExchange.GetUtf8Length(result), null);
+                response.onResponse(result);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                OnResponse(exchange, GetStatusCode(exception), -1, exception);
+                response.onError(exception);
+            }
+        };
+    }
+
+    private void Execute(Runnable task) {
+        Executor executor = blockingExecutor;
+        if (executor == null) {
+            task.run();
+            return;
+        }
+
+        executor.execute(task);
+    }
+
+    private volatile SingleFlight<String> requestDeduplication;
+    public boolean getEnableRequestDeduplication() {
+        return requestDeduplication != null;
+    }
+
+    // Share one request among concurrent identical GETs (same url and credentials)
+    public synchronized void setEnableRequestDeduplication(boolean value) {
+        if (value != (requestDeduplication != null)) {
+            requestDeduplication = value ? new SingleFlight<String>() : null;
+        }
+    }
 
     private ServerInfo serverInfo;
     public ServerInfo getServerInfo() {
@@ -163,17 +343,87 @@ public class ApiClient extends BaseApiClient {
         apiEventListener.onRemoteLoggedOut(this, reason);
     }
 
-    private void SendRequest(HttpRequest request, final boolean fireGlobalEvents, final Response<String> response)
+    private void SendRequest(final HttpRequest request, final boolean fireGlobalEvents, Response<String> response)
     {
+        if (response.getPriority() != null)
+        {
+            request.setPriority(response.getPriority());
+        }
+
+        CancellationToken cancellationToken = response.getCancellationToken();
+        if (cancellationToken != null && cancellationToken.isCancellationRequested())
+        {
+            response.onError(new CancellationException("Request cancelled: " + request.getUrl()));
+            return;
+        }
+
+        final SingleFlight<String> flights = requestDeduplication;
+        if (flights == null)
+        {
+            SetCancellationToken(request, cancellationToken);
+            SendToHttpClient(request, fireGlobalEvents, response);
+            return;
+        }
+
+        if (!"GET".equalsIgnoreCase(request.getMethod()))
+        {
+            // Reads started before a write must not be shared with reads made after it
+            flights.Reset();
+            SetCancellationToken(request, cancellationToken);
+            SendToHttpClient(request, fireGlobalEvents, response);
+            return;
+        }
+
+        // One listener per flight, so a 401 raises the remote logout once however many callers waited.
+        // The shared request is bound to the token of the flight, cancelled once every caller cancelled.
+        flights.Join(GetRequestDeduplicationKey(request, fireGlobalEvents), response, new SingleFlight.Call<String>() {
+            @Override
+            public void Execute(Response<String> sharedResponse) {
+                SetCancellationToken(request, sharedResponse.getCancellationToken());
+                SendToHttpClient(request, fireGlobalEvents, sharedResponse);
+            }
+        });
+    }
+
+    // Interceptors see the requests reaching the http client, so callers sharing a request count as one exchange
+    private void SendToHttpClient(HttpRequest request, boolean fireGlobalEvents, Response<String> response)
+    {
+        HttpExchange exchange = OnRequest(request);
+        if (exchange != null)
+        {
+            response = InterceptResponse(exchange, response);
+        }
+
         httpClient.Send(request, new ApiClientRequestListener(this, fireGlobalEvents, response));
     }
 
+    private static void SetCancellationToken(HttpRequest request, CancellationToken cancellationToken)
+    {
+        if (request.getCancellationToken() == null)
+        {
+            request.setCancellationToken(cancellationToken);
+        }
+    }
+
+    private static String GetRequestDeduplicationKey(HttpRequest request, boolean fireGlobalEvents)
+    {
+        StringBuilder key = new StringBuilder(request.getUrl());
+        HttpHeadersSnapshot headers = request.getRequestHeadersSnapshot();
+        if (headers != null)
+        {
+            key.append('\n').append(headers.get("X-MediaBrowser-Token"));
+            key.append('\n').append(headers.getAuthorizationParameter());
+        }
+        key.append('\n').append(fireGlobalEvents);
+        return key.toString();
+    }
+
     private void Send(String url, String method, final Response<String> response)
     {
         HttpRequest request = new HttpRequest();
         request.setUrl(url);
         request.setMethod(method);
-        request.setRequestHeaders(this.HttpHeaders);
+        request.setRequestHeaders(GetHttpHeadersSnapshot());
         SendRequest(request, true, response);
     }
 
@@ -182,7 +432,7 @@ public class ApiClient extends BaseApiClient {
         HttpRequest request = new HttpRequest();
         request.setUrl(url);
         request.setMethod(method);
-        request.setRequestHeaders(this.HttpHeaders);
+        request.setRequestHeaders(GetHttpHeadersSnapshot());
         request.setRequestContent(requestContent);
         request.setRequestContentType(requestContentType);
         SendRequest(request, true, response);
@@ -197,48 +447,242 @@ public class ApiClient extends BaseApiClient {
         HttpRequest request = new HttpRequest();
         request.setUrl(url);
         request.setMethod(method);
-        request.setRequestHeaders(this.HttpHeaders);
+        request.setRequestHeaders(GetHttpHeadersSnapshot());
         request.setPostData(postData);
         SendRequest(request, fireGlobalEvents, response);
     }
 
-    public void getResponseStream(String address, Response<ResponseStreamInfo> response) {
+    public void getResponseStream(final String address, final Response<ResponseStreamInfo> response) {
 
-        getResponseStreamInternal(address, response);
+        Execute(new Runnable() {
+            @Override
+            public void run() {
+                getResponseStreamInternal(address, response);
+            }
+        });
     }
 
     protected void getResponseStreamInternal(String address, Response<ResponseStreamInfo> response) {
 
         Logger.debug("Getting response stream from %s", address);
 
+        CancellationToken cancellationToken = response.getCancellationToken();
+        if (cancellationToken != null && cancellationToken.isCancellationRequested())
+        {
+            response.onError(new CancellationException("Request cancelled: " + address));
+            return;
+        }
+
+        HttpHeadersSnapshot headers = GetHttpHeadersSnapshot();
+
+        HttpExchange exchange = null;
+        if (!interceptors.isEmpty()) {
+            HttpRequest request = new HttpRequest();
+            request.setMethod("GET");
+            request.setUrl(address);
+            request.setRequestHeaders(headers);
+            request.setCancellationToken(cancellationToken);
+            exchange = OnRequest(request);
+        }
+
         HttpURLConnection conn = null;
+        CancellationToken.Registration registration = null;
+        Integer statusCode = null;
 
         try
         {
             URL url = new URL(address);
 
             conn = (HttpURLConnection) url.openConnection();
+            registration = RegisterDisconnect(cancellationToken, conn);
             conn.setDoInput(true); // Allow Inputs
             conn.setUseCaches(false); // Don't use a Cached Copy
             conn.setRequestMethod("GET");
             conn.setRequestProperty("Connection", "Keep-Alive");
 
-            for (String key: this.HttpHeaders.keySet()) {
-                conn.setRequestProperty(key, this.HttpHeaders.get(key));
+            for (Map.Entry<String, String> header : headers.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
             }
 
             conn.connect();
+            if (exchange != null) {
+                statusCode = conn.getResponseCode();
+            }
 
             ResponseStreamInfo info = new ResponseStreamInfo();
             info.ContentLength = conn.getContentLength();
 
+            // Closing the stream unregisters the disconnect and completes the exchange, cancelling before aborts the download
             InputStream inputStream = conn.getInputStream();
-            info.Stream = inputStream;
+            info.Stream = new ResponseInputStream(inputStream, registration, exchange, statusCode);
 
             response.onResponse(info);
 
         } catch (Exception ex) {
-            response.onError(ex);
+            Unregister(registration);
+            Exception error = GetCancellationError(cancellationToken, ex, address);
+            OnResponse(exchange, statusCode, -1, error);
+            response.onError(error);
+        }
+    }
+
+    /**
+     * Disconnects the connection when the token is cancelled, which aborts a blocked connect, read or write.
+     */
+    private static CancellationToken.Registration RegisterDisconnect(CancellationToken cancellationToken, final HttpURLConnection conn) {
+        if (cancellationToken == null) {
+            return null;
+        }
+
+        return cancellationToken.register(new Runnable() {
+            @Override
+            public void run() {
+                conn.disconnect();
+            }
+        });
+    }
+
+    private static void Unregister(CancellationToken.Registration registration) {
+        if (registration != null) {
+            registration.unregister();
+        }
+    }
+
+    // A disconnected connection fails with an IOException, reported as the cancellation it is
+    private static Exception GetCancellationError(CancellationToken cancellationToken, Exception ex, String address) {
+        if (cancellationToken != null && cancellationToken.isCancellationRequested() && !(ex instanceof CancellationException)) {
+            return new CancellationException("Request cancelled: " + address);
+        }
+        return ex;
+    }
+
+    private final class ResponseInputStream extends FilterInputStream {
+        private final CancellationToken.Registration registration;
+        private final HttpExchange exchange;
+        private final Integer statusCode;
+        private long bytesRead;
+
+        ResponseInputStream(InputStream stream, CancellationToken.Registration registration, HttpExchange exchange, Integer statusCode) {
+            super(stream);
+            this.registration = registration;
+            this.exchange = exchange;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public int read() throws IOException {
+            int value = super.read();
+            if (value != -1) {
+                bytesRead++;
+            }
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int read = super.read(buffer, offset, length);
+            if (read > 0) {
+                bytesRead += read;
+            }
+            return read;
+        }
+
+        @Override
+        public long skip(long count) throws IOException {
+            long skipped = super.skip(count);
+            bytesRead += skipped;
+            return skipped;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                super.close();
+            } finally {
+                Unregister(registration);
+                OnResponse(exchange, statusCode, bytesRead, null);
+            }
+        }
+    }
+
+    /**
+     * Gets the bytes of an image, from the image cache when set and the url carries an image tag.
+     * Memory hits are answered on the calling thread.
+     */
+    public void GetImageAsync(String url, final Response<byte[]> response) {
+
+        if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(url))
+        {
+            throw new IllegalArgumentException("url");
+        }
+
+        ImageCache cache = imageCache;
+        String key = ImageCache.GetKey(url);
+        if (cache != null && key != null) {
+            byte[] bytes = cache.getMemory().Get(key);
+            if (bytes != null) {
+                response.onResponse(bytes);
+                return;
+            }
+        }
+
+        getImageBytes(url, response);
+    }
+
+    protected void getImageBytes(final String url, final Response<byte[]> response) {
+
+        Execute(new Runnable() {
+            @Override
+            public void run() {
+                getImageBytesInternal(url, response);
+            }
+        });
+    }
+
+    protected void getImageBytesInternal(String url, final Response<byte[]> response) {
+
+        final ImageCache cache = imageCache;
+        final String key = ImageCache.GetKey(url);
+
+        if (cache != null && key != null) {
+            byte[] bytes = cache.Get(key);
+            if (bytes != null) {
+                response.onResponse(bytes);
+                return;
+            }
+        }
+
+        getResponseStreamInternal(url, new Response<ResponseStreamInfo>(response) {
+            @Override
+            public void onResponse(ResponseStreamInfo info) {
+                byte[] bytes;
+                try {
+                    bytes = ReadFully(info.Stream, info.ContentLength);
+                } catch (IOException ex) {
+                    response.onError(GetCancellationError(response.getCancellationToken(), ex, url));
+                    return;
+                }
+
+                if (cache != null && key != null) {
+                    cache.Put(key, bytes);
+                }
+
+                response.onResponse(bytes);
+            }
+        });
+    }
+
+    private static byte[] ReadFully(InputStream stream, int contentLength) throws IOException {
+        try {
+            ByteArrayOutputStream output = new ByteArrayOutputStream(contentLength > 0 ? contentLength : 16 * 1024);
+            byte[] buffer = new byte[16 * 1024];
+            int read;
+            while ((read = stream.read(buffer)) != -1) {
+                output.write(buffer, 0, read);
+            }
+            return output.toByteArray();
+        } finally {
+            stream.close();
         }
     }
 
@@ -254,9 +698,34 @@ public class ApiClient extends BaseApiClient {
             throw new IllegalArgumentException("userId");
         }
 
+        final ItemCache cache = itemCache;
+        if (cache != null)
+        {
+            BaseItemDto cached = cache.Get(getItemCacheServerId(), userId, id);
+            if (cached != null)
+            {
+                response.onResponse(cached);
+                return;
+            }
+        }
+
         String url = GetApiUrl("Users/" + userId + "/Items/" + id);
 
-        GetItemFromUrl(url, response);
+        if (cache == null)
+        {
+            GetItemFromUrl(url, response);
+            return;
+        }
+
+        final String serverId = getItemCacheServerId();
+        final String cacheUserId = userId;
+        GetItemFromUrl(url, new Response<BaseItemDto>(response) {
+            @Override
+            public void onResponse(BaseItemDto item) {
+                cache.Put(serverId, cacheUserId, item);
+                response.onResponse(item);
+            }
+        });
     }
 
     public void GetIntrosAsync(String itemId, String userId, final Response<ItemsResult> response)
@@ -347,14 +816,42 @@ public class ApiClient extends BaseApiClient {
 
         url = AddDataFormat(url);
 
-        Send(url, "GET", new SerializedResponse<>(response, jsonSerializer, ItemsResult.class));
+        final UserDataIndex index = userDataIndex;
+        if (index == null) {
+            Send(url, "GET", new SerializedResponse<>(response, jsonSerializer, ItemsResult.class));
+            return;
+        }
+
+        final String userId = getCurrentUserId();
+        Send(url, "GET", new SerializedResponse<>(new Response<ItemsResult>(response) {
+            @Override
+            public void onResponse(ItemsResult result) {
+                if (result != null) {
+                    index.Track(userId, result.getItems());
+                }
+                response.onResponse(result);
+            }
+        }, jsonSerializer, ItemsResult.class));
     }
 
     private void GetItemFromUrl(String url, final Response<BaseItemDto> response) {
 
         url = AddDataFormat(url);
 
-        Send(url, "GET", new SerializedResponse<>(response, jsonSerializer, BaseItemDto.class));
+        final UserDataIndex index = userDataIndex;
+        if (index == null) {
+            Send(url, "GET", new SerializedResponse<>(response, jsonSerializer, BaseItemDto.class));
+            return;
+        }
+
+        final String userId = getCurrentUserId();
+        Send(url, "GET", new SerializedResponse<>(new Response<BaseItemDto>(response) {
+            @Override
+            public void onResponse(BaseItemDto item) {
+                index.Track(userId, item);
+                response.onResponse(item);
+            }
+        }, jsonSerializer, BaseItemDto.class));
     }
 
     public void GetItemsAsync(ItemQuery query, final Response<ItemsResult> response)
@@ -2221,7 +2718,123 @@ public class ApiClient extends BaseApiClient {
 
         url = AddDataFormat(url);
 
-        Send(url, "POST", jsonSerializer.SerializeToString(request), "application/json", new SerializedResponse<>(response, jsonSerializer, PlaybackInfoResponse.class));
+        HttpRequest httpRequest = new HttpRequest();
+        httpRequest.setUrl(url);
+        httpRequest.setMethod("POST");
+        httpRequest.setRequestHeaders(GetHttpHeadersSnapshot());
+        httpRequest.setRequestContent(GetPlaybackInfoRequestSerializer().Serialize(request));
+        httpRequest.setRequestContentType("application/json");
+        httpRequest.setEnableRequestCompression(enableRequestCompression);
+        SendRequest(httpRequest, true, new SerializedResponse<>(response, jsonSerializer, PlaybackInfoResponse.class));
+    }
+
+    private synchronized PlaybackInfoRequestSerializer GetPlaybackInfoRequestSerializer()
+    {
+        if (playbackInfoRequestSerializer == null || playbackInfoRequestSerializerSource != jsonSerializer)
+        {
+            playbackInfoRequestSerializer = new PlaybackInfoRequestSerializer(jsonSerializer);
+            playbackInfoRequestSerializerSource = jsonSerializer;
+        }
+
+        return playbackInfoRequestSerializer;
+    }
+
+    /**
+     * Answers locally when one of the media sources can be direct played or direct streamed,
+     * and only posts to PlaybackInfo when the server has to open or transcode the stream.
+     *
+     * A local answer has no PlaySessionId, and only applies the bitrate limit of the request or the device profile:
+     * the server would also apply the user's policy, such as remote bitrate limits or media playback being disabled.
+     * Call {@link #GetPlaybackInfoWithPost} when the session id is needed or the policy may restrict the user.
+     */
+    public void GetPlaybackInfo(PlaybackInfoRequest request, String mediaType, ArrayList<MediaSourceInfo> mediaSources, final Response<PlaybackInfoResponse> response)
+    {
+        if (request.getDeviceProfile() != null && request.getLiveStreamId() == null)
+        {
+            StreamDecision decision = GetStreamDecisionEngine(request.getDeviceProfile()).GetDirectDecision(request, mediaType, mediaSources);
+
+            if (decision != null)
+            {
+                response.onResponse(CreatePlaybackInfoResponse(decision));
+                return;
+            }
+        }
+
+        GetPlaybackInfoWithPost(request, response);
+    }
+
+    private synchronized StreamDecisionEngine GetStreamDecisionEngine(DeviceProfile profile)
+    {
+        // Compiling the profile is only worth it once, the digest also catches a profile changed in place
+        long digest = DeviceProfileDigest.Compute(profile);
+        if (streamDecisionEngine == null || streamDecisionEngineDigest != digest)
+        {
+            streamDecisionEngine = new StreamDecisionEngine(new CompiledDeviceProfile(profile));
+            streamDecisionEngineDigest = digest;
+        }
+
+        return streamDecisionEngine;
+    }
+
+    private PlaybackInfoResponse CreatePlaybackInfoResponse(StreamDecision decision)
+    {
+        // Copy the source so the caller's item is left untouched
+        MediaSourceInfo mediaSource = CopyMediaSource(decision.getMediaSource());
+
+        mediaSource.setSupportsDirectPlay(decision.getPlayMethod() == PlayMethod.DirectPlay);
+        mediaSource.setDefaultAudioStreamIndex(decision.getAudioStreamIndex());
+        if (decision.getSubtitleStreamIndex() != null)
+        {
+            mediaSource.setDefaultSubtitleStreamIndex(decision.getSubtitleStreamIndex());
+        }
+
+        ArrayList<MediaSourceInfo> mediaSources = new ArrayList<>();
+        mediaSources.add(mediaSource);
+
+        PlaybackInfoResponse result = new PlaybackInfoResponse();
+        result.setMediaSources(mediaSources);
+        return result;
+    }
+
+    // Only the scalar properties of the copy are changed, the streams and headers are shared with the source
+    private static MediaSourceInfo CopyMediaSource(MediaSourceInfo source)
+    {
+        MediaSourceInfo copy = new MediaSourceInfo();
+        copy.setProtocol(source.getProtocol());
+        copy.setId(source.getId());
+        copy.setPath(source.getPath());
+        copy.setType(source.getType());
+        copy.setContainer(source.getContainer());
+        copy.setSize(source.getSize());
+        copy.setName(source.getName());
+        copy.setIsRemote(source.getIsRemote());
+        copy.setETag(source.getETag());
+        copy.setRunTimeTicks(source.getRunTimeTicks());
+        copy.setReadAtNativeFramerate(source.getReadAtNativeFramerate());
+        copy.setSupportsTranscoding(source.getSupportsTranscoding());
+        copy.setSupportsDirectStream(source.getSupportsDirectStream());
+        copy.setSupportsDirectPlay(source.getSupportsDirectPlay());
+        copy.setIsInfiniteStream(source.getIsInfiniteStream());
+        copy.setRequiresOpening(source.getRequiresOpening());
+        copy.setOpenToken(source.getOpenToken());
+        copy.setRequiresClosing(source.getRequiresClosing());
+        copy.setLiveStreamId(source.getLiveStreamId());
+        copy.setBufferMs(source.getBufferMs());
+        copy.setVideoType(source.getVideoType());
+        copy.setIsoType(source.getIsoType());
+        copy.setVideo3DFormat(source.getVideo3DFormat());
+        copy.setMediaStreams(source.getMediaStreams());
+        copy.setPlayableStreamFileNames(source.getPlayableStreamFileNames());
+        copy.setFormats(source.getFormats());
+        copy.setBitrate(source.getBitrate());
+        copy.setTimestamp(source.getTimestamp());
+        copy.setRequiredHttpHeaders(source.getRequiredHttpHeaders());
+        copy.setTranscodingUrl(source.getTranscodingUrl());
+        copy.setTranscodingSubProtocol(source.getTranscodingSubProtocol());
+        copy.setTranscodingContainer(source.getTranscodingContainer());
+        copy.setDefaultAudioStreamIndex(source.getDefaultAudioStreamIndex());
+        copy.setDefaultSubtitleStreamIndex(source.getDefaultSubtitleStreamIndex());
+        return copy;
     }
 
     public void OpenLiveStream(LiveStreamRequest request, final Response<LiveStreamResponse> response)
@@ -2288,10 +2901,19 @@ public class ApiClient extends BaseApiClient {
 
         int maxBufferSize = 1 * 1024 * 1024;
 
+        if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+            fileInputStream.close();
+            progress.reportCancelled();
+            return;
+        }
+
+        CancellationToken.Registration registration = null;
+
         try {
 
             // Open a HTTP  connection to  the URL
             conn = (HttpURLConnection) url.openConnection();
+            registration = RegisterDisconnect(cancellationToken, conn);
             conn.setDoInput(true); // Allow Inputs
             conn.setDoOutput(true); // Allow Outputs
             conn.setUseCaches(false); // Don't use a Cached Copy
@@ -2299,15 +2921,15 @@ public class ApiClient extends BaseApiClient {
             conn.setRequestProperty("Connection", "Keep-Alive");
             conn.setRequestProperty("Content-Type", file.getMimeType());
 
-            for (String key: this.HttpHeaders.keySet()) {
-                conn.setRequestProperty(key, this.HttpHeaders.get(key));
+            HttpHeadersSnapshot headers = GetHttpHeadersSnapshot();
+            for (Map.Entry<String, String> header : headers.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
             }
 
-            String parameter = this.HttpHeaders.getAuthorizationParameter();
-            if (!tangible.DotNetToJavaStringHelper.isNullOrEmpty(parameter))
+            String authorization = headers.getAuthorizationHeaderValue();
+            if (authorization != null)
             {
-                String value = this.HttpHeaders.getAuthorizationScheme() + " " + parameter;
-                conn.setRequestProperty("Authorization", value);
+                conn.setRequestProperty("Authorization", authorization);
             }
 
             dos = new DataOutputStream(conn.getOutputStream());
@@ -2323,6 +2945,11 @@ public class ApiClient extends BaseApiClient {
 
             while (bytesRead > 0) {
 
+                if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+                    progress.reportCancelled();
+                    return;
+                }
+
                 dos.write(buffer, 0, bufferSize);
                 bytesAvailable = fileInputStream.available();
                 bufferSize = Math.min(bytesAvailable, maxBufferSize);
@@ -2340,12 +2967,18 @@ public class ApiClient extends BaseApiClient {
                 progress.reportError(ex);
             }
         } catch (Exception ex) {
+            if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+                progress.reportCancelled();
+                return;
+            }
             Logger.error("Error uploading file", ex);
             progress.reportError(new HttpException(ex.getMessage()));
         } finally {
-            // close the streams
+            Unregister(registration);
+
+            // close the streams, a cancelled upload was disconnected already
             fileInputStream.close();
-            if (dos != null) {
+            if (dos != null && (cancellationToken == null || !cancellationToken.isCancellationRequested())) {
                 dos.flush();
                 dos.close();
             }
@@ -2473,7 +3106,12 @@ public class ApiClient extends BaseApiClient {
 
     protected void detectBitrate(final long downloadBytes, final Response<Long> response) {
 
-        detectBitrateInternal(downloadBytes, response);
+        Execute(new Runnable() {
+            @Override
+            public void run() {
+                detectBitrateInternal(downloadBytes, response);
+            }
+        });
     }
 
     protected void detectBitrateInternal(final long downloadBytes, final Response<Long> response) {
@@ -2484,20 +3122,30 @@ public class ApiClient extends BaseApiClient {
 
         String address = GetApiUrl("Playback/BitrateTest", dict);
 
+        CancellationToken cancellationToken = response.getCancellationToken();
+        if (cancellationToken != null && cancellationToken.isCancellationRequested())
+        {
+            response.onError(new CancellationException("Request cancelled: " + address));
+            return;
+        }
+
         HttpURLConnection conn = null;
+        CancellationToken.Registration registration = null;
 
         try
         {
             URL url = new URL(address);
 
             conn = (HttpURLConnection) url.openConnection();
+            registration = RegisterDisconnect(cancellationToken, conn);
             conn.setDoInput(true); // Allow Inputs
             conn.setUseCaches(false); // Don't use a Cached Copy
             conn.setRequestMethod("GET");
             conn.setRequestProperty("Connection", "Keep-Alive");
 
-            for (String key: this.HttpHeaders.keySet()) {
-                conn.setRequestProperty(key, this.HttpHeaders.get(key));
+            HttpHeadersSnapshot headers = GetHttpHeadersSnapshot();
+            for (Map.Entry<String, String> header : headers.getHeaders().entrySet()) {
+                conn.setRequestProperty(header.getKey(), header.getValue());
             }
 
             final long startTime = System.currentTimeMillis();
@@ -2516,13 +3164,16 @@ public class ApiClient extends BaseApiClient {
                 bitrate /= time;
                 bitrate *= 1000;
 
+                Unregister(registration);
                 response.onResponse(Math.round(bitrate));
             } catch (IOException ioException) {
-                response.onError(ioException);
+                Unregister(registration);
+                response.onError(GetCancellationError(cancellationToken, ioException, address));
                 return;
             }
         } catch (Exception ex) {
-            response.onError(ex);
+            Unregister(registration);
+            response.onError(GetCancellationError(cancellationToken, ex, address));
         }
     }
 
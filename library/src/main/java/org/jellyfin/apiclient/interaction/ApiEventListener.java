@@ -1,5 +1,6 @@
 package org.jellyfin.apiclient.interaction;
 
+import org.jellyfin.apiclient.interaction.cache.UserItemDataChangedEventArgs;
 import org.jellyfin.apiclient.model.apiclient.RemoteLogoutReason;
 import org.jellyfin.apiclient.model.apiclient.SessionUpdatesEventArgs;
 import org.jellyfin.apiclient.model.dto.UserDto;
@@ -72,6 +73,11 @@ public class ApiEventListener {
 
     }
 
+    public void onUserItemDataChanged(ApiClient client, UserItemDataChangedEventArgs args)
+    {
+
+    }
+
     public void onSessionsUpdated(ApiClient client, SessionUpdatesEventArgs args)
     {
 
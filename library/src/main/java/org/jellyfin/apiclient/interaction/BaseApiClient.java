@@ -2,6 +2,8 @@ package org.jellyfin.apiclient.interaction;
 
 import org.jellyfin.apiclient.interaction.device.IDevice;
 import org.jellyfin.apiclient.interaction.http.HttpHeaders;
+import org.jellyfin.apiclient.interaction.http.HttpHeadersSnapshot;
+import org.jellyfin.apiclient.interaction.images.ImageSizeQuantizer;
 import org.jellyfin.apiclient.logging.ILogger;
 import org.jellyfin.apiclient.model.apiclient.ApiHelpers;
 import org.jellyfin.apiclient.model.dto.BaseItemDto;
@@ -54,6 +56,21 @@ public abstract class BaseApiClient
         jsonSerializer = value;
 	}
 
+	private volatile ImageSizeQuantizer privateImageSizeQuantizer;
+	public final ImageSizeQuantizer getImageSizeQuantizer()
+	{
+		return privateImageSizeQuantizer;
+	}
+
+	/** 
+	 Opt-in: snaps the requested image dimensions to the steps of the quantizer, the caller scales the images
+	 down to the exact size it needs.
+	*/
+	public final void setImageSizeQuantizer(ImageSizeQuantizer value)
+	{
+		privateImageSizeQuantizer = value;
+	}
+
 	/** 
 	  If specified this will be used as a default when an explicit value is not specified.
 	*/
@@ -278,8 +295,32 @@ public abstract class BaseApiClient
 		return GetApiUrl(handler, new QueryStringDictionary());
 	}
 
+    /**
+     The headers sent with every request. Requests do not read them but share a read only snapshot, see
+     {@link #GetHttpHeadersSnapshot()}. Writers lock on the client, and subclasses writing these headers directly
+     must call {@link #PublishHttpHeaders()} afterwards, or requests keep sending the previous headers.
+     */
     protected org.jellyfin.apiclient.interaction.http.HttpHeaders HttpHeaders = new HttpHeaders();
 
+    private volatile HttpHeadersSnapshot httpHeadersSnapshot = new HttpHeadersSnapshot(HttpHeaders);
+
+    /**
+     Gets a read only snapshot of the headers, rendered once and shared by the requests sent until the headers change.
+     Does not lock, so building a request never waits for a writer.
+     */
+    protected final HttpHeadersSnapshot GetHttpHeadersSnapshot()
+    {
+        return httpHeadersSnapshot;
+    }
+
+    /**
+     Renders the current headers into the snapshot used by the next requests.
+     */
+    protected final synchronized void PublishHttpHeaders()
+    {
+        httpHeadersSnapshot = new HttpHeadersSnapshot(HttpHeaders);
+    }
+
     public void SetAuthenticationInfo(String accessToken, String userId)
     {
         setCurrentUserId(userId);
@@ -301,7 +342,7 @@ public abstract class BaseApiClient
         ResetHttpHeaders();
     }
 
-    protected void ResetHttpHeaders()
+    protected synchronized void ResetHttpHeaders()
     {
         HttpHeaders.SetAccessToken(getAccessToken());
 
@@ -314,16 +355,20 @@ public abstract class BaseApiClient
         } else {
             SetAuthorizationHttpRequestHeader(getAuthorizationScheme(), authValue);
         }
+
+        PublishHttpHeaders();
     }
 
-	protected void SetAuthorizationHttpRequestHeader(String scheme, String parameter) {
+	protected synchronized void SetAuthorizationHttpRequestHeader(String scheme, String parameter) {
         HttpHeaders.setAuthorizationScheme(scheme);
         HttpHeaders.setAuthorizationParameter(parameter);
+        PublishHttpHeaders();
     }
 
-    private void ClearHttpRequestHeader(String name)
+    private synchronized void ClearHttpRequestHeader(String name)
     {
         HttpHeaders.remove(name);
+        PublishHttpHeaders();
     }
 
 	/** 
@@ -381,7 +426,7 @@ public abstract class BaseApiClient
 	 @return System.String.
 	 @exception System.ArgumentNullException query
 	*/
-	protected final String GetItemListUrl(ItemQuery query)
+	public final String GetItemListUrl(ItemQuery query)
 	{
 		if (query == null)
 		{
@@ -659,14 +704,52 @@ public abstract class BaseApiClient
 			baseUrl += "/" + options.getImageIndex().intValue();
 		}
 
-		queryParams.AddIfNotNull("Width", options.getWidth());
-		queryParams.AddIfNotNull("Height", options.getHeight());
-		queryParams.AddIfNotNull("MaxWidth", options.getMaxWidth());
-		queryParams.AddIfNotNull("MaxHeight", options.getMaxHeight());
-		queryParams.AddIfNotNull("Quality", (options.getQuality() != null) ? options.getQuality() : getImageQuality());
+		AddImageParameters(queryParams, options);
+		RecordImageSize(options, queryParams);
 
 		queryParams.AddIfNotNullOrEmpty("Tag", options.getTag());
 
+		return GetApiUrl(baseUrl, queryParams);
+	}
+
+	/** 
+	 Adds the image parameters that do not depend on the item, everything but the tag.
+	 
+	 @param queryParams The query parameters.
+	 @param options The options.
+	*/
+	private void AddImageParameters(QueryStringDictionary queryParams, ImageOptions options)
+	{
+		Integer width = options.getWidth();
+		Integer height = options.getHeight();
+		Integer maxWidth = options.getMaxWidth();
+		Integer maxHeight = options.getMaxHeight();
+
+		ImageSizeQuantizer quantizer = getImageSizeQuantizer();
+		if (quantizer != null)
+		{
+			if (width != null && height != null)
+			{
+				// Keep the aspect ratio of exact sizes
+				int quantizedWidth = quantizer.Quantize(width.intValue());
+				height = width > 0 ? (int) Math.round((double) height * quantizedWidth / width) : height;
+				width = quantizedWidth;
+			}
+			else
+			{
+				width = quantizer.Quantize(width);
+				height = quantizer.Quantize(height);
+			}
+			maxWidth = quantizer.Quantize(maxWidth);
+			maxHeight = quantizer.Quantize(maxHeight);
+		}
+
+		queryParams.AddIfNotNull("Width", width);
+		queryParams.AddIfNotNull("Height", height);
+		queryParams.AddIfNotNull("MaxWidth", maxWidth);
+		queryParams.AddIfNotNull("MaxHeight", maxHeight);
+		queryParams.AddIfNotNull("Quality", (options.getQuality() != null) ? options.getQuality() : getImageQuality());
+
 		queryParams.AddIfNotNull("CropWhitespace", options.getCropWhitespace());
 		queryParams.Add("EnableImageEnhancers", options.getEnableImageEnhancers());
 
@@ -682,8 +765,62 @@ public abstract class BaseApiClient
 		queryParams.AddIfNotNull("UnPlayedCount", options.getUnPlayedCount());
 		queryParams.AddIfNotNull("PercentPlayed", options.getPercentPlayed());
 		queryParams.AddIfNotNullOrEmpty("BackgroundColor", options.getBackgroundColor());
+	}
 
-		return GetApiUrl(baseUrl, queryParams);
+	/** 
+	 Records the size of an image url for the metrics of the quantizer, when they are enabled.
+	 
+	 @param options The options, holding the requested size.
+	 @param queryParams The query parameters, holding the quantized size.
+	*/
+	private void RecordImageSize(ImageOptions options, QueryStringDictionary queryParams)
+	{
+		ImageSizeQuantizer quantizer = getImageSizeQuantizer();
+		if (quantizer != null && quantizer.getEnableMetrics())
+		{
+			quantizer.Record(GetImageSizeKey(options), GetImageSizeKey(queryParams));
+		}
+	}
+
+	private static String GetImageSizeKey(ImageOptions options)
+	{
+		return options.getWidth() + "x" + options.getHeight() + "/" + options.getMaxWidth() + "x" + options.getMaxHeight();
+	}
+
+	private static String GetImageSizeKey(QueryStringDictionary queryParams)
+	{
+		return queryParams.get("Width") + "x" + queryParams.get("Height") + "/" + queryParams.get("MaxWidth") + "x" + queryParams.get("MaxHeight");
+	}
+
+	/** 
+	 Creates a template producing the same urls as {@link #GetImageUrl(String, ImageOptions)} for every item,
+	 with the parameters of the options rendered once. The tag and image index of the options are ignored,
+	 they are given for each url instead.
+	 
+	 The template captures the server address, the default image quality and the size quantizer, create a new one
+	 when they change. Each url it produces is recorded by the quantizer like the urls of GetImageUrl.
+	 
+	 @param options The options.
+	 @return ImageUrlTemplate.
+	*/
+	public final ImageUrlTemplate CreateImageUrlTemplate(ImageOptions options)
+	{
+		if (options == null)
+		{
+			throw new IllegalArgumentException("options");
+		}
+
+		QueryStringDictionary queryParams = new QueryStringDictionary();
+		AddImageParameters(queryParams, options);
+
+		ImageSizeQuantizer quantizer = getImageSizeQuantizer();
+		if (quantizer == null)
+		{
+			return new ImageUrlTemplate(getApiUrl() + "/Items/", "/Images/" + options.getImageType(), options.getImageType(), queryParams);
+		}
+
+		return new ImageUrlTemplate(getApiUrl() + "/Items/", "/Images/" + options.getImageType(), options.getImageType(), queryParams,
+				quantizer, GetImageSizeKey(options), GetImageSizeKey(queryParams));
 	}
 
 	/** 
@@ -826,22 +963,27 @@ public abstract class BaseApiClient
 	*/
 	private String GetImageTag(BaseItemDto item, ImageOptions options)
 	{
-		if (options.getImageType() == ImageType.Backdrop)
+		return GetImageTag(item, options.getImageType(), options.getImageIndex());
+	}
+
+	static String GetImageTag(BaseItemDto item, ImageType imageType, Integer imageIndex)
+	{
+		if (imageType == ImageType.Backdrop)
 		{
-			return item.getBackdropImageTags().get((options.getImageIndex() != null) ? options.getImageIndex() : 0);
+			return item.getBackdropImageTags().get((imageIndex != null) ? imageIndex : 0);
 		}
 
-		if (options.getImageType() == ImageType.Screenshot)
+		if (imageType == ImageType.Screenshot)
 		{
-            return item.getScreenshotImageTags().get((options.getImageIndex() != null) ? options.getImageIndex() : 0);
+            return item.getScreenshotImageTags().get((imageIndex != null) ? imageIndex : 0);
 		}
 
-		if (options.getImageType() == ImageType.Chapter)
+		if (imageType == ImageType.Chapter)
 		{
-			return item.getChapters().get((options.getImageIndex() != null) ? options.getImageIndex() : 0).getImageTag();
+			return item.getChapters().get((imageIndex != null) ? imageIndex : 0).getImageTag();
 		}
 
-		return item.getImageTags().get(options.getImageType());
+		return item.getImageTags().get(imageType);
 	}
 
 	/** 
@@ -1,8 +1,13 @@
 package org.jellyfin.apiclient.interaction;
 
+import org.jellyfin.apiclient.interaction.http.RequestPriority;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
 public class EmptyResponse implements IResponse {
 
     private IResponse innerResponse;
+    private CancellationToken cancellationToken;
+    private RequestPriority priority;
 
     public EmptyResponse(IResponse innerResponse) {
 
@@ -33,4 +38,50 @@ public class EmptyResponse implements IResponse {
             innerResponse.onError(ex);
         }
     }
+
+    /**
+     * Gets the token cancelling the request, set on this response or on the response it wraps.
+     */
+    public CancellationToken getCancellationToken() {
+        if (cancellationToken != null) {
+            return cancellationToken;
+        }
+
+        if (innerResponse instanceof Response) {
+            return ((Response<?>) innerResponse).getCancellationToken();
+        }
+
+        if (innerResponse instanceof EmptyResponse) {
+            return ((EmptyResponse) innerResponse).getCancellationToken();
+        }
+
+        return null;
+    }
+
+    public void setCancellationToken(CancellationToken value) {
+        cancellationToken = value;
+    }
+
+    /**
+     * Gets the priority of the request, set on this response or on the response it wraps. Null means interactive.
+     */
+    public RequestPriority getPriority() {
+        if (priority != null) {
+            return priority;
+        }
+
+        if (innerResponse instanceof Response) {
+            return ((Response<?>) innerResponse).getPriority();
+        }
+
+        if (innerResponse instanceof EmptyResponse) {
+            return ((EmptyResponse) innerResponse).getPriority();
+        }
+
+        return null;
+    }
+
+    public void setPriority(RequestPriority value) {
+        priority = value;
+    }
 }
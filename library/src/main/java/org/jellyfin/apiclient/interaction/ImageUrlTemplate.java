@@ -0,0 +1,109 @@
+package org.jellyfin.apiclient.interaction;
+
+import org.jellyfin.apiclient.interaction.images.ImageSizeQuantizer;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.entities.ImageType;
+
+/**
+ * Image urls of one shape (type, size, quality, format...) for many items, created by
+ * {@link BaseApiClient#CreateImageUrlTemplate}. The parameters common to every url are rendered once, around
+ * the place of the tag, so each url only appends the item id, image index and tag to a single builder.
+ *
+ * Instances are immutable and can be shared between threads.
+ */
+public final class ImageUrlTemplate {
+    private final String prefix;
+    private final String imagePath;
+    private final ImageType imageType;
+    // Parameters sorted before and after "Tag", already encoded
+    private final String queryBeforeTag;
+    private final String queryAfterTag;
+    private final int fixedLength;
+    // Recorded for every url when the metrics of the quantizer are enabled
+    private final ImageSizeQuantizer quantizer;
+    private final String requestedSize;
+    private final String quantizedSize;
+
+    ImageUrlTemplate(String prefix, String imagePath, ImageType imageType, QueryStringDictionary queryParams) {
+        this(prefix, imagePath, imageType, queryParams, null, null, null);
+    }
+
+    ImageUrlTemplate(String prefix, String imagePath, ImageType imageType, QueryStringDictionary queryParams,
+                     ImageSizeQuantizer quantizer, String requestedSize, String quantizedSize) {
+        this.prefix = prefix;
+        this.imagePath = imagePath;
+        this.imageType = imageType;
+        this.quantizer = quantizer;
+        this.requestedSize = requestedSize;
+        this.quantizedSize = quantizedSize;
+
+        QueryStringDictionary before = new QueryStringDictionary();
+        before.putAll(queryParams.headMap("Tag"));
+        QueryStringDictionary after = new QueryStringDictionary();
+        after.putAll(queryParams.tailMap("Tag", false));
+
+        queryBeforeTag = before.GetQueryString();
+        queryAfterTag = after.GetQueryString();
+        fixedLength = prefix.length() + imagePath.length() + queryBeforeTag.length() + queryAfterTag.length() + 8;
+    }
+
+    public ImageType getImageType() {
+        return imageType;
+    }
+
+    /**
+     * Gets the url of the image of the item, looking up its tag like {@link BaseApiClient#GetImageUrl(BaseItemDto, org.jellyfin.apiclient.model.dto.ImageOptions)}.
+     */
+    public String GetUrl(BaseItemDto item, Integer imageIndex) {
+        if (item == null) {
+            throw new IllegalArgumentException("item");
+        }
+
+        return GetUrl(item.getId(), BaseApiClient.GetImageTag(item, imageType, imageIndex), imageIndex);
+    }
+
+    public String GetUrl(BaseItemDto item) {
+        return GetUrl(item, null);
+    }
+
+    /**
+     * Gets the url of an image, the tag and index being optional.
+     */
+    public String GetUrl(String itemId, String tag, Integer imageIndex) {
+        if (itemId == null || itemId.isEmpty()) {
+            throw new IllegalArgumentException("itemId");
+        }
+
+        if (quantizer != null && quantizer.getEnableMetrics()) {
+            quantizer.Record(requestedSize, quantizedSize);
+        }
+
+        boolean hasTag = tag != null && !tag.isEmpty();
+
+        StringBuilder url = new StringBuilder(fixedLength + itemId.length() + (hasTag ? tag.length() : 0));
+        url.append(prefix).append(itemId).append(imagePath);
+
+        if (imageIndex != null) {
+            url.append('/').append(imageIndex.intValue());
+        }
+
+        char separator = '?';
+
+        if (!queryBeforeTag.isEmpty()) {
+            url.append(separator).append(queryBeforeTag);
+            separator = '&';
+        }
+
+        if (hasTag) {
+            url.append(separator).append("Tag=");
+            QueryStringDictionary.AppendEncoded(url, tag);
+            separator = '&';
+        }
+
+        if (!queryAfterTag.isEmpty()) {
+            url.append(separator).append(queryAfterTag);
+        }
+
+        return url.toString();
+    }
+}
@@ -1,13 +1,20 @@
 package org.jellyfin.apiclient.interaction;
 
-import java.net.URLEncoder;
 import java.util.ArrayList;
+import java.util.Map;
 
 /** 
  Class QueryStringDictionary
+
+ Parameters are kept sorted by name, so the same parameters always produce the same url, which can then be used
+ as a cache key.
 */
-public class QueryStringDictionary extends java.util.HashMap<String, String>
+public class QueryStringDictionary extends java.util.TreeMap<String, String>
 {
+	private static final long serialVersionUID = 1L;
+
+	private static final char[] HexDigits = "0123456789ABCDEF".toCharArray();
+
 	/** 
 	 Initializes a new instance of the <see cref="QueryStringDictionary" /> class.
 	*/
@@ -24,7 +31,7 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final void Add(String name, int value)
 	{
-		this.put(name, (new Integer(value)).toString());
+		this.put(name, String.valueOf(value));
 	}
 
     /**
@@ -46,7 +53,7 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final void Add(String name, long value)
 	{
-		this.put(name, (new Long(value)).toString());
+		this.put(name, String.valueOf(value));
 	}
 
 	/** 
@@ -57,7 +64,7 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final void Add(String name, double value)
 	{
-		this.put(name, (new Double(value)).toString());
+		this.put(name, String.valueOf(value));
 	}
 
 	/** 
@@ -124,7 +131,7 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final void Add(String name, boolean value)
 	{
-		this.put(name, (new Boolean(value)).toString());
+		this.put(name, String.valueOf(value));
 	}
 
 	/** 
@@ -188,7 +195,7 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
         String[] vals = new String[value.length];
 
         for (int i=0; i< value.length; i++) {
-            vals[i] = new Integer(value[i]).toString();
+            vals[i] = String.valueOf(value[i]);
         }
 
         return vals;
@@ -327,32 +334,107 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final String GetQueryString()
 	{
-        String result = "";
+		StringBuilder result = new StringBuilder(GetEstimatedLength());
+		AppendQueryString(result);
+		return result.toString();
+	}
 
-        for(String key : this.keySet())
-        {
-            String paramValue = this.get(key);
+	private void AppendQueryString(StringBuilder result)
+	{
+		boolean first = true;
+
+		for (Map.Entry<String, String> entry : this.entrySet())
+		{
+			String paramValue = entry.getValue();
 			if (paramValue != null && paramValue.length() > 0) {
 
-				if (result.length() > 0) {
-					result += "&";
+				if (!first) {
+					result.append('&');
 				}
-				result += String.format("%1$s=%2$s", key, GetEncodedValue(paramValue));
+				first = false;
+
+				AppendEncoded(result, entry.getKey());
+				result.append('=');
+				AppendEncoded(result, paramValue);
 			}
-        }
+		}
+	}
 
-        return result;
+	private int GetEstimatedLength()
+	{
+		int length = 0;
+		for (Map.Entry<String, String> entry : this.entrySet())
+		{
+			String paramValue = entry.getValue();
+			if (paramValue != null)
+			{
+				length += entry.getKey().length() + paramValue.length() + 2;
+			}
+		}
+		return length;
 	}
 
 	/** 
-	 Gets the encoded value.
+	 Appends the value percent encoded as UTF-8, leaving the unreserved characters of RFC 3986 as they are.
+	 Spaces are encoded as %20.
 	 
+	 @param result The builder to append to.
 	 @param value The value.
-	 @return System.String.
 	*/
-	private String GetEncodedValue(String value)
+	static void AppendEncoded(StringBuilder result, String value)
+	{
+		int length = value.length();
+
+		for (int i = 0; i < length; i++)
+		{
+			char c = value.charAt(i);
+
+			if (IsUnreserved(c))
+			{
+				result.append(c);
+			}
+			else if (c < 0x80)
+			{
+				AppendEscaped(result, c);
+			}
+			else if (c < 0x800)
+			{
+				AppendEscaped(result, 0xC0 | (c >> 6));
+				AppendEscaped(result, 0x80 | (c & 0x3F));
+			}
+			else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1)))
+			{
+				int codePoint = Character.toCodePoint(c, value.charAt(++i));
+				AppendEscaped(result, 0xF0 | (codePoint >> 18));
+				AppendEscaped(result, 0x80 | ((codePoint >> 12) & 0x3F));
+				AppendEscaped(result, 0x80 | ((codePoint >> 6) & 0x3F));
+				AppendEscaped(result, 0x80 | (codePoint & 0x3F));
+			}
+			else
+			{
+				// Unpaired surrogates become U+FFFD, like the UTF-8 encoder does
+				if (Character.isSurrogate(c))
+				{
+					c = '\uFFFD';
+				}
+				AppendEscaped(result, 0xE0 | (c >> 12));
+				AppendEscaped(result, 0x80 | ((c >> 6) & 0x3F));
+				AppendEscaped(result, 0x80 | (c & 0x3F));
+			}
+		}
+	}
+
+	private static boolean IsUnreserved(char c)
 	{
-		return URLEncoder.encode(value);
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+				|| c == '-' || c == '.' || c == '_' || c == '~';
+	}
+
+	private static void AppendEscaped(StringBuilder result, int b)
+	{
+		result.append('%');
+		result.append(HexDigits[(b >> 4) & 0xF]);
+		result.append(HexDigits[b & 0xF]);
 	}
 
 	/** 
@@ -363,14 +445,24 @@ public class QueryStringDictionary extends java.util.HashMap<String, String>
 	*/
 	public final String GetUrl(String prefix)
 	{
-		String query = GetQueryString();
+		int length = GetEstimatedLength();
+
+		if (length == 0)
+		{
+			return prefix;
+		}
+
+		StringBuilder result = new StringBuilder(prefix.length() + 1 + length);
+		result.append(prefix).append('?');
+		AppendQueryString(result);
 
-		if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(query))
+		// Every value was empty
+		if (result.length() == prefix.length() + 1)
 		{
 			return prefix;
 		}
 
-		return prefix + "?" + query;
+		return result.toString();
 	}
 
     public final <T extends Enum<T>> void Add(String name, T value)
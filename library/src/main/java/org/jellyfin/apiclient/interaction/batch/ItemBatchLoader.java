@@ -0,0 +1,422 @@
+package org.jellyfin.apiclient.interaction.batch;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.cache.ItemCache;
+import org.jellyfin.apiclient.interaction.http.RequestPriority;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.net.HttpException;
+import org.jellyfin.apiclient.model.querying.ItemFields;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Collects single item requests made within a short delay and fetches them with one Ids query per user,
+ * instead of one request per item.
+ *
+ * Ids requested more than once in the same tick are fetched once. A batch is split so its url, requested
+ * fields included, stays within a length budget. Items served by the {@link ItemCache} of the api client never reach the network, and
+ * a tick holding a single id is fetched through {@link ApiClient#GetItemAsync}. Ids missing from the result
+ * fail with a 404 {@link HttpException}, like the single item request would.
+ *
+ * Batched items come from the item list endpoint with every {@link ItemFields} requested, so they are not
+ * added to the item cache, which only holds full items.
+ *
+ * A merged request takes the most urgent priority of its callers and is cancelled once all of them cancelled.
+ * Callers that cancelled are not answered.
+ */
+public class ItemBatchLoader {
+    public static final long DEFAULT_DELAY_MS = 10;
+    public static final int DEFAULT_MAX_BATCH_SIZE = 50;
+    public static final int DEFAULT_MAX_URL_LENGTH = 2048;
+
+    private final ApiClient apiClient;
+    private final ScheduledExecutorService scheduler;
+    private final long delayMs;
+
+    private int maxBatchSize = DEFAULT_MAX_BATCH_SIZE;
+    private int maxUrlLength = DEFAULT_MAX_URL_LENGTH;
+    private ItemFields[] fields = ItemFields.values();
+
+    // User id to the pending item ids, in request order, and the responses waiting for each
+    private HashMap<String, LinkedHashMap<String, ArrayList<Response<BaseItemDto>>>> pending = new HashMap<>();
+    private boolean flushScheduled;
+
+    public ItemBatchLoader(ApiClient apiClient) {
+        this(apiClient, CreateScheduler(), DEFAULT_DELAY_MS);
+    }
+
+    public ItemBatchLoader(ApiClient apiClient, ScheduledExecutorService scheduler, long delayMs) {
+        if (apiClient == null) {
+            throw new IllegalArgumentException("apiClient");
+        }
+
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler");
+        }
+
+        if (delayMs < 0) {
+            throw new IllegalArgumentException("delayMs");
+        }
+
+        this.apiClient = apiClient;
+        this.scheduler = scheduler;
+        this.delayMs = delayMs;
+    }
+
+    private static ScheduledExecutorService CreateScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ItemBatchLoader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public synchronized int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    public synchronized void setMaxBatchSize(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("value");
+        }
+
+        maxBatchSize = value;
+    }
+
+    /**
+     * Gets the maximum length of the url of a batch, which holds at least one id whatever the budget.
+     */
+    public synchronized int getMaxUrlLength() {
+        return maxUrlLength;
+    }
+
+    public synchronized void setMaxUrlLength(int value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("value");
+        }
+
+        maxUrlLength = value;
+    }
+
+    public synchronized ItemFields[] getFields() {
+        return fields;
+    }
+
+    /**
+     * Sets the fields requested for batched items. Defaults to all of them, to match the single item endpoint.
+     */
+    public synchronized void setFields(ItemFields[] value) {
+        fields = value;
+    }
+
+    /**
+     * Gets an item the same way {@link ApiClient#GetItemAsync} does, batched with the other items requested
+     * before the delay elapses.
+     */
+    public void GetItemAsync(String id, String userId, Response<BaseItemDto> response) {
+        if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(id)) {
+            throw new IllegalArgumentException("id");
+        }
+
+        if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(userId)) {
+            throw new IllegalArgumentException("userId");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("response");
+        }
+
+        ItemCache cache = apiClient.getItemCache();
+        if (cache != null) {
+            BaseItemDto cached = cache.Get(apiClient.getItemCacheServerId(), userId, id);
+            if (cached != null) {
+                response.onResponse(cached);
+                return;
+            }
+        }
+
+        boolean schedule;
+        synchronized (this) {
+            LinkedHashMap<String, ArrayList<Response<BaseItemDto>>> ids = pending.get(userId);
+            if (ids == null) {
+                ids = new LinkedHashMap<>();
+                pending.put(userId, ids);
+            }
+
+            ArrayList<Response<BaseItemDto>> responses = ids.get(id);
+            if (responses == null) {
+                responses = new ArrayList<>(1);
+                ids.put(id, responses);
+            }
+            responses.add(response);
+
+            schedule = !flushScheduled;
+            flushScheduled = true;
+        }
+
+        if (schedule) {
+            scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Flush();
+                }
+            }, delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Sends every pending request now, without waiting for the delay.
+     */
+    public void Flush() {
+        HashMap<String, LinkedHashMap<String, ArrayList<Response<BaseItemDto>>>> batch;
+        int batchSize;
+        int urlLength;
+        ItemFields[] batchFields;
+
+        synchronized (this) {
+            batch = pending;
+            pending = new HashMap<>();
+            flushScheduled = false;
+            batchSize = maxBatchSize;
+            urlLength = maxUrlLength;
+            batchFields = fields;
+        }
+
+        for (Map.Entry<String, LinkedHashMap<String, ArrayList<Response<BaseItemDto>>>> entry : batch.entrySet()) {
+            String userId = entry.getKey();
+            LinkedHashMap<String, ArrayList<Response<BaseItemDto>>> ids = entry.getValue();
+
+            if (ids.size() == 1) {
+                Map.Entry<String, ArrayList<Response<BaseItemDto>>> single = ids.entrySet().iterator().next();
+                RequestItem(single.getKey(), userId, single.getValue());
+                continue;
+            }
+
+            // What is left of the budget once the url holds everything but the ids, empty ids being left out
+            String baseUrl = apiClient.GetItemListUrl(CreateQuery(userId, new String[0], batchFields));
+            int idsLength = urlLength - baseUrl.length() - "&Ids=".length();
+
+            LinkedHashMap<String, ArrayList<Response<BaseItemDto>>> chunk = new LinkedHashMap<>();
+            int chunkLength = 0;
+
+            for (Map.Entry<String, ArrayList<Response<BaseItemDto>>> id : ids.entrySet()) {
+                // Ids are joined with an encoded comma
+                int length = id.getKey().length() + 3;
+
+                if (!chunk.isEmpty() && (chunk.size() >= batchSize || chunkLength + length > idsLength)) {
+                    RequestItems(chunk, userId, batchFields);
+                    chunk = new LinkedHashMap<>();
+                    chunkLength = 0;
+                }
+
+                chunk.put(id.getKey(), id.getValue());
+                chunkLength += length;
+            }
+
+            if (!chunk.isEmpty()) {
+                RequestItems(chunk, userId, batchFields);
+            }
+        }
+    }
+
+    private static ItemQuery CreateQuery(String userId, String[] ids, ItemFields[] batchFields) {
+        ItemQuery query = new ItemQuery();
+        query.setUserId(userId);
+        query.setIds(ids);
+        query.setFields(batchFields);
+        query.setEnableTotalRecordCount(false);
+        return query;
+    }
+
+    private void RequestItem(String id, String userId, final ArrayList<Response<BaseItemDto>> responses) {
+        final SharedRequest request = new SharedRequest(Collections.singletonList(responses));
+        if (request.getIsCancelled()) {
+            return;
+        }
+
+        apiClient.GetItemAsync(id, userId, request.Bind(new Response<BaseItemDto>() {
+            @Override
+            public void onResponse(BaseItemDto item) {
+                request.Complete();
+                for (Response<BaseItemDto> response : responses) {
+                    Deliver(response, item, null);
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                request.Complete();
+                for (Response<BaseItemDto> response : responses) {
+                    Deliver(response, null, exception);
+                }
+            }
+        }));
+    }
+
+    private void RequestItems(final LinkedHashMap<String, ArrayList<Response<BaseItemDto>>> chunk, String userId, ItemFields[] batchFields) {
+        final SharedRequest request = new SharedRequest(chunk.values());
+        if (request.getIsCancelled()) {
+            return;
+        }
+
+        ItemQuery query = CreateQuery(userId, chunk.keySet().toArray(new String[chunk.size()]), batchFields);
+
+        apiClient.GetItemsAsync(query, request.Bind(new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                request.Complete();
+
+                HashMap<String, BaseItemDto> items = new HashMap<>();
+                if (result != null && result.getItems() != null) {
+                    for (BaseItemDto item : result.getItems()) {
+                        if (item != null && item.getId() != null) {
+                            items.put(NormalizeId(item.getId()), item);
+                        }
+                    }
+                }
+
+                for (Map.Entry<String, ArrayList<Response<BaseItemDto>>> entry : chunk.entrySet()) {
+                    BaseItemDto item = items.get(NormalizeId(entry.getKey()));
+
+                    HttpException exception = null;
+                    if (item == null) {
+                        exception = new HttpException("Item not found: " + entry.getKey());
+                        exception.setStatusCode(404);
+                    }
+
+                    for (Response<BaseItemDto> response : entry.getValue()) {
+                        Deliver(response, item, exception);
+                    }
+                }
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                request.Complete();
+                for (ArrayList<Response<BaseItemDto>> responses : chunk.values()) {
+                    for (Response<BaseItemDto> response : responses) {
+                        Deliver(response, null, exception);
+                    }
+                }
+            }
+        }));
+    }
+
+    private static void Deliver(Response<BaseItemDto> response, BaseItemDto item, Exception exception) {
+        CancellationToken cancellationToken = response.getCancellationToken();
+        if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+            return;
+        }
+
+        if (exception != null) {
+            response.onError(exception);
+        } else {
+            response.onResponse(item);
+        }
+    }
+
+    private static String NormalizeId(String id) {
+        // The server answers with ids in the "N" guid format, whatever format they were requested in
+        return id.replace("-", "").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * The request made on behalf of several callers: as urgent as the most urgent of them, and cancelled once all of
+     * them cancelled. A caller without a token never cancels, so neither does the request.
+     */
+    private static final class SharedRequest {
+        private final CancellationToken cancellationToken = new CancellationToken();
+        private final ArrayList<CancellationToken.Registration> registrations = new ArrayList<>();
+        private RequestPriority priority;
+        private int remaining;
+
+        SharedRequest(Collection<ArrayList<Response<BaseItemDto>>> waiters) {
+            ArrayList<CancellationToken> tokens = new ArrayList<>();
+            boolean cancellable = true;
+
+            for (ArrayList<Response<BaseItemDto>> responses : waiters) {
+                for (Response<BaseItemDto> response : responses) {
+                    RequestPriority waiterPriority = response.getPriority() != null ? response.getPriority() : RequestPriority.Interactive;
+                    if (priority == null || waiterPriority.ordinal() < priority.ordinal()) {
+                        priority = waiterPriority;
+                    }
+
+                    CancellationToken token = response.getCancellationToken();
+                    if (token == null) {
+                        cancellable = false;
+                    } else {
+                        tokens.add(token);
+                    }
+                }
+            }
+
+            if (!cancellable) {
+                return;
+            }
+
+            synchronized (this) {
+                remaining = tokens.size();
+            }
+
+            Runnable onWaiterCancelled = new Runnable() {
+                @Override
+                public void run() {
+                    boolean cancel;
+                    synchronized (SharedRequest.this) {
+                        cancel = --remaining == 0;
+                    }
+
+                    if (cancel) {
+                        cancellationToken.cancel();
+                    }
+                }
+            };
+
+            for (CancellationToken token : tokens) {
+                CancellationToken.Registration registration = token.register(onWaiterCancelled);
+                synchronized (this) {
+                    registrations.add(registration);
+                }
+            }
+        }
+
+        boolean getIsCancelled() {
+            return cancellationToken.isCancellationRequested();
+        }
+
+        <T> Response<T> Bind(Response<T> response) {
+            response.setCancellationToken(cancellationToken);
+            response.setPriority(priority);
+            return response;
+        }
+
+        void Complete() {
+            ArrayList<CancellationToken.Registration> toUnregister;
+            synchronized (this) {
+                toUnregister = new ArrayList<>(registrations);
+                registrations.clear();
+            }
+
+            for (CancellationToken.Registration registration : toUnregister) {
+                registration.unregister();
+            }
+        }
+    }
+}
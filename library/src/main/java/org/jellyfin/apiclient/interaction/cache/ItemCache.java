@@ -0,0 +1,287 @@
+package org.jellyfin.apiclient.interaction.cache;
+
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
+import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo;
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * A size bounded, least recently used cache of {@link BaseItemDto}s keyed by server, user and item id.
+ * Entries of an item can be dropped for every user at once, which is how library change notifications are applied.
+ *
+ * Ids are compared in the "N" guid format the server answers with, so an item cached from a response is found
+ * whether it is then looked up with or without dashes, in upper or lower case.
+ */
+public class ItemCache {
+    public static final int DEFAULT_CAPACITY = 500;
+
+    private final int capacity;
+    private final LinkedHashMap<Key, BaseItemDto> items;
+    // Server and item id to the keys of every user holding that item
+    private final HashMap<ItemKey, ArrayList<Key>> keysByItem = new HashMap<>();
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    public ItemCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public ItemCache(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity");
+        }
+
+        this.capacity = capacity;
+        this.items = new LinkedHashMap<Key, BaseItemDto>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, BaseItemDto> eldest) {
+                if (size() <= ItemCache.this.capacity) {
+                    return false;
+                }
+
+                evictionCount++;
+                RemoveFromIndex(eldest.getKey());
+                return true;
+            }
+        };
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return items.size();
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized double getHitRate() {
+        long total = hitCount + missCount;
+        return total == 0 ? 0 : (double) hitCount / total;
+    }
+
+    public synchronized BaseItemDto Get(String serverId, String userId, String itemId) {
+        BaseItemDto item = items.get(new Key(serverId, userId, itemId));
+        if (item != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return item;
+    }
+
+    public synchronized void Put(String serverId, String userId, BaseItemDto item) {
+        if (item == null || item.getId() == null) {
+            return;
+        }
+
+        Key key = new Key(serverId, userId, item.getId());
+        if (items.put(key, item) == null) {
+            ItemKey itemKey = key.getItemKey();
+            ArrayList<Key> keys = keysByItem.get(itemKey);
+            if (keys == null) {
+                keys = new ArrayList<>(1);
+                keysByItem.put(itemKey, keys);
+            }
+            keys.add(key);
+        }
+    }
+
+    /**
+     * Drops an item for every user of a server.
+     */
+    public synchronized void Remove(String serverId, String itemId) {
+        ArrayList<Key> keys = keysByItem.remove(new ItemKey(serverId, itemId));
+        if (keys != null) {
+            for (Key key : keys) {
+                items.remove(key);
+            }
+        }
+    }
+
+    public synchronized void Remove(String serverId, Collection<String> itemIds) {
+        if (itemIds == null) {
+            return;
+        }
+
+        for (String itemId : itemIds) {
+            Remove(serverId, itemId);
+        }
+    }
+
+    /**
+     * Updates the user data of a cached item in place, so played and favorite state stays current without refetching
+     * it, including for the holders of the cached instance.
+     *
+     * @return true if the item was cached for that user.
+     */
+    public synchronized boolean PatchUserData(String serverId, String userId, UserItemDataDto userData) {
+        if (userData == null || userData.getItemId() == null) {
+            return false;
+        }
+
+        // Not counted as a lookup in the statistics
+        BaseItemDto item = items.get(new Key(serverId, userId, userData.getItemId()));
+        if (item == null) {
+            return false;
+        }
+
+        if (item.getUserData() == null) {
+            item.setUserData(userData);
+        } else {
+            UserDataIndex.CopyUserData(userData, item.getUserData());
+        }
+        return true;
+    }
+
+    /**
+     * Drops the items reported as updated or removed, and the folders whose children changed.
+     */
+    public synchronized void ApplyLibraryChange(String serverId, LibraryUpdateInfo info) {
+        if (info == null) {
+            return;
+        }
+
+        Remove(serverId, info.getItemsUpdated());
+        Remove(serverId, info.getItemsRemoved());
+        Remove(serverId, info.getFoldersAddedTo());
+        Remove(serverId, info.getFoldersRemovedFrom());
+    }
+
+    public synchronized void ApplyUserDataChange(String serverId, UserDataChangeInfo info) {
+        if (info == null || info.getUserDataList() == null) {
+            return;
+        }
+
+        for (UserItemDataDto userData : info.getUserDataList()) {
+            PatchUserData(serverId, info.getUserId(), userData);
+        }
+    }
+
+    public synchronized void Clear() {
+        items.clear();
+        keysByItem.clear();
+    }
+
+    /**
+     * Drops every item of a server, such as when notifications may have been missed while its web socket was down.
+     */
+    public synchronized void Clear(String serverId) {
+        Iterator<Map.Entry<ItemKey, ArrayList<Key>>> iterator = keysByItem.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<ItemKey, ArrayList<Key>> entry = iterator.next();
+            if (entry.getKey().IsOnServer(serverId)) {
+                for (Key key : entry.getValue()) {
+                    items.remove(key);
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    static String NormalizeId(String id) {
+        return id != null ? id.replace("-", "").toLowerCase(Locale.ROOT) : "";
+    }
+
+    private void RemoveFromIndex(Key key) {
+        ItemKey itemKey = key.getItemKey();
+        ArrayList<Key> keys = keysByItem.get(itemKey);
+        if (keys != null) {
+            keys.remove(key);
+            if (keys.isEmpty()) {
+                keysByItem.remove(itemKey);
+            }
+        }
+    }
+
+    private static final class ItemKey {
+        private final String serverId;
+        private final String itemId;
+        private final int hashCode;
+
+        ItemKey(String serverId, String itemId) {
+            this.serverId = serverId != null ? serverId : "";
+            this.itemId = NormalizeId(itemId);
+            this.hashCode = 31 * this.serverId.hashCode() + this.itemId.hashCode();
+        }
+
+        boolean IsOnServer(String serverId) {
+            return this.serverId.equals(serverId != null ? serverId : "");
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof ItemKey)) {
+                return false;
+            }
+
+            ItemKey other = (ItemKey) o;
+            return hashCode == other.hashCode && serverId.equals(other.serverId) && itemId.equals(other.itemId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static final class Key {
+        private final ItemKey itemKey;
+        private final String userId;
+        private final int hashCode;
+
+        Key(String serverId, String userId, String itemId) {
+            this.itemKey = new ItemKey(serverId, itemId);
+            this.userId = NormalizeId(userId);
+            this.hashCode = 31 * itemKey.hashCode() + this.userId.hashCode();
+        }
+
+        ItemKey getItemKey() {
+            return itemKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return hashCode == other.hashCode && userId.equals(other.userId) && itemKey.equals(other.itemKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
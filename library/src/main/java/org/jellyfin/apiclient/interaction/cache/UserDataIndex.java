@@ -0,0 +1,187 @@
+package org.jellyfin.apiclient.interaction.cache;
+
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Indexes the {@link UserItemDataDto} instances of the items an application holds, by user and item id,
+ * so UserDataChanged notifications can be applied to them in place instead of refetching the items.
+ * Instances are weakly referenced: tracking an item does not keep it alive. User and item ids are compared the way
+ * {@link ItemCache} compares them, ignoring dashes and case, since notifications may carry dashed GUIDs.
+ *
+ * Notifications are applied on the web socket thread, and the fields of a patched instance are written without
+ * publishing them to other threads. Read patched instances on the thread that handles
+ * {@link org.jellyfin.apiclient.interaction.ApiEventListener#onUserItemDataChanged}, or after handing the event over
+ * to another thread through a queue or handler, which makes the writes visible there.
+ */
+public class UserDataIndex {
+    private static final int SWEEP_INTERVAL = 1024;
+
+    private final HashMap<Key, ArrayList<WeakReference<UserItemDataDto>>> entries = new HashMap<>();
+    private int tracksSinceSweep;
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void Track(String userId, BaseItemDto item) {
+        if (item == null || item.getId() == null || item.getUserData() == null) {
+            return;
+        }
+
+        Key key = new Key(userId, item.getId());
+        ArrayList<WeakReference<UserItemDataDto>> references = entries.get(key);
+        if (references == null) {
+            references = new ArrayList<>(1);
+            entries.put(key, references);
+        }
+
+        UserItemDataDto userData = item.getUserData();
+        boolean found = false;
+        Iterator<WeakReference<UserItemDataDto>> iterator = references.iterator();
+        while (iterator.hasNext()) {
+            UserItemDataDto existing = iterator.next().get();
+            if (existing == null) {
+                iterator.remove();
+            } else if (existing == userData) {
+                found = true;
+            }
+        }
+
+        if (!found) {
+            references.add(new WeakReference<>(userData));
+        }
+
+        if (++tracksSinceSweep >= SWEEP_INTERVAL) {
+            tracksSinceSweep = 0;
+            Sweep();
+        }
+    }
+
+    public synchronized void Track(String userId, BaseItemDto[] items) {
+        if (items == null) {
+            return;
+        }
+
+        for (BaseItemDto item : items) {
+            Track(userId, item);
+        }
+    }
+
+    /**
+     * Applies every entry of a notification to the tracked instances with the same item id and key.
+     *
+     * @return One event per entry, in notification order.
+     */
+    public synchronized ArrayList<UserItemDataChangedEventArgs> Apply(UserDataChangeInfo info) {
+        ArrayList<UserItemDataChangedEventArgs> changes = new ArrayList<>();
+        if (info == null || info.getUserDataList() == null) {
+            return changes;
+        }
+
+        for (UserItemDataDto userData : info.getUserDataList()) {
+            if (userData == null || userData.getItemId() == null) {
+                continue;
+            }
+
+            boolean patched = false;
+            ArrayList<WeakReference<UserItemDataDto>> references = entries.get(new Key(info.getUserId(), userData.getItemId()));
+            if (references != null) {
+                Iterator<WeakReference<UserItemDataDto>> iterator = references.iterator();
+                while (iterator.hasNext()) {
+                    UserItemDataDto existing = iterator.next().get();
+                    if (existing == null) {
+                        iterator.remove();
+                    } else if (KeysMatch(existing.getKey(), userData.getKey())) {
+                        CopyUserData(userData, existing);
+                        patched = true;
+                    }
+                }
+            }
+
+            changes.add(new UserItemDataChangedEventArgs(info.getUserId(), userData.getItemId(), userData, patched));
+        }
+
+        return changes;
+    }
+
+    public synchronized void Clear() {
+        entries.clear();
+        tracksSinceSweep = 0;
+    }
+
+    private void Sweep() {
+        Iterator<Map.Entry<Key, ArrayList<WeakReference<UserItemDataDto>>>> entryIterator = entries.entrySet().iterator();
+        while (entryIterator.hasNext()) {
+            ArrayList<WeakReference<UserItemDataDto>> references = entryIterator.next().getValue();
+
+            Iterator<WeakReference<UserItemDataDto>> iterator = references.iterator();
+            while (iterator.hasNext()) {
+                if (iterator.next().get() == null) {
+                    iterator.remove();
+                }
+            }
+
+            if (references.isEmpty()) {
+                entryIterator.remove();
+            }
+        }
+    }
+
+    private static boolean KeysMatch(String tracked, String incoming) {
+        // Older servers leave the key out, the item id is enough then
+        return tracked == null || incoming == null || tracked.equals(incoming);
+    }
+
+    static void CopyUserData(UserItemDataDto source, UserItemDataDto target) {
+        target.setRating(source.getRating());
+        target.setPlayedPercentage(source.getPlayedPercentage());
+        target.setUnplayedItemCount(source.getUnplayedItemCount());
+        target.setPlaybackPositionTicks(source.getPlaybackPositionTicks());
+        target.setPlayCount(source.getPlayCount());
+        target.setIsFavorite(source.getIsFavorite());
+        target.setLikes(source.getLikes());
+        target.setLastPlayedDate(source.getLastPlayedDate());
+        target.setPlayed(source.getPlayed());
+        target.setKey(source.getKey());
+        target.setItemId(source.getItemId());
+    }
+
+    private static final class Key {
+        private final String userId;
+        private final String itemId;
+        private final int hashCode;
+
+        Key(String userId, String itemId) {
+            this.userId = ItemCache.NormalizeId(userId);
+            this.itemId = ItemCache.NormalizeId(itemId);
+            this.hashCode = 31 * this.userId.hashCode() + this.itemId.hashCode();
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+
+            if (!(o instanceof Key)) {
+                return false;
+            }
+
+            Key other = (Key) o;
+            return hashCode == other.hashCode && itemId.equals(other.itemId) && userId.equals(other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+}
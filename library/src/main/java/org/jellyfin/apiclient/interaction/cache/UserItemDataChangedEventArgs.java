@@ -0,0 +1,43 @@
+package org.jellyfin.apiclient.interaction.cache;
+
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
+
+/**
+ * Describes one entry of a UserDataChanged notification after it was applied to the {@link UserDataIndex}.
+ */
+public class UserItemDataChangedEventArgs {
+    private final String userId;
+    private final String itemId;
+    private final UserItemDataDto userData;
+    private final boolean patched;
+
+    public UserItemDataChangedEventArgs(String userId, String itemId, UserItemDataDto userData, boolean patched) {
+        this.userId = userId;
+        this.itemId = itemId;
+        this.userData = userData;
+        this.patched = patched;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    /**
+     * Gets the new user data, as sent by the server.
+     */
+    public UserItemDataDto getUserData() {
+        return userData;
+    }
+
+    /**
+     * Gets whether user data held by the application was updated in place. If not, the item was not tracked
+     * and anything showing it needs to be refreshed another way.
+     */
+    public boolean getPatched() {
+        return patched;
+    }
+}
@@ -0,0 +1,122 @@
+package org.jellyfin.apiclient.interaction.coroutines
+
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.suspendCancellableCoroutine
+import org.jellyfin.apiclient.interaction.ApiClient
+import org.jellyfin.apiclient.interaction.EmptyResponse
+import org.jellyfin.apiclient.interaction.Response
+import org.jellyfin.apiclient.interaction.paging.ItemPageQueries
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken
+import org.jellyfin.apiclient.model.dto.BaseItemDto
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo
+import org.jellyfin.apiclient.model.dto.UserDto
+import org.jellyfin.apiclient.model.entities.DisplayPreferences
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoResponse
+import org.jellyfin.apiclient.model.mediainfo.SubtitleTrackInfo
+import org.jellyfin.apiclient.model.querying.ItemQuery
+import org.jellyfin.apiclient.model.querying.ItemsResult
+import org.jellyfin.apiclient.model.system.SystemInfo
+import kotlin.coroutines.resume
+import kotlin.coroutines.resumeWithException
+
+/**
+ * Suspends until the operation started by [block] answers its [Response].
+ * Cancelling the coroutine cancels the token of the response, which aborts the http request.
+ */
+suspend fun <T> awaitResponse(block: (Response<T>) -> Unit): T = suspendCancellableCoroutine { continuation ->
+	val cancellationToken = CancellationToken()
+	val response = object : Response<T>() {
+		override fun onResponse(response: T) = continuation.resume(response)
+		override fun onError(exception: Exception) = continuation.resumeWithException(exception)
+	}
+	response.cancellationToken = cancellationToken
+
+	continuation.invokeOnCancellation { cancellationToken.cancel() }
+
+	block(response)
+}
+
+/**
+ * Suspends until the operation started by [block] answers its [EmptyResponse].
+ */
+suspend fun awaitEmptyResponse(block: (EmptyResponse) -> Unit): Unit = suspendCancellableCoroutine { continuation ->
+	val cancellationToken = CancellationToken()
+	val response = object : EmptyResponse() {
+		override fun onResponse() = continuation.resume(Unit)
+		override fun onError(ex: Exception) = continuation.resumeWithException(ex)
+	}
+	response.cancellationToken = cancellationToken
+
+	continuation.invokeOnCancellation { cancellationToken.cancel() }
+
+	block(response)
+}
+
+suspend fun ApiClient.getItem(id: String, userId: String): BaseItemDto =
+	awaitResponse { GetItemAsync(id, userId, it) }
+
+suspend fun ApiClient.getItems(query: ItemQuery): ItemsResult =
+	awaitResponse { GetItemsAsync(query, it) }
+
+suspend fun ApiClient.getUserViews(userId: String): ItemsResult =
+	awaitResponse { GetUserViews(userId, it) }
+
+suspend fun ApiClient.getUser(id: String): UserDto =
+	awaitResponse { GetUserAsync(id, it) }
+
+suspend fun ApiClient.getSystemInfo(): SystemInfo =
+	awaitResponse { GetSystemInfoAsync(it) }
+
+suspend fun ApiClient.getDisplayPreferences(id: String, userId: String, client: String): DisplayPreferences =
+	awaitResponse { GetDisplayPreferencesAsync(id, userId, client, it) }
+
+suspend fun ApiClient.getPlaybackInfo(request: PlaybackInfoRequest): PlaybackInfoResponse =
+	awaitResponse { GetPlaybackInfo(request, it) }
+
+suspend fun ApiClient.getPlaybackInfo(
+	request: PlaybackInfoRequest,
+	mediaType: String,
+	mediaSources: ArrayList<MediaSourceInfo>
+): PlaybackInfoResponse = awaitResponse { GetPlaybackInfo(request, mediaType, mediaSources, it) }
+
+suspend fun ApiClient.getSubtitles(url: String): SubtitleTrackInfo =
+	awaitResponse { getSubtitles(url, it) }
+
+/**
+ * Emits every item matching the [query], requesting [pageSize] items at a time as the collector asks for more.
+ * The StartIndex and Limit of the query bound the items emitted; each page is requested with a copy of the query.
+ *
+ * Apply `buffer()` to fetch the next page while the current one is processed.
+ */
+fun ApiClient.getItemsFlow(query: ItemQuery, pageSize: Int = 100): Flow<BaseItemDto> {
+	require(pageSize > 0) { "pageSize" }
+
+	return flow {
+		val firstIndex = query.startIndex ?: 0
+		val limit = query.limit
+		var startIndex = firstIndex
+		var endIndex = if (limit != null) firstIndex + limit else Int.MAX_VALUE
+		var first = true
+
+		while (startIndex < endIndex) {
+			val count = minOf(pageSize, endIndex - startIndex)
+			val pageQuery = ItemPageQueries.ForPage(query, startIndex, count, first)
+			val page = awaitResponse<ItemsResult> { GetItemsAsync(pageQuery, it) }
+
+			if (first) {
+				endIndex = minOf(endIndex, page.totalRecordCount)
+				first = false
+			}
+
+			val items = page.items ?: emptyArray()
+			items.forEach { emit(it) }
+
+			// The library shrank since it was counted
+			if (items.size < count) break
+
+			startIndex += count
+		}
+	}
+}
@@ -0,0 +1,42 @@
+package org.jellyfin.apiclient.interaction.coroutines
+
+import org.jellyfin.apiclient.interaction.ApiClient
+import org.jellyfin.apiclient.interaction.cache.UserItemDataChangedEventArgs
+import org.jellyfin.apiclient.model.apiclient.RemoteLogoutReason
+import org.jellyfin.apiclient.model.apiclient.SessionUpdatesEventArgs
+import org.jellyfin.apiclient.model.dto.UserDto
+import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo
+import org.jellyfin.apiclient.model.session.BrowseRequest
+import org.jellyfin.apiclient.model.session.GeneralCommand
+import org.jellyfin.apiclient.model.session.MessageCommand
+import org.jellyfin.apiclient.model.session.PlayRequest
+import org.jellyfin.apiclient.model.session.PlaystateRequest
+import org.jellyfin.apiclient.model.session.SessionInfoDto
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo
+
+/**
+ * The callbacks of [org.jellyfin.apiclient.interaction.ApiEventListener] as values, emitted by [ApiEventFlow]
+ */
+sealed class ApiEvent {
+	abstract val client: ApiClient
+
+	data class RemoteLoggedOut(override val client: ApiClient, val reason: RemoteLogoutReason?) : ApiEvent()
+	data class UserUpdated(override val client: ApiClient, val user: UserDto?) : ApiEvent()
+	data class LibraryChanged(override val client: ApiClient, val info: LibraryUpdateInfo?) : ApiEvent()
+	data class UserConfigurationUpdated(override val client: ApiClient, val user: UserDto?) : ApiEvent()
+	data class BrowseCommand(override val client: ApiClient, val command: BrowseRequest?) : ApiEvent()
+	data class PlayCommand(override val client: ApiClient, val command: PlayRequest?) : ApiEvent()
+	data class PlaystateCommand(override val client: ApiClient, val command: PlaystateRequest?) : ApiEvent()
+	data class MessageCommandReceived(override val client: ApiClient, val command: MessageCommand?) : ApiEvent()
+	data class GeneralCommandReceived(override val client: ApiClient, val command: GeneralCommand?) : ApiEvent()
+	data class SendStringCommand(override val client: ApiClient, val value: String?) : ApiEvent()
+	data class SetVolumeCommand(override val client: ApiClient, val value: Int) : ApiEvent()
+	data class SetAudioStreamIndexCommand(override val client: ApiClient, val value: Int) : ApiEvent()
+	data class SetSubtitleStreamIndexCommand(override val client: ApiClient, val value: Int) : ApiEvent()
+	data class UserDataChanged(override val client: ApiClient, val info: UserDataChangeInfo?) : ApiEvent()
+	data class UserItemDataChanged(override val client: ApiClient, val args: UserItemDataChangedEventArgs?) : ApiEvent()
+	data class SessionsUpdated(override val client: ApiClient, val args: SessionUpdatesEventArgs?) : ApiEvent()
+	data class PlaybackStart(override val client: ApiClient, val info: SessionInfoDto?) : ApiEvent()
+	data class PlaybackStopped(override val client: ApiClient, val info: SessionInfoDto?) : ApiEvent()
+	data class SessionEnded(override val client: ApiClient, val info: SessionInfoDto?) : ApiEvent()
+}
@@ -0,0 +1,139 @@
+package org.jellyfin.apiclient.interaction.coroutines
+
+import kotlinx.coroutines.channels.awaitClose
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.callbackFlow
+import org.jellyfin.apiclient.interaction.ApiClient
+import org.jellyfin.apiclient.interaction.ApiEventListener
+import org.jellyfin.apiclient.interaction.cache.UserItemDataChangedEventArgs
+import org.jellyfin.apiclient.model.apiclient.RemoteLogoutReason
+import org.jellyfin.apiclient.model.apiclient.SessionUpdatesEventArgs
+import org.jellyfin.apiclient.model.dto.UserDto
+import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo
+import org.jellyfin.apiclient.model.session.BrowseRequest
+import org.jellyfin.apiclient.model.session.GeneralCommand
+import org.jellyfin.apiclient.model.session.MessageCommand
+import org.jellyfin.apiclient.model.session.PlayRequest
+import org.jellyfin.apiclient.model.session.PlaystateRequest
+import org.jellyfin.apiclient.model.session.SessionInfoDto
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * An [ApiEventListener] exposing the web socket and client events as a [Flow] of [ApiEvent]s.
+ * Pass it to the [ApiClient] constructor; callbacks are still forwarded to the [delegate].
+ * Payloads are nullable since they come straight from the deserialized web socket messages.
+ *
+ * Every collector of [events] gets the events raised while it collects. Events raised while the buffer of a slow
+ * collector is full are dropped for it rather than blocking the web socket thread.
+ */
+class ApiEventFlow(
+	private val delegate: ApiEventListener = ApiEventListener()
+) : ApiEventListener() {
+	private val subscribers = CopyOnWriteArrayList<(ApiEvent) -> Unit>()
+
+	val events: Flow<ApiEvent> = callbackFlow {
+		val subscriber: (ApiEvent) -> Unit = { event -> offer(event) }
+		subscribers.add(subscriber)
+		awaitClose { subscribers.remove(subscriber) }
+	}
+
+	private fun publish(event: ApiEvent) {
+		subscribers.forEach { it(event) }
+	}
+
+	override fun onRemoteLoggedOut(client: ApiClient, reason: RemoteLogoutReason?) {
+		delegate.onRemoteLoggedOut(client, reason)
+		publish(ApiEvent.RemoteLoggedOut(client, reason))
+	}
+
+	override fun onUserUpdated(client: ApiClient, userDto: UserDto?) {
+		delegate.onUserUpdated(client, userDto)
+		publish(ApiEvent.UserUpdated(client, userDto))
+	}
+
+	override fun onLibraryChanged(client: ApiClient, info: LibraryUpdateInfo?) {
+		delegate.onLibraryChanged(client, info)
+		publish(ApiEvent.LibraryChanged(client, info))
+	}
+
+	override fun onUserConfigurationUpdated(client: ApiClient, userDto: UserDto?) {
+		delegate.onUserConfigurationUpdated(client, userDto)
+		publish(ApiEvent.UserConfigurationUpdated(client, userDto))
+	}
+
+	override fun onBrowseCommand(client: ApiClient, command: BrowseRequest?) {
+		delegate.onBrowseCommand(client, command)
+		publish(ApiEvent.BrowseCommand(client, command))
+	}
+
+	override fun onPlayCommand(client: ApiClient, command: PlayRequest?) {
+		delegate.onPlayCommand(client, command)
+		publish(ApiEvent.PlayCommand(client, command))
+	}
+
+	override fun onPlaystateCommand(client: ApiClient, command: PlaystateRequest?) {
+		delegate.onPlaystateCommand(client, command)
+		publish(ApiEvent.PlaystateCommand(client, command))
+	}
+
+	override fun onMessageCommand(client: ApiClient, command: MessageCommand?) {
+		delegate.onMessageCommand(client, command)
+		publish(ApiEvent.MessageCommandReceived(client, command))
+	}
+
+	override fun onGeneralCommand(client: ApiClient, command: GeneralCommand?) {
+		delegate.onGeneralCommand(client, command)
+		publish(ApiEvent.GeneralCommandReceived(client, command))
+	}
+
+	override fun onSendStringCommand(client: ApiClient, value: String?) {
+		delegate.onSendStringCommand(client, value)
+		publish(ApiEvent.SendStringCommand(client, value))
+	}
+
+	override fun onSetVolumeCommand(client: ApiClient, value: Int) {
+		delegate.onSetVolumeCommand(client, value)
+		publish(ApiEvent.SetVolumeCommand(client, value))
+	}
+
+	override fun onSetAudioStreamIndexCommand(client: ApiClient, value: Int) {
+		delegate.onSetAudioStreamIndexCommand(client, value)
+		publish(ApiEvent.SetAudioStreamIndexCommand(client, value))
+	}
+
+	override fun onSetSubtitleStreamIndexCommand(client: ApiClient, value: Int) {
+		delegate.onSetSubtitleStreamIndexCommand(client, value)
+		publish(ApiEvent.SetSubtitleStreamIndexCommand(client, value))
+	}
+
+	override fun onUserDataChanged(client: ApiClient, info: UserDataChangeInfo?) {
+		delegate.onUserDataChanged(client, info)
+		publish(ApiEvent.UserDataChanged(client, info))
+	}
+
+	override fun onUserItemDataChanged(client: ApiClient, args: UserItemDataChangedEventArgs?) {
+		delegate.onUserItemDataChanged(client, args)
+		publish(ApiEvent.UserItemDataChanged(client, args))
+	}
+
+	override fun onSessionsUpdated(client: ApiClient, args: SessionUpdatesEventArgs?) {
+		delegate.onSessionsUpdated(client, args)
+		publish(ApiEvent.SessionsUpdated(client, args))
+	}
+
+	override fun onPlaybackStart(client: ApiClient, info: SessionInfoDto?) {
+		delegate.onPlaybackStart(client, info)
+		publish(ApiEvent.PlaybackStart(client, info))
+	}
+
+	override fun onPlaybackStopped(client: ApiClient, info: SessionInfoDto?) {
+		delegate.onPlaybackStopped(client, info)
+		publish(ApiEvent.PlaybackStopped(client, info))
+	}
+
+	override fun onSessionEnded(client: ApiClient, info: SessionInfoDto?) {
+		delegate.onSessionEnded(client, info)
+		publish(ApiEvent.SessionEnded(client, info))
+	}
+}
@@ -0,0 +1,317 @@
+package org.jellyfin.apiclient.interaction.futures;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.EmptyResponse;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
+import org.jellyfin.apiclient.model.dto.UserDto;
+import org.jellyfin.apiclient.model.entities.DisplayPreferences;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoResponse;
+import org.jellyfin.apiclient.model.mediainfo.SubtitleTrackInfo;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+import org.jellyfin.apiclient.model.system.SystemInfo;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
+
+/**
+ * Exposes {@link ApiClient} operations as {@link CompletableFuture}s, so calls can be chained and combined
+ * with thenCompose, thenCombine or allOf instead of nesting callbacks.
+ *
+ * {@link #Call} adapts any operation taking a {@link Response}, {@link #Run} any operation taking an
+ * {@link EmptyResponse}; the most common operations have shortcuts. Cancelling a returned future cancels the
+ * token of its response, which the http client honors. Futures are completed on the callback executor when set,
+ * otherwise on the thread delivering the response.
+ *
+ * CompletableFuture requires Android API 24, this class must not be loaded on older devices.
+ */
+public class FutureApiClient {
+
+    /**
+     * An operation delivering its result to a response.
+     */
+    public interface Call<T> {
+        void Execute(Response<T> response);
+    }
+
+    /**
+     * An operation without result.
+     */
+    public interface EmptyCall {
+        void Execute(EmptyResponse response);
+    }
+
+    private static ScheduledExecutorService timeoutScheduler;
+
+    private final ApiClient apiClient;
+    private final Executor callbackExecutor;
+    private final long defaultTimeoutMs;
+
+    public FutureApiClient(ApiClient apiClient) {
+        this(apiClient, null, 0);
+    }
+
+    /**
+     * @param callbackExecutor Completes the futures, such as the main thread executor of an app. May be null.
+     * @param defaultTimeoutMs Fails the futures with a {@link TimeoutException} after this delay, 0 to wait forever.
+     */
+    public FutureApiClient(ApiClient apiClient, Executor callbackExecutor, long defaultTimeoutMs) {
+        if (apiClient == null) {
+            throw new IllegalArgumentException("apiClient");
+        }
+
+        if (defaultTimeoutMs < 0) {
+            throw new IllegalArgumentException("defaultTimeoutMs");
+        }
+
+        this.apiClient = apiClient;
+        this.callbackExecutor = callbackExecutor;
+        this.defaultTimeoutMs = defaultTimeoutMs;
+    }
+
+    public ApiClient getApiClient() {
+        return apiClient;
+    }
+
+    public <T> CompletableFuture<T> Call(Call<T> call) {
+        return Call(call, defaultTimeoutMs);
+    }
+
+    public <T> CompletableFuture<T> Call(Call<T> call, long timeoutMs) {
+        if (call == null) {
+            throw new IllegalArgumentException("call");
+        }
+
+        final ApiFuture<T> future = new ApiFuture<>();
+
+        Response<T> response = new Response<T>() {
+            @Override
+            public void onResponse(T result) {
+                future.Complete(result, null);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                future.Complete(null, exception);
+            }
+        };
+        response.setCancellationToken(future.cancellationToken);
+
+        Start(future, timeoutMs);
+
+        try {
+            call.Execute(response);
+        } catch (RuntimeException ex) {
+            future.Complete(null, ex);
+        }
+
+        return future;
+    }
+
+    public CompletableFuture<Void> Run(EmptyCall call) {
+        return Run(call, defaultTimeoutMs);
+    }
+
+    public CompletableFuture<Void> Run(EmptyCall call, long timeoutMs) {
+        if (call == null) {
+            throw new IllegalArgumentException("call");
+        }
+
+        final ApiFuture<Void> future = new ApiFuture<>();
+
+        EmptyResponse response = new EmptyResponse() {
+            @Override
+            public void onResponse() {
+                future.Complete(null, null);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                future.Complete(null, exception);
+            }
+        };
+        response.setCancellationToken(future.cancellationToken);
+
+        Start(future, timeoutMs);
+
+        try {
+            call.Execute(response);
+        } catch (RuntimeException ex) {
+            future.Complete(null, ex);
+        }
+
+        return future;
+    }
+
+    public CompletableFuture<BaseItemDto> GetItemAsync(final String id, final String userId) {
+        return Call(new Call<BaseItemDto>() {
+            @Override
+            public void Execute(Response<BaseItemDto> response) {
+                apiClient.GetItemAsync(id, userId, response);
+            }
+        });
+    }
+
+    public CompletableFuture<ItemsResult> GetItemsAsync(final ItemQuery query) {
+        return Call(new Call<ItemsResult>() {
+            @Override
+            public void Execute(Response<ItemsResult> response) {
+                apiClient.GetItemsAsync(query, response);
+            }
+        });
+    }
+
+    public CompletableFuture<ItemsResult> GetUserViews(final String userId) {
+        return Call(new Call<ItemsResult>() {
+            @Override
+            public void Execute(Response<ItemsResult> response) {
+                apiClient.GetUserViews(userId, response);
+            }
+        });
+    }
+
+    public CompletableFuture<UserDto> GetUserAsync(final String id) {
+        return Call(new Call<UserDto>() {
+            @Override
+            public void Execute(Response<UserDto> response) {
+                apiClient.GetUserAsync(id, response);
+            }
+        });
+    }
+
+    public CompletableFuture<SystemInfo> GetSystemInfoAsync() {
+        return Call(new Call<SystemInfo>() {
+            @Override
+            public void Execute(Response<SystemInfo> response) {
+                apiClient.GetSystemInfoAsync(response);
+            }
+        });
+    }
+
+    public CompletableFuture<DisplayPreferences> GetDisplayPreferencesAsync(final String id, final String userId, final String client) {
+        return Call(new Call<DisplayPreferences>() {
+            @Override
+            public void Execute(Response<DisplayPreferences> response) {
+                apiClient.GetDisplayPreferencesAsync(id, userId, client, response);
+            }
+        });
+    }
+
+    public CompletableFuture<PlaybackInfoResponse> GetPlaybackInfo(final PlaybackInfoRequest request) {
+        return Call(new Call<PlaybackInfoResponse>() {
+            @Override
+            public void Execute(Response<PlaybackInfoResponse> response) {
+                apiClient.GetPlaybackInfo(request, response);
+            }
+        });
+    }
+
+    public CompletableFuture<PlaybackInfoResponse> GetPlaybackInfo(final PlaybackInfoRequest request, final String mediaType, final ArrayList<MediaSourceInfo> mediaSources) {
+        return Call(new Call<PlaybackInfoResponse>() {
+            @Override
+            public void Execute(Response<PlaybackInfoResponse> response) {
+                apiClient.GetPlaybackInfo(request, mediaType, mediaSources, response);
+            }
+        });
+    }
+
+    public CompletableFuture<SubtitleTrackInfo> GetSubtitles(final String url) {
+        return Call(new Call<SubtitleTrackInfo>() {
+            @Override
+            public void Execute(Response<SubtitleTrackInfo> response) {
+                apiClient.getSubtitles(url, response);
+            }
+        });
+    }
+
+    private void Start(final ApiFuture<?> future, long timeoutMs) {
+        future.callbackExecutor = callbackExecutor;
+
+        if (timeoutMs <= 0) {
+            return;
+        }
+
+        final ScheduledFuture<?> timeout = GetTimeoutScheduler().schedule(new Runnable() {
+            @Override
+            public void run() {
+                future.TimeOut();
+            }
+        }, timeoutMs, TimeUnit.MILLISECONDS);
+
+        future.whenComplete(new BiConsumer<Object, Throwable>() {
+            @Override
+            public void accept(Object result, Throwable error) {
+                timeout.cancel(false);
+            }
+        });
+    }
+
+    private static synchronized ScheduledExecutorService GetTimeoutScheduler() {
+        if (timeoutScheduler == null) {
+            timeoutScheduler = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+                @Override
+                public Thread newThread(Runnable runnable) {
+                    Thread thread = new Thread(runnable, "FutureApiClient timeout");
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+        }
+        return timeoutScheduler;
+    }
+
+    private static final class ApiFuture<T> extends CompletableFuture<T> {
+        final CancellationToken cancellationToken = new CancellationToken();
+        Executor callbackExecutor;
+
+        void Complete(final T result, final Exception exception) {
+            Executor executor = callbackExecutor;
+            if (executor == null) {
+                CompleteNow(result, exception);
+                return;
+            }
+
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    CompleteNow(result, exception);
+                }
+            });
+        }
+
+        private void CompleteNow(T result, Exception exception) {
+            if (exception != null) {
+                completeExceptionally(exception);
+            } else {
+                complete(result);
+            }
+        }
+
+        void TimeOut() {
+            if (completeExceptionally(new TimeoutException("The request timed out"))) {
+                cancellationToken.cancel();
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            if (cancelled) {
+                cancellationToken.cancel();
+            }
+            return cancelled;
+        }
+    }
+}
@@ -0,0 +1,443 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.metrics.EndpointTemplate;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps an {@link IAsyncHttpClient} to cut the tail latency of idempotent GETs with hedged requests.
+ *
+ * When a GET has not answered after a high percentile of the recent latencies of its endpoint, a second identical
+ * request is sent. Endpoints are told apart by their {@link EndpointTemplate}, so a quick System/Info does not
+ * lower the delay of a large Items query, nor the other way around. The first response wins and the other request is cancelled; an error is only delivered once no request
+ * is left. The timeout of the original request is a deadline for both: the hedge gets what is left of it, and
+ * is not sent when too little is left. A timeout of 0 means no deadline, so such requests are never hedged.
+ *
+ * Hedges draw from a budget refilled by a fraction of every request, so they add at most that fraction of
+ * extra load, plus a small burst. Nothing is hedged until enough latencies of the endpoint were observed, failed
+ * requests counting with the time they took to fail. Requests with a body or another method are passed through as they are.
+ *
+ * Images loaded through an {@link org.jellyfin.apiclient.interaction.images.ImageFetcher} do not go through the
+ * http client and are not hedged.
+ */
+public class HedgingHttpClient implements IAsyncHttpClient {
+    public static final double DEFAULT_PERCENTILE = 0.95;
+    public static final long DEFAULT_MIN_HEDGE_DELAY_MS = 50;
+    public static final double DEFAULT_BUDGET_RATIO = 0.05;
+    public static final double DEFAULT_MAX_BUDGET = 10;
+    public static final int MIN_SAMPLES = 20;
+
+    private static final int WINDOW_SIZE = 256;
+    private static final int SAMPLES_PER_UPDATE = 16;
+
+    private final IAsyncHttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+
+    private double percentile = DEFAULT_PERCENTILE;
+    private long minHedgeDelayMs = DEFAULT_MIN_HEDGE_DELAY_MS;
+    private double budgetRatio = DEFAULT_BUDGET_RATIO;
+    private double maxBudget = DEFAULT_MAX_BUDGET;
+
+    private final HashMap<String, LatencyWindow> windows = new HashMap<>();
+    private double budget;
+
+    private long requestCount;
+    private long hedgeCount;
+    private long hedgeWinCount;
+    private long budgetExhaustedCount;
+
+    public HedgingHttpClient(IAsyncHttpClient httpClient) {
+        this(httpClient, CreateScheduler());
+    }
+
+    public HedgingHttpClient(IAsyncHttpClient httpClient, ScheduledExecutorService scheduler) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("httpClient");
+        }
+
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler");
+        }
+
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+    }
+
+    private static ScheduledExecutorService CreateScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "HedgingHttpClient");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public synchronized double getPercentile() {
+        return percentile;
+    }
+
+    /**
+     * Sets the latency percentile after which a hedge is sent, between 0 and 1.
+     */
+    public synchronized void setPercentile(double value) {
+        if (!(value > 0 && value < 1)) {
+            throw new IllegalArgumentException("value");
+        }
+
+        percentile = value;
+        InvalidateHedgeDelays();
+    }
+
+    public synchronized long getMinHedgeDelayMs() {
+        return minHedgeDelayMs;
+    }
+
+    public synchronized void setMinHedgeDelayMs(long value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("value");
+        }
+
+        minHedgeDelayMs = value;
+        InvalidateHedgeDelays();
+    }
+
+    public synchronized double getBudgetRatio() {
+        return budgetRatio;
+    }
+
+    /**
+     * Sets the hedges allowed per request sent, 0.05 allowing one hedge for 20 requests.
+     */
+    public synchronized void setBudgetRatio(double value) {
+        if (!(value >= 0 && value <= 1)) {
+            throw new IllegalArgumentException("value");
+        }
+
+        budgetRatio = value;
+    }
+
+    public synchronized double getMaxBudget() {
+        return maxBudget;
+    }
+
+    /**
+     * Sets the hedges that can be saved up while latency is good, and sent in a burst later.
+     */
+    public synchronized void setMaxBudget(double value) {
+        if (value < 1) {
+            throw new IllegalArgumentException("value");
+        }
+
+        maxBudget = value;
+    }
+
+    /**
+     * Gets the current delay before hedging requests to the endpoint of a url, or -1 while too few latencies of that
+     * endpoint were observed.
+     */
+    public synchronized long getHedgeDelayMs(String url) {
+        LatencyWindow window = windows.get(EndpointTemplate.Of(url));
+        return window != null ? window.hedgeDelayMs : -1;
+    }
+
+    /**
+     * Gets the number of requests eligible for hedging.
+     */
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized long getHedgeCount() {
+        return hedgeCount;
+    }
+
+    /**
+     * Gets the number of hedges that answered before the request they hedged.
+     */
+    public synchronized long getHedgeWinCount() {
+        return hedgeWinCount;
+    }
+
+    /**
+     * Gets the number of hedges not sent because the budget was spent.
+     */
+    public synchronized long getBudgetExhaustedCount() {
+        return budgetExhaustedCount;
+    }
+
+    @Override
+    public void Send(HttpRequest request, Response<String> response) {
+        if (!IsHedgeable(request)) {
+            httpClient.Send(request, response);
+            return;
+        }
+
+        String endpoint = EndpointTemplate.Of(request.getUrl());
+        LatencyWindow window;
+        long delayMs;
+        synchronized (this) {
+            requestCount++;
+            budget = Math.min(maxBudget, budget + budgetRatio);
+
+            window = windows.get(endpoint);
+            if (window == null) {
+                window = new LatencyWindow();
+                windows.put(endpoint, window);
+            }
+            delayMs = window.hedgeDelayMs;
+        }
+
+        new HedgedCall(request, response, window).Start(delayMs);
+    }
+
+    private static boolean IsHedgeable(HttpRequest request) {
+        return "GET".equalsIgnoreCase(request.getMethod())
+                && request.getUrl() != null
+                && request.getRequestContent() == null
+                && request.getPostData() == null;
+    }
+
+    private synchronized boolean TryAcquireBudget() {
+        if (budget < 1) {
+            budgetExhaustedCount++;
+            return false;
+        }
+
+        budget--;
+        hedgeCount++;
+        return true;
+    }
+
+    private synchronized void RecordLatency(LatencyWindow window, long latencyMs, boolean hedgeWon) {
+        if (hedgeWon) {
+            hedgeWinCount++;
+        }
+
+        window.Add(latencyMs);
+
+        // Sorting the window on every sample would cost more than the latency it saves
+        if (window.latencyCount < MIN_SAMPLES || window.samplesSinceUpdate < SAMPLES_PER_UPDATE) {
+            return;
+        }
+
+        long[] sorted = Arrays.copyOf(window.latencies, window.latencyCount);
+        Arrays.sort(sorted);
+        int index = (int) Math.min(window.latencyCount - 1, Math.floor(percentile * window.latencyCount));
+        window.hedgeDelayMs = Math.max(minHedgeDelayMs, sorted[index]);
+        window.samplesSinceUpdate = 0;
+    }
+
+    // Makes every endpoint recompute its delay with its next sample
+    private void InvalidateHedgeDelays() {
+        for (LatencyWindow window : windows.values()) {
+            window.samplesSinceUpdate = SAMPLES_PER_UPDATE;
+        }
+    }
+
+    /**
+     * The latest latencies of the eligible requests to one endpoint, in a ring. Guarded by the client.
+     */
+    private static final class LatencyWindow {
+        final long[] latencies = new long[WINDOW_SIZE];
+        int latencyCount;
+        int nextLatency;
+        int samplesSinceUpdate;
+        long hedgeDelayMs = -1;
+
+        void Add(long latencyMs) {
+            latencies[nextLatency] = latencyMs;
+            nextLatency = (nextLatency + 1) % WINDOW_SIZE;
+            latencyCount = Math.min(WINDOW_SIZE, latencyCount + 1);
+            samplesSinceUpdate++;
+        }
+    }
+
+    private final class HedgedCall {
+        final HttpRequest request;
+        final Response<String> response;
+        final LatencyWindow window;
+        final long startNanos = System.nanoTime();
+
+        final CancellationToken[] tokens = new CancellationToken[2];
+        int pending;
+        boolean done;
+        Exception firstError;
+        ScheduledFuture<?> hedgeTimer;
+
+        HedgedCall(HttpRequest request, Response<String> response, LatencyWindow window) {
+            this.request = request;
+            this.response = response;
+            this.window = window;
+        }
+
+        void Start(long delayMs) {
+            synchronized (this) {
+                pending = 1;
+            }
+
+            SendAttempt(0, request.getTimeout());
+
+            // The deadline is the timeout of the request, a hedge needs some of it left to be of any use.
+            // A timeout of 0 has no deadline to share and disables hedging.
+            if (delayMs < 0 || delayMs >= request.getTimeout()) {
+                return;
+            }
+
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+
+                hedgeTimer = scheduler.schedule(new Runnable() {
+                    @Override
+                    public void run() {
+                        SendHedge();
+                    }
+                }, delayMs, TimeUnit.MILLISECONDS);
+            }
+        }
+
+        void SendHedge() {
+            CancellationToken callerToken = request.getCancellationToken();
+            if (callerToken != null && callerToken.isCancellationRequested()) {
+                return;
+            }
+
+            long remainingMs = request.getTimeout() - ElapsedMs();
+            if (remainingMs <= 0) {
+                return;
+            }
+
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+
+                if (!TryAcquireBudget()) {
+                    return;
+                }
+
+                pending++;
+            }
+
+            SendAttempt(1, (int) remainingMs);
+        }
+
+        void SendAttempt(final int attempt, int timeoutMs) {
+            HttpRequest attemptRequest = new HttpRequest(request);
+            attemptRequest.setTimeout(timeoutMs);
+
+            // Linked so cancelling the caller aborts both, while the loser is cancelled on its own
+            CancellationToken token = CancellationToken.createLinked(request.getCancellationToken());
+            attemptRequest.setCancellationToken(token);
+            boolean finished;
+            synchronized (this) {
+                tokens[attempt] = token;
+                finished = done;
+            }
+
+            // The other attempt answered while this one was being prepared
+            if (finished) {
+                token.cancel();
+                return;
+            }
+
+            try {
+                httpClient.Send(attemptRequest, new Response<String>() {
+                    @Override
+                    public void onResponse(String result) {
+                        OnResponse(attempt, result);
+                    }
+
+                    @Override
+                    public void onError(Exception exception) {
+                        OnError(exception);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                OnError(ex);
+            }
+        }
+
+        void OnResponse(int attempt, String result) {
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+                done = true;
+            }
+
+            Finish();
+
+            // A hedge win only says the original took at least this long, which still feeds the tail
+            RecordLatency(window, ElapsedMs(), attempt == 1);
+
+            response.onResponse(result);
+        }
+
+        void OnError(Exception exception) {
+            Exception error;
+            synchronized (this) {
+                if (done) {
+                    return;
+                }
+
+                if (firstError == null) {
+                    firstError = exception;
+                }
+
+                pending--;
+                if (pending > 0) {
+                    return;
+                }
+
+                done = true;
+                error = firstError;
+            }
+
+            Finish();
+
+            // Slow failures are part of the tail too, unless the caller gave up on the request
+            CancellationToken callerToken = request.getCancellationToken();
+            if (callerToken == null || !callerToken.isCancellationRequested()) {
+                RecordLatency(window, ElapsedMs(), false);
+            }
+
+            response.onError(error);
+        }
+
+        // Stops the pending hedge and cancels the attempts, which aborts the loser and unlinks both from the caller
+        void Finish() {
+            ScheduledFuture<?> timer;
+            CancellationToken[] toCancel;
+            synchronized (this) {
+                timer = hedgeTimer;
+                toCancel = tokens.clone();
+            }
+
+            if (timer != null) {
+                timer.cancel(false);
+            }
+
+            for (CancellationToken token : toCancel) {
+                if (token != null) {
+                    token.cancel();
+                }
+            }
+        }
+
+        long ElapsedMs() {
+            return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+        }
+    }
+}
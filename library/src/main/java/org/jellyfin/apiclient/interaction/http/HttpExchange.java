@@ -0,0 +1,131 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A request and, once completed, its outcome, as seen by {@link HttpInterceptor}s.
+ */
+public final class HttpExchange {
+    private final HttpRequest request;
+    private final long startNanos = System.nanoTime();
+    private final long bytesSent;
+
+    private volatile boolean completed;
+    private long durationNanos = -1;
+    private Integer statusCode;
+    private long bytesReceived = -1;
+    private Exception error;
+
+    public HttpExchange(HttpRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request");
+        }
+
+        this.request = request;
+        this.bytesSent = GetBytesSent(request);
+    }
+
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Gets the size of the request body in bytes. Form posts are counted before url encoding.
+     */
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public boolean getIsCompleted() {
+        return completed;
+    }
+
+    /**
+     * Gets the time from the request being sent to the response being received, or -1 until completed.
+     * Response streams complete when the stream is closed.
+     */
+    public long getDurationMs() {
+        return durationNanos < 0 ? -1 : TimeUnit.NANOSECONDS.toMillis(durationNanos);
+    }
+
+    public long getDurationNanos() {
+        return durationNanos;
+    }
+
+    /**
+     * Gets the http status, or null when no response was received. Successful responses of an
+     * {@link IAsyncHttpClient} are reported as 200, as the client does not tell the status.
+     */
+    public Integer getStatusCode() {
+        return statusCode;
+    }
+
+    /**
+     * Gets the size of the response body in bytes, or -1 when nothing was received.
+     */
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    public Exception getError() {
+        return error;
+    }
+
+    /**
+     * Records the outcome of the exchange. Called by the api client, only the first call counts.
+     *
+     * @return Whether this call completed the exchange.
+     */
+    public synchronized boolean Complete(Integer statusCode, long bytesReceived, Exception error) {
+        if (completed) {
+            return false;
+        }
+
+        this.durationNanos = System.nanoTime() - startNanos;
+        this.statusCode = statusCode;
+        this.bytesReceived = bytesReceived;
+        this.error = error;
+        completed = true;
+        return true;
+    }
+
+    private static long GetBytesSent(HttpRequest request) {
+        if (request.getRequestContent() != null) {
+            return GetUtf8Length(request.getRequestContent());
+        }
+
+        long length = 0;
+        if (request.getPostData() != null) {
+            for (Map.Entry<String, String> entry : request.getPostData().entrySet()) {
+                length += GetUtf8Length(entry.getKey()) + GetUtf8Length(entry.getValue()) + 2;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Gets the length of the string encoded in UTF-8, without encoding it.
+     */
+    public static long GetUtf8Length(String value) {
+        if (value == null) {
+            return 0;
+        }
+
+        long length = 0;
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < value.length() && Character.isLowSurrogate(value.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+}
@@ -1,7 +1,35 @@
 package org.jellyfin.apiclient.interaction.http;
 
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
 public class HttpHeaders extends java.util.HashMap<String,String>
 {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     The name of the header carrying the rendered authorization value.
+     */
+    public static final String AuthorizationHeaderName = "X-Emby-Authorization";
+
+    public HttpHeaders()
+    {
+    }
+
+    /**
+     Creates a copy of the headers, including the authorization scheme and parameter.
+
+     @param source The headers to copy.
+     */
+    public HttpHeaders(HttpHeaders source)
+    {
+        super(source);
+
+        privateAuthorizationScheme = source.getAuthorizationScheme();
+        privateAuthorizationParameter = source.getAuthorizationParameter();
+    }
+
     /**
      Gets or sets the authorization scheme.
 
@@ -45,4 +73,40 @@ public class HttpHeaders extends java.util.HashMap<String,String>
             this.put("X-MediaBrowser-Token", token);
         }
     }
+
+    /**
+     Gets the authorization value ("scheme parameter"), or null when there is no authorization parameter.
+     */
+    public final String getAuthorizationHeaderValue()
+    {
+        return RenderAuthorizationHeaderValue(getAuthorizationScheme(), getAuthorizationParameter());
+    }
+
+    /**
+     Gets a read only copy of the headers as they go on the wire: every entry plus the rendered authorization header.
+     Requests sharing the same headers should use a {@link HttpHeadersSnapshot}, which renders it once.
+     */
+    public final Map<String, String> getWireHeaders()
+    {
+        return RenderWireHeaders(this, getAuthorizationHeaderValue());
+    }
+
+    static String RenderAuthorizationHeaderValue(String scheme, String parameter)
+    {
+        if (tangible.DotNetToJavaStringHelper.isNullOrEmpty(parameter))
+        {
+            return null;
+        }
+        return scheme + " " + parameter;
+    }
+
+    static Map<String, String> RenderWireHeaders(Map<String, String> entries, String authorization)
+    {
+        LinkedHashMap<String, String> headers = new LinkedHashMap<String, String>(entries);
+        if (authorization != null)
+        {
+            headers.put(AuthorizationHeaderName, authorization);
+        }
+        return Collections.unmodifiableMap(headers);
+    }
 }
@@ -0,0 +1,102 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ A read only copy of {@link HttpHeaders}, rendered once and shared between requests and threads without locking.
+ The entries are only exposed through unmodifiable maps; callers that need different headers copy them with
+ {@link #ToHttpHeaders()} instead.
+ */
+public final class HttpHeadersSnapshot implements Serializable
+{
+    private static final long serialVersionUID = 1L;
+
+    private final Map<String, String> headers;
+    private final String authorizationScheme;
+    private final String authorizationParameter;
+    private final String authorizationHeaderValue;
+    private final Map<String, String> wireHeaders;
+
+    public HttpHeadersSnapshot(HttpHeaders source)
+    {
+        if (source == null)
+        {
+            throw new IllegalArgumentException("source");
+        }
+
+        headers = Collections.unmodifiableMap(new LinkedHashMap<String, String>(source));
+        authorizationScheme = source.getAuthorizationScheme();
+        authorizationParameter = source.getAuthorizationParameter();
+        authorizationHeaderValue = HttpHeaders.RenderAuthorizationHeaderValue(authorizationScheme, authorizationParameter);
+        wireHeaders = HttpHeaders.RenderWireHeaders(headers, authorizationHeaderValue);
+    }
+
+    /**
+     Gets the entries, without the authorization header.
+     */
+    public Map<String, String> getHeaders()
+    {
+        return headers;
+    }
+
+    public String get(String name)
+    {
+        return headers.get(name);
+    }
+
+    public String getAuthorizationScheme()
+    {
+        return authorizationScheme;
+    }
+
+    public String getAuthorizationParameter()
+    {
+        return authorizationParameter;
+    }
+
+    /**
+     Gets the authorization value ("scheme parameter"), or null when there is no authorization parameter.
+     */
+    public String getAuthorizationHeaderValue()
+    {
+        return authorizationHeaderValue;
+    }
+
+    /**
+     Gets the headers as they go on the wire: every entry plus the rendered authorization header.
+     */
+    public Map<String, String> getWireHeaders()
+    {
+        return wireHeaders;
+    }
+
+    /**
+     Gets whether the snapshot still holds the same headers as the source.
+     */
+    public boolean Matches(HttpHeaders source)
+    {
+        return headers.equals(source)
+                && Equals(authorizationScheme, source.getAuthorizationScheme())
+                && Equals(authorizationParameter, source.getAuthorizationParameter());
+    }
+
+    /**
+     Creates a mutable copy of the headers.
+     */
+    public HttpHeaders ToHttpHeaders()
+    {
+        HttpHeaders copy = new HttpHeaders();
+        copy.putAll(headers);
+        copy.setAuthorizationScheme(authorizationScheme);
+        copy.setAuthorizationParameter(authorizationParameter);
+        return copy;
+    }
+
+    private static boolean Equals(String a, String b)
+    {
+        return a == null ? b == null : a.equals(b);
+    }
+}
@@ -0,0 +1,22 @@
+package org.jellyfin.apiclient.interaction.http;
+
+/**
+ * Observes the requests of an api client, for metrics or tracing.
+ *
+ * Interceptors are called for every request sent through the {@link IAsyncHttpClient} and every response stream.
+ * Callers sharing a deduplicated request make a single exchange, and requests cancelled before being sent make none.
+ * They must be thread safe and quick, as they run on the threads sending and completing requests. Exceptions they
+ * throw are logged and otherwise ignored.
+ */
+public interface HttpInterceptor {
+    /**
+     * Called before the request is sent, on the calling thread. The request may still be changed, such as adding
+     * a header to a copy of its headers.
+     */
+    void OnRequest(HttpExchange exchange);
+
+    /**
+     * Called once when the exchange completed, successfully or not, before the outcome reaches the caller.
+     */
+    void OnResponse(HttpExchange exchange);
+}
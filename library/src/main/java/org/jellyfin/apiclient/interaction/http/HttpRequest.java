@@ -1,6 +1,10 @@
 package org.jellyfin.apiclient.interaction.http;
 
 import org.jellyfin.apiclient.interaction.QueryStringDictionary;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
+import java.util.Collections;
+import java.util.Map;
 
 public class HttpRequest
 {
@@ -32,13 +36,53 @@ public class HttpRequest
         RequestContentType = value;
     }
     private HttpHeaders RequestHeaders;
+    private HttpHeadersSnapshot RequestHeadersSnapshot;
+    /**
+     * Gets the headers of the request. Requests sent with a shared snapshot get a copy of it here the first time,
+     * so changing the headers of one request leaves the others alone.
+     */
     public final HttpHeaders getRequestHeaders()
     {
+        if (RequestHeaders == null && RequestHeadersSnapshot != null)
+        {
+            RequestHeaders = RequestHeadersSnapshot.ToHttpHeaders();
+            RequestHeadersSnapshot = null;
+        }
         return RequestHeaders;
     }
     public final void setRequestHeaders(HttpHeaders value)
     {
         RequestHeaders = value;
+        RequestHeadersSnapshot = null;
+    }
+    public final void setRequestHeaders(HttpHeadersSnapshot value)
+    {
+        RequestHeaders = null;
+        RequestHeadersSnapshot = value;
+    }
+
+    /**
+     * Gets a read only snapshot of the headers, without copying a snapshot the request was sent with.
+     */
+    public final HttpHeadersSnapshot getRequestHeadersSnapshot()
+    {
+        if (RequestHeadersSnapshot != null)
+        {
+            return RequestHeadersSnapshot;
+        }
+        return RequestHeaders != null ? new HttpHeadersSnapshot(RequestHeaders) : null;
+    }
+
+    /**
+     * Gets the headers as they go on the wire, see {@link HttpHeaders#getWireHeaders()}.
+     */
+    public final Map<String, String> getWireHeaders()
+    {
+        if (RequestHeadersSnapshot != null)
+        {
+            return RequestHeadersSnapshot.getWireHeaders();
+        }
+        return RequestHeaders != null ? RequestHeaders.getWireHeaders() : Collections.<String, String>emptyMap();
     }
     private String Url;
     public final String getUrl()
@@ -80,9 +124,69 @@ public class HttpRequest
         EnableCaching = value;
     }
 
+    private boolean EnableRequestCompression;
+    /**
+     * Gets whether the request content may be sent gzip compressed, with a Content-Encoding header.
+     * Only set this for endpoints known to accept compressed bodies.
+     */
+    public final boolean getEnableRequestCompression()
+    {
+        return EnableRequestCompression;
+    }
+    public final void setEnableRequestCompression(boolean value)
+    {
+        EnableRequestCompression = value;
+    }
+
+    private CancellationToken CancellationToken;
+    /**
+     * Gets the token cancelling the request. Http clients skip requests cancelled before they are sent, and abort
+     * requests cancelled while running without delivering their response.
+     */
+    public final CancellationToken getCancellationToken()
+    {
+        return CancellationToken;
+    }
+    public final void setCancellationToken(CancellationToken value)
+    {
+        CancellationToken = value;
+    }
+
+    private RequestPriority Priority = RequestPriority.Interactive;
+    /**
+     * Gets the priority of the request, for clients scheduling requests. Defaults to interactive.
+     */
+    public final RequestPriority getPriority()
+    {
+        return Priority;
+    }
+    public final void setPriority(RequestPriority value)
+    {
+        Priority = value;
+    }
+
     public HttpRequest()
     {
         setRequestHeaders(new HttpHeaders());
         setTimeout(30000);
     }
+
+    /**
+     * Creates a copy of the request, to send it again. The headers and post data are shared, not copied.
+     */
+    public HttpRequest(HttpRequest source)
+    {
+        setMethod(source.getMethod());
+        setRequestContent(source.getRequestContent());
+        setRequestContentType(source.getRequestContentType());
+        RequestHeaders = source.RequestHeaders;
+        RequestHeadersSnapshot = source.RequestHeadersSnapshot;
+        setUrl(source.getUrl());
+        setTimeout(source.getTimeout());
+        setPostData(source.getPostData());
+        setEnableCaching(source.getEnableCaching());
+        setEnableRequestCompression(source.getEnableRequestCompression());
+        setCancellationToken(source.getCancellationToken());
+        setPriority(source.getPriority());
+    }
 }
@@ -0,0 +1,19 @@
+package org.jellyfin.apiclient.interaction.http;
+
+/**
+ * The urgency of a request, most urgent first. Schedulers start queued requests in this order.
+ */
+public enum RequestPriority {
+    /**
+     * Requests the user is waiting for.
+     */
+    Interactive,
+    /**
+     * Requests for content the user is likely to need soon.
+     */
+    Prefetch,
+    /**
+     * Requests nobody waits for, such as sync.
+     */
+    Background
+}
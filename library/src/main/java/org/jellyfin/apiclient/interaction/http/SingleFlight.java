@@ -0,0 +1,236 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+
+/**
+ * Shares one in-flight call among every caller asking for the same key.
+ *
+ * The first caller for a key starts the call, later callers join it until it completes. The result or the error
+ * is delivered to each waiter, and a waiter that cancels gets neither. A waiter is also cancelled by the
+ * cancellation token of its response, if any. Once every waiter cancelled, the call is forgotten so the next caller
+ * starts a new one, and the token given to the call is cancelled to abort it.
+ */
+public class SingleFlight<T> {
+
+    /**
+     * Starts the shared call, delivering its outcome to the given response. The response carries a cancellation
+     * token, cancelled when no waiter is left.
+     */
+    public interface Call<T> {
+        void Execute(Response<T> response);
+    }
+
+    /**
+     * A waiter of a shared call.
+     */
+    public interface Subscription {
+        void Cancel();
+    }
+
+    private final HashMap<String, Flight> flights = new HashMap<>();
+
+    private long callCount;
+    private long joinCount;
+
+    /**
+     * Gets the number of calls started.
+     */
+    public synchronized long getCallCount() {
+        return callCount;
+    }
+
+    /**
+     * Gets the number of callers served by a call another caller started.
+     */
+    public synchronized long getJoinCount() {
+        return joinCount;
+    }
+
+    public synchronized int getInFlightCount() {
+        return flights.size();
+    }
+
+    public Subscription Join(String key, Response<T> response, Call<T> call) {
+        if (key == null) {
+            throw new IllegalArgumentException("key");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("response");
+        }
+
+        if (call == null) {
+            throw new IllegalArgumentException("call");
+        }
+
+        final Flight flight;
+        final Waiter waiter;
+        boolean start;
+
+        synchronized (this) {
+            Flight existing = flights.get(key);
+            start = existing == null;
+
+            if (start) {
+                flight = new Flight(key);
+                flights.put(key, flight);
+                callCount++;
+            } else {
+                flight = existing;
+                joinCount++;
+            }
+
+            waiter = new Waiter(flight, response);
+            flight.waiters.add(waiter);
+        }
+
+        CancellationToken cancellationToken = response.getCancellationToken();
+        if (cancellationToken != null) {
+            waiter.registration = cancellationToken.register(new Runnable() {
+                @Override
+                public void run() {
+                    waiter.Cancel();
+                }
+            });
+        }
+
+        if (start && !flight.cancellationToken.isCancellationRequested()) {
+            Response<T> sharedResponse = new Response<T>() {
+                @Override
+                public void onResponse(T result) {
+                    flight.Complete(result, null);
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    flight.Complete(null, exception);
+                }
+            };
+            sharedResponse.setCancellationToken(flight.cancellationToken);
+
+            try {
+                call.Execute(sharedResponse);
+            } catch (RuntimeException ex) {
+                flight.Complete(null, ex);
+            }
+        }
+
+        return waiter;
+    }
+
+    /**
+     * Forgets every in-flight call, so the next callers start new ones. Waiters already joined still get the
+     * outcome of their call.
+     */
+    public synchronized void Reset() {
+        for (Flight flight : flights.values()) {
+            flight.detached = true;
+        }
+        flights.clear();
+    }
+
+    private final class Flight {
+        final String key;
+        final ArrayList<Waiter> waiters = new ArrayList<>(2);
+        final CancellationToken cancellationToken = new CancellationToken();
+        boolean completed;
+        boolean detached;
+
+        Flight(String key) {
+            this.key = key;
+        }
+
+        void Complete(T result, Exception exception) {
+            ArrayList<Waiter> toNotify;
+
+            synchronized (SingleFlight.this) {
+                if (completed) {
+                    return;
+                }
+                completed = true;
+
+                if (!detached) {
+                    flights.remove(key);
+                }
+
+                toNotify = new ArrayList<>(waiters);
+                waiters.clear();
+            }
+
+            // One failing callback must not keep the others from being called
+            RuntimeException callbackError = null;
+            for (Waiter waiter : toNotify) {
+                waiter.Unregister();
+                try {
+                    if (exception != null) {
+                        waiter.response.onError(exception);
+                    } else {
+                        waiter.response.onResponse(result);
+                    }
+                } catch (RuntimeException ex) {
+                    if (callbackError == null) {
+                        callbackError = ex;
+                    }
+                }
+            }
+
+            if (callbackError != null) {
+                throw callbackError;
+            }
+        }
+
+        // Called with the lock held, returns whether the call lost its last waiter and should be aborted
+        boolean Remove(Waiter waiter) {
+            if (completed || !waiters.remove(waiter)) {
+                return false;
+            }
+
+            if (!waiters.isEmpty()) {
+                return false;
+            }
+
+            if (!detached) {
+                flights.remove(key);
+                detached = true;
+            }
+            return true;
+        }
+    }
+
+    private final class Waiter implements Subscription {
+        final Flight flight;
+        final Response<T> response;
+        volatile CancellationToken.Registration registration;
+
+        Waiter(Flight flight, Response<T> response) {
+            this.flight = flight;
+            this.response = response;
+        }
+
+        @Override
+        public void Cancel() {
+            boolean abort;
+            synchronized (SingleFlight.this) {
+                abort = flight.Remove(this);
+            }
+
+            Unregister();
+
+            // Outside the lock, the callbacks of the token may disconnect a socket
+            if (abort) {
+                flight.cancellationToken.cancel();
+            }
+        }
+
+        void Unregister() {
+            CancellationToken.Registration current = registration;
+            if (current != null) {
+                current.unregister();
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.logging.ILogger;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The on-disk tier of the {@link ImageCache}. Each image is a file named after the SHA-1 of its key, read and written
+ * whole through a {@link FileChannel}. Files are evicted least recently used first once their total size exceeds
+ * the budget; the order survives restarts through the file modification times.
+ *
+ * File I/O happens outside the lock, so reads of different images do not wait for each other.
+ */
+public class DiskImageCache {
+    private static final Charset UTF8 = Charset.forName("UTF-8");
+    private static final String TempSuffix = ".tmp";
+    private static final char[] HexDigits = "0123456789abcdef".toCharArray();
+
+    private final File directory;
+    private final long maxBytes;
+    private final ILogger logger;
+
+    // File name to file size, least recently used first
+    private final LinkedHashMap<String, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private boolean initialized;
+    private long sizeBytes;
+    private long evictionCount;
+
+    public DiskImageCache(File directory, long maxBytes, ILogger logger) {
+        if (directory == null) {
+            throw new IllegalArgumentException("directory");
+        }
+
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes");
+        }
+
+        if (logger == null) {
+            throw new IllegalArgumentException("logger");
+        }
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.logger = logger;
+    }
+
+    public File getDirectory() {
+        return directory;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        EnsureInitialized();
+        return sizeBytes;
+    }
+
+    public synchronized int size() {
+        EnsureInitialized();
+        return entries.size();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public byte[] Get(String key) {
+        String name = GetFileName(key);
+
+        synchronized (this) {
+            EnsureInitialized();
+            if (entries.get(name) == null) {
+                return null;
+            }
+        }
+
+        File file = new File(directory, name);
+        try {
+            byte[] bytes = Read(file);
+            file.setLastModified(System.currentTimeMillis());
+            return bytes;
+        } catch (IOException ex) {
+            // Deleted by an eviction or from outside
+            logger.debug("Error reading cached image %s: %s", name, ex.getMessage());
+            Remove(name, false);
+            return null;
+        }
+    }
+
+    public void Put(String key, byte[] bytes) {
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        String name = GetFileName(key);
+        File file = new File(directory, name);
+        File temp = new File(directory, name + "." + Thread.currentThread().getId() + TempSuffix);
+
+        synchronized (this) {
+            EnsureInitialized();
+        }
+
+        try {
+            if (!directory.isDirectory() && !directory.mkdirs() && !directory.isDirectory()) {
+                throw new IOException("Unable to create " + directory);
+            }
+
+            Write(temp, bytes);
+
+            // Readers see either the previous file or the complete new one
+            if (!temp.renameTo(file)) {
+                file.delete();
+                if (!temp.renameTo(file)) {
+                    throw new IOException("Unable to rename " + temp);
+                }
+            }
+        } catch (IOException ex) {
+            logger.error("Error caching image %s", ex, name);
+            temp.delete();
+            return;
+        }
+
+        synchronized (this) {
+            Long previous = entries.put(name, (long) bytes.length);
+            if (previous != null) {
+                sizeBytes -= previous;
+            }
+            sizeBytes += bytes.length;
+
+            TrimToSize();
+        }
+    }
+
+    public void Remove(String key) {
+        Remove(GetFileName(key), true);
+    }
+
+    public synchronized void Clear() {
+        EnsureInitialized();
+
+        for (String name : entries.keySet()) {
+            new File(directory, name).delete();
+        }
+
+        entries.clear();
+        sizeBytes = 0;
+    }
+
+    private void Remove(String name, boolean delete) {
+        synchronized (this) {
+            EnsureInitialized();
+
+            Long removed = entries.remove(name);
+            if (removed != null) {
+                sizeBytes -= removed;
+            }
+        }
+
+        if (delete) {
+            new File(directory, name).delete();
+        }
+    }
+
+    // Called with the lock held
+    private void TrimToSize() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            new File(directory, eldest.getKey()).delete();
+            sizeBytes -= eldest.getValue();
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    // Called with the lock held
+    private void EnsureInitialized() {
+        if (initialized) {
+            return;
+        }
+        initialized = true;
+
+        File[] files = directory.listFiles();
+        if (files == null) {
+            return;
+        }
+
+        Arrays.sort(files, new Comparator<File>() {
+            @Override
+            public int compare(File x, File y) {
+                long xModified = x.lastModified();
+                long yModified = y.lastModified();
+                return xModified < yModified ? -1 : (xModified == yModified ? 0 : 1);
+            }
+        });
+
+        for (File file : files) {
+            if (file.getName().endsWith(TempSuffix)) {
+                // Left over by a write that never completed
+                file.delete();
+                continue;
+            }
+
+            if (file.isFile()) {
+                entries.put(file.getName(), file.length());
+                sizeBytes += file.length();
+            }
+        }
+
+        TrimToSize();
+    }
+
+    private static byte[] Read(File file) throws IOException {
+        FileInputStream stream = new FileInputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + file);
+            }
+
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer) < 0) {
+                    throw new IOException("Unexpected end of file: " + file);
+                }
+            }
+            return buffer.array();
+        } finally {
+            stream.close();
+        }
+    }
+
+    private static void Write(File file, byte[] bytes) throws IOException {
+        FileOutputStream stream = new FileOutputStream(file);
+        try {
+            FileChannel channel = stream.getChannel();
+            ByteBuffer buffer = ByteBuffer.wrap(bytes);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } finally {
+            stream.close();
+        }
+    }
+
+    static String GetFileName(String key) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            // Every Java and Android runtime provides SHA-1
+            throw new IllegalStateException(ex);
+        }
+
+        byte[] hash = digest.digest(key.getBytes(UTF8));
+        char[] name = new char[hash.length * 2];
+        for (int i = 0; i < hash.length; i++) {
+            name[i * 2] = HexDigits[(hash[i] >> 4) & 0xF];
+            name[i * 2 + 1] = HexDigits[hash[i] & 0xF];
+        }
+        return new String(name);
+    }
+}
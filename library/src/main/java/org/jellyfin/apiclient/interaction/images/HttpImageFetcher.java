@@ -0,0 +1,74 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.net.HttpException;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Fetches images with {@link HttpURLConnection}. Failed responses raise an {@link HttpException} carrying the status.
+ * Cancelling the token disconnects the connection, and the fetch raises a {@link CancellationException}.
+ */
+public class HttpImageFetcher implements ImageFetcher {
+    public static final int DEFAULT_TIMEOUT_MS = 30000;
+
+    private final int timeoutMs;
+
+    public HttpImageFetcher() {
+        this(DEFAULT_TIMEOUT_MS);
+    }
+
+    public HttpImageFetcher(int timeoutMs) {
+        this.timeoutMs = timeoutMs;
+    }
+
+    @Override
+    public byte[] Fetch(String url, CancellationToken cancellationToken) throws IOException {
+        cancellationToken.throwIfCancellationRequested();
+
+        final HttpURLConnection conn = (HttpURLConnection) new URL(url).openConnection();
+        CancellationToken.Registration registration = cancellationToken.register(new Runnable() {
+            @Override
+            public void run() {
+                conn.disconnect();
+            }
+        });
+        try {
+            conn.setConnectTimeout(timeoutMs);
+            conn.setReadTimeout(timeoutMs);
+            conn.setUseCaches(false);
+
+            int status = conn.getResponseCode();
+            if (status < 200 || status >= 300) {
+                HttpException exception = new HttpException("Image request failed with status " + status);
+                exception.setStatusCode(status);
+                throw exception;
+            }
+
+            int contentLength = conn.getContentLength();
+            ByteArrayOutputStream output = new ByteArrayOutputStream(contentLength > 0 ? contentLength : 16 * 1024);
+            InputStream input = conn.getInputStream();
+            try {
+                byte[] buffer = new byte[16 * 1024];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    output.write(buffer, 0, read);
+                }
+            } finally {
+                input.close();
+            }
+            return output.toByteArray();
+        } catch (IOException ex) {
+            cancellationToken.throwIfCancellationRequested();
+            throw ex;
+        } finally {
+            registration.unregister();
+            conn.disconnect();
+        }
+    }
+}
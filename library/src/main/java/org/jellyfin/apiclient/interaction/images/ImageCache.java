@@ -0,0 +1,134 @@
+package org.jellyfin.apiclient.interaction.images;
+
+/**
+ * A two tier cache of image bytes: a {@link MemoryImageCache} in front of an optional {@link DiskImageCache}.
+ * Disk hits are promoted to memory.
+ *
+ * Only urls carrying an image tag can be cached: the tag changes whenever the image does, so the bytes of such a
+ * url never go stale. Keys leave out the server address, so an image fetched through the local and the remote
+ * address of a server is cached once.
+ */
+public class ImageCache {
+    private final MemoryImageCache memory;
+    private final DiskImageCache disk;
+
+    private long memoryHitCount;
+    private long diskHitCount;
+    private long missCount;
+
+    public ImageCache(MemoryImageCache memory, DiskImageCache disk) {
+        if (memory == null) {
+            throw new IllegalArgumentException("memory");
+        }
+
+        this.memory = memory;
+        this.disk = disk;
+    }
+
+    public ImageCache(long maxMemoryBytes) {
+        this(new MemoryImageCache(maxMemoryBytes), null);
+    }
+
+    public MemoryImageCache getMemory() {
+        return memory;
+    }
+
+    public DiskImageCache getDisk() {
+        return disk;
+    }
+
+    public synchronized long getMemoryHitCount() {
+        return memoryHitCount;
+    }
+
+    public synchronized long getDiskHitCount() {
+        return diskHitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * Gets the key of an image url, or null when the url has no tag and must not be cached.
+     */
+    public static String GetKey(String url) {
+        if (url == null) {
+            return null;
+        }
+
+        int query = url.indexOf('?');
+        if (query < 0 || (url.indexOf("?Tag=", query) < 0 && url.indexOf("&Tag=", query) < 0)) {
+            return null;
+        }
+
+        // Strip the scheme, host and port, keep the path and query
+        int scheme = url.indexOf("://");
+        int path = url.indexOf('/', scheme < 0 ? 0 : scheme + 3);
+        if (path < 0 || path > query) {
+            path = query;
+        }
+        return url.substring(path);
+    }
+
+    public byte[] Get(String key) {
+        byte[] bytes = memory.Get(key);
+        if (bytes != null) {
+            synchronized (this) {
+                memoryHitCount++;
+            }
+            return bytes;
+        }
+
+        if (disk != null) {
+            bytes = disk.Get(key);
+            if (bytes != null) {
+                memory.Put(key, bytes);
+                synchronized (this) {
+                    diskHitCount++;
+                }
+                return bytes;
+            }
+        }
+
+        synchronized (this) {
+            missCount++;
+        }
+        return null;
+    }
+
+    /**
+     * Adds the image to both tiers. Writing to disk blocks, so call this off the UI thread.
+     */
+    public void Put(String key, byte[] bytes) {
+        if (key == null) {
+            throw new IllegalArgumentException("key");
+        }
+
+        if (bytes == null) {
+            throw new IllegalArgumentException("bytes");
+        }
+
+        memory.Put(key, bytes);
+
+        if (disk != null) {
+            disk.Put(key, bytes);
+        }
+    }
+
+    public void Remove(String key) {
+        memory.Remove(key);
+
+        if (disk != null) {
+            disk.Remove(key);
+        }
+    }
+
+    public void Clear() {
+        memory.Clear();
+
+        if (disk != null) {
+            disk.Clear();
+        }
+    }
+}
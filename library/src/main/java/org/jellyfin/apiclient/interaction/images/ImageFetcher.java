@@ -0,0 +1,13 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
+import java.io.IOException;
+
+/**
+ * Downloads the bytes of an image. Called on the worker threads of the {@link ImageLoader}, so it may block.
+ * The token is cancelled when no request waits for the image anymore, the download should then stop.
+ */
+public interface ImageFetcher {
+    byte[] Fetch(String url, CancellationToken cancellationToken) throws IOException;
+}
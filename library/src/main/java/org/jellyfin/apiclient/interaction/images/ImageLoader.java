@@ -0,0 +1,288 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+
+/**
+ * Loads image bytes through priority lanes with bounded concurrency each, storing them in an {@link ImageCache}.
+ *
+ * A lane starts its newest request first, so the tiles the user scrolled to last come first. Loads of a url already
+ * pending are joined, and move the request to the more urgent lane when needed. A cancelled load is dropped while
+ * queued; once downloading, the download is aborted when no other request waits for it. Bytes are delivered
+ * undecoded.
+ *
+ * Memory hits are answered on the calling thread, everything else on a worker thread.
+ */
+public class ImageLoader {
+    public static final int[] DEFAULT_LANE_CONCURRENCY = new int[] { 4, 2, 1 };
+
+    private static final ImagePriority[] Priorities = ImagePriority.values();
+
+    /**
+     * A pending load, which can be cancelled when its tile scrolls away.
+     */
+    public interface Request {
+        void Cancel();
+    }
+
+    private final ImageFetcher fetcher;
+    private final ImageCache cache;
+    private final Executor executor;
+    private final int[] laneConcurrency;
+
+    private final HashMap<String, Task> tasks = new HashMap<>();
+    private final ArrayList<ArrayDeque<Task>> queues = new ArrayList<>();
+    private final int[] running;
+
+    private long fetchCount;
+    private long cancelCount;
+
+    public ImageLoader(ImageFetcher fetcher, ImageCache cache) {
+        this(fetcher, cache, null, DEFAULT_LANE_CONCURRENCY);
+    }
+
+    /**
+     * @param executor Runs the loads, created with as many threads as all lanes together when null.
+     * @param laneConcurrency The maximum loads in flight for each {@link ImagePriority}, in declaration order.
+     */
+    public ImageLoader(ImageFetcher fetcher, ImageCache cache, Executor executor, int[] laneConcurrency) {
+        if (fetcher == null) {
+            throw new IllegalArgumentException("fetcher");
+        }
+
+        if (laneConcurrency == null || laneConcurrency.length != Priorities.length) {
+            throw new IllegalArgumentException("laneConcurrency");
+        }
+
+        int total = 0;
+        for (int concurrency : laneConcurrency) {
+            if (concurrency < 1) {
+                throw new IllegalArgumentException("laneConcurrency");
+            }
+            total += concurrency;
+        }
+
+        this.fetcher = fetcher;
+        this.cache = cache;
+        this.executor = executor != null ? executor : CreateExecutor(total);
+        this.laneConcurrency = laneConcurrency.clone();
+        this.running = new int[Priorities.length];
+
+        for (int i = 0; i < Priorities.length; i++) {
+            queues.add(new ArrayDeque<Task>());
+        }
+    }
+
+    private static ExecutorService CreateExecutor(int threads) {
+        return Executors.newFixedThreadPool(threads, new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ImageLoader");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public ImageCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Gets the number of images downloaded, as opposed to served by the cache.
+     */
+    public synchronized long getFetchCount() {
+        return fetchCount;
+    }
+
+    public synchronized long getCancelCount() {
+        return cancelCount;
+    }
+
+    public synchronized int getQueuedCount(ImagePriority priority) {
+        return queues.get(priority.ordinal()).size();
+    }
+
+    public synchronized int getRunningCount(ImagePriority priority) {
+        return running[priority.ordinal()];
+    }
+
+    public Request Load(String url, ImagePriority priority, Response<byte[]> response) {
+        if (url == null || url.isEmpty()) {
+            throw new IllegalArgumentException("url");
+        }
+
+        if (priority == null) {
+            throw new IllegalArgumentException("priority");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("response");
+        }
+
+        String key = ImageCache.GetKey(url);
+        if (cache != null && key != null) {
+            byte[] bytes = cache.getMemory().Get(key);
+            if (bytes != null) {
+                response.onResponse(bytes);
+                return new Waiter(null, null);
+            }
+        }
+
+        Waiter waiter;
+        synchronized (this) {
+            Task task = tasks.get(url);
+            if (task == null) {
+                task = new Task(url, key, priority);
+                tasks.put(url, task);
+                queues.get(priority.ordinal()).addLast(task);
+            } else if (!task.running && priority.ordinal() < task.priority.ordinal()) {
+                queues.get(task.priority.ordinal()).remove(task);
+                task.priority = priority;
+                queues.get(priority.ordinal()).addLast(task);
+            }
+
+            waiter = new Waiter(task, response);
+            task.waiters.add(waiter);
+        }
+
+        Schedule();
+        return waiter;
+    }
+
+    private void Schedule() {
+        ArrayList<Task> started = new ArrayList<>();
+
+        synchronized (this) {
+            for (int lane = 0; lane < Priorities.length; lane++) {
+                ArrayDeque<Task> queue = queues.get(lane);
+                while (running[lane] < laneConcurrency[lane] && !queue.isEmpty()) {
+                    Task task = queue.pollLast();
+                    task.running = true;
+                    running[lane]++;
+                    started.add(task);
+                }
+            }
+        }
+
+        for (final Task task : started) {
+            executor.execute(new Runnable() {
+                @Override
+                public void run() {
+                    Run(task);
+                }
+            });
+        }
+    }
+
+    private void Run(Task task) {
+        byte[] bytes = null;
+        Exception error = null;
+
+        try {
+            if (cache != null && task.key != null) {
+                bytes = cache.Get(task.key);
+            }
+
+            if (bytes == null) {
+                synchronized (this) {
+                    fetchCount++;
+                }
+
+                bytes = fetcher.Fetch(task.url, task.cancellationToken);
+
+                if (cache != null && task.key != null) {
+                    cache.Put(task.key, bytes);
+                }
+            }
+        } catch (Exception ex) {
+            error = ex;
+        }
+
+        ArrayList<Waiter> waiters;
+        synchronized (this) {
+            // An aborted task was replaced already when the url was requested again
+            if (tasks.get(task.url) == task) {
+                tasks.remove(task.url);
+            }
+            running[task.priority.ordinal()]--;
+            waiters = new ArrayList<>(task.waiters);
+            task.waiters.clear();
+        }
+
+        Schedule();
+
+        for (Waiter waiter : waiters) {
+            if (error != null) {
+                waiter.response.onError(error);
+            } else {
+                waiter.response.onResponse(bytes);
+            }
+        }
+    }
+
+    private void Cancel(Waiter waiter) {
+        Task task = waiter.task;
+        synchronized (this) {
+            if (!task.waiters.remove(waiter)) {
+                return;
+            }
+
+            cancelCount++;
+
+            if (!task.waiters.isEmpty()) {
+                return;
+            }
+
+            // Forgotten so the url can be requested again, a running task releases its slot when the fetch returns
+            tasks.remove(task.url);
+            if (!task.running) {
+                queues.get(task.priority.ordinal()).remove(task);
+                return;
+            }
+        }
+
+        // Outside the lock, the callbacks of the token may disconnect a socket
+        task.cancellationToken.cancel();
+    }
+
+    private static final class Task {
+        final String url;
+        final String key;
+        ImagePriority priority;
+        boolean running;
+        final ArrayList<Waiter> waiters = new ArrayList<>(1);
+        final CancellationToken cancellationToken = new CancellationToken();
+
+        Task(String url, String key, ImagePriority priority) {
+            this.url = url;
+            this.key = key;
+            this.priority = priority;
+        }
+    }
+
+    private final class Waiter implements Request {
+        final Task task;
+        final Response<byte[]> response;
+
+        Waiter(Task task, Response<byte[]> response) {
+            this.task = task;
+            this.response = response;
+        }
+
+        @Override
+        public void Cancel() {
+            if (task != null) {
+                ImageLoader.this.Cancel(this);
+            }
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package org.jellyfin.apiclient.interaction.images;
+
+/**
+ * The lanes of the {@link ImageLoader}, most urgent first.
+ */
+public enum ImagePriority {
+    /**
+     * Tiles on screen.
+     */
+    Visible,
+
+    /**
+     * Tiles about to scroll into view.
+     */
+    Prefetch,
+
+    /**
+     * Anything else worth warming the cache with.
+     */
+    Background
+}
@@ -0,0 +1,119 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import java.util.Arrays;
+import java.util.HashSet;
+
+/**
+ * Snaps requested image dimensions up to the next step of a ladder, so nearby sizes (a poster at 211px and at 214px)
+ * share one server side resize and one cache entry. The caller downscales the slightly larger image locally.
+ *
+ * Dimensions above the last step are left as they are. When its metrics are enabled, it also counts the distinct sizes
+ * requested before and after snapping, which bounds the cache hit rate each would allow.
+ */
+public class ImageSizeQuantizer {
+    public static final int[] DEFAULT_LADDER = new int[] { 120, 160, 240, 320, 480, 640, 720, 960, 1080, 1280, 1440, 1920, 2560, 3840 };
+
+    // Enough to measure a session without growing forever
+    private static final int MaxTrackedSizes = 10000;
+
+    private final int[] ladder;
+
+    private volatile boolean enableMetrics;
+    private long requestCount;
+    private final HashSet<String> requestedSizes = new HashSet<>();
+    private final HashSet<String> quantizedSizes = new HashSet<>();
+
+    public ImageSizeQuantizer() {
+        this(DEFAULT_LADDER);
+    }
+
+    public ImageSizeQuantizer(int[] ladder) {
+        if (ladder == null || ladder.length == 0) {
+            throw new IllegalArgumentException("ladder");
+        }
+
+        this.ladder = ladder.clone();
+        Arrays.sort(this.ladder);
+
+        if (this.ladder[0] < 1) {
+            throw new IllegalArgumentException("ladder");
+        }
+    }
+
+    public int[] getLadder() {
+        return ladder.clone();
+    }
+
+    /**
+     * Gets the smallest step at least as large as the value, or the value itself when it is above the ladder.
+     */
+    public int Quantize(int value) {
+        int index = Arrays.binarySearch(ladder, value);
+        if (index >= 0) {
+            return value;
+        }
+
+        index = -index - 1;
+        return index < ladder.length ? ladder[index] : value;
+    }
+
+    public Integer Quantize(Integer value) {
+        return value != null ? Integer.valueOf(Quantize(value.intValue())) : null;
+    }
+
+    public boolean getEnableMetrics() {
+        return enableMetrics;
+    }
+
+    /**
+     * Sets whether image urls are recorded for the metrics. Disabled by default, as every url then takes a lock.
+     */
+    public void setEnableMetrics(boolean value) {
+        enableMetrics = value;
+    }
+
+    /**
+     * Records a request for the metrics. Callers skip this when the metrics are disabled.
+     */
+    public synchronized void Record(String requestedSize, String quantizedSize) {
+        requestCount++;
+
+        if (requestedSizes.size() < MaxTrackedSizes) {
+            requestedSizes.add(requestedSize);
+        }
+
+        if (quantizedSizes.size() < MaxTrackedSizes) {
+            quantizedSizes.add(quantizedSize);
+        }
+    }
+
+    public synchronized long getRequestCount() {
+        return requestCount;
+    }
+
+    public synchronized int getDistinctRequestedSizeCount() {
+        return requestedSizes.size();
+    }
+
+    public synchronized int getDistinctQuantizedSizeCount() {
+        return quantizedSizes.size();
+    }
+
+    /**
+     * Gets the share of requests that quantization turns from a cache miss into a potential hit: every distinct size
+     * misses once, every other request can hit.
+     */
+    public synchronized double getHitRateImprovement() {
+        if (requestCount == 0) {
+            return 0;
+        }
+
+        return (double) (requestedSizes.size() - quantizedSizes.size()) / requestCount;
+    }
+
+    public synchronized void ResetMetrics() {
+        requestCount = 0;
+        requestedSizes.clear();
+        quantizedSizes.clear();
+    }
+}
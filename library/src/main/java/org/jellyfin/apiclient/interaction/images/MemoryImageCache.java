@@ -0,0 +1,78 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * The in-memory tier of the {@link ImageCache}: a least recently used map of image bytes, bounded by their total size.
+ */
+public class MemoryImageCache {
+    private final long maxBytes;
+    private final LinkedHashMap<String, byte[]> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long sizeBytes;
+    private long evictionCount;
+
+    public MemoryImageCache(long maxBytes) {
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes");
+        }
+
+        this.maxBytes = maxBytes;
+    }
+
+    public long getMaxBytes() {
+        return maxBytes;
+    }
+
+    public synchronized long getSizeBytes() {
+        return sizeBytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public synchronized byte[] Get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Adds the image, evicting the least recently used ones until the budget is met. Images larger than the whole
+     * budget are not kept.
+     */
+    public synchronized void Put(String key, byte[] bytes) {
+        Remove(key);
+
+        if (bytes.length > maxBytes) {
+            return;
+        }
+
+        entries.put(key, bytes);
+        sizeBytes += bytes.length;
+
+        Iterator<Map.Entry<String, byte[]>> iterator = entries.entrySet().iterator();
+        while (sizeBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, byte[]> eldest = iterator.next();
+            sizeBytes -= eldest.getValue().length;
+            iterator.remove();
+            evictionCount++;
+        }
+    }
+
+    public synchronized void Remove(String key) {
+        byte[] removed = entries.remove(key);
+        if (removed != null) {
+            sizeBytes -= removed.length;
+        }
+    }
+
+    public synchronized void Clear() {
+        entries.clear();
+        sizeBytes = 0;
+    }
+}
@@ -0,0 +1,87 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The requests made to one endpoint, as of the time {@link HttpMetrics#GetSnapshot()} was called.
+ */
+public final class EndpointStats {
+    private final String method;
+    private final String template;
+    private final long count;
+    private final long errorCount;
+    private final long bytesSent;
+    private final long bytesReceived;
+    private final Map<Integer, Long> statusCodes;
+    private final Map<String, Long> errors;
+    private final LatencyHistogram latency;
+
+    EndpointStats(String method, String template, long count, long errorCount, long bytesSent, long bytesReceived,
+                  Map<Integer, Long> statusCodes, Map<String, Long> errors, LatencyHistogram latency) {
+        this.method = method;
+        this.template = template;
+        this.count = count;
+        this.errorCount = errorCount;
+        this.bytesSent = bytesSent;
+        this.bytesReceived = bytesReceived;
+        this.statusCodes = Collections.unmodifiableMap(new TreeMap<>(statusCodes));
+        this.errors = Collections.unmodifiableMap(new TreeMap<>(errors));
+        this.latency = latency;
+    }
+
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets the path of the endpoint, with ids replaced, see {@link EndpointTemplate}.
+     */
+    public String getTemplate() {
+        return template;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getErrorCount() {
+        return errorCount;
+    }
+
+    public long getBytesSent() {
+        return bytesSent;
+    }
+
+    public long getBytesReceived() {
+        return bytesReceived;
+    }
+
+    /**
+     * Gets the number of responses by http status.
+     */
+    public Map<Integer, Long> getStatusCodes() {
+        return statusCodes;
+    }
+
+    /**
+     * Gets the number of errors by the simple name of their class.
+     */
+    public Map<String, Long> getErrors() {
+        return errors;
+    }
+
+    /**
+     * Gets a copy of the latency histogram, which the snapshot owns.
+     */
+    public LatencyHistogram getLatency() {
+        return latency;
+    }
+
+    @Override
+    public String toString() {
+        return method + " " + template + ": " + count + " requests, " + errorCount + " errors, p50 "
+                + latency.GetPercentileMs(0.5) + " ms, p99 " + latency.GetPercentileMs(0.99) + " ms";
+    }
+}
@@ -0,0 +1,64 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import java.util.regex.Pattern;
+
+/**
+ * Reduces request urls to the endpoint they call, so requests to different items are counted together.
+ *
+ * The scheme, host and query are dropped, and path segments that look like ids are replaced with {id}:
+ * "http://server/Users/5f0e.../Items?Limit=50" becomes "Users/{id}/Items".
+ */
+public final class EndpointTemplate {
+    public static final String ID_PLACEHOLDER = "{id}";
+
+    private static final Pattern Guid = Pattern.compile("(?i)[0-9a-f]{32}|[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+    private static final Pattern Number = Pattern.compile("\\d+");
+    // Access tokens and other generated keys, long and mixing digits with letters unlike endpoint names
+    private static final Pattern Token = Pattern.compile("(?=.*\\d)(?=.*[A-Za-z])[A-Za-z0-9_-]{16,}");
+
+    private EndpointTemplate() {
+    }
+
+    public static String Of(String url) {
+        if (url == null) {
+            throw new IllegalArgumentException("url");
+        }
+
+        String path = url;
+
+        int query = path.indexOf('?');
+        if (query != -1) {
+            path = path.substring(0, query);
+        }
+
+        int fragment = path.indexOf('#');
+        if (fragment != -1) {
+            path = path.substring(0, fragment);
+        }
+
+        int scheme = path.indexOf("://");
+        if (scheme != -1) {
+            int pathStart = path.indexOf('/', scheme + 3);
+            path = pathStart == -1 ? "" : path.substring(pathStart);
+        }
+
+        StringBuilder template = new StringBuilder(path.length());
+        for (String segment : path.split("/")) {
+            if (segment.length() == 0) {
+                continue;
+            }
+
+            if (template.length() > 0) {
+                template.append('/');
+            }
+            template.append(IsId(segment) ? ID_PLACEHOLDER : segment);
+        }
+        return template.toString();
+    }
+
+    static boolean IsId(String segment) {
+        return Guid.matcher(segment).matches()
+                || Number.matcher(segment).matches()
+                || Token.matcher(segment).matches();
+    }
+}
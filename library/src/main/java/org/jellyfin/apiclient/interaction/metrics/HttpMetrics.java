@@ -0,0 +1,100 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import org.jellyfin.apiclient.interaction.http.HttpExchange;
+import org.jellyfin.apiclient.interaction.http.HttpInterceptor;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Records the latency, traffic, statuses and errors of the requests of an api client, per endpoint.
+ *
+ * Add it to an api client with {@code addInterceptor}, then read {@link #GetSnapshot()} to find the slow or
+ * failing endpoints. Endpoints are keyed by method and {@link EndpointTemplate}, such as "GET Users/{id}/Items".
+ */
+public class HttpMetrics implements HttpInterceptor {
+    private final HashMap<String, Endpoint> endpoints = new HashMap<>();
+
+    @Override
+    public void OnRequest(HttpExchange exchange) {
+    }
+
+    @Override
+    public void OnResponse(HttpExchange exchange) {
+        String method = exchange.getRequest().getMethod();
+        method = method == null ? "GET" : method.toUpperCase(Locale.ROOT);
+        String template = EndpointTemplate.Of(exchange.getRequest().getUrl());
+        String key = method + " " + template;
+
+        synchronized (this) {
+            Endpoint endpoint = endpoints.get(key);
+            if (endpoint == null) {
+                endpoint = new Endpoint(method, template);
+                endpoints.put(key, endpoint);
+            }
+            endpoint.Record(exchange);
+        }
+    }
+
+    /**
+     * Gets the statistics of every endpoint called since creation or the last reset, sorted by key.
+     */
+    public synchronized TreeMap<String, EndpointStats> GetSnapshot() {
+        TreeMap<String, EndpointStats> snapshot = new TreeMap<>();
+        for (Map.Entry<String, Endpoint> entry : endpoints.entrySet()) {
+            snapshot.put(entry.getKey(), entry.getValue().ToStats());
+        }
+        return snapshot;
+    }
+
+    public synchronized void Reset() {
+        endpoints.clear();
+    }
+
+    private static final class Endpoint {
+        final String method;
+        final String template;
+        final LatencyHistogram latency = new LatencyHistogram();
+        final HashMap<Integer, Long> statusCodes = new HashMap<>();
+        final HashMap<String, Long> errors = new HashMap<>();
+        long count;
+        long errorCount;
+        long bytesSent;
+        long bytesReceived;
+
+        Endpoint(String method, String template) {
+            this.method = method;
+            this.template = template;
+        }
+
+        void Record(HttpExchange exchange) {
+            count++;
+            latency.Record(Math.max(0, exchange.getDurationMs()));
+            bytesSent += exchange.getBytesSent();
+
+            if (exchange.getBytesReceived() > 0) {
+                bytesReceived += exchange.getBytesReceived();
+            }
+
+            if (exchange.getStatusCode() != null) {
+                Increment(statusCodes, exchange.getStatusCode());
+            }
+
+            if (exchange.getError() != null) {
+                errorCount++;
+                Increment(errors, exchange.getError().getClass().getSimpleName());
+            }
+        }
+
+        EndpointStats ToStats() {
+            return new EndpointStats(method, template, count, errorCount, bytesSent, bytesReceived, statusCodes, errors, latency.Copy());
+        }
+
+        static <T> void Increment(HashMap<T, Long> counts, T key) {
+            Long count = counts.get(key);
+            counts.put(key, count == null ? 1 : count + 1);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import java.util.Arrays;
+
+/**
+ * Counts latencies in fixed buckets, which keeps the memory of an endpoint constant however many requests it serves.
+ *
+ * Percentiles are approximated by the upper bound of the bucket they fall in. Not thread safe.
+ */
+public final class LatencyHistogram {
+    private static final long[] BucketBoundsMs = { 1, 2, 5, 10, 20, 50, 100, 200, 500, 1000, 2000, 5000, 10000, 30000 };
+
+    // One more bucket for the latencies above the last bound
+    private final long[] counts;
+    private long count;
+    private long totalMs;
+    private long maxMs;
+
+    public LatencyHistogram() {
+        counts = new long[BucketBoundsMs.length + 1];
+    }
+
+    private LatencyHistogram(LatencyHistogram other) {
+        counts = other.counts.clone();
+        count = other.count;
+        totalMs = other.totalMs;
+        maxMs = other.maxMs;
+    }
+
+    public void Record(long latencyMs) {
+        if (latencyMs < 0) {
+            throw new IllegalArgumentException("latencyMs");
+        }
+
+        int index = Arrays.binarySearch(BucketBoundsMs, latencyMs);
+        if (index < 0) {
+            index = -index - 1;
+        }
+
+        counts[index]++;
+        count++;
+        totalMs += latencyMs;
+        maxMs = Math.max(maxMs, latencyMs);
+    }
+
+    public LatencyHistogram Copy() {
+        return new LatencyHistogram(this);
+    }
+
+    /**
+     * Gets the upper bounds of the buckets in milliseconds. The last bucket, counting the latencies above them, has none.
+     */
+    public static long[] getBucketBoundsMs() {
+        return BucketBoundsMs.clone();
+    }
+
+    /**
+     * Gets the number of latencies in each bucket, one more than the bounds.
+     */
+    public long[] getBucketCounts() {
+        return counts.clone();
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getAverageMs() {
+        return count == 0 ? 0 : (double) totalMs / count;
+    }
+
+    public long getMaxMs() {
+        return maxMs;
+    }
+
+    /**
+     * Gets the latency under which the given fraction of the requests completed, between 0 and 1.
+     *
+     * @return The upper bound of the bucket of the percentile, the max latency for the last bucket, or 0 when empty.
+     */
+    public long GetPercentileMs(double percentile) {
+        if (!(percentile >= 0 && percentile <= 1)) {
+            throw new IllegalArgumentException("percentile");
+        }
+
+        if (count == 0) {
+            return 0;
+        }
+
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+        long seen = 0;
+        for (int i = 0; i < BucketBoundsMs.length; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(BucketBoundsMs[i], maxMs);
+            }
+        }
+        return maxMs;
+    }
+}
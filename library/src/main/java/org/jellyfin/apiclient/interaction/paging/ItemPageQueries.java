@@ -0,0 +1,94 @@
+package org.jellyfin.apiclient.interaction.paging;
+
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+
+/**
+ * Builds the queries of the pages of an {@link ItemQuery}, leaving the query of the caller untouched so other
+ * threads reading it never see the bounds of a page.
+ */
+public final class ItemPageQueries {
+    private ItemPageQueries() {
+    }
+
+    /**
+     * Copies the query for one page. Only the server needs to count the total, on the first page.
+     */
+    public static ItemQuery ForPage(ItemQuery query, int startIndex, int limit, boolean enableTotalRecordCount) {
+        ItemQuery page = Copy(query);
+        page.setStartIndex(startIndex);
+        page.setLimit(limit);
+        page.setEnableTotalRecordCount(enableTotalRecordCount);
+        return page;
+    }
+
+    /**
+     * Copies every property of the query. The arrays are shared, the copy is only meant to be read.
+     */
+    public static ItemQuery Copy(ItemQuery query) {
+        if (query == null) {
+            throw new IllegalArgumentException("query");
+        }
+
+        ItemQuery copy = new ItemQuery();
+        copy.setUserId(query.getUserId());
+        copy.setParentId(query.getParentId());
+        copy.setStartIndex(query.getStartIndex());
+        copy.setLimit(query.getLimit());
+        copy.setSortBy(query.getSortBy());
+        copy.setArtistIds(query.getArtistIds());
+        copy.setSortOrder(query.getSortOrder());
+        copy.setFilters(query.getFilters());
+        copy.setFields(query.getFields());
+        copy.setMediaTypes(query.getMediaTypes());
+        copy.setIs3D(query.getIs3D());
+        copy.setVideoTypes(query.getVideoTypes());
+        copy.setRecursive(query.getRecursive());
+        copy.setGenres(query.getGenres());
+        copy.setGenreIds(query.getGenreIds());
+        copy.setStudioIds(query.getStudioIds());
+        copy.setExcludeItemTypes(query.getExcludeItemTypes());
+        copy.setIncludeItemTypes(query.getIncludeItemTypes());
+        copy.setYears(query.getYears());
+        copy.setPersonIds(query.getPersonIds());
+        copy.setPersonTypes(query.getPersonTypes());
+        copy.setSearchTerm(query.getSearchTerm());
+        copy.setImageTypes(query.getImageTypes());
+        copy.setAirDays(query.getAirDays());
+        copy.setSeriesStatuses(query.getSeriesStatuses());
+        copy.setIds(query.getIds());
+        copy.setMinOfficialRating(query.getMinOfficialRating());
+        copy.setMaxOfficialRating(query.getMaxOfficialRating());
+        copy.setMinIndexNumber(query.getMinIndexNumber());
+        copy.setHasParentalRating(query.getHasParentalRating());
+        copy.setIsHD(query.getIsHD());
+        copy.setParentIndexNumber(query.getParentIndexNumber());
+        copy.setMinPlayers(query.getMinPlayers());
+        copy.setMaxPlayers(query.getMaxPlayers());
+        copy.setNameStartsWithOrGreater(query.getNameStartsWithOrGreater());
+        copy.setNameStartsWith(query.getNameStartsWith());
+        copy.setNameLessThan(query.getNameLessThan());
+        copy.setAlbumArtistStartsWithOrGreater(query.getAlbumArtistStartsWithOrGreater());
+        copy.setIncludeIndexContainers(query.getIncludeIndexContainers());
+        copy.setLocationTypes(query.getLocationTypes());
+        copy.setIsMissing(query.getIsMissing());
+        copy.setIsUnaired(query.getIsUnaired());
+        copy.setIsVirtualUnaired(query.getIsVirtualUnaired());
+        copy.setIsInBoxSet(query.getIsInBoxSet());
+        copy.setCollapseBoxSetItems(query.getCollapseBoxSetItems());
+        copy.setIsPlayed(query.getIsPlayed());
+        copy.setExcludeLocationTypes(query.getExcludeLocationTypes());
+        copy.setMinCommunityRating(query.getMinCommunityRating());
+        copy.setMinCriticRating(query.getMinCriticRating());
+        copy.setAiredDuringSeason(query.getAiredDuringSeason());
+        copy.setMinPremiereDate(query.getMinPremiereDate());
+        copy.setMaxPremiereDate(query.getMaxPremiereDate());
+        copy.setEnableImages(query.getEnableImages());
+        copy.setImageTypeLimit(query.getImageTypeLimit());
+        copy.setEnableImageTypes(query.getEnableImageTypes());
+        copy.setArtists(query.getArtists());
+        copy.setStudios(query.getStudios());
+        copy.setPerson(query.getPerson());
+        copy.setEnableTotalRecordCount(query.getEnableTotalRecordCount());
+        return copy;
+    }
+}
@@ -0,0 +1,313 @@
+package org.jellyfin.apiclient.interaction.paging;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.jellyfin.apiclient.model.querying.ItemsResult;
+
+import java.io.Closeable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterates over every item matching an {@link ItemQuery}, fetching pages ahead of the consumer.
+ *
+ * The first page tells the total record count, after which up to a fixed number of pages are requested concurrently.
+ * Items are delivered in query order. The page size adapts to the observed latency so each request takes roughly
+ * the target time. The StartIndex and Limit of the query bound the iteration, if set.
+ *
+ * {@link #hasNext()} blocks until the next page arrives, so do not iterate on a UI thread. Call {@link #close()}
+ * when stopping early: no further pages are requested and the requests still in flight are cancelled. When a page
+ * fails the other requests in flight are cancelled too, and {@link #hasNext()} throws once it reaches the failure.
+ */
+public class ItemPaginator implements Iterator<BaseItemDto>, Closeable {
+    public static final int DEFAULT_PAGE_SIZE = 100;
+    public static final int DEFAULT_MAX_CONCURRENT_PAGES = 4;
+    public static final int MIN_PAGE_SIZE = 20;
+    public static final int MAX_PAGE_SIZE = 1000;
+    public static final long DEFAULT_TARGET_PAGE_LATENCY_MS = 1000;
+
+    private final ApiClient apiClient;
+    private final ItemQuery query;
+    private final int maxConcurrentPages;
+    private final int firstIndex;
+    private final int requestedCount;
+    private final CancellationToken cancellationToken = new CancellationToken();
+
+    private long targetPageLatencyMs = DEFAULT_TARGET_PAGE_LATENCY_MS;
+    private int pageSize;
+    private boolean started;
+    private int totalRecordCount = -1;
+    private int endIndex = -1;
+    private int nextRequestIndex;
+    private int nextDeliveryIndex;
+    private int inFlight;
+    private boolean closed;
+    private Exception error;
+    private final HashMap<Integer, Page> completed = new HashMap<>();
+
+    private BaseItemDto[] current;
+    private int currentPosition;
+
+    public ItemPaginator(ApiClient apiClient, ItemQuery query) {
+        this(apiClient, query, DEFAULT_PAGE_SIZE, DEFAULT_MAX_CONCURRENT_PAGES);
+    }
+
+    public ItemPaginator(ApiClient apiClient, ItemQuery query, int pageSize, int maxConcurrentPages) {
+        if (apiClient == null) {
+            throw new IllegalArgumentException("apiClient");
+        }
+
+        if (query == null) {
+            throw new IllegalArgumentException("query");
+        }
+
+        if (pageSize < 1) {
+            throw new IllegalArgumentException("pageSize");
+        }
+
+        if (maxConcurrentPages < 1) {
+            throw new IllegalArgumentException("maxConcurrentPages");
+        }
+
+        this.apiClient = apiClient;
+        // Later changes made by the caller do not affect the pages still to come
+        this.query = ItemPageQueries.Copy(query);
+        this.pageSize = pageSize;
+        this.maxConcurrentPages = maxConcurrentPages;
+        this.firstIndex = query.getStartIndex() != null ? query.getStartIndex() : 0;
+        this.requestedCount = query.getLimit() != null ? query.getLimit() : -1;
+        this.nextRequestIndex = firstIndex;
+        this.nextDeliveryIndex = firstIndex;
+    }
+
+    public synchronized long getTargetPageLatencyMs() {
+        return targetPageLatencyMs;
+    }
+
+    public synchronized void setTargetPageLatencyMs(long value) {
+        targetPageLatencyMs = value;
+    }
+
+    /**
+     * Gets the current page size, which adapts to the observed latency.
+     */
+    public synchronized int getPageSize() {
+        return pageSize;
+    }
+
+    /**
+     * Gets the total record count reported by the server, or -1 until the first page arrived.
+     */
+    public synchronized int getTotalRecordCount() {
+        return totalRecordCount;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (current != null && currentPosition < current.length) {
+            return true;
+        }
+
+        current = null;
+        currentPosition = 0;
+
+        boolean start;
+        synchronized (this) {
+            start = !started;
+            started = true;
+        }
+
+        if (start) {
+            RequestPages();
+        }
+
+        synchronized (this) {
+            while (true) {
+                if (closed) {
+                    return false;
+                }
+
+                if (endIndex >= 0 && nextDeliveryIndex >= endIndex) {
+                    return false;
+                }
+
+                Page page = completed.remove(nextDeliveryIndex);
+                if (page != null) {
+                    nextDeliveryIndex += page.requested;
+
+                    if (page.items.length > 0) {
+                        current = page.items;
+                        return true;
+                    }
+
+                    continue;
+                }
+
+                if (error != null) {
+                    throw new IllegalStateException("Failed to get the next page of items", error);
+                }
+
+                try {
+                    wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+
+        close();
+        return false;
+    }
+
+    @Override
+    public BaseItemDto next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        return current[currentPosition++];
+    }
+
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            completed.clear();
+            notifyAll();
+        }
+
+        // Outside the lock, the callbacks of the token may disconnect sockets
+        cancellationToken.cancel();
+    }
+
+    private void RequestPages() {
+        ArrayList<Page> pages = new ArrayList<>();
+
+        synchronized (this) {
+            while (!closed && error == null && inFlight < maxConcurrentPages) {
+                int size;
+                if (endIndex < 0) {
+                    // Until the first page tells the total, only that one is requested
+                    if (nextRequestIndex != firstIndex) {
+                        break;
+                    }
+                    size = requestedCount >= 0 ? Math.min(pageSize, requestedCount) : pageSize;
+                } else {
+                    size = Math.min(pageSize, endIndex - nextRequestIndex);
+                }
+
+                if (size <= 0) {
+                    break;
+                }
+
+                pages.add(new Page(nextRequestIndex, size));
+                nextRequestIndex += size;
+                inFlight++;
+            }
+        }
+
+        for (Page page : pages) {
+            RequestPage(page);
+        }
+    }
+
+    private void RequestPage(final Page page) {
+        final long start = System.currentTimeMillis();
+        final boolean isFirst = page.start == firstIndex;
+
+        Response<ItemsResult> response = new Response<ItemsResult>() {
+            @Override
+            public void onResponse(ItemsResult result) {
+                OnPageCompleted(page, result, isFirst, System.currentTimeMillis() - start);
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                OnPageFailed(exception);
+            }
+        };
+        response.setCancellationToken(cancellationToken);
+
+        apiClient.GetItemsAsync(ItemPageQueries.ForPage(query, page.start, page.requested, isFirst), response);
+    }
+
+    private void OnPageCompleted(Page page, ItemsResult result, boolean isFirst, long latencyMs) {
+        synchronized (this) {
+            inFlight--;
+
+            if (closed) {
+                return;
+            }
+
+            page.items = result != null && result.getItems() != null ? result.getItems() : new BaseItemDto[0];
+
+            if (isFirst) {
+                totalRecordCount = result != null ? result.getTotalRecordCount() : 0;
+
+                int available = Math.max(0, totalRecordCount - firstIndex);
+                endIndex = firstIndex + (requestedCount >= 0 ? Math.min(requestedCount, available) : available);
+                page.requested = Math.min(page.requested, endIndex - page.start);
+            }
+
+            AdaptPageSize(page.requested, latencyMs);
+
+            completed.put(page.start, page);
+            notifyAll();
+        }
+
+        RequestPages();
+    }
+
+    private void OnPageFailed(Exception exception) {
+        boolean first;
+        synchronized (this) {
+            inFlight--;
+
+            first = error == null;
+            if (first) {
+                error = exception;
+            }
+
+            notifyAll();
+        }
+
+        if (first) {
+            // The iteration ends with this error, so the other pages in flight are no longer needed
+            cancellationToken.cancel();
+        }
+    }
+
+    private void AdaptPageSize(int requested, long latencyMs) {
+        if (requested < pageSize / 2 || latencyMs <= 0) {
+            // Tail pages say little about throughput
+            return;
+        }
+
+        long target = Math.max(1, targetPageLatencyMs);
+        long adapted = (long) pageSize * target / latencyMs;
+        adapted = Math.max(pageSize / 2, Math.min((long) pageSize * 2, adapted));
+        pageSize = (int) Math.max(MIN_PAGE_SIZE, Math.min(MAX_PAGE_SIZE, adapted));
+    }
+
+    private static final class Page {
+        final int start;
+        int requested;
+        BaseItemDto[] items;
+
+        Page(int start, int requested) {
+            this.start = start;
+            this.requested = requested;
+        }
+    }
+}
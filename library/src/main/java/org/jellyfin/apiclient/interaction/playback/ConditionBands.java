@@ -0,0 +1,144 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.model.dlna.CodecType;
+import org.jellyfin.apiclient.model.dlna.CompiledCodecProfile;
+import org.jellyfin.apiclient.model.dlna.CompiledDeviceProfile;
+import org.jellyfin.apiclient.model.dlna.CompiledProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ContainerProfile;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * The numeric thresholds the codec and container profile conditions of a device profile compare stream attributes
+ * against, per property. Two values falling in the same band (below a threshold, equal to it, or between two of them)
+ * satisfy exactly the same conditions, so a {@link MediaSignature} keys on the band instead of the raw value: a
+ * library of 8 and 9 Mbps encodes shares one signature as long as no condition tells them apart.
+ */
+public final class ConditionBands {
+    private static final double[] NoThresholds = new double[0];
+
+    private final EnumMap<ProfileConditionValue, double[]> thresholds = new EnumMap<>(ProfileConditionValue.class);
+
+    public ConditionBands(CompiledDeviceProfile profile) {
+        if (profile == null) {
+            throw new IllegalArgumentException("profile");
+        }
+
+        EnumMap<ProfileConditionValue, TreeSet<Double>> values = new EnumMap<>(ProfileConditionValue.class);
+
+        for (CodecType type : CodecType.values()) {
+            for (CompiledCodecProfile codec : profile.GetCodecProfiles(type)) {
+                for (CompiledProfileCondition condition : codec.getConditions()) {
+                    Add(values, condition.getProperty(), condition.getValue());
+                }
+                for (CompiledProfileCondition condition : codec.getApplyConditions()) {
+                    Add(values, condition.getProperty(), condition.getValue());
+                }
+            }
+        }
+
+        ContainerProfile[] containerProfiles = profile.getProfile().getContainerProfiles();
+        if (containerProfiles != null) {
+            for (ContainerProfile container : containerProfiles) {
+                if (container.getConditions() == null) {
+                    continue;
+                }
+
+                for (ProfileCondition condition : container.getConditions()) {
+                    Add(values, condition.getProperty(), condition.getValue());
+                }
+            }
+        }
+
+        for (Map.Entry<ProfileConditionValue, TreeSet<Double>> entry : values.entrySet()) {
+            double[] sorted = new double[entry.getValue().size()];
+            int i = 0;
+            for (Double value : entry.getValue()) {
+                sorted[i++] = value;
+            }
+            thresholds.put(entry.getKey(), sorted);
+        }
+    }
+
+    /**
+     * Gets the band of a stream attribute: 2n when it is below the n-th threshold of the property (and above the
+     * previous one), 2n + 1 when it is equal to it. Properties without a condition have a single band.
+     *
+     * @return The band, or null if the value is unknown, which conditions treat on its own.
+     */
+    public Integer GetBand(ProfileConditionValue property, Number value) {
+        if (property == null) {
+            throw new IllegalArgumentException("property");
+        }
+
+        if (value == null) {
+            return null;
+        }
+
+        double number = value.doubleValue();
+        if (Double.isNaN(number)) {
+            // Compares as neither below nor above any threshold
+            return -1;
+        }
+
+        double[] values = thresholds.get(property);
+        if (values == null) {
+            values = NoThresholds;
+        }
+
+        // Integers and floats are exact as doubles, so the comparisons match the ones of the conditions
+        int index = Arrays.binarySearch(values, number);
+        return index >= 0 ? 2 * index + 1 : 2 * (-index - 1);
+    }
+
+    private static void Add(EnumMap<ProfileConditionValue, TreeSet<Double>> values, ProfileConditionValue property, String value) {
+        Double threshold = ParseThreshold(property, value);
+        if (threshold == null) {
+            return;
+        }
+
+        TreeSet<Double> set = values.get(property);
+        if (set == null) {
+            set = new TreeSet<>();
+            values.put(property, set);
+        }
+        set.add(threshold);
+    }
+
+    // Parsed as the condition processor parses them, a frame rate of 29.97 is compared as a float
+    private static Double ParseThreshold(ProfileConditionValue property, String value) {
+        if (property == null || value == null) {
+            return null;
+        }
+
+        try {
+            switch (property) {
+                case AudioChannels:
+                case AudioBitrate:
+                case Width:
+                case Height:
+                case PacketLength:
+                case VideoBitDepth:
+                case VideoBitrate:
+                case RefFrames:
+                case NumAudioStreams:
+                case NumVideoStreams:
+                    return (double) Integer.parseInt(value);
+                case VideoFramerate:
+                    return (double) Float.parseFloat(value);
+                case VideoLevel:
+                    return Double.parseDouble(value);
+                default:
+                    return null;
+            }
+        } catch (NumberFormatException ex) {
+            // The engine fails on the condition itself, whatever the band
+            return null;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+import org.jellyfin.apiclient.model.dlna.StreamDecisionEngine;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
+import org.jellyfin.apiclient.model.entities.MediaStream;
+import org.jellyfin.apiclient.model.entities.MediaStreamType;
+import org.jellyfin.apiclient.model.entities.MediaType;
+
+import java.util.Arrays;
+
+/**
+ * Every stream attribute the {@link StreamDecisionEngine} reads when matching a media source against the codec
+ * and container profiles: container, codecs, codec profiles, level, resolution, frame rates, stream bitrates,
+ * reference frames, packet length, codec tag, stream counts and timestamp. Sources encoded the same way share a
+ * signature, so the profile evaluation made for one of them holds for the others. Numeric attributes are keyed on
+ * their {@link ConditionBands band} between the thresholds of the profile, not on their raw value.
+ *
+ * The attributes of the source itself (direct play and stream support, live streams, overall bitrate) are not
+ * part of it and have to be checked for every source, see {@link StreamDecisionEngine#CanPlayDirectly}.
+ */
+public final class MediaSignature {
+    private final Object[] values;
+    private final int hashCode;
+
+    private MediaSignature(Object[] values) {
+        this.values = values;
+        this.hashCode = Arrays.hashCode(values);
+    }
+
+    public static MediaSignature Create(String mediaType, MediaSourceInfo source, ConditionBands bands) {
+        if (source == null) {
+            throw new IllegalArgumentException("source");
+        }
+
+        if (bands == null) {
+            throw new IllegalArgumentException("bands");
+        }
+
+        if (MediaType.Audio.equalsIgnoreCase(mediaType)) {
+            MediaStream audio = source.getDefaultAudioStream();
+            return new MediaSignature(new Object[] {
+                    MediaType.Audio,
+                    source.getContainer(),
+                    audio != null ? audio.getCodec() : null,
+                    audio != null ? bands.GetBand(ProfileConditionValue.AudioChannels, audio.getChannels()) : null,
+                    audio != null ? bands.GetBand(ProfileConditionValue.AudioBitrate, audio.getBitRate()) : null
+            });
+        }
+
+        // The same streams the engine picks, embedded cover images are not the video stream
+        MediaStream video = StreamDecisionEngine.GetVideoStream(source);
+        MediaStream audio = StreamDecisionEngine.GetVideoAudioStream(source, null);
+        return new MediaSignature(new Object[] {
+                mediaType,
+                source.getContainer(),
+                source.getTimestamp(),
+                bands.GetBand(ProfileConditionValue.NumVideoStreams, source.GetStreamCount(MediaStreamType.Video)),
+                bands.GetBand(ProfileConditionValue.NumAudioStreams, source.GetStreamCount(MediaStreamType.Audio)),
+                video != null ? video.getCodec() : null,
+                video != null ? video.getProfile() : null,
+                video != null ? bands.GetBand(ProfileConditionValue.VideoLevel, video.getLevel()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.Width, video.getWidth()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.Height, video.getHeight()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.VideoBitDepth, video.getBitDepth()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.VideoBitrate, video.getBitRate()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.VideoFramerate, video.getAverageFrameRate()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.VideoFramerate, video.getRealFrameRate()) : null,
+                video != null ? bands.GetBand(ProfileConditionValue.PacketLength, video.getPacketLength()) : null,
+                video != null ? video.getIsAnamorphic() : null,
+                video != null ? bands.GetBand(ProfileConditionValue.RefFrames, video.getRefFrames()) : null,
+                video != null ? video.getCodecTag() : null,
+                video != null ? video.getIsAVC() : null,
+                audio != null ? audio.getCodec() : null,
+                audio != null ? audio.getProfile() : null,
+                audio != null ? bands.GetBand(ProfileConditionValue.AudioChannels, audio.getChannels()) : null,
+                audio != null ? bands.GetBand(ProfileConditionValue.AudioBitrate, audio.getBitRate()) : null,
+                audio != null ? source.IsSecondaryAudio(audio) : null
+        });
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+
+        if (!(o instanceof MediaSignature)) {
+            return false;
+        }
+
+        MediaSignature other = (MediaSignature) o;
+        return hashCode == other.hashCode && Arrays.equals(values, other.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return hashCode;
+    }
+
+    @Override
+    public String toString() {
+        return Arrays.toString(values);
+    }
+}
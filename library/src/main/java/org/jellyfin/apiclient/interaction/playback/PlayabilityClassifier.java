@@ -0,0 +1,285 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.model.dlna.StreamDecisionEngine;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
+import org.jellyfin.apiclient.model.entities.MediaType;
+import org.jellyfin.apiclient.model.session.PlayMethod;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Classifies items as direct playable, direct streamable or needing a transcode, for badges on browse screens.
+ * The codec and container profile evaluation is memoized per {@link MediaSignature} in a bounded LRU cache, so a
+ * library listing only evaluates the device profile once per distinct encoding, with bitrates, frame rates and other
+ * numeric attributes folded into the bands the profile's conditions tell apart. The flags of each source (direct
+ * play and stream support, live streams, bitrate limit) are cheap and checked on every call.
+ */
+public class PlayabilityClassifier {
+    public static final int DEFAULT_CAPACITY = 512;
+    public static final int DEFAULT_PARALLEL_THRESHOLD = 64;
+
+    private final StreamDecisionEngine engine;
+    private final ConditionBands bands;
+    private final Long maxBitrate;
+    private final int capacity;
+    private final LinkedHashMap<MediaSignature, Boolean> cache;
+
+    private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+    private long hitCount;
+    private long missCount;
+
+    public PlayabilityClassifier(StreamDecisionEngine engine, Long maxBitrate) {
+        this(engine, maxBitrate, DEFAULT_CAPACITY);
+    }
+
+    public PlayabilityClassifier(StreamDecisionEngine engine, Long maxBitrate, int capacity) {
+        if (engine == null) {
+            throw new IllegalArgumentException("engine");
+        }
+
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity");
+        }
+
+        this.engine = engine;
+        this.bands = new ConditionBands(engine.getProfile());
+        this.maxBitrate = maxBitrate;
+        this.capacity = capacity;
+        this.cache = new LinkedHashMap<MediaSignature, Boolean>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<MediaSignature, Boolean> eldest) {
+                return size() > PlayabilityClassifier.this.capacity;
+            }
+        };
+    }
+
+    /**
+     * Gets the number of distinct signatures above which {@link #ClassifyAll} evaluates uncached signatures in parallel.
+     */
+    public int getParallelThreshold() {
+        return parallelThreshold;
+    }
+
+    public void setParallelThreshold(int value) {
+        parallelThreshold = value;
+    }
+
+    public synchronized long getHitCount() {
+        return hitCount;
+    }
+
+    public synchronized long getMissCount() {
+        return missCount;
+    }
+
+    public synchronized void Clear() {
+        cache.clear();
+    }
+
+    /**
+     * Classifies a single item.
+     *
+     * @return The best play method of the item's media sources, or null if it has none or is neither audio nor video.
+     */
+    public PlayMethod Classify(BaseItemDto item) {
+        if (item == null) {
+            throw new IllegalArgumentException("item");
+        }
+
+        if (item.getMediaSources() == null || !IsPlayable(item.getMediaType())) {
+            return null;
+        }
+
+        PlayMethod best = null;
+
+        for (MediaSourceInfo source : item.getMediaSources()) {
+            best = Best(best, Classify(item.getMediaType(), source));
+        }
+
+        return best;
+    }
+
+    public PlayMethod Classify(String mediaType, MediaSourceInfo source) {
+        if (!engine.CanPlayDirectly(source, maxBitrate)) {
+            return PlayMethod.Transcode;
+        }
+
+        MediaSignature signature = MediaSignature.Create(mediaType, source, bands);
+
+        Boolean supported = GetCached(signature);
+        if (supported == null) {
+            supported = IsSupported(mediaType, source);
+            Put(signature, supported);
+        }
+
+        return GetPlayMethod(source, supported);
+    }
+
+    /**
+     * Classifies a listing. Items sharing a signature are evaluated once and, when there are enough uncached
+     * signatures and an executor is given, the evaluations are split across it. Must not be called from a
+     * thread of that executor.
+     *
+     * @return The play method of each audio or video item that has media sources, by item id.
+     */
+    public HashMap<String, PlayMethod> ClassifyAll(List<BaseItemDto> items, ExecutorService executor) throws InterruptedException {
+        if (items == null) {
+            throw new IllegalArgumentException("items");
+        }
+
+        // Distinct uncached signatures, each with one source to evaluate it with
+        final LinkedHashMap<MediaSignature, MediaSourceInfo> pending = new LinkedHashMap<>();
+        final HashMap<MediaSignature, String> pendingMediaTypes = new HashMap<>();
+        HashMap<MediaSignature, Boolean> known = new HashMap<>();
+
+        for (BaseItemDto item : items) {
+            if (item.getMediaSources() == null || !IsPlayable(item.getMediaType())) {
+                continue;
+            }
+
+            for (MediaSourceInfo source : item.getMediaSources()) {
+                if (!engine.CanPlayDirectly(source, maxBitrate)) {
+                    continue;
+                }
+
+                MediaSignature signature = MediaSignature.Create(item.getMediaType(), source, bands);
+                if (known.containsKey(signature) || pending.containsKey(signature)) {
+                    continue;
+                }
+
+                Boolean cached = GetCached(signature);
+                if (cached != null) {
+                    known.put(signature, cached);
+                } else {
+                    pending.put(signature, source);
+                    pendingMediaTypes.put(signature, item.getMediaType());
+                }
+            }
+        }
+
+        if (executor != null && pending.size() >= parallelThreshold) {
+            known.putAll(EvaluateParallel(pending, pendingMediaTypes, executor));
+        } else {
+            for (Map.Entry<MediaSignature, MediaSourceInfo> entry : pending.entrySet()) {
+                known.put(entry.getKey(), IsSupported(pendingMediaTypes.get(entry.getKey()), entry.getValue()));
+            }
+        }
+
+        for (MediaSignature signature : pending.keySet()) {
+            Put(signature, known.get(signature));
+        }
+
+        HashMap<String, PlayMethod> results = new HashMap<>(items.size() * 2);
+        for (BaseItemDto item : items) {
+            if (item.getMediaSources() == null || !IsPlayable(item.getMediaType())) {
+                continue;
+            }
+
+            PlayMethod best = null;
+            for (MediaSourceInfo source : item.getMediaSources()) {
+                if (!engine.CanPlayDirectly(source, maxBitrate)) {
+                    best = Best(best, PlayMethod.Transcode);
+                    continue;
+                }
+
+                best = Best(best, GetPlayMethod(source, known.get(MediaSignature.Create(item.getMediaType(), source, bands))));
+            }
+
+            if (best != null) {
+                results.put(item.getId(), best);
+            }
+        }
+
+        return results;
+    }
+
+    private HashMap<MediaSignature, Boolean> EvaluateParallel(LinkedHashMap<MediaSignature, MediaSourceInfo> pending, final HashMap<MediaSignature, String> mediaTypes, ExecutorService executor) throws InterruptedException {
+        final ArrayList<Map.Entry<MediaSignature, MediaSourceInfo>> entries = new ArrayList<>(pending.entrySet());
+        int chunks = Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), entries.size() / Math.max(1, parallelThreshold / 4)));
+        int chunkSize = (entries.size() + chunks - 1) / chunks;
+
+        ArrayList<Callable<HashMap<MediaSignature, Boolean>>> tasks = new ArrayList<>(chunks);
+        for (int start = 0; start < entries.size(); start += chunkSize) {
+            final int from = start;
+            final int to = Math.min(entries.size(), start + chunkSize);
+            tasks.add(new Callable<HashMap<MediaSignature, Boolean>>() {
+                @Override
+                public HashMap<MediaSignature, Boolean> call() {
+                    HashMap<MediaSignature, Boolean> chunk = new HashMap<>((to - from) * 2);
+                    for (int i = from; i < to; i++) {
+                        Map.Entry<MediaSignature, MediaSourceInfo> entry = entries.get(i);
+                        chunk.put(entry.getKey(), IsSupported(mediaTypes.get(entry.getKey()), entry.getValue()));
+                    }
+                    return chunk;
+                }
+            });
+        }
+
+        HashMap<MediaSignature, Boolean> results = new HashMap<>(entries.size() * 2);
+        for (Future<HashMap<MediaSignature, Boolean>> future : executor.invokeAll(tasks)) {
+            try {
+                results.putAll(future.get());
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new IllegalStateException(cause);
+            }
+        }
+
+        return results;
+    }
+
+    // Only reads what the signature covers, so the result holds for every source sharing it
+    private boolean IsSupported(String mediaType, MediaSourceInfo source) {
+        if (MediaType.Audio.equalsIgnoreCase(mediaType)) {
+            return engine.IsAudioSupported(source);
+        }
+
+        return engine.IsVideoSupported(source, StreamDecisionEngine.GetVideoAudioStream(source, null));
+    }
+
+    private PlayMethod GetPlayMethod(MediaSourceInfo source, boolean supported) {
+        return supported ? engine.GetDirectPlayMethod(source, true, true) : PlayMethod.Transcode;
+    }
+
+    private synchronized Boolean GetCached(MediaSignature signature) {
+        Boolean cached = cache.get(signature);
+        if (cached != null) {
+            hitCount++;
+        } else {
+            missCount++;
+        }
+        return cached;
+    }
+
+    private synchronized void Put(MediaSignature signature, boolean supported) {
+        cache.put(signature, supported);
+    }
+
+    private static boolean IsPlayable(String mediaType) {
+        return MediaType.Audio.equalsIgnoreCase(mediaType) || MediaType.Video.equalsIgnoreCase(mediaType);
+    }
+
+    private static PlayMethod Best(PlayMethod current, PlayMethod candidate) {
+        if (current == null) {
+            return candidate;
+        }
+
+        if (candidate == null) {
+            return current;
+        }
+
+        return candidate.getValue() > current.getValue() ? candidate : current;
+    }
+}
@@ -0,0 +1,144 @@
+package org.jellyfin.apiclient.interaction.resilience;
+
+/**
+ * Tracks the health of one server, failing requests fast while it is down.
+ *
+ * After a number of consecutive server failures the breaker opens, and requests are rejected without being
+ * sent. Once the open duration elapsed it lets a single probe through: success closes the breaker, failure
+ * opens it again. Results of requests started before the last change of state are ignored, so a slow failure
+ * from before an outage cannot reopen a recovered server.
+ */
+public final class CircuitBreaker {
+    public static final int DEFAULT_FAILURE_THRESHOLD = 5;
+    public static final long DEFAULT_OPEN_DURATION_MS = 10000;
+
+    public enum State {
+        Closed,
+        Open,
+        HalfOpen
+    }
+
+    /**
+     * Returned by {@link #TryAcquire()} when the request must not be sent.
+     */
+    public static final long REJECTED = -1;
+
+    private final int failureThreshold;
+    private final long openDurationMs;
+
+    private State state = State.Closed;
+    private long generation;
+    private int consecutiveFailures;
+    private long openedAt;
+    private boolean probeInFlight;
+    private long rejectedCount;
+
+    public CircuitBreaker() {
+        this(DEFAULT_FAILURE_THRESHOLD, DEFAULT_OPEN_DURATION_MS);
+    }
+
+    public CircuitBreaker(int failureThreshold, long openDurationMs) {
+        if (failureThreshold < 1) {
+            throw new IllegalArgumentException("failureThreshold");
+        }
+
+        if (openDurationMs < 0) {
+            throw new IllegalArgumentException("openDurationMs");
+        }
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    public synchronized State getState() {
+        if (state == State.Open && CurrentTimeMillis() - openedAt >= openDurationMs) {
+            return State.HalfOpen;
+        }
+        return state;
+    }
+
+    /**
+     * Gets the number of requests rejected without being sent.
+     */
+    public synchronized long getRejectedCount() {
+        return rejectedCount;
+    }
+
+    /**
+     * Asks to send a request.
+     *
+     * @return The ticket to record the result with, or {@link #REJECTED}.
+     */
+    public synchronized long TryAcquire() {
+        if (state == State.Open) {
+            if (CurrentTimeMillis() - openedAt < openDurationMs) {
+                rejectedCount++;
+                return REJECTED;
+            }
+
+            Transition(State.HalfOpen);
+        }
+
+        if (state == State.HalfOpen) {
+            if (probeInFlight) {
+                rejectedCount++;
+                return REJECTED;
+            }
+            probeInFlight = true;
+        }
+
+        return generation;
+    }
+
+    /**
+     * Records that the server answered, with a success or with a client error.
+     */
+    public synchronized void RecordSuccess(long ticket) {
+        if (ticket != generation) {
+            return;
+        }
+
+        consecutiveFailures = 0;
+        if (state == State.HalfOpen) {
+            Transition(State.Closed);
+        }
+    }
+
+    /**
+     * Records a failure of the server: an error status, a timeout or a connection failure.
+     */
+    public synchronized void RecordFailure(long ticket) {
+        if (ticket != generation) {
+            return;
+        }
+
+        consecutiveFailures++;
+        if (state == State.HalfOpen || consecutiveFailures >= failureThreshold) {
+            Transition(State.Open);
+        }
+    }
+
+    /**
+     * Releases a ticket without a result, the request was cancelled.
+     */
+    public synchronized void Release(long ticket) {
+        if (ticket == generation && state == State.HalfOpen) {
+            probeInFlight = false;
+        }
+    }
+
+    private void Transition(State value) {
+        state = value;
+        generation++;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+
+        if (value == State.Open) {
+            openedAt = CurrentTimeMillis();
+        }
+    }
+
+    private static long CurrentTimeMillis() {
+        return System.nanoTime() / 1000000;
+    }
+}
@@ -0,0 +1,21 @@
+package org.jellyfin.apiclient.interaction.resilience;
+
+import org.jellyfin.apiclient.model.net.HttpException;
+
+/**
+ * Raised instead of sending a request to a server whose {@link CircuitBreaker} is open.
+ */
+public class CircuitBreakerOpenException extends HttpException {
+    private static final long serialVersionUID = 1L;
+
+    private final String server;
+
+    public CircuitBreakerOpenException(String server) {
+        super("Circuit breaker open for " + server);
+        this.server = server;
+    }
+
+    public String getServer() {
+        return server;
+    }
+}
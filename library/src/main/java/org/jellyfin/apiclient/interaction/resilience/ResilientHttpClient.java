@@ -0,0 +1,277 @@
+package org.jellyfin.apiclient.interaction.resilience;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.net.HttpException;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Wraps an {@link IAsyncHttpClient} with retries and a circuit breaker per server.
+ *
+ * Failed requests are sent again according to the {@link RetryPolicy} of their method, after a jittered backoff.
+ * Each server (scheme, host and port) has a {@link CircuitBreaker}: while it is open, requests fail right away
+ * with a {@link CircuitBreakerOpenException} instead of piling onto a server that is restarting.
+ *
+ * Callers only see the outcome of the last attempt. Cancelling the token of the request stops the retries.
+ */
+public class ResilientHttpClient implements IAsyncHttpClient {
+    private final IAsyncHttpClient httpClient;
+    private final ScheduledExecutorService scheduler;
+    private final Random random = new Random();
+
+    private final HashMap<String, RetryPolicy> policies = new HashMap<>();
+    private RetryPolicy defaultPolicy = RetryPolicy.NonIdempotent();
+    private final HashMap<String, CircuitBreaker> breakers = new HashMap<>();
+    private int failureThreshold = CircuitBreaker.DEFAULT_FAILURE_THRESHOLD;
+    private long openDurationMs = CircuitBreaker.DEFAULT_OPEN_DURATION_MS;
+
+    private long retryCount;
+
+    public ResilientHttpClient(IAsyncHttpClient httpClient) {
+        this(httpClient, CreateScheduler());
+    }
+
+    public ResilientHttpClient(IAsyncHttpClient httpClient, ScheduledExecutorService scheduler) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("httpClient");
+        }
+
+        if (scheduler == null) {
+            throw new IllegalArgumentException("scheduler");
+        }
+
+        this.httpClient = httpClient;
+        this.scheduler = scheduler;
+
+        RetryPolicy idempotent = RetryPolicy.Idempotent();
+        policies.put("GET", idempotent);
+        policies.put("HEAD", idempotent);
+        policies.put("PUT", idempotent);
+        policies.put("DELETE", idempotent);
+    }
+
+    private static ScheduledExecutorService CreateScheduler() {
+        return Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ResilientHttpClient");
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    public synchronized RetryPolicy getRetryPolicy(String method) {
+        RetryPolicy policy = method != null ? policies.get(method.toUpperCase(Locale.ROOT)) : null;
+        return policy != null ? policy : defaultPolicy;
+    }
+
+    /**
+     * Sets the retry policy of a method. GET, HEAD, PUT and DELETE default to {@link RetryPolicy#Idempotent()}.
+     */
+    public synchronized void setRetryPolicy(String method, RetryPolicy policy) {
+        if (method == null) {
+            throw new IllegalArgumentException("method");
+        }
+
+        if (policy == null) {
+            throw new IllegalArgumentException("policy");
+        }
+
+        policies.put(method.toUpperCase(Locale.ROOT), policy);
+    }
+
+    /**
+     * Sets the retry policy of the other methods, {@link RetryPolicy#NonIdempotent()} by default.
+     */
+    public synchronized void setDefaultRetryPolicy(RetryPolicy policy) {
+        if (policy == null) {
+            throw new IllegalArgumentException("policy");
+        }
+
+        defaultPolicy = policy;
+    }
+
+    /**
+     * Configures the circuit breakers of the servers not contacted yet.
+     */
+    public synchronized void setCircuitBreaker(int failureThreshold, long openDurationMs) {
+        // Validated by the breaker itself
+        new CircuitBreaker(failureThreshold, openDurationMs);
+
+        this.failureThreshold = failureThreshold;
+        this.openDurationMs = openDurationMs;
+    }
+
+    /**
+     * Gets the circuit breaker of the server of the url, created on first use.
+     */
+    public synchronized CircuitBreaker getCircuitBreaker(String url) {
+        String server = GetServer(url);
+        CircuitBreaker breaker = breakers.get(server);
+        if (breaker == null) {
+            breaker = new CircuitBreaker(failureThreshold, openDurationMs);
+            breakers.put(server, breaker);
+        }
+        return breaker;
+    }
+
+    /**
+     * Gets the number of requests sent again after a failure.
+     */
+    public synchronized long getRetryCount() {
+        return retryCount;
+    }
+
+    @Override
+    public void Send(HttpRequest request, Response<String> response) {
+        new ResilientCall(request, response, getRetryPolicy(request.getMethod()), getCircuitBreaker(request.getUrl())).Attempt();
+    }
+
+    static String GetServer(String url) {
+        try {
+            URL parsed = new URL(url);
+            int port = parsed.getPort() != -1 ? parsed.getPort() : parsed.getDefaultPort();
+            return parsed.getProtocol().toLowerCase(Locale.ROOT) + "://" + parsed.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        } catch (MalformedURLException ex) {
+            // The client will fail the request, no need for a breaker of its own
+            return "";
+        }
+    }
+
+    /**
+     * Determines whether an error says the server is unhealthy, as opposed to rejecting the request itself.
+     */
+    static boolean IsServerFailure(Exception error) {
+        if (error instanceof CircuitBreakerOpenException) {
+            return false;
+        }
+
+        if (!(error instanceof HttpException)) {
+            return RetryPolicy.IsConnectFailure(error);
+        }
+
+        Integer statusCode = ((HttpException) error).getStatusCode();
+        return statusCode == null || statusCode >= 500;
+    }
+
+    private synchronized void OnRetry() {
+        retryCount++;
+    }
+
+    private final class ResilientCall {
+        final HttpRequest request;
+        final Response<String> response;
+        final RetryPolicy policy;
+        final CircuitBreaker breaker;
+        int attempt;
+
+        ResilientCall(HttpRequest request, Response<String> response, RetryPolicy policy, CircuitBreaker breaker) {
+            this.request = request;
+            this.response = response;
+            this.policy = policy;
+            this.breaker = breaker;
+        }
+
+        void Attempt() {
+            CancellationToken cancellationToken = request.getCancellationToken();
+            if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+                // The client drops cancelled requests without answering, so does the retry
+                return;
+            }
+
+            final long ticket = breaker.TryAcquire();
+            if (ticket == CircuitBreaker.REJECTED) {
+                response.onError(new CircuitBreakerOpenException(GetServer(request.getUrl())));
+                return;
+            }
+
+            attempt++;
+
+            // A cancelled request is never answered, which must not leave a half open breaker waiting for its probe
+            final CancellationToken.Registration registration = cancellationToken == null ? null : cancellationToken.register(new Runnable() {
+                @Override
+                public void run() {
+                    breaker.Release(ticket);
+                }
+            });
+
+            try {
+                httpClient.Send(request, new Response<String>() {
+                    @Override
+                    public void onResponse(String result) {
+                        Unregister(registration);
+                        breaker.RecordSuccess(ticket);
+                        response.onResponse(result);
+                    }
+
+                    @Override
+                    public void onError(Exception exception) {
+                        Unregister(registration);
+                        OnFailed(ticket, exception);
+                    }
+                });
+            } catch (RuntimeException ex) {
+                Unregister(registration);
+                OnFailed(ticket, ex);
+            }
+        }
+
+        void Unregister(CancellationToken.Registration registration) {
+            if (registration != null) {
+                registration.unregister();
+            }
+        }
+
+        void OnFailed(long ticket, Exception error) {
+            if (error instanceof CancellationException) {
+                breaker.Release(ticket);
+            } else if (IsServerFailure(error)) {
+                breaker.RecordFailure(ticket);
+            } else {
+                breaker.RecordSuccess(ticket);
+            }
+
+            if (!policy.ShouldRetry(attempt, error)) {
+                response.onError(error);
+                return;
+            }
+
+            OnRetry();
+
+            final AtomicReference<CancellationToken.Registration> registration = new AtomicReference<>();
+            final ScheduledFuture<?> retry = scheduler.schedule(new Runnable() {
+                @Override
+                public void run() {
+                    Unregister(registration.get());
+                    Attempt();
+                }
+            }, policy.GetDelayMs(attempt, error, random), TimeUnit.MILLISECONDS);
+
+            // Cancelling during the backoff drops the retry right away rather than when it fires
+            CancellationToken cancellationToken = request.getCancellationToken();
+            if (cancellationToken != null) {
+                registration.set(cancellationToken.register(new Runnable() {
+                    @Override
+                    public void run() {
+                        retry.cancel(false);
+                    }
+                }));
+            }
+        }
+    }
+}
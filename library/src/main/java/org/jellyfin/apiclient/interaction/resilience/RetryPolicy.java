@@ -0,0 +1,174 @@
+package org.jellyfin.apiclient.interaction.resilience;
+
+import org.jellyfin.apiclient.model.net.HttpException;
+
+import java.net.ConnectException;
+import java.net.NoRouteToHostException;
+import java.net.UnknownHostException;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Decides whether a failed request is sent again, and after which delay.
+ *
+ * Failures where the request never reached the server (connection refused, unknown host) are always retried.
+ * Failures where it may have been processed (timeouts, dropped connections) are only retried when the policy
+ * allows it, which is meant for idempotent methods. Responses are retried when their status is listed.
+ *
+ * Delays grow exponentially from the base delay up to the maximum, with full jitter so clients failing together
+ * do not come back together. A Retry-After header in seconds is honoured, up to the maximum delay.
+ */
+public final class RetryPolicy {
+    public static final int[] DEFAULT_IDEMPOTENT_STATUS_CODES = new int[] { 429, 500, 502, 503, 504 };
+    public static final int[] DEFAULT_NON_IDEMPOTENT_STATUS_CODES = new int[] { 429, 503 };
+
+    private static final RetryPolicy NONE = new RetryPolicy(1, 0, 0, new int[0], false);
+
+    private final int maxAttempts;
+    private final long baseDelayMs;
+    private final long maxDelayMs;
+    private final int[] retryableStatusCodes;
+    private final boolean retryAmbiguousFailures;
+
+    /**
+     * @param maxAttempts The attempts in total, 1 disabling retries.
+     * @param retryableStatusCodes The response statuses worth retrying.
+     * @param retryAmbiguousFailures Whether to retry failures the server may have processed the request for.
+     */
+    public RetryPolicy(int maxAttempts, long baseDelayMs, long maxDelayMs, int[] retryableStatusCodes, boolean retryAmbiguousFailures) {
+        if (maxAttempts < 1) {
+            throw new IllegalArgumentException("maxAttempts");
+        }
+
+        if (baseDelayMs < 0) {
+            throw new IllegalArgumentException("baseDelayMs");
+        }
+
+        if (maxDelayMs < baseDelayMs) {
+            throw new IllegalArgumentException("maxDelayMs");
+        }
+
+        if (retryableStatusCodes == null) {
+            throw new IllegalArgumentException("retryableStatusCodes");
+        }
+
+        this.maxAttempts = maxAttempts;
+        this.baseDelayMs = baseDelayMs;
+        this.maxDelayMs = maxDelayMs;
+        this.retryableStatusCodes = retryableStatusCodes.clone();
+        this.retryAmbiguousFailures = retryAmbiguousFailures;
+    }
+
+    /**
+     * Gets the default policy for GET, HEAD, PUT and DELETE: 3 attempts, from 200 ms up to 5 s apart.
+     */
+    public static RetryPolicy Idempotent() {
+        return new RetryPolicy(3, 200, 5000, DEFAULT_IDEMPOTENT_STATUS_CODES, true);
+    }
+
+    /**
+     * Gets the default policy for POST: 3 attempts, only when the server did not process the request.
+     */
+    public static RetryPolicy NonIdempotent() {
+        return new RetryPolicy(3, 200, 5000, DEFAULT_NON_IDEMPOTENT_STATUS_CODES, false);
+    }
+
+    public static RetryPolicy None() {
+        return NONE;
+    }
+
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+
+    public long getBaseDelayMs() {
+        return baseDelayMs;
+    }
+
+    public long getMaxDelayMs() {
+        return maxDelayMs;
+    }
+
+    public boolean getRetryAmbiguousFailures() {
+        return retryAmbiguousFailures;
+    }
+
+    /**
+     * @param attempt The attempt that failed, starting at 1.
+     */
+    public boolean ShouldRetry(int attempt, Exception error) {
+        if (attempt >= maxAttempts || error == null || error instanceof CancellationException) {
+            return false;
+        }
+
+        if (IsConnectFailure(error)) {
+            return true;
+        }
+
+        Integer statusCode = error instanceof HttpException ? ((HttpException) error).getStatusCode() : null;
+        if (statusCode != null) {
+            for (int retryable : retryableStatusCodes) {
+                if (retryable == statusCode) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        // Timeouts and dropped connections, the request may have been processed
+        return retryAmbiguousFailures && error instanceof HttpException;
+    }
+
+    /**
+     * @param attempt The attempt that failed, starting at 1.
+     */
+    public long GetDelayMs(int attempt, Exception error, Random random) {
+        long ceiling = baseDelayMs << Math.min(attempt - 1, 30);
+        if (ceiling <= 0 || ceiling > maxDelayMs) {
+            ceiling = maxDelayMs;
+        }
+
+        long delay = ceiling > 0 ? (long) (random.nextDouble() * ceiling) : 0;
+        return Math.min(maxDelayMs, Math.max(delay, GetRetryAfterMs(error)));
+    }
+
+    /**
+     * Determines whether the request failed before reaching the server, so resending it cannot repeat it.
+     */
+    public static boolean IsConnectFailure(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConnectException || cause instanceof UnknownHostException || cause instanceof NoRouteToHostException) {
+                return true;
+            }
+
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return false;
+    }
+
+    private static long GetRetryAfterMs(Exception error) {
+        if (!(error instanceof HttpException)) {
+            return 0;
+        }
+
+        Map<String, String> headers = ((HttpException) error).getHeaders();
+        if (headers == null) {
+            return 0;
+        }
+
+        for (Map.Entry<String, String> header : headers.entrySet()) {
+            if ("Retry-After".equalsIgnoreCase(header.getKey()) && header.getValue() != null) {
+                try {
+                    return Math.max(0, Long.parseLong(header.getValue().trim()) * 1000);
+                } catch (NumberFormatException ex) {
+                    // An http date, not worth parsing for a delay capped at a few seconds
+                    return 0;
+                }
+            }
+        }
+        return 0;
+    }
+}
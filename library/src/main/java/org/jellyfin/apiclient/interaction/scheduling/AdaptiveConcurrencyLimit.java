@@ -0,0 +1,160 @@
+package org.jellyfin.apiclient.interaction.scheduling;
+
+import java.util.HashMap;
+
+/**
+ * The number of requests a server is allowed in flight, adapted with additive increase, multiplicative decrease.
+ *
+ * The limit grows by one per limit's worth of successful requests while it is actually used. It shrinks by the
+ * backoff ratio when the server shows overload: a timeout, a 503 or 429, or a latency above the tolerance times
+ * the minimum latency recently observed for the same endpoint. It shrinks at most once per limit's worth of
+ * completions, so one burst of slow responses does not collapse it.
+ *
+ * Latencies are only compared within an endpoint: a large Items query taking a hundred times longer than
+ * System/Info is its normal cost, not queueing in the server.
+ */
+public final class AdaptiveConcurrencyLimit {
+    public static final int DEFAULT_INITIAL_LIMIT = 4;
+    public static final int DEFAULT_MIN_LIMIT = 1;
+    public static final int DEFAULT_MAX_LIMIT = 32;
+    public static final double DEFAULT_BACKOFF_RATIO = 0.75;
+    public static final double DEFAULT_LATENCY_TOLERANCE = 2.0;
+
+    // Latencies this close are noise on a local network, not queueing in the server
+    private static final long MIN_LATENCY_FLOOR_MS = 5;
+    // The minimum latency is forgotten after this many samples, to follow a server that got slower for good
+    private static final int MIN_LATENCY_WINDOW = 100;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+
+    private double limit;
+    private final HashMap<String, LatencyBaseline> baselines = new HashMap<>();
+    private int completionsSinceDecrease;
+    private long decreaseCount;
+
+    public AdaptiveConcurrencyLimit() {
+        this(DEFAULT_INITIAL_LIMIT, DEFAULT_MIN_LIMIT, DEFAULT_MAX_LIMIT, DEFAULT_BACKOFF_RATIO, DEFAULT_LATENCY_TOLERANCE);
+    }
+
+    public AdaptiveConcurrencyLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, double latencyTolerance) {
+        if (minLimit < 1) {
+            throw new IllegalArgumentException("minLimit");
+        }
+
+        if (maxLimit < minLimit) {
+            throw new IllegalArgumentException("maxLimit");
+        }
+
+        if (initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("initialLimit");
+        }
+
+        if (!(backoffRatio > 0 && backoffRatio < 1)) {
+            throw new IllegalArgumentException("backoffRatio");
+        }
+
+        if (!(latencyTolerance > 1)) {
+            throw new IllegalArgumentException("latencyTolerance");
+        }
+
+        this.limit = initialLimit;
+        // The first sign of overload is acted upon right away
+        this.completionsSinceDecrease = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    /**
+     * Gets the minimum latency recently observed for an endpoint, or -1 before any.
+     */
+    public synchronized long getMinLatencyMs(String endpoint) {
+        LatencyBaseline baseline = baselines.get(endpoint);
+        return baseline != null ? baseline.minLatencyMs : -1;
+    }
+
+    /**
+     * Gets the number of times the limit was lowered.
+     */
+    public synchronized long getDecreaseCount() {
+        return decreaseCount;
+    }
+
+    /**
+     * Records a request answered by the server.
+     *
+     * @param endpoint The endpoint called, such as its {@link org.jellyfin.apiclient.interaction.metrics.EndpointTemplate}.
+     * @param inFlight The requests in flight when it completed, itself included.
+     */
+    public synchronized void OnSuccess(String endpoint, long latencyMs, int inFlight) {
+        if (endpoint == null) {
+            throw new IllegalArgumentException("endpoint");
+        }
+
+        completionsSinceDecrease++;
+
+        LatencyBaseline baseline = baselines.get(endpoint);
+        if (baseline == null) {
+            baseline = new LatencyBaseline();
+            baselines.put(endpoint, baseline);
+        }
+        long minLatencyMs = baseline.Add(latencyMs);
+
+        if (latencyMs > latencyTolerance * Math.max(minLatencyMs, MIN_LATENCY_FLOOR_MS)) {
+            Decrease();
+            return;
+        }
+
+        // Only grow when the limit is what holds requests back
+        if (inFlight * 2 >= limit) {
+            limit = Math.min(maxLimit, limit + 1 / limit);
+        }
+    }
+
+    /**
+     * Records a sign of overload: a timeout, a failed connection, a 503 or a 429.
+     */
+    public synchronized void OnOverload() {
+        completionsSinceDecrease++;
+        Decrease();
+    }
+
+    private void Decrease() {
+        if (completionsSinceDecrease < limit) {
+            return;
+        }
+
+        limit = Math.max(minLimit, limit * backoffRatio);
+        completionsSinceDecrease = 0;
+        decreaseCount++;
+    }
+
+    /**
+     * The minimum latency of one endpoint, forgotten every window so it follows a server that got slower for good.
+     */
+    private static final class LatencyBaseline {
+        long minLatencyMs = -1;
+        long windowMinLatencyMs = Long.MAX_VALUE;
+        int windowSamples;
+
+        long Add(long latencyMs) {
+            windowMinLatencyMs = Math.min(windowMinLatencyMs, latencyMs);
+            if (++windowSamples >= MIN_LATENCY_WINDOW) {
+                minLatencyMs = windowMinLatencyMs;
+                windowMinLatencyMs = Long.MAX_VALUE;
+                windowSamples = 0;
+            } else if (minLatencyMs < 0 || latencyMs < minLatencyMs) {
+                minLatencyMs = latencyMs;
+            }
+            return minLatencyMs;
+        }
+    }
+}
@@ -0,0 +1,331 @@
+package org.jellyfin.apiclient.interaction.scheduling;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.interaction.http.RequestPriority;
+import org.jellyfin.apiclient.interaction.metrics.EndpointTemplate;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.net.HttpException;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wraps an {@link IAsyncHttpClient} to bound the requests in flight to each server, queueing the others by
+ * {@link RequestPriority}.
+ *
+ * Each server (scheme, host and port) gets an {@link AdaptiveConcurrencyLimit}. When it is reached, requests wait
+ * in the queue of their priority and start as slots free up, the most urgent first and in arrival order within a
+ * priority. Cancelling a queued request removes it from the queue, and cancelling a running one frees its slot.
+ *
+ * The priority comes from {@link HttpRequest#getPriority()}, which the api client copies from the response.
+ */
+public class PriorityHttpClient implements IAsyncHttpClient {
+    private static final RequestPriority[] Priorities = RequestPriority.values();
+
+    private final IAsyncHttpClient httpClient;
+    private final HashMap<String, Server> servers = new HashMap<>();
+
+    private int initialLimit = AdaptiveConcurrencyLimit.DEFAULT_INITIAL_LIMIT;
+    private int minLimit = AdaptiveConcurrencyLimit.DEFAULT_MIN_LIMIT;
+    private int maxLimit = AdaptiveConcurrencyLimit.DEFAULT_MAX_LIMIT;
+
+    private final long[] waitCount = new long[Priorities.length];
+    private final long[] totalWaitMs = new long[Priorities.length];
+    private final long[] maxWaitMs = new long[Priorities.length];
+
+    public PriorityHttpClient(IAsyncHttpClient httpClient) {
+        if (httpClient == null) {
+            throw new IllegalArgumentException("httpClient");
+        }
+
+        this.httpClient = httpClient;
+    }
+
+    /**
+     * Configures the concurrency limits of the servers not contacted yet.
+     */
+    public synchronized void setLimits(int initialLimit, int minLimit, int maxLimit) {
+        // Validated by the limit itself
+        new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, AdaptiveConcurrencyLimit.DEFAULT_BACKOFF_RATIO, AdaptiveConcurrencyLimit.DEFAULT_LATENCY_TOLERANCE);
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+    }
+
+    /**
+     * Gets the concurrency limit of the server of the url, created on first use.
+     */
+    public AdaptiveConcurrencyLimit getLimit(String url) {
+        return GetServer(url).limit;
+    }
+
+    public int getInFlightCount(String url) {
+        Server server = GetServer(url);
+        synchronized (server) {
+            return server.inFlight;
+        }
+    }
+
+    public int getQueuedCount(String url) {
+        Server server = GetServer(url);
+        synchronized (server) {
+            int count = 0;
+            for (ArrayDeque<Call> queue : server.queues) {
+                count += queue.size();
+            }
+            return count;
+        }
+    }
+
+    /**
+     * Gets the average time requests of the priority waited before being sent, over every server.
+     */
+    public synchronized double getAverageQueueWaitMs(RequestPriority priority) {
+        int index = priority.ordinal();
+        return waitCount[index] == 0 ? 0 : (double) totalWaitMs[index] / waitCount[index];
+    }
+
+    public synchronized long getMaxQueueWaitMs(RequestPriority priority) {
+        return maxWaitMs[priority.ordinal()];
+    }
+
+    /**
+     * Gets the number of requests of the priority sent, queued or not.
+     */
+    public synchronized long getSentCount(RequestPriority priority) {
+        return waitCount[priority.ordinal()];
+    }
+
+    @Override
+    public void Send(HttpRequest request, Response<String> response) {
+        Server server = GetServer(request.getUrl());
+        RequestPriority priority = request.getPriority() != null ? request.getPriority() : RequestPriority.Interactive;
+        final Call call = new Call(server, request, response, priority);
+
+        boolean start;
+        synchronized (server) {
+            start = server.inFlight < server.limit.getLimit() && server.IsQueueEmpty();
+            if (start) {
+                server.inFlight++;
+            } else {
+                server.queues.get(priority.ordinal()).addLast(call);
+            }
+        }
+
+        CancellationToken cancellationToken = request.getCancellationToken();
+        if (cancellationToken != null) {
+            call.registration = cancellationToken.register(new Runnable() {
+                @Override
+                public void run() {
+                    OnCancelled(call);
+                }
+            });
+        }
+
+        if (!start) {
+            return;
+        }
+
+        synchronized (server) {
+            // Cancelled already, which freed the slot
+            if (call.finished) {
+                return;
+            }
+        }
+
+        Start(call);
+    }
+
+    private Server GetServer(String url) {
+        String key = GetServerKey(url);
+        synchronized (this) {
+            Server server = servers.get(key);
+            if (server == null) {
+                server = new Server(new AdaptiveConcurrencyLimit(initialLimit, minLimit, maxLimit, AdaptiveConcurrencyLimit.DEFAULT_BACKOFF_RATIO, AdaptiveConcurrencyLimit.DEFAULT_LATENCY_TOLERANCE));
+                servers.put(key, server);
+            }
+            return server;
+        }
+    }
+
+    private static String GetServerKey(String url) {
+        try {
+            URL parsed = new URL(url);
+            int port = parsed.getPort() != -1 ? parsed.getPort() : parsed.getDefaultPort();
+            return parsed.getProtocol().toLowerCase(Locale.ROOT) + "://" + parsed.getHost().toLowerCase(Locale.ROOT) + ":" + port;
+        } catch (MalformedURLException ex) {
+            // The client will fail the request right away, it hardly needs a limit of its own
+            return "";
+        }
+    }
+
+    private void Start(final Call call) {
+        call.startNanos = System.nanoTime();
+        RecordWait(call.priority, TimeUnit.NANOSECONDS.toMillis(call.startNanos - call.queuedNanos));
+
+        try {
+            httpClient.Send(call.request, new Response<String>() {
+                @Override
+                public void onResponse(String result) {
+                    OnCompleted(call, null);
+                    call.response.onResponse(result);
+                }
+
+                @Override
+                public void onError(Exception exception) {
+                    OnCompleted(call, exception);
+                    call.response.onError(exception);
+                }
+            });
+        } catch (RuntimeException ex) {
+            OnCompleted(call, ex);
+            call.response.onError(ex);
+        }
+    }
+
+    private synchronized void RecordWait(RequestPriority priority, long waitMs) {
+        int index = priority.ordinal();
+        waitCount[index]++;
+        totalWaitMs[index] += waitMs;
+        maxWaitMs[index] = Math.max(maxWaitMs[index], waitMs);
+    }
+
+    private void OnCompleted(Call call, Exception error) {
+        if (call.registration != null) {
+            call.registration.unregister();
+        }
+
+        Server server = call.server;
+        int inFlight;
+        synchronized (server) {
+            if (call.finished) {
+                return;
+            }
+            call.finished = true;
+            inFlight = server.inFlight--;
+        }
+
+        long latencyMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - call.startNanos);
+        if (error == null) {
+            server.limit.OnSuccess(call.endpoint, latencyMs, inFlight);
+        } else if (IsOverload(error)) {
+            server.limit.OnOverload();
+        } else if (!(error instanceof CancellationException)) {
+            // The server answered, the error is about the request
+            server.limit.OnSuccess(call.endpoint, latencyMs, inFlight);
+        }
+
+        Drain(server);
+    }
+
+    private void OnCancelled(Call call) {
+        Server server = call.server;
+        boolean running;
+        synchronized (server) {
+            if (call.finished) {
+                return;
+            }
+
+            // A queued call is dropped, a running one is never answered by the client so its slot is freed here
+            running = !server.queues.get(call.priority.ordinal()).remove(call);
+            call.finished = true;
+            if (running) {
+                server.inFlight--;
+            }
+        }
+
+        if (running) {
+            Drain(server);
+        }
+    }
+
+    private void Drain(Server server) {
+        ArrayList<Call> started = new ArrayList<>();
+        synchronized (server) {
+            while (server.inFlight < server.limit.getLimit()) {
+                Call next = server.Poll();
+                if (next == null) {
+                    break;
+                }
+                server.inFlight++;
+                started.add(next);
+            }
+        }
+
+        for (Call call : started) {
+            Start(call);
+        }
+    }
+
+    private static boolean IsOverload(Exception error) {
+        if (!(error instanceof HttpException)) {
+            return false;
+        }
+
+        HttpException httpError = (HttpException) error;
+        Integer statusCode = httpError.getStatusCode();
+        return statusCode == null || statusCode == 503 || statusCode == 429 || httpError.getIsTimedOut();
+    }
+
+    private static final class Server {
+        final AdaptiveConcurrencyLimit limit;
+        final ArrayList<ArrayDeque<Call>> queues = new ArrayList<>();
+        int inFlight;
+
+        Server(AdaptiveConcurrencyLimit limit) {
+            this.limit = limit;
+            for (int i = 0; i < Priorities.length; i++) {
+                queues.add(new ArrayDeque<Call>());
+            }
+        }
+
+        boolean IsQueueEmpty() {
+            for (ArrayDeque<Call> queue : queues) {
+                if (!queue.isEmpty()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        Call Poll() {
+            for (ArrayDeque<Call> queue : queues) {
+                Call call = queue.pollFirst();
+                if (call != null) {
+                    return call;
+                }
+            }
+            return null;
+        }
+    }
+
+    private static final class Call {
+        final Server server;
+        final HttpRequest request;
+        final Response<String> response;
+        final RequestPriority priority;
+        // Latencies are only compared between requests to the same endpoint
+        final String endpoint;
+        final long queuedNanos = System.nanoTime();
+        long startNanos;
+        boolean finished;
+        volatile CancellationToken.Registration registration;
+
+        Call(Server server, HttpRequest request, Response<String> response, RequestPriority priority) {
+            this.server = server;
+            this.request = request;
+            this.response = response;
+            this.priority = priority;
+            this.endpoint = request.getUrl() != null ? EndpointTemplate.Of(request.getUrl()) : "";
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package org.jellyfin.apiclient.interaction.sync;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.model.sync.SyncDataRequest;
+import org.jellyfin.apiclient.model.sync.SyncDataResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+
+/**
+ * Posts the inventory of a device to Sync/Data and applies the {@link SyncDataResponse} to the local library.
+ *
+ * The server treats each request as the complete inventory of the device: sync job items missing from it are
+ * queued for transfer again. A request is therefore always sent whole, never split into batches; the gain is on
+ * the device, where the response is applied with hash based lookups instead of list scans.
+ */
+public class SyncDataReconciler {
+    private final ApiClient apiClient;
+
+    public SyncDataReconciler(ApiClient apiClient) {
+        if (apiClient == null) {
+            throw new IllegalArgumentException("apiClient");
+        }
+
+        this.apiClient = apiClient;
+    }
+
+    /**
+     * Posts the complete inventory and reconciles the local item ids of the request with the response.
+     * A null SyncJobItemIds is sent as is, so the server only checks the local items.
+     */
+    public void SyncData(final SyncDataRequest request, final Response<SyncDataReconciliation> response) {
+        if (request == null) {
+            throw new IllegalArgumentException("request");
+        }
+
+        final ArrayList<String> localItemIds = request.getLocalItemIds() != null ? request.getLocalItemIds() : new ArrayList<String>();
+
+        apiClient.SyncData(request, new Response<SyncDataResponse>(response) {
+            @Override
+            public void onResponse(SyncDataResponse result) {
+                response.onResponse(Reconcile(localItemIds, result));
+            }
+        });
+    }
+
+    /**
+     * Applies a response to the local library using hash based lookups.
+     *
+     * @param localItemIds The item ids currently stored on the device, as sent in the request.
+     * @param response The response of the server to the complete inventory.
+     */
+    public static SyncDataReconciliation Reconcile(Collection<String> localItemIds, SyncDataResponse response) {
+        return new SyncDataReconciliation(localItemIds, response);
+    }
+}
@@ -0,0 +1,88 @@
+package org.jellyfin.apiclient.interaction.sync;
+
+import org.jellyfin.apiclient.model.sync.SyncDataResponse;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The outcome of applying a {@link SyncDataResponse} to the items stored on the device.
+ * All lookups are backed by hash sets so reconciling a library is linear in its size.
+ */
+public class SyncDataReconciliation {
+    private final ArrayList<String> itemIdsToRemove = new ArrayList<>();
+    private final ArrayList<String> itemIdsToKeep = new ArrayList<>();
+    private final HashMap<String, Set<String>> itemUserAccess = new HashMap<>();
+
+    SyncDataReconciliation(Collection<String> localItemIds, SyncDataResponse response) {
+        if (localItemIds == null) {
+            throw new IllegalArgumentException("localItemIds");
+        }
+
+        if (response == null) {
+            throw new IllegalArgumentException("response");
+        }
+
+        HashSet<String> removals = response.getItemIdsToRemove() != null
+                ? new HashSet<>(response.getItemIdsToRemove())
+                : new HashSet<String>();
+
+        for (String id : localItemIds) {
+            if (removals.contains(id)) {
+                itemIdsToRemove.add(id);
+            } else {
+                itemIdsToKeep.add(id);
+            }
+        }
+
+        if (response.getItemUserAccess() != null) {
+            for (Map.Entry<String, ArrayList<String>> entry : response.getItemUserAccess().entrySet()) {
+                if (entry.getValue() != null && !removals.contains(entry.getKey())) {
+                    itemUserAccess.put(entry.getKey(), new HashSet<>(entry.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the local item ids that should be deleted from the device.
+     */
+    public ArrayList<String> getItemIdsToRemove() {
+        return itemIdsToRemove;
+    }
+
+    /**
+     * Gets the local item ids that are still valid.
+     */
+    public ArrayList<String> getItemIdsToKeep() {
+        return itemIdsToKeep;
+    }
+
+    /**
+     * Gets the users that may access the given item, or an empty set if the server did not report any.
+     */
+    public Set<String> GetUsersWithAccess(String itemId) {
+        Set<String> users = itemUserAccess.get(itemId);
+        return users != null ? Collections.unmodifiableSet(users) : Collections.<String>emptySet();
+    }
+
+    /**
+     * Determines whether the server reported user access for the given item.
+     */
+    public boolean HasUserAccessInfo(String itemId) {
+        return itemUserAccess.containsKey(itemId);
+    }
+
+    /**
+     * Determines whether a user may access an item, according to the server.
+     */
+    public boolean HasAccess(String itemId, String userId) {
+        Set<String> users = itemUserAccess.get(itemId);
+        return users != null && users.contains(userId);
+    }
+}
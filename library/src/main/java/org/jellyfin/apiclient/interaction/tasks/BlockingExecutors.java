@@ -0,0 +1,70 @@
+package org.jellyfin.apiclient.interaction.tasks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Executors for the blocking I/O of the api client (response streams, bitrate detection, image downloads).
+ *
+ * On Java 21 and later every task gets its own virtual thread, so thousands of concurrent downloads only park
+ * virtual threads. Elsewhere, Android included, tasks share a bounded pool of daemon threads and queue beyond it.
+ */
+public final class BlockingExecutors {
+    public static final int DEFAULT_MAX_THREADS = 16;
+
+    private BlockingExecutors() {
+    }
+
+    /**
+     * Creates a virtual thread per task executor when the runtime has them, a bounded pool otherwise.
+     */
+    public static ExecutorService CreateDefault() {
+        ExecutorService executor = TryCreateVirtualThreadExecutor();
+        return executor != null ? executor : CreateBoundedPool(DEFAULT_MAX_THREADS);
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task, or returns null before Java 21.
+     * Looked up by reflection so the library still builds and runs on older runtimes.
+     */
+    public static ExecutorService TryCreateVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (Exception ex) {
+            // NoSuchMethodException before Java 21, UnsupportedOperationException when disabled
+            return null;
+        } catch (LinkageError ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Creates a pool of at most maxThreads daemon threads, which time out when idle. Tasks beyond that queue up.
+     */
+    public static ExecutorService CreateBoundedPool(int maxThreads) {
+        if (maxThreads < 1) {
+            throw new IllegalArgumentException("maxThreads");
+        }
+
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 30, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "ApiClient I/O " + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+}
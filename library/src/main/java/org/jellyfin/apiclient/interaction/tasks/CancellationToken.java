@@ -1,10 +1,16 @@
 package org.jellyfin.apiclient.interaction.tasks;
 
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.atomic.AtomicReference;
+
 /**
  * <p>A cancellation token to signal and propagate cancellation
  * requests when executing asynchronous operations.</p>
  *
- * <p>All the methods of this class are thread safe and may be used concurrently</p>
+ * <p>All the methods of this class are thread safe, lock free and may be used concurrently.
+ * Operations register callbacks to abort their work (close a socket, leave a queue) as soon as
+ * cancellation is requested instead of polling the token.</p>
  *
  * <p>The interface of this class is inspired (and copied for some of its parts)
  * from the Microsoft .NET 4 platform.</p>
@@ -14,21 +20,35 @@ package org.jellyfin.apiclient.interaction.tasks;
  *
  */
 public final class CancellationToken {
+
     /**
-     * The states regulating the behavior of this class.
-     * A newly created token starts in the NOT_FIXED state.
-     * Whenever the isCancellationRequested attribute is set
-     * (no matter the value), the state changes to FIXED.
-     * In the FIXED state, no more changes to the cancellation
-     * token are possible.
+     * A callback registered with {@link #register(Runnable)}.
      */
-    private enum TokenState { FIXED, NOT_FIXED };
+    public interface Registration {
+        /**
+         * Removes the callback, which is not called anymore unless it is already running.
+         */
+        void unregister();
+    }
 
-    /** The current state of the token */
-    private TokenState tokenState;
+    private static final Registration EMPTY_REGISTRATION = new Registration() {
+        @Override
+        public void unregister() {
+        }
+    };
 
-    /** A flag indicating whether cancellation has been requested */
-    private boolean isCancellationRequested;
+    /** Marks the token as cancelled, in place of the registered callbacks */
+    private static final Node CANCELLED = new Node(null);
+
+    /**
+     * Whether the cancellation state was set at creation and cannot change.
+     */
+    private final boolean fixed;
+
+    /**
+     * The most recent registration, linked to the previous ones, or {@link #CANCELLED}.
+     */
+    private final AtomicReference<Node> registrations = new AtomicReference<>();
 
     /**
      * Creates a new {@link CancellationToken} with the
@@ -36,8 +56,7 @@ public final class CancellationToken {
      * may be subsequently canceled.
      */
     public CancellationToken() {
-        tokenState = TokenState.NOT_FIXED;
-        isCancellationRequested = false;
+        fixed = false;
     }
 
     /**
@@ -50,31 +69,172 @@ public final class CancellationToken {
      *              the canceled state for this token.
      */
     public CancellationToken(boolean canceled) {
-        tokenState = TokenState.FIXED;
-        isCancellationRequested = canceled;
+        fixed = true;
+        if (canceled) {
+            registrations.set(CANCELLED);
+        }
+    }
+
+    /**
+     * Creates a token which is cancelled when any of the given tokens is, or when cancelled itself.
+     * Cancelling it does not cancel the parents, and it unregisters from them so a long lived parent
+     * does not keep its children alive.
+     *
+     * @param parents
+     *              the tokens to link to, null ones are ignored.
+     */
+    public static CancellationToken createLinked(CancellationToken... parents) {
+        final CancellationToken child = new CancellationToken();
+        final ArrayList<Registration> parentRegistrations = new ArrayList<>(parents.length);
+
+        Runnable cancelChild = new Runnable() {
+            @Override
+            public void run() {
+                child.cancel();
+            }
+        };
+
+        for (CancellationToken parent : parents) {
+            if (parent == null) {
+                continue;
+            }
+
+            parentRegistrations.add(parent.register(cancelChild));
+            if (child.isCancellationRequested()) {
+                break;
+            }
+        }
+
+        child.register(new Runnable() {
+            @Override
+            public void run() {
+                for (Registration registration : parentRegistrations) {
+                    registration.unregister();
+                }
+            }
+        });
+
+        return child;
     }
 
     /**
      * Checks whether cancellation has been requested for this token.
      * @return true if cancellation has been requested, false otherwise.
      */
-    public synchronized boolean isCancellationRequested() {
-        return isCancellationRequested;
+    public boolean isCancellationRequested() {
+        return registrations.get() == CANCELLED;
     }
 
     /**
-     * Changes the cancellation state of this token to canceled.
+     * @throws CancellationException
+     *              if cancellation has been requested for this token.
+     */
+    public void throwIfCancellationRequested() throws CancellationException {
+        if (isCancellationRequested()) {
+            throw new CancellationException();
+        }
+    }
+
+    /**
+     * <p>Registers a callback to run once when cancellation is requested, on the thread calling {@link #cancel()}.
+     * When the token is already cancelled, the callback runs right away on the calling thread.</p>
+     *
+     * <p>Callbacks should be short and must not block: they typically disconnect a connection or
+     * remove an entry from a queue. Unregister the callback once the operation completes, so
+     * tokens outliving the operation do not hold on to it.</p>
+     *
+     * @param callback
+     *              the callback to run.
+     * @return the registration, to unregister the callback.
+     */
+    public Registration register(Runnable callback) {
+        if (callback == null) {
+            throw new IllegalArgumentException("callback");
+        }
+
+        Node node = new Node(callback);
+        while (true) {
+            Node head = registrations.get();
+            if (head == CANCELLED) {
+                callback.run();
+                return EMPTY_REGISTRATION;
+            }
+
+            if (fixed) {
+                // Never cancelled, so the callback would never run
+                return EMPTY_REGISTRATION;
+            }
+
+            // Unlink the unregistered callbacks on top, which is where completed operations leave theirs
+            Node next = head;
+            while (next != null && next.get() == null) {
+                next = next.next;
+            }
+
+            node.next = next;
+            if (registrations.compareAndSet(head, node)) {
+                return node;
+            }
+        }
+    }
+
+    /**
+     * Changes the cancellation state of this token to canceled and runs the registered callbacks,
+     * the most recent first. Every callback runs even when one throws; the first exception is then
+     * rethrown, with the others suppressed.
      * This method has no effect if the token is already in the canceled state.
      *
      * @throws IllegalStateException
-     *              if the token is already in the FIXED state.
+     *              if the token was created with a fixed state that is not canceled.
      */
-    public synchronized void cancel() throws IllegalStateException {
-        if (isCancellationRequested) return;
-        if (tokenState == TokenState.FIXED)
+    public void cancel() throws IllegalStateException {
+        if (fixed) {
+            if (isCancellationRequested()) return;
             throw new IllegalStateException("Cannot change the state of a fixed cancellation token");
+        }
+
+        Node node = registrations.getAndSet(CANCELLED);
+        if (node == CANCELLED) {
+            return;
+        }
+
+        RuntimeException error = null;
+        for (; node != null; node = node.next) {
+            // Claims the callback, so a concurrent unregister cannot make it run twice
+            Runnable callback = node.getAndSet(null);
+            if (callback == null) {
+                continue;
+            }
+
+            try {
+                callback.run();
+            } catch (RuntimeException ex) {
+                if (error == null) {
+                    error = ex;
+                } else {
+                    error.addSuppressed(ex);
+                }
+            }
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private static final class Node extends AtomicReference<Runnable> implements Registration {
+        private static final long serialVersionUID = 1L;
+
+        /** Written before the node is published, and read after */
+        Node next;
+
+        Node(Runnable callback) {
+            super(callback);
+        }
 
-        isCancellationRequested = true;
-        tokenState = TokenState.FIXED;
+        @Override
+        public void unregister() {
+            set(null);
+        }
     }
 }
@@ -3,9 +3,11 @@ package org.jellyfin.apiclient.interaction.websocket;
 import org.jellyfin.apiclient.interaction.ApiClient;
 import org.jellyfin.apiclient.interaction.ApiEventListener;
 import org.jellyfin.apiclient.interaction.EmptyResponse;
+import org.jellyfin.apiclient.interaction.cache.ItemCache;
+import org.jellyfin.apiclient.interaction.cache.UserDataIndex;
+import org.jellyfin.apiclient.interaction.cache.UserItemDataChangedEventArgs;
 import org.jellyfin.apiclient.logging.ILogger;
 import org.jellyfin.apiclient.model.apiclient.GeneralCommandEventArgs;
-import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo;
 import org.jellyfin.apiclient.model.net.WebSocketMessage;
 import org.jellyfin.apiclient.model.session.BrowseRequest;
 import org.jellyfin.apiclient.model.session.GeneralCommandType;
@@ -14,6 +16,7 @@ import org.jellyfin.apiclient.serialization.IJsonSerializer;
 
 import java.net.URI;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 
 public class ApiWebSocket implements ISocketListener {
 
@@ -56,6 +59,13 @@ public class ApiWebSocket implements ISocketListener {
     }
 
     public void onOpen() {
+
+        // Changes made while the socket was down were never notified, so nothing cached before can be trusted
+        ItemCache itemCache = apiClient.getItemCache();
+        if (itemCache != null)
+        {
+            itemCache.Clear(apiClient.getItemCacheServerId());
+        }
     }
 
     private String getWebSocketServerAddress() {
@@ -142,8 +152,15 @@ public class ApiWebSocket implements ISocketListener {
 
         if ("LibraryChanged".equalsIgnoreCase(messageType))
         {
-            LibraryUpdateInfo obj = jsonSerializer.DeserializeFromString(message, LibraryUpdateInfo.class);
-            apiEventListener.onLibraryChanged(apiClient, obj);
+            LibraryChangedMessage obj = jsonSerializer.DeserializeFromString(message, LibraryChangedMessage.class);
+
+            ItemCache itemCache = apiClient.getItemCache();
+            if (itemCache != null)
+            {
+                itemCache.ApplyLibraryChange(apiClient.getItemCacheServerId(), obj.getData());
+            }
+
+            apiEventListener.onLibraryChanged(apiClient, obj.getData());
 
         }
         else if ("RestartRequired".equalsIgnoreCase(messageType))
@@ -230,7 +247,29 @@ public class ApiWebSocket implements ISocketListener {
         else if ("UserDataChanged".equalsIgnoreCase(messageType))
         {
             UserDataChangeMessage obj = jsonSerializer.DeserializeFromString(message, UserDataChangeMessage.class);
+
+            ArrayList<UserItemDataChangedEventArgs> changes = null;
+            UserDataIndex userDataIndex = apiClient.getUserDataIndex();
+            if (userDataIndex != null)
+            {
+                changes = userDataIndex.Apply(obj.getData());
+            }
+
+            ItemCache itemCache = apiClient.getItemCache();
+            if (itemCache != null)
+            {
+                itemCache.ApplyUserDataChange(apiClient.getItemCacheServerId(), obj.getData());
+            }
+
             apiEventListener.onUserDataChanged(apiClient, obj.getData());
+
+            if (changes != null)
+            {
+                for (UserItemDataChangedEventArgs change : changes)
+                {
+                    apiEventListener.onUserItemDataChanged(apiClient, change);
+                }
+            }
         }
         else if ("SessionEnded".equalsIgnoreCase(messageType))
         {
@@ -0,0 +1,7 @@
+package org.jellyfin.apiclient.interaction.websocket;
+
+import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo;
+import org.jellyfin.apiclient.model.net.WebSocketMessage;
+
+public class LibraryChangedMessage extends WebSocketMessage<LibraryUpdateInfo> {
+}
@@ -0,0 +1,250 @@
+package org.jellyfin.apiclient.serialization;
+
+import org.jellyfin.apiclient.model.dlna.CodecProfile;
+import org.jellyfin.apiclient.model.dlna.ContainerProfile;
+import org.jellyfin.apiclient.model.dlna.DeviceIdentification;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DirectPlayProfile;
+import org.jellyfin.apiclient.model.dlna.HttpHeaderInfo;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ResponseProfile;
+import org.jellyfin.apiclient.model.dlna.SubtitleProfile;
+import org.jellyfin.apiclient.model.dlna.TranscodingProfile;
+import org.jellyfin.apiclient.model.dlna.XmlAttribute;
+
+/**
+ * Computes a 64-bit FNV-1a hash over every serialized property of a {@link DeviceProfile}.
+ * Walking the profile is much cheaper than serializing it, so the hash tells whether something derived from a profile,
+ * such as its serialization, is still valid after the profile may have been changed in place.
+ */
+public final class DeviceProfileDigest {
+    private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private long hash = OFFSET_BASIS;
+
+    private DeviceProfileDigest() {
+    }
+
+    public static long Compute(DeviceProfile profile) {
+        DeviceProfileDigest digest = new DeviceProfileDigest();
+        digest.Add(profile);
+        return digest.hash;
+    }
+
+    private void Add(DeviceProfile profile) {
+        Add(profile.getName());
+        Add(profile.getId());
+        Add(profile.getProfileType());
+        Add(profile.getIdentification());
+        Add(profile.getFriendlyName());
+        Add(profile.getManufacturer());
+        Add(profile.getManufacturerUrl());
+        Add(profile.getModelName());
+        Add(profile.getModelDescription());
+        Add(profile.getModelNumber());
+        Add(profile.getModelUrl());
+        Add(profile.getSerialNumber());
+        Add(profile.getEnableAlbumArtInDidl());
+        Add(profile.getEnableSingleAlbumArtLimit());
+        Add(profile.getEnableSingleSubtitleLimit());
+        Add(profile.getSupportedMediaTypes());
+        Add(profile.getUserId());
+        Add(profile.getAlbumArtPn());
+        Add(profile.getMaxAlbumArtWidth());
+        Add(profile.getMaxAlbumArtHeight());
+        Add(profile.getMaxIconWidth());
+        Add(profile.getMaxIconHeight());
+        Add(profile.getMaxStreamingBitrate());
+        Add(profile.getMaxStaticBitrate());
+        Add(profile.getMusicStreamingTranscodingBitrate());
+        Add(profile.getMaxStaticMusicBitrate());
+        Add(profile.getXDlnaDoc());
+        Add(profile.getXDlnaCap());
+        Add(profile.getSonyAggregationFlags());
+        Add(profile.getProtocolInfo());
+        Add(profile.getTimelineOffsetSeconds());
+        Add(profile.getRequiresPlainVideoItems());
+        Add(profile.getRequiresPlainFolders());
+        Add(profile.getEnableMSMediaReceiverRegistrar());
+        Add(profile.getIgnoreTranscodeByteRangeRequests());
+
+        XmlAttribute[] xmlRootAttributes = profile.getXmlRootAttributes();
+        AddLength(xmlRootAttributes);
+        if (xmlRootAttributes != null) {
+            for (XmlAttribute i : xmlRootAttributes) {
+                Add(i.getName());
+                Add(i.getValue());
+            }
+        }
+
+        DirectPlayProfile[] directPlayProfiles = profile.getDirectPlayProfiles();
+        AddLength(directPlayProfiles);
+        if (directPlayProfiles != null) {
+            for (DirectPlayProfile i : directPlayProfiles) {
+                Add(i.getContainer());
+                Add(i.getAudioCodec());
+                Add(i.getVideoCodec());
+                Add(i.getType());
+            }
+        }
+
+        TranscodingProfile[] transcodingProfiles = profile.getTranscodingProfiles();
+        AddLength(transcodingProfiles);
+        if (transcodingProfiles != null) {
+            for (TranscodingProfile i : transcodingProfiles) {
+                Add(i.getContainer());
+                Add(i.getType());
+                Add(i.getVideoCodec());
+                Add(i.getAudioCodec());
+                Add(i.getProtocol());
+                Add(i.getEstimateContentLength());
+                Add(i.getEnableMpegtsM2TsMode());
+                Add(i.BreakOnNonKeyFrames());
+                Add(i.getTranscodeSeekInfo());
+                Add(i.getCopyTimestamps());
+                Add(i.getContext());
+                Add(i.getEnableSubtitlesInManifest());
+                Add(i.getMaxAudioChannels());
+                Add(i.getMinSegments());
+                Add(i.getSegmentLength());
+            }
+        }
+
+        ContainerProfile[] containerProfiles = profile.getContainerProfiles();
+        AddLength(containerProfiles);
+        if (containerProfiles != null) {
+            for (ContainerProfile i : containerProfiles) {
+                Add(i.getType());
+                Add(i.getConditions());
+                Add(i.getContainer());
+            }
+        }
+
+        CodecProfile[] codecProfiles = profile.getCodecProfiles();
+        AddLength(codecProfiles);
+        if (codecProfiles != null) {
+            for (CodecProfile i : codecProfiles) {
+                Add(i.getType());
+                Add(i.getConditions());
+                Add(i.getApplyConditions());
+                Add(i.getCodec());
+                Add(i.getContainer());
+            }
+        }
+
+        ResponseProfile[] responseProfiles = profile.getResponseProfiles();
+        AddLength(responseProfiles);
+        if (responseProfiles != null) {
+            for (ResponseProfile i : responseProfiles) {
+                Add(i.getContainer());
+                Add(i.getAudioCodec());
+                Add(i.getVideoCodec());
+                Add(i.getType());
+                Add(i.getOrgPn());
+                Add(i.getMimeType());
+                Add(i.getConditions());
+            }
+        }
+
+        SubtitleProfile[] subtitleProfiles = profile.getSubtitleProfiles();
+        AddLength(subtitleProfiles);
+        if (subtitleProfiles != null) {
+            for (SubtitleProfile i : subtitleProfiles) {
+                Add(i.getFormat());
+                Add(i.getMethod());
+                Add(i.getDidlMode());
+                Add(i.getLanguage());
+            }
+        }
+    }
+
+    private void Add(DeviceIdentification identification) {
+        if (identification == null) {
+            AddByte(0);
+            return;
+        }
+
+        AddByte(1);
+        Add(identification.getFriendlyName());
+        Add(identification.getModelNumber());
+        Add(identification.getSerialNumber());
+        Add(identification.getModelName());
+        Add(identification.getModelDescription());
+        Add(identification.getDeviceDescription());
+        Add(identification.getModelUrl());
+        Add(identification.getManufacturer());
+        Add(identification.getManufacturerUrl());
+
+        HttpHeaderInfo[] headers = identification.getHeaders();
+        AddLength(headers);
+        if (headers != null) {
+            for (HttpHeaderInfo i : headers) {
+                Add(i.getName());
+                Add(i.getValue());
+                Add(i.getMatch());
+            }
+        }
+    }
+
+    private void Add(ProfileCondition[] conditions) {
+        AddLength(conditions);
+        if (conditions != null) {
+            for (ProfileCondition i : conditions) {
+                Add(i.getCondition());
+                Add(i.getProperty());
+                Add(i.getValue());
+                Add(i.getIsRequired());
+            }
+        }
+    }
+
+    private void AddLength(Object[] array) {
+        Add(array != null ? array.length : -1);
+    }
+
+    private void Add(String value) {
+        if (value == null) {
+            AddByte(0);
+            return;
+        }
+
+        AddByte(1);
+        Add(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            AddByte(c & 0xff);
+            AddByte(c >>> 8);
+        }
+    }
+
+    private void Add(Enum<?> value) {
+        Add(value != null ? value.ordinal() : -1);
+    }
+
+    private void Add(Integer value) {
+        if (value == null) {
+            AddByte(0);
+            return;
+        }
+
+        AddByte(1);
+        Add(value.intValue());
+    }
+
+    private void Add(int value) {
+        AddByte(value & 0xff);
+        AddByte((value >>> 8) & 0xff);
+        AddByte((value >>> 16) & 0xff);
+        AddByte(value >>> 24);
+    }
+
+    private void Add(boolean value) {
+        AddByte(value ? 1 : 0);
+    }
+
+    private void AddByte(int value) {
+        hash ^= value;
+        hash *= PRIME;
+    }
+}
@@ -0,0 +1,87 @@
+package org.jellyfin.apiclient.serialization;
+
+import com.google.gson.ExclusionStrategy;
+import com.google.gson.FieldAttributes;
+import com.google.gson.Gson;
+
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest;
+
+/**
+ * Serializes {@link PlaybackInfoRequest} bodies, reusing the JSON of the embedded {@link DeviceProfile}
+ * for as long as the profile's content hash does not change. The profile is by far the largest part of
+ * the request and is usually the same for every playback.
+ */
+public class PlaybackInfoRequestSerializer {
+    private static final String DEVICE_PROFILE_PROPERTY = "DeviceProfile";
+
+    private final Gson requestGson;
+    private final Gson profileGson;
+
+    private long cachedProfileHash;
+    private String cachedProfileJson;
+
+    public PlaybackInfoRequestSerializer(GsonJsonSerializer jsonSerializer) {
+        if (jsonSerializer == null) {
+            throw new IllegalArgumentException("jsonSerializer");
+        }
+
+        profileGson = jsonSerializer.gson;
+        requestGson = jsonSerializer.gson.newBuilder()
+                .addSerializationExclusionStrategy(new ExclusionStrategy() {
+                    @Override
+                    public boolean shouldSkipField(FieldAttributes f) {
+                        return f.getDeclaringClass() == PlaybackInfoRequest.class && DEVICE_PROFILE_PROPERTY.equals(f.getName());
+                    }
+
+                    @Override
+                    public boolean shouldSkipClass(Class<?> clazz) {
+                        return false;
+                    }
+                })
+                .create();
+    }
+
+    public String Serialize(PlaybackInfoRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("request");
+        }
+
+        String json = requestGson.toJson(request);
+
+        DeviceProfile profile = request.getDeviceProfile();
+        if (profile == null) {
+            return json;
+        }
+
+        String profileJson = GetProfileJson(profile);
+
+        // The request serializes to a JSON object, append the profile as its last property
+        StringBuilder builder = new StringBuilder(json.length() + profileJson.length() + DEVICE_PROFILE_PROPERTY.length() + 4);
+        builder.append(json, 0, json.length() - 1);
+        if (json.length() > 2) {
+            builder.append(',');
+        }
+        builder.append('"').append(DEVICE_PROFILE_PROPERTY).append("\":").append(profileJson).append('}');
+        return builder.toString();
+    }
+
+    private String GetProfileJson(DeviceProfile profile) {
+        long hash = DeviceProfileDigest.Compute(profile);
+
+        synchronized (this) {
+            if (cachedProfileJson != null && cachedProfileHash == hash) {
+                return cachedProfileJson;
+            }
+        }
+
+        String json = profileGson.toJson(profile);
+
+        synchronized (this) {
+            cachedProfileHash = hash;
+            cachedProfileJson = json;
+        }
+
+        return json;
+    }
+}
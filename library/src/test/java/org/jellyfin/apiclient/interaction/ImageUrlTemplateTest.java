@@ -0,0 +1,103 @@
+package org.jellyfin.apiclient.interaction;
+
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.drawing.ImageFormat;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.ImageOptions;
+import org.jellyfin.apiclient.model.entities.ImageType;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class ImageUrlTemplateTest {
+    // A server behind a reverse proxy path, so the prefix of the template is more than the host
+    private final ApiClient apiClient = TestApiClients.Create(new IAsyncHttpClient() {
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            throw new UnsupportedOperationException();
+        }
+    }, "https://home.example.net/jellyfin");
+
+    private static ImageOptions createOptions(ImageType imageType) {
+        ImageOptions options = new ImageOptions();
+        options.setImageType(imageType);
+        options.setMaxWidth(400);
+        options.setMaxHeight(600);
+        options.setFormat(ImageFormat.Jpg);
+        options.setUnPlayedCount(3);
+        return options;
+    }
+
+    private static ImageOptions createTaggedOptions(ImageType imageType, String tag, Integer imageIndex) {
+        ImageOptions options = createOptions(imageType);
+        options.setTag(tag);
+        options.setImageIndex(imageIndex);
+        return options;
+    }
+
+    @Test
+    public void testTemplateMatchesImageUrl() {
+        BaseItemDto item = new BaseItemDto();
+        item.setId("item1");
+        item.setImageTags(new HashMap<ImageType, String>());
+        item.getImageTags().put(ImageType.Primary, "primarytag");
+        item.setBackdropImageTags(new ArrayList<>(Arrays.asList("backdrop0", "backdrop1")));
+
+        BaseItemDto untagged = new BaseItemDto();
+        untagged.setId("item2");
+        untagged.setImageTags(new HashMap<ImageType, String>());
+
+        ImageUrlTemplate primary = apiClient.CreateImageUrlTemplate(createOptions(ImageType.Primary));
+        assertEquals(apiClient.GetImageUrl(item, createOptions(ImageType.Primary)), primary.GetUrl(item));
+        assertEquals(apiClient.GetImageUrl(untagged, createOptions(ImageType.Primary)), primary.GetUrl(untagged));
+
+        ImageOptions backdropOptions = createOptions(ImageType.Backdrop);
+        backdropOptions.setImageIndex(1);
+        ImageUrlTemplate backdrop = apiClient.CreateImageUrlTemplate(createOptions(ImageType.Backdrop));
+        assertEquals(apiClient.GetImageUrl(item, backdropOptions), backdrop.GetUrl(item, 1));
+    }
+
+    @Test
+    public void testTagIsEncodedInPlace() {
+        ImageUrlTemplate template = apiClient.CreateImageUrlTemplate(createOptions(ImageType.Logo));
+        String tag = "a b&c=d/é";
+
+        String url = template.GetUrl("item", tag, null);
+
+        assertEquals(apiClient.GetImageUrl("item", createTaggedOptions(ImageType.Logo, tag, null)), url);
+        assertTrue(url, url.startsWith("https://home.example.net/jellyfin/Items/item/Images/Logo?"));
+        assertTrue(url, url.contains("Tag=a%20b%26c%3Dd%2F%C3%A9"));
+    }
+
+    @Test
+    public void testOptionsTagAndIndexAreIgnored() {
+        ImageUrlTemplate template = apiClient.CreateImageUrlTemplate(createTaggedOptions(ImageType.Screenshot, "ignored", 4));
+
+        assertEquals(apiClient.GetImageUrl("item", createTaggedOptions(ImageType.Screenshot, null, null)), template.GetUrl("item", null, null));
+        assertEquals(apiClient.GetImageUrl("item", createTaggedOptions(ImageType.Screenshot, "t", 2)), template.GetUrl("item", "t", 2));
+        assertEquals(ImageType.Screenshot, template.getImageType());
+    }
+
+    @Test
+    public void testTemplateKeepsTheSettingsItWasCreatedWith() {
+        ImageUrlTemplate template = apiClient.CreateImageUrlTemplate(createOptions(ImageType.Thumb));
+        String before = template.GetUrl("item", "t", null);
+
+        apiClient.setImageQuality(20);
+
+        assertEquals(before, template.GetUrl("item", "t", null));
+        assertNotEquals(before, apiClient.GetImageUrl("item", createTaggedOptions(ImageType.Thumb, "t", null)));
+        assertEquals(apiClient.GetImageUrl("item", createTaggedOptions(ImageType.Thumb, "t", null)),
+                apiClient.CreateImageUrlTemplate(createOptions(ImageType.Thumb)).GetUrl("item", "t", null));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testItemIdIsRequired() {
+        apiClient.CreateImageUrlTemplate(createOptions(ImageType.Primary)).GetUrl("", "t", null);
+    }
+}
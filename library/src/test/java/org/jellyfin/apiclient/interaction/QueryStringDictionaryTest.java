@@ -0,0 +1,37 @@
+package org.jellyfin.apiclient.interaction;
+
+import org.junit.Test;
+
+import java.net.URLDecoder;
+
+import static org.junit.Assert.*;
+
+public class QueryStringDictionaryTest {
+    @Test
+    public void testParametersAreSortedByName() {
+        QueryStringDictionary first = new QueryStringDictionary();
+        first.Add("Limit", 20);
+        first.Add("Fields", new String[] { "Overview", "Genres" });
+        first.AddIfNotNullOrEmpty("ParentId", "");
+        first.Add("IsPlayed", false);
+
+        QueryStringDictionary second = new QueryStringDictionary();
+        second.Add("IsPlayed", false);
+        second.Add("Fields", new String[] { "Overview", "Genres" });
+        second.Add("Limit", 20);
+
+        assertEquals("/Items?Fields=Overview%2CGenres&IsPlayed=false&Limit=20", first.GetUrl("/Items"));
+        assertEquals(first.GetUrl("/Items"), second.GetUrl("/Items"));
+        assertEquals("/Items", new QueryStringDictionary().GetUrl("/Items"));
+    }
+
+    @Test
+    public void testValuesArePercentEncodedAsUtf8() throws Exception {
+        String value = "a-b_c.d~e f+g&h/\u00e9\u20ac\ud83c\udfb5";
+        StringBuilder result = new StringBuilder();
+        QueryStringDictionary.AppendEncoded(result, value);
+
+        assertEquals("a-b_c.d~e%20f%2Bg%26h%2F%C3%A9%E2%82%AC%F0%9F%8E%B5", result.toString());
+        assertEquals(value, URLDecoder.decode(result.toString(), "UTF-8"));
+    }
+}
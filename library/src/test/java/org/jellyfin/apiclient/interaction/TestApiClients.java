@@ -0,0 +1,37 @@
+package org.jellyfin.apiclient.interaction;
+
+import org.jellyfin.apiclient.interaction.device.IDevice;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.logging.NullLogger;
+
+/**
+ * Builds the api clients of the tests around a fake http client, so each test only describes its server.
+ */
+public final class TestApiClients {
+    public static final String ServerAddress = "http://localhost";
+
+    private TestApiClients() {
+    }
+
+    public static IDevice CreateDevice() {
+        return new IDevice() {
+            @Override
+            public String getDeviceName() {
+                return "Test Device";
+            }
+
+            @Override
+            public String getDeviceId() {
+                return "test-device";
+            }
+        };
+    }
+
+    public static ApiClient Create(IAsyncHttpClient httpClient) {
+        return Create(httpClient, ServerAddress);
+    }
+
+    public static ApiClient Create(IAsyncHttpClient httpClient, String serverAddress) {
+        return new ApiClient(httpClient, new NullLogger(), serverAddress, "Test", "1.0", CreateDevice(), new ApiEventListener());
+    }
+}
@@ -0,0 +1,197 @@
+package org.jellyfin.apiclient.interaction.batch;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.interaction.http.RequestPriority;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class ItemBatchLoaderTest {
+    private static final Pattern Ids = Pattern.compile("Ids=([^&]*)");
+
+    /**
+     * Holds every request until the test answers it, so the state of a batch in flight can be inspected.
+     */
+    private static final class Switchboard implements IAsyncHttpClient {
+        final ArrayList<HttpRequest> requests = new ArrayList<>();
+        final ArrayList<Response<String>> responses = new ArrayList<>();
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            requests.add(request);
+            responses.add(response);
+        }
+
+        ArrayList<String> GetIds(int index) {
+            ArrayList<String> ids = new ArrayList<>();
+            Matcher matcher = Ids.matcher(requests.get(index).getUrl());
+            if (matcher.find()) {
+                for (String id : matcher.group(1).split("%2C")) {
+                    ids.add(id);
+                }
+            }
+            return ids;
+        }
+
+        void Answer(int index) {
+            StringBuilder json = new StringBuilder("{\"Items\":[");
+            ArrayList<String> ids = GetIds(index);
+            for (int i = 0; i < ids.size(); i++) {
+                json.append(i > 0 ? "," : "").append("{\"Id\":\"").append(ids.get(i)).append("\"}");
+            }
+            responses.get(index).onResponse(json.append("]}").toString());
+        }
+    }
+
+    /**
+     * Remembers what reached a caller.
+     */
+    private static final class Waiter extends Response<BaseItemDto> {
+        BaseItemDto item;
+        Exception error;
+
+        Waiter(CancellationToken cancellationToken, RequestPriority priority) {
+            setCancellationToken(cancellationToken);
+            setPriority(priority);
+        }
+
+        @Override
+        public void onResponse(BaseItemDto response) {
+            item = response;
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            error = exception;
+        }
+    }
+
+    private final Switchboard switchboard = new Switchboard();
+    private ScheduledExecutorService scheduler;
+    private ItemBatchLoader loader;
+
+    @Before
+    public void setUp() {
+        ApiClient apiClient = TestApiClients.Create(switchboard, "http://jellyfin.local:8096");
+
+        // The scheduled flush never comes, each test flushes by hand
+        scheduler = Executors.newSingleThreadScheduledExecutor();
+        loader = new ItemBatchLoader(apiClient, scheduler, TimeUnit.HOURS.toMillis(1));
+    }
+
+    @After
+    public void tearDown() {
+        scheduler.shutdownNow();
+    }
+
+    private static String GetId(int index) {
+        return String.format("%032x", index);
+    }
+
+    @Test
+    public void testUrlsStayWithinTheBudgetWithEveryField() {
+        loader.setMaxBatchSize(500);
+        for (int i = 0; i < 200; i++) {
+            loader.GetItemAsync(GetId(i), "user", new Waiter(null, null));
+        }
+        loader.Flush();
+
+        assertTrue(switchboard.requests.size() > 1);
+
+        HashSet<String> requested = new HashSet<>();
+        for (int i = 0; i < switchboard.requests.size(); i++) {
+            String url = switchboard.requests.get(i).getUrl();
+            assertTrue(url.length() + " > budget", url.length() <= ItemBatchLoader.DEFAULT_MAX_URL_LENGTH);
+            assertTrue(url.contains("Fields="));
+            requested.addAll(switchboard.GetIds(i));
+        }
+        assertEquals(200, requested.size());
+    }
+
+    @Test
+    public void testBatchTakesTheMostUrgentPriority() {
+        loader.GetItemAsync(GetId(1), "user", new Waiter(null, RequestPriority.Background));
+        loader.GetItemAsync(GetId(2), "user", new Waiter(null, RequestPriority.Prefetch));
+        loader.GetItemAsync(GetId(3), "user", new Waiter(null, RequestPriority.Background));
+        loader.Flush();
+
+        assertEquals(1, switchboard.requests.size());
+        assertEquals(RequestPriority.Prefetch, switchboard.requests.get(0).getPriority());
+    }
+
+    @Test
+    public void testBatchIsCancelledOnlyOnceEveryWaiterCancelled() {
+        CancellationToken first = new CancellationToken();
+        CancellationToken second = new CancellationToken();
+        CancellationToken third = new CancellationToken();
+        Waiter firstWaiter = new Waiter(first, null);
+        Waiter secondWaiter = new Waiter(second, null);
+        Waiter thirdWaiter = new Waiter(third, null);
+
+        // Two callers share an id, the third asks for another one
+        loader.GetItemAsync(GetId(1), "user", firstWaiter);
+        loader.GetItemAsync(GetId(1), "user", secondWaiter);
+        loader.GetItemAsync(GetId(2), "user", thirdWaiter);
+        loader.Flush();
+
+        CancellationToken batchToken = switchboard.requests.get(0).getCancellationToken();
+        assertNotNull(batchToken);
+
+        first.cancel();
+        third.cancel();
+        assertFalse(batchToken.isCancellationRequested());
+
+        second.cancel();
+        assertTrue(batchToken.isCancellationRequested());
+    }
+
+    @Test
+    public void testCancelledWaitersAreNotAnswered() {
+        CancellationToken cancelled = new CancellationToken();
+        Waiter cancelledWaiter = new Waiter(cancelled, null);
+        Waiter waiter = new Waiter(new CancellationToken(), null);
+        Waiter other = new Waiter(null, null);
+
+        loader.GetItemAsync(GetId(1), "user", cancelledWaiter);
+        loader.GetItemAsync(GetId(1), "user", waiter);
+        loader.GetItemAsync(GetId(2), "user", other);
+        loader.Flush();
+
+        cancelled.cancel();
+        switchboard.Answer(0);
+
+        assertNull(cancelledWaiter.item);
+        assertNull(cancelledWaiter.error);
+        assertEquals(GetId(1), waiter.item.getId());
+        assertEquals(GetId(2), other.item.getId());
+        // A waiter without a token keeps the batch alive
+        assertFalse(switchboard.requests.get(0).getCancellationToken().isCancellationRequested());
+    }
+
+    @Test
+    public void testBatchOfCancelledWaitersIsNotSent() {
+        CancellationToken cancellationToken = new CancellationToken();
+        loader.GetItemAsync(GetId(1), "user", new Waiter(cancellationToken, null));
+        loader.GetItemAsync(GetId(2), "user", new Waiter(cancellationToken, null));
+        cancellationToken.cancel();
+        loader.Flush();
+
+        assertTrue(switchboard.requests.isEmpty());
+    }
+}
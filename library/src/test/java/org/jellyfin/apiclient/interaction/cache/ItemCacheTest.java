@@ -0,0 +1,118 @@
+package org.jellyfin.apiclient.interaction.cache;
+
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
+import org.jellyfin.apiclient.model.entities.LibraryUpdateInfo;
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ItemCacheTest {
+    private static final String ITEM_ID = "5f0e8f2a9c4b4d2e8a1b3c4d5e6f7a8b";
+    private static final String DASHED_ITEM_ID = "5F0E8F2A-9C4B-4D2E-8A1B-3C4D5E6F7A8B";
+
+    private static BaseItemDto CreateItem(String id) {
+        BaseItemDto item = new BaseItemDto();
+        item.setId(id);
+        UserItemDataDto userData = new UserItemDataDto();
+        userData.setItemId(id);
+        item.setUserData(userData);
+        return item;
+    }
+
+    @Test
+    public void testIdsAreNormalized() {
+        ItemCache cache = new ItemCache();
+        BaseItemDto item = CreateItem(ITEM_ID);
+        cache.Put("server", "user", item);
+
+        assertSame(item, cache.Get("server", "user", DASHED_ITEM_ID));
+        assertNull(cache.Get("server", "other", ITEM_ID));
+
+        cache.Remove("server", DASHED_ITEM_ID);
+        assertNull(cache.Get("server", "user", ITEM_ID));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testUserDataIsPatchedInPlace() {
+        ItemCache cache = new ItemCache();
+        BaseItemDto item = CreateItem(ITEM_ID);
+        UserItemDataDto held = item.getUserData();
+        cache.Put("server", "user", item);
+
+        UserItemDataDto played = new UserItemDataDto();
+        played.setItemId(DASHED_ITEM_ID);
+        played.setPlayed(true);
+        played.setPlayCount(3);
+
+        UserDataChangeInfo info = new UserDataChangeInfo();
+        info.setUserId("user");
+        info.setUserDataList(new ArrayList<>(Arrays.asList(played)));
+        cache.ApplyUserDataChange("server", info);
+
+        // The instance a screen already bound to sees the change
+        assertSame(held, cache.Get("server", "user", ITEM_ID).getUserData());
+        assertTrue(held.getPlayed());
+        assertEquals(3, held.getPlayCount());
+        assertNotSame(played, held);
+    }
+
+    @Test
+    public void testLibraryChangeDropsItemForEveryUser() {
+        ItemCache cache = new ItemCache();
+        cache.Put("server", "a", CreateItem(ITEM_ID));
+        cache.Put("server", "b", CreateItem(ITEM_ID));
+        cache.Put("server", "a", CreateItem("folder"));
+
+        LibraryUpdateInfo info = new LibraryUpdateInfo();
+        info.setItemsUpdated(new ArrayList<>(Arrays.asList(DASHED_ITEM_ID)));
+        cache.ApplyLibraryChange("server", info);
+
+        assertNull(cache.Get("server", "a", ITEM_ID));
+        assertNull(cache.Get("server", "b", ITEM_ID));
+        assertNotNull(cache.Get("server", "a", "folder"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvicted() {
+        ItemCache cache = new ItemCache(2);
+        cache.Put("server", "user", CreateItem("a"));
+        cache.Put("server", "user", CreateItem("b"));
+        cache.Get("server", "user", "a");
+        cache.Put("server", "user", CreateItem("c"));
+
+        assertNotNull(cache.Get("server", "user", "a"));
+        assertNull(cache.Get("server", "user", "b"));
+        assertEquals(1, cache.getEvictionCount());
+
+        // The evicted entry left the per item index too
+        cache.Remove("server", "b");
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void testClearDropsOnlyTheItemsOfOneServer() {
+        ItemCache cache = new ItemCache();
+        BaseItemDto kept = CreateItem(ITEM_ID);
+        cache.Put("home", "user", CreateItem(ITEM_ID));
+        cache.Put("home", "other", CreateItem("movie"));
+        cache.Put("cabin", "user", kept);
+
+        cache.Clear("home");
+
+        assertEquals(1, cache.size());
+        assertNull(cache.Get("home", "user", ITEM_ID));
+        assertSame(kept, cache.Get("cabin", "user", DASHED_ITEM_ID));
+
+        // The index is emptied too, so a removal afterwards only touches the remaining server
+        cache.Put("home", "user", CreateItem(ITEM_ID));
+        cache.Remove("cabin", ITEM_ID);
+        assertNotNull(cache.Get("home", "user", ITEM_ID));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,128 @@
+package org.jellyfin.apiclient.interaction.cache;
+
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.model.dto.UserItemDataDto;
+import org.jellyfin.apiclient.model.session.UserDataChangeInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class UserDataIndexTest {
+    private static BaseItemDto Episode(String id, String key, long positionTicks) {
+        UserItemDataDto userData = new UserItemDataDto();
+        userData.setItemId(id);
+        userData.setKey(key);
+        userData.setPlaybackPositionTicks(positionTicks);
+
+        BaseItemDto item = new BaseItemDto();
+        item.setId(id);
+        item.setUserData(userData);
+        return item;
+    }
+
+    private static UserDataChangeInfo Notification(String userId, UserItemDataDto... userData) {
+        UserDataChangeInfo info = new UserDataChangeInfo();
+        info.setUserId(userId);
+        info.setUserDataList(new ArrayList<>(Arrays.asList(userData)));
+        return info;
+    }
+
+    private static UserItemDataDto Played(String itemId, String key) {
+        UserItemDataDto userData = new UserItemDataDto();
+        userData.setItemId(itemId);
+        userData.setKey(key);
+        userData.setPlayed(true);
+        userData.setPlayCount(1);
+        userData.setPlaybackPositionTicks(0);
+        return userData;
+    }
+
+    @Test
+    public void testEveryCopyOfAnItemIsPatched() {
+        UserDataIndex index = new UserDataIndex();
+        // The same episode loaded twice, by a list and by a details screen
+        BaseItemDto inList = Episode("e1", "show-s1e1", 500);
+        BaseItemDto inDetails = Episode("e1", "show-s1e1", 500);
+        index.Track("alice", new BaseItemDto[] { inList, Episode("e2", "show-s1e2", 0) });
+        index.Track("alice", inDetails);
+        index.Track("alice", inDetails);
+
+        ArrayList<UserItemDataChangedEventArgs> changes = index.Apply(Notification("alice", Played("e1", "show-s1e1")));
+
+        assertEquals(1, changes.size());
+        assertTrue(changes.get(0).getPatched());
+        assertEquals("e1", changes.get(0).getItemId());
+        for (BaseItemDto item : new BaseItemDto[] { inList, inDetails }) {
+            assertTrue(item.getUserData().getPlayed());
+            assertEquals(0, item.getUserData().getPlaybackPositionTicks());
+            assertEquals(1, item.getUserData().getPlayCount());
+        }
+    }
+
+    @Test
+    public void testOtherUsersAndKeysAreLeftAlone() {
+        UserDataIndex index = new UserDataIndex();
+        BaseItemDto alices = Episode("e1", "show-s1e1", 500);
+        BaseItemDto bobs = Episode("e1", "show-s1e1", 700);
+        index.Track("alice", alices);
+        index.Track("bob", bobs);
+
+        ArrayList<UserItemDataChangedEventArgs> changes = index.Apply(Notification("alice",
+                Played("e1", "another-key"), Played("e1", "show-s1e1"), Played("unknown", null)));
+
+        // One event per entry in order, patched only where a tracked instance matched
+        assertEquals(3, changes.size());
+        assertFalse(changes.get(0).getPatched());
+        assertTrue(changes.get(1).getPatched());
+        assertFalse(changes.get(2).getPatched());
+        assertTrue(alices.getUserData().getPlayed());
+        assertFalse(bobs.getUserData().getPlayed());
+        assertEquals(700, bobs.getUserData().getPlaybackPositionTicks());
+    }
+
+    @Test
+    public void testMissingKeyFallsBackToTheItemId() {
+        UserDataIndex index = new UserDataIndex();
+        BaseItemDto item = Episode("movie", null, 42);
+        index.Track(null, item);
+
+        ArrayList<UserItemDataChangedEventArgs> changes = index.Apply(Notification(null, Played("movie", "movie-key")));
+
+        assertTrue(changes.get(0).getPatched());
+        assertEquals("movie-key", item.getUserData().getKey());
+    }
+
+    @Test
+    public void testItemsWithoutUserDataAreNotTracked() {
+        UserDataIndex index = new UserDataIndex();
+        BaseItemDto item = new BaseItemDto();
+        item.setId("folder");
+        index.Track("alice", item);
+        index.Track("alice", (BaseItemDto) null);
+        index.Track("alice", (BaseItemDto[]) null);
+
+        assertEquals(0, index.size());
+        assertTrue(index.Apply(null).isEmpty());
+
+        index.Track("alice", Episode("e1", "k", 0));
+        assertEquals(1, index.size());
+        index.Clear();
+        assertEquals(0, index.size());
+    }
+
+    @Test
+    public void testIdsMatchWithoutDashesOrCase() {
+        UserDataIndex index = new UserDataIndex();
+        BaseItemDto item = Episode("0f2c9a1e3b4d4e5f8a6b7c8d9e0f1a2b", "show-s2e3", 1000);
+        index.Track("5a6b7c8d9e0f41a2b3c4d5e6f7a8b9c0", item);
+
+        ArrayList<UserItemDataChangedEventArgs> changes = index.Apply(Notification("5A6B7C8D-9E0F-41A2-B3C4-D5E6F7A8B9C0",
+                Played("0f2c9a1e-3b4d-4e5f-8a6b-7c8d9e0f1a2b", "show-s2e3")));
+
+        assertTrue(changes.get(0).getPatched());
+        assertTrue(item.getUserData().getPlayed());
+    }
+}
@@ -0,0 +1,169 @@
+package org.jellyfin.apiclient.interaction.futures;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.EmptyResponse;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.Assert.*;
+
+public class FutureApiClientTest {
+    // The calls below never reach the api client, it only has to exist
+    private static ApiClient CreateApiClient() {
+        return TestApiClients.Create(new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                fail(request.getUrl());
+            }
+        });
+    }
+
+    /**
+     * Holds on to the response it is given, so the test decides if and when it is answered.
+     */
+    private static final class ParkedCall<T> implements FutureApiClient.Call<T> {
+        Response<T> response;
+
+        @Override
+        public void Execute(Response<T> response) {
+            this.response = response;
+        }
+    }
+
+    /**
+     * Runs completions only when drained, to see which thread completes a future.
+     */
+    private static final class QueueExecutor implements Executor {
+        final ArrayList<Runnable> queue = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            queue.add(command);
+        }
+
+        void Drain() {
+            for (Runnable command : new ArrayList<>(queue)) {
+                queue.remove(command);
+                command.run();
+            }
+        }
+    }
+
+    @Test
+    public void testTimeoutFailsTheFutureAndCancelsTheResponse() throws Exception {
+        FutureApiClient client = new FutureApiClient(CreateApiClient(), null, 50);
+        ParkedCall<String> call = new ParkedCall<>();
+
+        CompletableFuture<String> future = client.Call(call);
+        // The token is cancelled on the timeout thread right after the future fails
+        final CountDownLatch cancelled = new CountDownLatch(1);
+        call.response.getCancellationToken().register(new Runnable() {
+            @Override
+            public void run() {
+                cancelled.countDown();
+            }
+        });
+
+        try {
+            future.get(5, TimeUnit.SECONDS);
+            fail();
+        } catch (ExecutionException ex) {
+            assertTrue(ex.getCause() instanceof TimeoutException);
+        }
+        assertTrue(cancelled.await(5, TimeUnit.SECONDS));
+
+        // A late answer does not change the outcome
+        call.response.onResponse("late");
+        assertTrue(future.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testCancellingTheFutureCancelsTheResponse() {
+        FutureApiClient client = new FutureApiClient(CreateApiClient());
+        ParkedCall<String> call = new ParkedCall<>();
+
+        CompletableFuture<String> future = client.Call(call);
+        assertFalse(call.response.getCancellationToken().isCancellationRequested());
+
+        assertTrue(future.cancel(true));
+
+        assertTrue(future.isCancelled());
+        assertTrue(call.response.getCancellationToken().isCancellationRequested());
+    }
+
+    @Test
+    public void testAnsweredInTimeIsNotCancelled() throws Exception {
+        FutureApiClient client = new FutureApiClient(CreateApiClient(), null, 60000);
+        ParkedCall<Integer> call = new ParkedCall<>();
+
+        CompletableFuture<Integer> future = client.Call(call);
+        call.response.onResponse(42);
+
+        assertEquals(Integer.valueOf(42), future.get(0, TimeUnit.MILLISECONDS));
+        assertFalse(future.cancel(true));
+        assertFalse(call.response.getCancellationToken().isCancellationRequested());
+    }
+
+    @Test
+    public void testErrorsAndThrowingCallsFailTheFuture() {
+        FutureApiClient client = new FutureApiClient(CreateApiClient());
+        final IllegalStateException thrown = new IllegalStateException("offline");
+
+        CompletableFuture<Void> run = client.Run(new FutureApiClient.EmptyCall() {
+            @Override
+            public void Execute(EmptyResponse response) {
+                throw thrown;
+            }
+        });
+        ParkedCall<String> call = new ParkedCall<>();
+        CompletableFuture<String> future = client.Call(call);
+        Exception error = new Exception("404");
+        call.response.onError(error);
+
+        try {
+            run.join();
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(thrown, ex.getCause());
+        }
+        try {
+            future.join();
+            fail();
+        } catch (RuntimeException ex) {
+            assertSame(error, ex.getCause());
+        }
+    }
+
+    @Test
+    public void testCompletionsRunOnTheCallbackExecutor() {
+        QueueExecutor executor = new QueueExecutor();
+        FutureApiClient client = new FutureApiClient(CreateApiClient(), executor, 0);
+        ParkedCall<String> call = new ParkedCall<>();
+
+        CompletableFuture<String> future = client.Call(call);
+        call.response.onResponse("done");
+
+        assertFalse(future.isDone());
+        assertEquals(1, executor.queue.size());
+
+        executor.Drain();
+
+        assertEquals("done", future.join());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeTimeoutIsRejected() {
+        new FutureApiClient(CreateApiClient(), null, -1);
+    }
+}
@@ -0,0 +1,195 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class HedgingHttpClientTest {
+    // Answers right away unless told to hold requests, which are then answered by the test
+    private static class FakeHttpClient implements IAsyncHttpClient {
+        final ArrayList<HttpRequest> held = new ArrayList<>();
+        final ArrayList<Response<String>> heldResponses = new ArrayList<>();
+        volatile boolean hold;
+
+        @Override
+        public synchronized void Send(HttpRequest request, Response<String> response) {
+            if (!hold) {
+                response.onResponse(request.getUrl());
+                return;
+            }
+
+            held.add(request);
+            heldResponses.add(response);
+            notifyAll();
+        }
+
+        synchronized void AwaitHeld(int count) throws InterruptedException {
+            long end = System.currentTimeMillis() + 5000;
+            while (held.size() < count && System.currentTimeMillis() < end) {
+                wait(50);
+            }
+        }
+    }
+
+    private static class RecordingResponse extends Response<String> {
+        final ArrayList<Object> results = new ArrayList<>();
+
+        @Override
+        public synchronized void onResponse(String response) {
+            results.add(response);
+        }
+
+        @Override
+        public synchronized void onError(Exception exception) {
+            results.add(exception);
+        }
+    }
+
+    private static HttpRequest get(String url) {
+        HttpRequest request = new HttpRequest();
+        request.setMethod("GET");
+        request.setUrl(url);
+        return request;
+    }
+
+    @Test
+    public void testSlowRequestIsHedgedAndLoserCancelled() throws InterruptedException {
+        FakeHttpClient inner = new FakeHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(inner);
+        client.setMinHedgeDelayMs(10);
+        client.setBudgetRatio(1);
+
+        // Nothing is hedged until the latency is known
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES; i++) {
+            client.Send(get("http://localhost/Items"), new RecordingResponse());
+        }
+        assertEquals(10, client.getHedgeDelayMs("http://localhost/Items"));
+
+        inner.hold = true;
+        RecordingResponse response = new RecordingResponse();
+        client.Send(get("http://localhost/Items"), response);
+        inner.AwaitHeld(2);
+
+        assertEquals(2, inner.held.size());
+        assertEquals(1, client.getHedgeCount());
+        assertTrue(inner.held.get(1).getTimeout() <= inner.held.get(0).getTimeout());
+
+        inner.heldResponses.get(1).onResponse("hedge");
+        inner.heldResponses.get(0).onResponse("original");
+
+        assertEquals(1, response.results.size());
+        assertEquals("hedge", response.results.get(0));
+        assertTrue(inner.held.get(0).getCancellationToken().isCancellationRequested());
+        assertEquals(1, client.getHedgeWinCount());
+    }
+
+    @Test
+    public void testErrorWaitsForTheOtherAttemptAndWritesAreNotHedged() throws InterruptedException {
+        FakeHttpClient inner = new FakeHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(inner);
+        client.setMinHedgeDelayMs(10);
+        client.setBudgetRatio(1);
+
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES; i++) {
+            client.Send(get("http://localhost/Items"), new RecordingResponse());
+        }
+
+        inner.hold = true;
+        HttpRequest post = get("http://localhost/Items");
+        post.setMethod("POST");
+        client.Send(post, new RecordingResponse());
+
+        RecordingResponse response = new RecordingResponse();
+        client.Send(get("http://localhost/Items"), response);
+        inner.AwaitHeld(3);
+
+        assertEquals(3, inner.held.size());
+        assertEquals(1, client.getRequestCount() - HedgingHttpClient.MIN_SAMPLES);
+
+        inner.heldResponses.get(1).onError(new IllegalStateException("first"));
+        assertTrue(response.results.isEmpty());
+
+        inner.heldResponses.get(2).onResponse("hedge");
+        assertEquals("hedge", response.results.get(0));
+    }
+
+    @Test
+    public void testFailuresFeedTheLatencyWindow() {
+        // Fails every request, as an overloaded server would
+        IAsyncHttpClient failing = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                response.onError(new IllegalStateException("503"));
+            }
+        };
+        HedgingHttpClient client = new HedgingHttpClient(failing);
+        client.setMinHedgeDelayMs(25);
+
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES - 1; i++) {
+            client.Send(get("http://localhost/Items"), new RecordingResponse());
+        }
+        assertEquals(-1, client.getHedgeDelayMs("http://localhost/Items"));
+
+        RecordingResponse response = new RecordingResponse();
+        client.Send(get("http://localhost/Items"), response);
+
+        assertTrue(response.results.get(0) instanceof IllegalStateException);
+        assertEquals(25, client.getHedgeDelayMs("http://localhost/Items"));
+    }
+
+    @Test
+    public void testRequestWithoutTimeoutIsNotHedged() throws InterruptedException {
+        FakeHttpClient inner = new FakeHttpClient();
+        HedgingHttpClient client = new HedgingHttpClient(inner);
+        client.setMinHedgeDelayMs(0);
+        client.setBudgetRatio(1);
+
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES; i++) {
+            client.Send(get("http://localhost/Items"), new RecordingResponse());
+        }
+
+        inner.hold = true;
+        HttpRequest request = get("http://localhost/Items");
+        request.setTimeout(0);
+        client.Send(request, new RecordingResponse());
+        Thread.sleep(100);
+
+        assertEquals(1, inner.held.size());
+        assertEquals(0, client.getHedgeCount());
+    }
+
+    @Test
+    public void testEachEndpointKeepsItsOwnDelay() throws InterruptedException {
+        // System/Info answers at once while the Items queries of every user are slow
+        IAsyncHttpClient server = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                if (request.getUrl().contains("/Items")) {
+                    try {
+                        Thread.sleep(50);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                response.onResponse(request.getUrl());
+            }
+        };
+        HedgingHttpClient client = new HedgingHttpClient(server);
+        client.setMinHedgeDelayMs(1);
+
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES * 3; i++) {
+            client.Send(get("http://localhost/System/Info"), new RecordingResponse());
+        }
+        for (int i = 0; i < HedgingHttpClient.MIN_SAMPLES; i++) {
+            client.Send(get("http://localhost/Users/" + i + "/Items?Limit=100"), new RecordingResponse());
+        }
+
+        assertTrue(client.getHedgeDelayMs("http://localhost/System/Info") < 50);
+        assertTrue(client.getHedgeDelayMs("http://localhost/Users/42/Items") >= 50);
+        assertEquals(-1, client.getHedgeDelayMs("http://localhost/Shows/NextUp"));
+        assertEquals(0, client.getHedgeCount());
+    }
+}
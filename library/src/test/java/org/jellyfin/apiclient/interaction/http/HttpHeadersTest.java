@@ -0,0 +1,163 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.ApiEventListener;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.logging.NullLogger;
+import org.jellyfin.apiclient.model.dto.UserDto;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class HttpHeadersTest {
+    @Test
+    public void testSnapshotRendersWireHeadersOnce() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.SetAccessToken("token");
+        headers.setAuthorizationScheme("MediaBrowser");
+        headers.setAuthorizationParameter("Client=\"Test\"");
+        HttpHeadersSnapshot snapshot = new HttpHeadersSnapshot(headers);
+
+        Map<String, String> wireHeaders = snapshot.getWireHeaders();
+
+        assertSame(wireHeaders, snapshot.getWireHeaders());
+        assertEquals("token", wireHeaders.get("X-MediaBrowser-Token"));
+        assertEquals("MediaBrowser Client=\"Test\"", wireHeaders.get(HttpHeaders.AuthorizationHeaderName));
+        assertEquals("MediaBrowser Client=\"Test\"", snapshot.getAuthorizationHeaderValue());
+        assertEquals(wireHeaders, headers.getWireHeaders());
+    }
+
+    @Test
+    public void testSnapshotCannotBeChangedThroughAnyView() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.SetAccessToken("old");
+        HttpHeadersSnapshot snapshot = new HttpHeadersSnapshot(headers);
+
+        ArrayList<Runnable> writes = new ArrayList<>();
+        for (final Map<String, String> view : Arrays.asList(snapshot.getHeaders(), snapshot.getWireHeaders())) {
+            writes.add(new Runnable() {
+                @Override
+                public void run() {
+                    view.putIfAbsent("X-Other", "value");
+                }
+            });
+            writes.add(new Runnable() {
+                @Override
+                public void run() {
+                    view.replace("X-MediaBrowser-Token", "new");
+                }
+            });
+            writes.add(new Runnable() {
+                @Override
+                public void run() {
+                    view.entrySet().iterator().next().setValue("new");
+                }
+            });
+            writes.add(new Runnable() {
+                @Override
+                public void run() {
+                    Iterator<String> keys = view.keySet().iterator();
+                    keys.next();
+                    keys.remove();
+                }
+            });
+            writes.add(new Runnable() {
+                @Override
+                public void run() {
+                    view.values().clear();
+                }
+            });
+        }
+
+        for (Runnable write : writes) {
+            try {
+                write.run();
+                fail();
+            } catch (UnsupportedOperationException expected) {
+            }
+        }
+
+        // Changing the source leaves the snapshot alone
+        headers.SetAccessToken("new");
+        assertEquals("old", snapshot.get("X-MediaBrowser-Token"));
+        assertFalse(snapshot.Matches(headers));
+
+        HttpHeaders copy = snapshot.ToHttpHeaders();
+        copy.SetAccessToken(null);
+        assertEquals("old", snapshot.get("X-MediaBrowser-Token"));
+        assertTrue(copy.getWireHeaders().isEmpty());
+    }
+
+    @Test
+    public void testRequestCopiesTheSnapshotBeforeItIsChanged() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.SetAccessToken("shared");
+        HttpHeadersSnapshot snapshot = new HttpHeadersSnapshot(headers);
+
+        HttpRequest first = new HttpRequest();
+        first.setRequestHeaders(snapshot);
+        HttpRequest second = new HttpRequest();
+        second.setRequestHeaders(snapshot);
+
+        assertSame(snapshot.getWireHeaders(), first.getWireHeaders());
+
+        first.getRequestHeaders().put("X-Only-First", "1");
+
+        assertEquals("1", first.getWireHeaders().get("X-Only-First"));
+        assertSame(snapshot.getWireHeaders(), second.getWireHeaders());
+        assertNull(snapshot.get("X-Only-First"));
+    }
+
+    /**
+     * Writes a header straight into the headers of the client, as subclasses may.
+     */
+    private static final class TaggingApiClient extends ApiClient {
+        TaggingApiClient(IAsyncHttpClient httpClient) {
+            super(httpClient, new NullLogger(), "http://10.0.0.5:8096", "Tagger", "2.0", TestApiClients.CreateDevice(), new ApiEventListener());
+        }
+
+        void Tag(String value, boolean publish) {
+            synchronized (this) {
+                HttpHeaders.put("X-Tag", value);
+                if (publish) {
+                    PublishHttpHeaders();
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testSubclassWritesReachRequestsOncePublished() {
+        final ArrayList<HttpRequest> sent = new ArrayList<>();
+        TaggingApiClient apiClient = new TaggingApiClient(new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                sent.add(request);
+            }
+        });
+        apiClient.SetAuthenticationInfo("token");
+
+        apiClient.Tag("first", true);
+        apiClient.GetPublicUsersAsync(new Response<UserDto[]>());
+        apiClient.GetPublicUsersAsync(new Response<UserDto[]>());
+        apiClient.Tag("second", false);
+        apiClient.GetPublicUsersAsync(new Response<UserDto[]>());
+        apiClient.Tag("third", true);
+        apiClient.GetPublicUsersAsync(new Response<UserDto[]>());
+
+        assertEquals(4, sent.size());
+        // Requests share the published snapshot until the next publication
+        assertSame(sent.get(0).getRequestHeadersSnapshot(), sent.get(1).getRequestHeadersSnapshot());
+        assertEquals("first", sent.get(0).getWireHeaders().get("X-Tag"));
+        assertEquals("first", sent.get(2).getWireHeaders().get("X-Tag"));
+        assertEquals("third", sent.get(3).getWireHeaders().get("X-Tag"));
+        assertEquals("token", sent.get(3).getWireHeaders().get("X-MediaBrowser-Token"));
+        assertTrue(sent.get(3).getWireHeaders().get(HttpHeaders.AuthorizationHeaderName).contains("Device=\"Test Device\""));
+    }
+}
@@ -0,0 +1,214 @@
+package org.jellyfin.apiclient.interaction.http;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.jellyfin.apiclient.model.dto.UserDto;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class SingleFlightTest {
+    private static class RecordingResponse extends Response<String> {
+        final ArrayList<Object> results = new ArrayList<>();
+
+        @Override
+        public void onResponse(String response) {
+            results.add(response);
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            results.add(exception);
+        }
+    }
+
+    private static class PendingCall implements SingleFlight.Call<String> {
+        int executeCount;
+        Response<String> response;
+
+        @Override
+        public void Execute(Response<String> response) {
+            executeCount++;
+            this.response = response;
+        }
+    }
+
+    @Test
+    public void testWaitersShareOneCall() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall call = new PendingCall();
+        RecordingResponse first = new RecordingResponse();
+        RecordingResponse second = new RecordingResponse();
+        RecordingResponse cancelled = new RecordingResponse();
+
+        flights.Join("key", first, call);
+        flights.Join("key", second, call);
+        flights.Join("key", cancelled, call).Cancel();
+
+        assertEquals(1, call.executeCount);
+        assertEquals(2, flights.getJoinCount());
+
+        Exception error = new IllegalStateException("failed");
+        call.response.onError(error);
+
+        assertEquals(1, first.results.size());
+        assertSame(error, first.results.get(0));
+        assertSame(error, second.results.get(0));
+        assertTrue(cancelled.results.isEmpty());
+        assertEquals(0, flights.getInFlightCount());
+
+        // Completed flights are not reused
+        flights.Join("key", new RecordingResponse(), call);
+        assertEquals(2, call.executeCount);
+    }
+
+    @Test
+    public void testResetStartsNewCalls() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall before = new PendingCall();
+        PendingCall after = new PendingCall();
+        RecordingResponse beforeResponse = new RecordingResponse();
+        RecordingResponse afterResponse = new RecordingResponse();
+
+        flights.Join("key", beforeResponse, before);
+        flights.Reset();
+        flights.Join("key", afterResponse, after);
+
+        assertEquals(1, after.executeCount);
+
+        before.response.onResponse("stale");
+        after.response.onResponse("fresh");
+
+        assertEquals("stale", beforeResponse.results.get(0));
+        assertEquals("fresh", afterResponse.results.get(0));
+        assertEquals(0, flights.getInFlightCount());
+    }
+
+    @Test
+    public void testCallIsAbortedOnceEveryWaiterCancelled() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall call = new PendingCall();
+        RecordingResponse first = new RecordingResponse();
+        RecordingResponse second = new RecordingResponse();
+        CancellationToken firstToken = new CancellationToken();
+        CancellationToken secondToken = new CancellationToken();
+        first.setCancellationToken(firstToken);
+        second.setCancellationToken(secondToken);
+
+        flights.Join("key", first, call);
+        flights.Join("key", second, call);
+        CancellationToken callToken = call.response.getCancellationToken();
+
+        firstToken.cancel();
+        assertFalse(callToken.isCancellationRequested());
+
+        secondToken.cancel();
+        assertTrue(callToken.isCancellationRequested());
+        assertEquals(0, flights.getInFlightCount());
+        assertTrue(first.results.isEmpty());
+        assertTrue(second.results.isEmpty());
+    }
+
+    @Test
+    public void testWaiterWithoutTokenKeepsTheCallAlive() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall call = new PendingCall();
+        RecordingResponse cancellable = new RecordingResponse();
+        CancellationToken token = new CancellationToken();
+        cancellable.setCancellationToken(token);
+        RecordingResponse patient = new RecordingResponse();
+
+        flights.Join("key", cancellable, call);
+        flights.Join("key", patient, call);
+        token.cancel();
+
+        assertFalse(call.response.getCancellationToken().isCancellationRequested());
+        assertEquals(1, flights.getInFlightCount());
+
+        call.response.onResponse("done");
+        assertTrue(cancellable.results.isEmpty());
+        assertEquals("done", patient.results.get(0));
+    }
+
+    @Test
+    public void testCancelledCallerStartsNothing() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall call = new PendingCall();
+        CancellationToken cancelled = new CancellationToken();
+        cancelled.cancel();
+        RecordingResponse late = new RecordingResponse();
+        late.setCancellationToken(cancelled);
+
+        flights.Join("key", late, call);
+
+        assertEquals(0, call.executeCount);
+        assertEquals(0, flights.getInFlightCount());
+
+        // The abandoned flight is forgotten, the next caller gets a call of its own
+        RecordingResponse next = new RecordingResponse();
+        flights.Join("key", next, call);
+        assertEquals(1, call.executeCount);
+        call.response.onResponse("fresh");
+        assertEquals("fresh", next.results.get(0));
+        assertTrue(late.results.isEmpty());
+    }
+
+    @Test
+    public void testCallerJoiningAfterEveryoneLeftGetsANewCall() {
+        SingleFlight<String> flights = new SingleFlight<>();
+        PendingCall first = new PendingCall();
+        PendingCall second = new PendingCall();
+        CancellationToken token = new CancellationToken();
+        RecordingResponse leaving = new RecordingResponse();
+        leaving.setCancellationToken(token);
+
+        flights.Join("key", leaving, first);
+        token.cancel();
+        RecordingResponse arriving = new RecordingResponse();
+        flights.Join("key", arriving, second);
+
+        assertTrue(first.response.getCancellationToken().isCancellationRequested());
+        assertEquals(1, second.executeCount);
+        assertFalse(second.response.getCancellationToken().isCancellationRequested());
+
+        // The aborted call answering anyway reaches nobody
+        first.response.onResponse("aborted");
+        second.response.onResponse("current");
+        assertTrue(leaving.results.isEmpty());
+        assertEquals("current", arriving.results.get(0));
+    }
+
+    @Test
+    public void testDeduplicatedRequestCarriesTheFlightToken() {
+        // Keeps every request open, as a slow server would
+        final ArrayList<HttpRequest> open = new ArrayList<>();
+        IAsyncHttpClient slowServer = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                open.add(request);
+            }
+        };
+        ApiClient apiClient = TestApiClients.Create(slowServer, "http://nas:8096");
+        apiClient.setEnableRequestDeduplication(true);
+
+        CancellationToken[] tokens = new CancellationToken[] { new CancellationToken(), new CancellationToken() };
+        for (CancellationToken token : tokens) {
+            Response<UserDto[]> response = new Response<>();
+            response.setCancellationToken(token);
+            apiClient.GetPublicUsersAsync(response);
+        }
+
+        assertEquals(1, open.size());
+        CancellationToken requestToken = open.get(0).getCancellationToken();
+        assertNotSame(tokens[0], requestToken);
+
+        tokens[0].cancel();
+        assertFalse(requestToken.isCancellationRequested());
+        tokens[1].cancel();
+        assertTrue(requestToken.isCancellationRequested());
+    }
+}
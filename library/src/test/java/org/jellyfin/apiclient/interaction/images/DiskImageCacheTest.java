@@ -0,0 +1,95 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.logging.NullLogger;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DiskImageCacheTest {
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private static byte[] Bytes(int length, int value) {
+        byte[] bytes = new byte[length];
+        Arrays.fill(bytes, (byte) value);
+        return bytes;
+    }
+
+    private File CacheFile(String key) {
+        return new File(folder.getRoot(), DiskImageCache.GetFileName(key));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedFileIsDeleted() {
+        DiskImageCache cache = new DiskImageCache(folder.getRoot(), 100, new NullLogger());
+        cache.Put("poster", Bytes(40, 1));
+        cache.Put("backdrop", Bytes(40, 2));
+
+        assertArrayEquals(Bytes(40, 1), cache.Get("poster"));
+        cache.Put("logo", Bytes(40, 3));
+
+        assertNull(cache.Get("backdrop"));
+        assertFalse(CacheFile("backdrop").exists());
+        assertTrue(CacheFile("poster").exists());
+        assertEquals(80, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testImageLargerThanTheBudgetIsNotWritten() {
+        DiskImageCache cache = new DiskImageCache(folder.getRoot(), 100, new NullLogger());
+
+        cache.Put("banner", Bytes(101, 1));
+
+        assertFalse(CacheFile("banner").exists());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    public void testOrderSurvivesARestartAndSmallerBudgetTrims() throws IOException {
+        DiskImageCache first = new DiskImageCache(folder.getRoot(), 1000, new NullLogger());
+        first.Put("old", Bytes(40, 1));
+        first.Put("recent", Bytes(40, 2));
+        first.Put("newest", Bytes(40, 3));
+
+        // Modification times stand for the last use, make them unambiguous
+        long now = System.currentTimeMillis();
+        assertTrue(CacheFile("old").setLastModified(now - 30000));
+        assertTrue(CacheFile("recent").setLastModified(now - 20000));
+        assertTrue(CacheFile("newest").setLastModified(now - 10000));
+
+        // A write interrupted before its rename
+        File leftover = new File(folder.getRoot(), DiskImageCache.GetFileName("lost") + ".7.tmp");
+        FileOutputStream stream = new FileOutputStream(leftover);
+        stream.write(Bytes(10, 4));
+        stream.close();
+
+        DiskImageCache second = new DiskImageCache(folder.getRoot(), 90, new NullLogger());
+
+        assertEquals(2, second.size());
+        assertEquals(80, second.getSizeBytes());
+        assertNull(second.Get("old"));
+        assertFalse(CacheFile("old").exists());
+        assertFalse(leftover.exists());
+        assertArrayEquals(Bytes(40, 3), second.Get("newest"));
+    }
+
+    @Test
+    public void testFileDeletedFromOutsideIsForgotten() {
+        DiskImageCache cache = new DiskImageCache(folder.getRoot(), 100, new NullLogger());
+        cache.Put("poster", Bytes(40, 1));
+
+        assertTrue(CacheFile("poster").delete());
+
+        assertNull(cache.Get("poster"));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getSizeBytes());
+    }
+}
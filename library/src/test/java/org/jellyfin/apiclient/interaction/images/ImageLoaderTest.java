@@ -0,0 +1,104 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.Executor;
+
+import static org.junit.Assert.*;
+
+public class ImageLoaderTest {
+    // Runs the loads only when told to, so the scheduling order can be checked
+    private static class ManualExecutor implements Executor {
+        final ArrayList<Runnable> pending = new ArrayList<>();
+
+        @Override
+        public void execute(Runnable command) {
+            pending.add(command);
+        }
+
+        void RunAll() {
+            while (!pending.isEmpty()) {
+                pending.remove(0).run();
+            }
+        }
+    }
+
+    // Stands in for the server: answers every url with its own bytes
+    private static class RecordingFetcher implements ImageFetcher {
+        final ArrayList<String> urls = new ArrayList<>();
+
+        @Override
+        public byte[] Fetch(String url, CancellationToken cancellationToken) {
+            urls.add(url);
+            return url.getBytes();
+        }
+    }
+
+    private static class RecordingResponse extends Response<byte[]> {
+        int responseCount;
+
+        @Override
+        public void onResponse(byte[] response) {
+            responseCount++;
+        }
+    }
+
+    private static String url(int id) {
+        return "http://localhost/Items/" + id + "/Images/Primary?Tag=t" + id;
+    }
+
+    @Test
+    public void testUrgentLanesAndNewestRequestsGoFirst() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingFetcher fetcher = new RecordingFetcher();
+        ImageLoader loader = new ImageLoader(fetcher, new ImageCache(1024 * 1024), executor, new int[] { 1, 1, 1 });
+
+        // Fill every lane so the next loads queue up
+        loader.Load(url(0), ImagePriority.Visible, new RecordingResponse());
+        loader.Load(url(1), ImagePriority.Prefetch, new RecordingResponse());
+        loader.Load(url(2), ImagePriority.Background, new RecordingResponse());
+
+        loader.Load(url(3), ImagePriority.Background, new RecordingResponse());
+        loader.Load(url(4), ImagePriority.Visible, new RecordingResponse());
+        loader.Load(url(5), ImagePriority.Visible, new RecordingResponse());
+        ImageLoader.Request cancelled = loader.Load(url(6), ImagePriority.Visible, new RecordingResponse());
+        cancelled.Cancel();
+
+        // Joining a queued background load with a visible one promotes it
+        RecordingResponse promoted = new RecordingResponse();
+        loader.Load(url(3), ImagePriority.Visible, promoted);
+
+        assertEquals(3, executor.pending.size());
+        assertEquals(3, loader.getQueuedCount(ImagePriority.Visible));
+        assertEquals(0, loader.getQueuedCount(ImagePriority.Background));
+
+        executor.RunAll();
+
+        assertEquals(7 - 1, fetcher.urls.size());
+        assertEquals(url(3), fetcher.urls.get(3));
+        assertEquals(url(5), fetcher.urls.get(4));
+        assertEquals(url(4), fetcher.urls.get(5));
+        assertEquals(1, promoted.responseCount);
+        assertEquals(1, loader.getCancelCount());
+    }
+
+    @Test
+    public void testRepeatLoadsAreServedFromCache() {
+        ManualExecutor executor = new ManualExecutor();
+        RecordingFetcher fetcher = new RecordingFetcher();
+        ImageLoader loader = new ImageLoader(fetcher, new ImageCache(1024 * 1024), executor, ImageLoader.DEFAULT_LANE_CONCURRENCY);
+
+        loader.Load(url(1), ImagePriority.Visible, new RecordingResponse());
+        executor.RunAll();
+
+        RecordingResponse cached = new RecordingResponse();
+        loader.Load(url(1), ImagePriority.Visible, cached);
+
+        assertEquals(1, cached.responseCount);
+        assertTrue(executor.pending.isEmpty());
+        assertEquals(1, loader.getFetchCount());
+    }
+}
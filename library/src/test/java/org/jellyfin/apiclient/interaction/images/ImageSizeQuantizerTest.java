@@ -0,0 +1,95 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.ImageUrlTemplate;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.dto.ImageOptions;
+import org.jellyfin.apiclient.model.entities.ImageType;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ImageSizeQuantizerTest {
+    private ApiClient apiClient;
+    private ImageSizeQuantizer quantizer;
+
+    @Before
+    public void setUp() {
+        // Only builds urls, nothing is sent
+        IAsyncHttpClient httpClient = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                fail(request.getUrl());
+            }
+        };
+        apiClient = TestApiClients.Create(httpClient, "https://media.example.org");
+        quantizer = new ImageSizeQuantizer(new int[] { 480, 240, 960 });
+        apiClient.setImageSizeQuantizer(quantizer);
+    }
+
+    private static ImageOptions Poster(int maxWidth) {
+        ImageOptions options = new ImageOptions();
+        options.setImageType(ImageType.Primary);
+        options.setMaxWidth(maxWidth);
+        return options;
+    }
+
+    @Test
+    public void testSnapsUpToTheNextStep() {
+        assertArrayEquals(new int[] { 240, 480, 960 }, quantizer.getLadder());
+        assertEquals(240, quantizer.Quantize(1));
+        assertEquals(480, quantizer.Quantize(480));
+        assertEquals(960, quantizer.Quantize(481));
+        assertEquals(1200, quantizer.Quantize(1200));
+        assertNull(quantizer.Quantize((Integer) null));
+    }
+
+    @Test
+    public void testExactSizesKeepTheirAspectRatio() {
+        ImageOptions options = new ImageOptions();
+        options.setImageType(ImageType.Thumb);
+        options.setWidth(400);
+        options.setHeight(225);
+
+        String url = apiClient.GetImageUrl("abc", options);
+
+        assertTrue(url, url.contains("Width=480"));
+        assertTrue(url, url.contains("Height=270"));
+    }
+
+    @Test
+    public void testMetricsAreOffByDefault() {
+        apiClient.GetImageUrl("abc", Poster(211));
+        apiClient.CreateImageUrlTemplate(Poster(211)).GetUrl("abc", null, null);
+
+        assertFalse(quantizer.getEnableMetrics());
+        assertEquals(0, quantizer.getRequestCount());
+    }
+
+    @Test
+    public void testTemplateUrlsAreRecordedLikeDirectOnes() {
+        quantizer.setEnableMetrics(true);
+
+        apiClient.GetImageUrl("a", Poster(211));
+        apiClient.GetImageUrl("b", Poster(214));
+
+        ImageUrlTemplate template = apiClient.CreateImageUrlTemplate(Poster(230));
+        for (int i = 0; i < 6; i++) {
+            template.GetUrl("item" + i, null, null);
+        }
+
+        // Three sizes snapped to one: only the first request of the eight misses
+        assertEquals(8, quantizer.getRequestCount());
+        assertEquals(3, quantizer.getDistinctRequestedSizeCount());
+        assertEquals(1, quantizer.getDistinctQuantizedSizeCount());
+        assertEquals(2.0 / 8, quantizer.getHitRateImprovement(), 1e-9);
+
+        quantizer.ResetMetrics();
+        assertEquals(0, quantizer.getRequestCount());
+        assertEquals(0, quantizer.getHitRateImprovement(), 0);
+    }
+}
@@ -0,0 +1,73 @@
+package org.jellyfin.apiclient.interaction.images;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MemoryImageCacheTest {
+    private static byte[] Bytes(int length) {
+        return new byte[length];
+    }
+
+    @Test
+    public void testLeastRecentlyUsedIsEvictedFirst() {
+        MemoryImageCache cache = new MemoryImageCache(100);
+        cache.Put("poster", Bytes(40));
+        cache.Put("backdrop", Bytes(40));
+
+        // Reading the poster makes the backdrop the eldest
+        assertNotNull(cache.Get("poster"));
+        cache.Put("logo", Bytes(40));
+
+        assertNull(cache.Get("backdrop"));
+        assertNotNull(cache.Get("poster"));
+        assertNotNull(cache.Get("logo"));
+        assertEquals(80, cache.getSizeBytes());
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testOneLargeImageCanEvictSeveral() {
+        MemoryImageCache cache = new MemoryImageCache(100);
+        for (int i = 0; i < 5; i++) {
+            cache.Put("thumb" + i, Bytes(20));
+        }
+
+        cache.Put("banner", Bytes(90));
+
+        assertEquals(1, cache.size());
+        assertEquals(90, cache.getSizeBytes());
+        assertEquals(5, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testImageLargerThanTheBudgetIsNotKept() {
+        MemoryImageCache cache = new MemoryImageCache(100);
+        cache.Put("poster", Bytes(30));
+
+        cache.Put("poster", Bytes(101));
+
+        // The stale image is not served either
+        assertNull(cache.Get("poster"));
+        assertEquals(0, cache.getSizeBytes());
+        assertEquals(0, cache.getEvictionCount());
+    }
+
+    @Test
+    public void testReplacingAnImageUpdatesTheSize() {
+        MemoryImageCache cache = new MemoryImageCache(100);
+        cache.Put("poster", Bytes(30));
+        cache.Put("poster", Bytes(50));
+        cache.Put("logo", Bytes(50));
+
+        assertEquals(2, cache.size());
+        assertEquals(100, cache.getSizeBytes());
+        assertEquals(0, cache.getEvictionCount());
+
+        cache.Remove("poster");
+        assertEquals(50, cache.getSizeBytes());
+        cache.Clear();
+        assertEquals(0, cache.getSizeBytes());
+        assertEquals(0, cache.size());
+    }
+}
@@ -0,0 +1,22 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class EndpointTemplateTest {
+    @Test
+    public void testIdsAreReplaced() {
+        assertEquals("Users/{id}/Items", EndpointTemplate.Of("http://localhost:8096/Users/5f0e8f2a9c4b4d2e8a1b3c4d5e6f7a8b/Items?ParentId=1&Limit=50"));
+        assertEquals("Items/{id}/Images/Primary/{id}", EndpointTemplate.Of("https://server/Items/5f0e8f2a-9c4b-4d2e-8a1b-3c4d5e6f7a8b/Images/Primary/0"));
+        assertEquals("Videos/{id}/stream.mp4", EndpointTemplate.Of("http://server/Videos/a1b2c3d4e5f6a7b8c9d0e1f2a3b4c5d6/stream.mp4?Static=true"));
+    }
+
+    @Test
+    public void testEndpointNamesAreKept() {
+        assertEquals("System/Info/Public", EndpointTemplate.Of("http://server/System/Info/Public"));
+        assertEquals("Users/AuthenticateByName", EndpointTemplate.Of("http://server/Users/AuthenticateByName"));
+        assertEquals("", EndpointTemplate.Of("http://server"));
+        assertEquals("emby/Sessions/Playing", EndpointTemplate.Of("/emby/Sessions/Playing#top"));
+    }
+}
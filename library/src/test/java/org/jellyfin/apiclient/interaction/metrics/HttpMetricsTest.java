@@ -0,0 +1,133 @@
+package org.jellyfin.apiclient.interaction.metrics;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.dto.UserDto;
+import org.jellyfin.apiclient.model.net.HttpException;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.TreeMap;
+
+import static org.junit.Assert.*;
+
+public class HttpMetricsTest {
+    @Test
+    public void testRequestsAreRecordedPerEndpoint() {
+        // Knows a single user, the others are not found
+        IAsyncHttpClient httpClient = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                if (request.getUrl().contains("/Users/1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d")) {
+                    response.onResponse("{\"Name\":\"user\"}");
+                } else {
+                    HttpException error = new HttpException("Not found");
+                    error.setStatusCode(404);
+                    response.onError(error);
+                }
+            }
+        };
+
+        ApiClient apiClient = TestApiClients.Create(httpClient);
+        HttpMetrics metrics = new HttpMetrics();
+        apiClient.addInterceptor(metrics);
+
+        final int[] results = new int[2];
+        Response<UserDto> response = new Response<UserDto>() {
+            @Override
+            public void onResponse(UserDto user) {
+                results[0]++;
+            }
+
+            @Override
+            public void onError(Exception exception) {
+                results[1]++;
+            }
+        };
+        apiClient.GetUserAsync("1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d", response);
+        apiClient.GetUserAsync("1a2b3c4d5e6f7a8b9c0d1e2f3a4b5c6d", response);
+        apiClient.GetUserAsync("ffffffffffffffffffffffffffffffff", response);
+
+        // The interceptor records before the caller is answered, not instead of it
+        assertEquals(2, results[0]);
+        assertEquals(1, results[1]);
+
+        TreeMap<String, EndpointStats> snapshot = metrics.GetSnapshot();
+        assertEquals(1, snapshot.size());
+
+        EndpointStats stats = snapshot.get("GET Users/{id}");
+        assertNotNull(stats);
+        assertEquals(3, stats.getCount());
+        assertEquals(1, stats.getErrorCount());
+        assertEquals(Long.valueOf(2), stats.getStatusCodes().get(200));
+        assertEquals(Long.valueOf(1), stats.getStatusCodes().get(404));
+        assertEquals(Long.valueOf(1), stats.getErrors().get("HttpException"));
+        assertEquals(2 * "{\"Name\":\"user\"}".length(), stats.getBytesReceived());
+        assertEquals(3, stats.getLatency().getCount());
+
+        metrics.Reset();
+        assertTrue(metrics.GetSnapshot().isEmpty());
+        assertEquals(3, stats.getCount());
+    }
+
+    @Test
+    public void testSharedRequestIsRecordedOnce() {
+        // Answers only when told to, so identical requests overlap
+        final ArrayList<Response<String>> inFlight = new ArrayList<>();
+        IAsyncHttpClient httpClient = new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                inFlight.add(response);
+            }
+        };
+
+        ApiClient apiClient = TestApiClients.Create(httpClient, "http://192.168.1.20:8096");
+        apiClient.setEnableRequestDeduplication(true);
+        HttpMetrics metrics = new HttpMetrics();
+        apiClient.addInterceptor(metrics);
+
+        final int[] answered = new int[1];
+        Response<UserDto> response = new Response<UserDto>() {
+            @Override
+            public void onResponse(UserDto user) {
+                answered[0]++;
+            }
+        };
+        for (int i = 0; i < 3; i++) {
+            apiClient.GetUserAsync("0f0f0f0f0f0f0f0f0f0f0f0f0f0f0f0f", response);
+        }
+
+        assertEquals(1, inFlight.size());
+        inFlight.get(0).onResponse("{\"Name\":\"shared\"}");
+        assertEquals(3, answered[0]);
+
+        EndpointStats stats = metrics.GetSnapshot().get("GET Users/{id}");
+        assertEquals(1, stats.getCount());
+        assertEquals(1, stats.getLatency().getCount());
+        assertEquals("{\"Name\":\"shared\"}".length(), stats.getBytesReceived());
+    }
+
+    @Test
+    public void testHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) {
+            histogram.Record(3);
+        }
+        for (int i = 0; i < 10; i++) {
+            histogram.Record(700);
+        }
+
+        assertEquals(5, histogram.GetPercentileMs(0.5));
+        assertEquals(5, histogram.GetPercentileMs(0.9));
+        assertEquals(700, histogram.GetPercentileMs(0.99));
+        assertEquals(700, histogram.getMaxMs());
+
+        LatencyHistogram copy = histogram.Copy();
+        histogram.Record(60000);
+        assertEquals(100, copy.getCount());
+        assertEquals(60000, histogram.GetPercentileMs(1));
+    }
+}
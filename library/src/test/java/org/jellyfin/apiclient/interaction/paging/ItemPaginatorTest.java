@@ -0,0 +1,146 @@
+package org.jellyfin.apiclient.interaction.paging;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.querying.ItemQuery;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.*;
+
+public class ItemPaginatorTest {
+    private static final Pattern StartIndex = Pattern.compile("StartIndex=(\\d+)");
+    private static final Pattern Limit = Pattern.compile("Limit=(\\d+)");
+
+    /**
+     * Serves a library of numbered items, answering each page request right away on the calling thread.
+     */
+    private static final class Library implements IAsyncHttpClient {
+        final int size;
+        final ItemQuery callerQuery;
+        final ArrayList<String> urls = new ArrayList<>();
+
+        Library(int size, ItemQuery callerQuery) {
+            this.size = size;
+            this.callerQuery = callerQuery;
+        }
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            urls.add(request.getUrl());
+
+            // The page bounds travel in the url, never through the query of the caller
+            assertEquals(Integer.valueOf(10), callerQuery.getStartIndex());
+            assertNull(callerQuery.getLimit());
+
+            int start = Parse(StartIndex, request.getUrl());
+            int end = Math.min(size, start + Parse(Limit, request.getUrl()));
+
+            StringBuilder json = new StringBuilder("{\"TotalRecordCount\":").append(size).append(",\"Items\":[");
+            for (int i = start; i < end; i++) {
+                json.append(i > start ? "," : "").append("{\"Id\":\"item").append(i).append("\"}");
+            }
+            response.onResponse(json.append("]}").toString());
+        }
+
+        static int Parse(Pattern pattern, String url) {
+            Matcher matcher = pattern.matcher(url);
+            assertTrue(url, matcher.find());
+            return Integer.parseInt(matcher.group(1));
+        }
+    }
+
+    @Test
+    public void testPagesUseCopiesOfTheQuery() {
+        ItemQuery query = new ItemQuery();
+        query.setUserId("user");
+        query.setStartIndex(10);
+
+        Library library = new Library(95, query);
+        ApiClient apiClient = TestApiClients.Create(library);
+
+        ItemPaginator paginator = new ItemPaginator(apiClient, query, 25, 2);
+        ArrayList<String> ids = new ArrayList<>();
+        while (paginator.hasNext()) {
+            ids.add(paginator.next().getId());
+        }
+
+        assertEquals(85, ids.size());
+        assertEquals("item10", ids.get(0));
+        assertEquals("item94", ids.get(84));
+        // The page size adapts to latency, so the page count varies
+        assertTrue(library.urls.size() >= 2);
+        assertTrue(query.getEnableTotalRecordCount());
+        assertFalse(library.urls.get(0).contains("EnableTotalRecordCount"));
+        assertTrue(library.urls.get(1).contains("EnableTotalRecordCount=false"));
+    }
+
+    @Test
+    public void testCopyKeepsEveryProperty() {
+        ItemQuery query = new ItemQuery();
+        query.setParentId("parent");
+        query.setRecursive(true);
+        query.setIncludeItemTypes(new String[] { "Movie" });
+
+        ItemQuery page = ItemPageQueries.ForPage(query, 50, 25, false);
+
+        assertEquals("parent", page.getParentId());
+        assertTrue(page.getRecursive());
+        assertArrayEquals(new String[] { "Movie" }, page.getIncludeItemTypes());
+        assertEquals(Integer.valueOf(50), page.getStartIndex());
+        assertNull(query.getStartIndex());
+        assertTrue(query.getEnableTotalRecordCount());
+    }
+
+    /**
+     * Answers the first page at once and keeps the requests for the pages after it waiting.
+     */
+    private static final class StalledLibrary implements IAsyncHttpClient {
+        final ArrayList<Response<String>> waiting = new ArrayList<>();
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            if (Library.Parse(StartIndex, request.getUrl()) > 0) {
+                waiting.add(response);
+                return;
+            }
+
+            StringBuilder json = new StringBuilder("{\"TotalRecordCount\":100,\"Items\":[");
+            for (int i = 0; i < 10; i++) {
+                json.append(i > 0 ? "," : "").append("{\"Id\":\"item").append(i).append("\"}");
+            }
+            response.onResponse(json.append("]}").toString());
+        }
+    }
+
+    @Test
+    public void testFailedPageCancelsThePagesInFlight() {
+        StalledLibrary library = new StalledLibrary();
+        ItemPaginator paginator = new ItemPaginator(TestApiClients.Create(library), new ItemQuery(), 10, 3);
+
+        assertTrue(paginator.hasNext());
+        assertEquals(3, library.waiting.size());
+
+        library.waiting.get(1).onError(new Exception("Server unavailable"));
+
+        assertTrue(library.waiting.get(0).getCancellationToken().isCancellationRequested());
+        assertTrue(library.waiting.get(2).getCancellationToken().isCancellationRequested());
+
+        // The page already received is still delivered before the failure
+        for (int i = 0; i < 10; i++) {
+            assertEquals("item" + i, paginator.next().getId());
+        }
+        try {
+            paginator.hasNext();
+            fail();
+        } catch (IllegalStateException ex) {
+            assertEquals("Server unavailable", ex.getCause().getMessage());
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.model.dlna.CodecProfile;
+import org.jellyfin.apiclient.model.dlna.CodecType;
+import org.jellyfin.apiclient.model.dlna.CompiledDeviceProfile;
+import org.jellyfin.apiclient.model.dlna.ContainerProfile;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DlnaProfileType;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionType;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConditionBandsTest {
+    private ConditionBands bands;
+
+    @Before
+    public void setUp() {
+        CodecProfile video = new CodecProfile();
+        video.setType(CodecType.Video);
+        video.setCodec("h264");
+        video.setApplyConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.GreaterThanEqual, ProfileConditionValue.Width, "1280"),
+        });
+        video.setConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoBitrate, "20000000"),
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoFramerate, "29.97"),
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoLevel, "41"),
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "3840"),
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.RefFrames, "many"),
+        });
+
+        ContainerProfile container = new ContainerProfile();
+        container.setType(DlnaProfileType.Video);
+        container.setContainer("ts");
+        container.setConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoBitrate, "8000000"),
+        });
+
+        DeviceProfile profile = new DeviceProfile();
+        profile.setCodecProfiles(new CodecProfile[] { video });
+        profile.setContainerProfiles(new ContainerProfile[] { container });
+
+        bands = new ConditionBands(new CompiledDeviceProfile(profile));
+    }
+
+    @Test
+    public void testBandsSplitAtTheThresholdsOfCodecAndContainerProfiles() {
+        // Thresholds of 8 Mbps from the container profile and 20 Mbps from the codec profile
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.VideoBitrate, 2000000));
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.VideoBitrate, 7999999));
+        assertEquals(Integer.valueOf(1), bands.GetBand(ProfileConditionValue.VideoBitrate, 8000000));
+        assertEquals(Integer.valueOf(2), bands.GetBand(ProfileConditionValue.VideoBitrate, 12000000));
+        assertEquals(Integer.valueOf(3), bands.GetBand(ProfileConditionValue.VideoBitrate, 20000000));
+        assertEquals(Integer.valueOf(4), bands.GetBand(ProfileConditionValue.VideoBitrate, 80000000));
+
+        // Apply conditions are thresholds too
+        assertEquals(bands.GetBand(ProfileConditionValue.Width, 720), bands.GetBand(ProfileConditionValue.Width, 1024));
+        assertNotEquals(bands.GetBand(ProfileConditionValue.Width, 1024), bands.GetBand(ProfileConditionValue.Width, 1920));
+        assertEquals(bands.GetBand(ProfileConditionValue.Width, 1920), bands.GetBand(ProfileConditionValue.Width, 2560));
+    }
+
+    @Test
+    public void testValuesAreComparedAsTheConditionsParseThem() {
+        // The frame rate threshold is a float, 29.97 as a double would be above it
+        assertEquals(Integer.valueOf(1), bands.GetBand(ProfileConditionValue.VideoFramerate, 29.97f));
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.VideoFramerate, 23.976f));
+        assertEquals(Integer.valueOf(1), bands.GetBand(ProfileConditionValue.VideoLevel, 41d));
+        assertEquals(Integer.valueOf(2), bands.GetBand(ProfileConditionValue.VideoLevel, 51d));
+    }
+
+    @Test
+    public void testUnknownAndUnconditionedValues() {
+        assertNull(bands.GetBand(ProfileConditionValue.VideoBitrate, null));
+        assertEquals(Integer.valueOf(-1), bands.GetBand(ProfileConditionValue.VideoFramerate, Float.NaN));
+
+        // No condition reads these, or none can be parsed, so every value shares one band
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.AudioBitrate, 128000));
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.AudioBitrate, 640000));
+        assertEquals(Integer.valueOf(0), bands.GetBand(ProfileConditionValue.RefFrames, 16));
+    }
+}
@@ -0,0 +1,231 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.dlna.CodecProfile;
+import org.jellyfin.apiclient.model.dlna.CodecType;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DirectPlayProfile;
+import org.jellyfin.apiclient.model.dlna.DlnaProfileType;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionType;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+import org.jellyfin.apiclient.model.dlna.SubtitleDeliveryMethod;
+import org.jellyfin.apiclient.model.dlna.SubtitleProfile;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
+import org.jellyfin.apiclient.model.entities.MediaStream;
+import org.jellyfin.apiclient.model.entities.MediaStreamType;
+import org.jellyfin.apiclient.model.entities.MediaType;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoResponse;
+import org.jellyfin.apiclient.model.session.PlayMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class LocalPlaybackInfoTest {
+    private final ArrayList<String> posts = new ArrayList<>();
+    private final PlaybackInfoResponse[] result = new PlaybackInfoResponse[1];
+    private ApiClient apiClient;
+
+    @Before
+    public void setUp() {
+        // Answers every PlaybackInfo post with a transcoding session
+        apiClient = TestApiClients.Create(new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                posts.add(request.getUrl());
+                response.onResponse("{\"PlaySessionId\":\"session\",\"MediaSources\":[]}");
+            }
+        });
+    }
+
+    private static DirectPlayProfile CreateDirectPlay() {
+        DirectPlayProfile mkv = new DirectPlayProfile();
+        mkv.setType(DlnaProfileType.Video);
+        mkv.setContainer("mkv");
+        mkv.setVideoCodec("h264");
+        return mkv;
+    }
+
+    private static DeviceProfile CreateProfile(DirectPlayProfile directPlay) {
+        DeviceProfile profile = new DeviceProfile();
+        profile.setDirectPlayProfiles(new DirectPlayProfile[] { directPlay });
+        return profile;
+    }
+
+    // An 8 Mbps h264 mkv with an embedded srt track and an external ass file
+    private static ArrayList<MediaSourceInfo> CreateSources() {
+        MediaStream video = new MediaStream();
+        video.setType(MediaStreamType.Video);
+        video.setIndex(0);
+        video.setCodec("h264");
+        video.setRefFrames(4);
+
+        MediaStream embedded = new MediaStream();
+        embedded.setType(MediaStreamType.Subtitle);
+        embedded.setIndex(1);
+        embedded.setCodec("srt");
+
+        MediaStream external = new MediaStream();
+        external.setType(MediaStreamType.Subtitle);
+        external.setIndex(2);
+        external.setCodec("ass");
+        external.setIsExternal(true);
+
+        MediaSourceInfo source = new MediaSourceInfo();
+        source.setId("source");
+        source.setContainer("mkv");
+        source.setBitrate(8000000);
+        source.getMediaStreams().add(video);
+        source.getMediaStreams().add(embedded);
+        source.getMediaStreams().add(external);
+
+        ArrayList<MediaSourceInfo> sources = new ArrayList<>();
+        sources.add(source);
+        return sources;
+    }
+
+    private static PlaybackInfoRequest CreateRequest(DeviceProfile profile) {
+        PlaybackInfoRequest request = new PlaybackInfoRequest();
+        request.setId("item");
+        request.setDeviceProfile(profile);
+        return request;
+    }
+
+    private static SubtitleProfile Subtitles(String format, SubtitleDeliveryMethod method) {
+        SubtitleProfile profile = new SubtitleProfile();
+        profile.setFormat(format);
+        profile.setMethod(method);
+        return profile;
+    }
+
+    private void GetPlaybackInfo(PlaybackInfoRequest request, ArrayList<MediaSourceInfo> sources) {
+        result[0] = null;
+        apiClient.GetPlaybackInfo(request, MediaType.Video, sources, new Response<PlaybackInfoResponse>() {
+            @Override
+            public void onResponse(PlaybackInfoResponse value) {
+                result[0] = value;
+            }
+        });
+    }
+
+    @Test
+    public void testProfileChangedInPlaceIsRecompiled() {
+        DirectPlayProfile mkv = CreateDirectPlay();
+        PlaybackInfoRequest request = CreateRequest(CreateProfile(mkv));
+        ArrayList<MediaSourceInfo> sources = CreateSources();
+
+        GetPlaybackInfo(request, sources);
+        assertTrue(posts.isEmpty());
+        assertNull(result[0].getPlaySessionId());
+        assertNotSame(sources.get(0), result[0].getMediaSources().get(0));
+        assertEquals("mkv", result[0].getMediaSources().get(0).getContainer());
+
+        // The same instance no longer direct plays mkv
+        mkv.setContainer("mp4");
+        GetPlaybackInfo(request, sources);
+        assertEquals(1, posts.size());
+        assertEquals("session", result[0].getPlaySessionId());
+    }
+
+    @Test
+    public void testOnlyEmbeddedSubtitlesAreAnsweredLocally() {
+        DeviceProfile profile = CreateProfile(CreateDirectPlay());
+        profile.setSubtitleProfiles(new SubtitleProfile[] {
+                Subtitles("srt", SubtitleDeliveryMethod.Embed),
+                Subtitles("ass", SubtitleDeliveryMethod.External),
+        });
+        ArrayList<MediaSourceInfo> sources = CreateSources();
+
+        PlaybackInfoRequest embedded = CreateRequest(profile);
+        embedded.setSubtitleStreamIndex(1);
+        GetPlaybackInfo(embedded, sources);
+        assertTrue(posts.isEmpty());
+        assertEquals(Integer.valueOf(1), result[0].getMediaSources().get(0).getDefaultSubtitleStreamIndex());
+        assertNull(sources.get(0).getDefaultSubtitleStreamIndex());
+
+        // Only the server knows the url of an external subtitle stream
+        PlaybackInfoRequest external = CreateRequest(profile);
+        external.setSubtitleStreamIndex(2);
+        GetPlaybackInfo(external, sources);
+        assertEquals(1, posts.size());
+        assertEquals("session", result[0].getPlaySessionId());
+
+        // Subtitles the profile can't deliver would be burned in
+        profile.setSubtitleProfiles(new SubtitleProfile[] { Subtitles("ass", SubtitleDeliveryMethod.External) });
+        GetPlaybackInfo(embedded, sources);
+        assertEquals(2, posts.size());
+
+        // Turned off, no subtitle profile is needed
+        PlaybackInfoRequest none = CreateRequest(profile);
+        none.setSubtitleStreamIndex(-1);
+        GetPlaybackInfo(none, sources);
+        assertEquals(2, posts.size());
+        assertNull(result[0].getPlaySessionId());
+    }
+
+    @Test
+    public void testCodecConditionsAreEvaluatedLocally() {
+        CodecProfile h264 = new CodecProfile();
+        h264.setType(CodecType.Video);
+        h264.setCodec("h264");
+        h264.setConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.RefFrames, "4"),
+        });
+        DeviceProfile profile = CreateProfile(CreateDirectPlay());
+        profile.setCodecProfiles(new CodecProfile[] { h264 });
+        ArrayList<MediaSourceInfo> sources = CreateSources();
+
+        GetPlaybackInfo(CreateRequest(profile), sources);
+        assertTrue(posts.isEmpty());
+        assertTrue(result[0].getMediaSources().get(0).getSupportsDirectPlay());
+
+        sources.get(0).getMediaStreams().get(0).setRefFrames(16);
+        GetPlaybackInfo(CreateRequest(profile), sources);
+        assertEquals(1, posts.size());
+    }
+
+    @Test
+    public void testBitrateLimitsOfTheRequestAndProfile() {
+        DeviceProfile profile = CreateProfile(CreateDirectPlay());
+        ArrayList<MediaSourceInfo> sources = CreateSources();
+
+        PlaybackInfoRequest atLimit = CreateRequest(profile);
+        atLimit.setMaxStreamingBitrate(8000000L);
+        GetPlaybackInfo(atLimit, sources);
+        assertTrue(posts.isEmpty());
+
+        PlaybackInfoRequest belowSource = CreateRequest(profile);
+        belowSource.setMaxStreamingBitrate(4000000L);
+        GetPlaybackInfo(belowSource, sources);
+        assertEquals(1, posts.size());
+
+        // The profile limit applies when the request has none
+        profile.setMaxStreamingBitrate(4000000);
+        GetPlaybackInfo(CreateRequest(profile), sources);
+        assertEquals(2, posts.size());
+
+        // And the request limit overrides it
+        GetPlaybackInfo(atLimit, sources);
+        assertEquals(2, posts.size());
+        assertNull(result[0].getPlaySessionId());
+    }
+
+    @Test
+    public void testDirectStreamWhenDirectPlayIsDisabled() {
+        PlaybackInfoRequest request = CreateRequest(CreateProfile(CreateDirectPlay()));
+        request.setEnableDirectPlay(false);
+
+        GetPlaybackInfo(request, CreateSources());
+        assertTrue(posts.isEmpty());
+        assertFalse(result[0].getMediaSources().get(0).getSupportsDirectPlay());
+        assertTrue(result[0].getMediaSources().get(0).getSupportsDirectStream());
+    }
+}
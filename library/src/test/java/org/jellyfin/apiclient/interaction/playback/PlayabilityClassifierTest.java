@@ -0,0 +1,221 @@
+package org.jellyfin.apiclient.interaction.playback;
+
+import org.jellyfin.apiclient.model.dlna.CodecProfile;
+import org.jellyfin.apiclient.model.dlna.CodecType;
+import org.jellyfin.apiclient.model.dlna.CompiledDeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DirectPlayProfile;
+import org.jellyfin.apiclient.model.dlna.DlnaProfileType;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionType;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+import org.jellyfin.apiclient.model.dlna.StreamDecisionEngine;
+import org.jellyfin.apiclient.model.dto.MediaSourceInfo;
+import org.jellyfin.apiclient.model.entities.MediaStream;
+import org.jellyfin.apiclient.model.entities.MediaStreamType;
+import org.jellyfin.apiclient.model.entities.MediaType;
+import org.jellyfin.apiclient.model.session.PlayMethod;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class PlayabilityClassifierTest {
+    private PlayabilityClassifier classifier;
+
+    private static ProfileCondition Condition(ProfileConditionType type, ProfileConditionValue property, String value) {
+        ProfileCondition condition = new ProfileCondition();
+        condition.setCondition(type);
+        condition.setProperty(property);
+        condition.setValue(value);
+        return condition;
+    }
+
+    @Before
+    public void setUp() {
+        DirectPlayProfile directPlay = new DirectPlayProfile();
+        directPlay.setType(DlnaProfileType.Video);
+        directPlay.setContainer("mkv");
+        directPlay.setVideoCodec("h264");
+        directPlay.setAudioCodec("aac");
+
+        CodecProfile video = new CodecProfile();
+        video.setType(CodecType.Video);
+        video.setCodec("h264");
+        video.setConditions(new ProfileCondition[] {
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.RefFrames, "4"),
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoBitrate, "10000000"),
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.PacketLength, "188"),
+                Condition(ProfileConditionType.Equals, ProfileConditionValue.VideoCodecTag, "avc1"),
+                Condition(ProfileConditionType.Equals, ProfileConditionValue.IsAvc, "true"),
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoFramerate, "30"),
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.NumVideoStreams, "2"),
+        });
+
+        CodecProfile audio = new CodecProfile();
+        audio.setType(CodecType.VideoAudio);
+        audio.setCodec("aac");
+        audio.setConditions(new ProfileCondition[] {
+                Condition(ProfileConditionType.LessThanEqual, ProfileConditionValue.AudioBitrate, "320000"),
+        });
+
+        DeviceProfile profile = new DeviceProfile();
+        profile.setDirectPlayProfiles(new DirectPlayProfile[] { directPlay });
+        profile.setCodecProfiles(new CodecProfile[] { video, audio });
+
+        classifier = new PlayabilityClassifier(new StreamDecisionEngine(new CompiledDeviceProfile(profile)), null);
+    }
+
+    // A 24 fps h264 and aac mkv every condition of the profile accepts
+    private static MediaSourceInfo CreateSource() {
+        MediaStream video = new MediaStream();
+        video.setType(MediaStreamType.Video);
+        video.setIndex(0);
+        video.setCodec("h264");
+        video.setRefFrames(4);
+        video.setBitRate(8000000);
+        video.setPacketLength(188);
+        video.setCodecTag("avc1");
+        video.setIsAVC(true);
+        video.setRealFrameRate(24f);
+
+        MediaStream audio = new MediaStream();
+        audio.setType(MediaStreamType.Audio);
+        audio.setIndex(1);
+        audio.setIsDefault(true);
+        audio.setCodec("aac");
+        audio.setBitRate(192000);
+
+        MediaSourceInfo source = new MediaSourceInfo();
+        source.setContainer("mkv");
+        source.setSupportsDirectPlay(true);
+        source.setSupportsDirectStream(true);
+        source.setMediaStreams(new ArrayList<MediaStream>());
+        source.getMediaStreams().add(video);
+        source.getMediaStreams().add(audio);
+        return source;
+    }
+
+    private PlayMethod Classify(MediaSourceInfo source) {
+        return classifier.Classify(MediaType.Video, source);
+    }
+
+    @Test
+    public void testSourceFlagsAreCheckedForEverySource() {
+        assertEquals(PlayMethod.DirectPlay, Classify(CreateSource()));
+
+        MediaSourceInfo directStream = CreateSource();
+        directStream.setSupportsDirectPlay(false);
+        assertEquals(PlayMethod.DirectStream, Classify(directStream));
+
+        MediaSourceInfo neither = CreateSource();
+        neither.setSupportsDirectPlay(false);
+        neither.setSupportsDirectStream(false);
+        assertEquals(PlayMethod.Transcode, Classify(neither));
+
+        MediaSourceInfo live = CreateSource();
+        live.setRequiresOpening(true);
+        assertEquals(PlayMethod.Transcode, Classify(live));
+
+        MediaSourceInfo infinite = CreateSource();
+        infinite.setIsInfiniteStream(true);
+        assertEquals(PlayMethod.Transcode, Classify(infinite));
+
+        // The same encoding, so the profile evaluation was shared
+        assertEquals(1, classifier.getMissCount());
+    }
+
+    @Test
+    public void testEachStreamAttributeChangesTheSignature() {
+        assertEquals(PlayMethod.DirectPlay, Classify(CreateSource()));
+
+        MediaSourceInfo refFrames = CreateSource();
+        refFrames.getMediaStreams().get(0).setRefFrames(5);
+        assertEquals(PlayMethod.Transcode, Classify(refFrames));
+
+        MediaSourceInfo videoBitrate = CreateSource();
+        videoBitrate.getMediaStreams().get(0).setBitRate(12000000);
+        assertEquals(PlayMethod.Transcode, Classify(videoBitrate));
+
+        MediaSourceInfo audioBitrate = CreateSource();
+        audioBitrate.getMediaStreams().get(1).setBitRate(640000);
+        assertEquals(PlayMethod.Transcode, Classify(audioBitrate));
+
+        MediaSourceInfo packetLength = CreateSource();
+        packetLength.getMediaStreams().get(0).setPacketLength(192);
+        assertEquals(PlayMethod.Transcode, Classify(packetLength));
+
+        MediaSourceInfo codecTag = CreateSource();
+        codecTag.getMediaStreams().get(0).setCodecTag("avc3");
+        assertEquals(PlayMethod.Transcode, Classify(codecTag));
+
+        MediaSourceInfo isAvc = CreateSource();
+        isAvc.getMediaStreams().get(0).setIsAVC(false);
+        assertEquals(PlayMethod.Transcode, Classify(isAvc));
+
+        // Without an average frame rate the engine falls back to the real one
+        MediaSourceInfo realFrameRate = CreateSource();
+        realFrameRate.getMediaStreams().get(0).setRealFrameRate(60f);
+        assertEquals(PlayMethod.Transcode, Classify(realFrameRate));
+
+        MediaSourceInfo streamCount = CreateSource();
+        for (int i = 0; i < 2; i++) {
+            MediaStream extra = new MediaStream();
+            extra.setType(MediaStreamType.Video);
+            extra.setIndex(2 + i);
+            extra.setCodec("h264");
+            streamCount.getMediaStreams().add(extra);
+        }
+        assertEquals(PlayMethod.Transcode, Classify(streamCount));
+    }
+
+    @Test
+    public void testValuesInTheSameBandShareTheEvaluation() {
+        int[] bitrates = new int[] { 2000000, 8000000, 9500000 };
+        for (int bitrate : bitrates) {
+            MediaSourceInfo source = CreateSource();
+            source.getMediaStreams().get(0).setBitRate(bitrate);
+            source.getMediaStreams().get(0).setRefFrames(bitrate / 4000000 + 1);
+            source.getMediaStreams().get(0).setRealFrameRate(23.976f);
+            source.getMediaStreams().get(1).setBitRate(bitrate / 50);
+            assertEquals(PlayMethod.DirectPlay, Classify(source));
+        }
+        assertEquals(1, classifier.getMissCount());
+
+        // On a threshold and above it are bands of their own
+        MediaSourceInfo atLimit = CreateSource();
+        atLimit.getMediaStreams().get(0).setBitRate(10000000);
+        assertEquals(PlayMethod.DirectPlay, Classify(atLimit));
+
+        MediaSourceInfo aboveLimit = CreateSource();
+        aboveLimit.getMediaStreams().get(0).setBitRate(10000001);
+        assertEquals(PlayMethod.Transcode, Classify(aboveLimit));
+
+        // An unknown bitrate is a band of its own, which the required condition refuses
+        MediaSourceInfo unknown = CreateSource();
+        unknown.getMediaStreams().get(0).setBitRate(null);
+        assertEquals(PlayMethod.Transcode, Classify(unknown));
+
+        assertEquals(4, classifier.getMissCount());
+    }
+
+    @Test
+    public void testEmbeddedImagesAreNotTheVideoStream() {
+        MediaStream cover = new MediaStream();
+        cover.setType(MediaStreamType.Video);
+        cover.setIndex(2);
+        cover.setCodec("mjpeg");
+
+        MediaSourceInfo playable = CreateSource();
+        playable.getMediaStreams().add(0, cover);
+        assertEquals(PlayMethod.DirectPlay, Classify(playable));
+
+        // Differs from the first one in the real video stream only
+        MediaSourceInfo tooManyRefFrames = CreateSource();
+        tooManyRefFrames.getMediaStreams().add(0, cover);
+        tooManyRefFrames.getMediaStreams().get(1).setRefFrames(16);
+        assertEquals(PlayMethod.Transcode, Classify(tooManyRefFrames));
+    }
+}
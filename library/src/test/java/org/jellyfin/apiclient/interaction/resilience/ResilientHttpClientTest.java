@@ -0,0 +1,124 @@
+package org.jellyfin.apiclient.interaction.resilience;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.net.HttpException;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class ResilientHttpClientTest {
+    // Fails with the given status for the first requests, then answers "ok"
+    private static class FlakyHttpClient implements IAsyncHttpClient {
+        final AtomicInteger sendCount = new AtomicInteger();
+        final int failures;
+        final int statusCode;
+
+        FlakyHttpClient(int failures, int statusCode) {
+            this.failures = failures;
+            this.statusCode = statusCode;
+        }
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            if (sendCount.incrementAndGet() > failures) {
+                response.onResponse("ok");
+                return;
+            }
+
+            HttpException error = new HttpException("failed");
+            error.setStatusCode(statusCode);
+            response.onError(error);
+        }
+    }
+
+    private static class AwaitingResponse extends Response<String> {
+        final CountDownLatch done = new CountDownLatch(1);
+        volatile Object result;
+
+        @Override
+        public void onResponse(String response) {
+            result = response;
+            done.countDown();
+        }
+
+        @Override
+        public void onError(Exception exception) {
+            result = exception;
+            done.countDown();
+        }
+
+        Object Await() throws InterruptedException {
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            return result;
+        }
+    }
+
+    private static HttpRequest request(String method) {
+        HttpRequest request = new HttpRequest();
+        request.setMethod(method);
+        request.setUrl("http://localhost:8096/Items");
+        return request;
+    }
+
+    @Test
+    public void testTransientFailuresAreRetried() throws InterruptedException {
+        FlakyHttpClient inner = new FlakyHttpClient(2, 503);
+        ResilientHttpClient client = new ResilientHttpClient(inner);
+        client.setRetryPolicy("GET", new RetryPolicy(3, 1, 5, RetryPolicy.DEFAULT_IDEMPOTENT_STATUS_CODES, true));
+
+        AwaitingResponse response = new AwaitingResponse();
+        client.Send(request("GET"), response);
+
+        assertEquals("ok", response.Await());
+        assertEquals(3, inner.sendCount.get());
+        assertEquals(2, client.getRetryCount());
+    }
+
+    @Test
+    public void testPostIsNotRetriedOnServerError() throws InterruptedException {
+        FlakyHttpClient inner = new FlakyHttpClient(1, 500);
+        ResilientHttpClient client = new ResilientHttpClient(inner);
+
+        AwaitingResponse response = new AwaitingResponse();
+        client.Send(request("POST"), response);
+
+        assertTrue(response.Await() instanceof HttpException);
+        assertEquals(1, inner.sendCount.get());
+    }
+
+    @Test
+    public void testOpenBreakerFailsFastThenProbes() throws InterruptedException {
+        FlakyHttpClient inner = new FlakyHttpClient(2, 502);
+        ResilientHttpClient client = new ResilientHttpClient(inner);
+        client.setDefaultRetryPolicy(RetryPolicy.None());
+        client.setRetryPolicy("GET", RetryPolicy.None());
+        client.setCircuitBreaker(2, 50);
+
+        for (int i = 0; i < 2; i++) {
+            AwaitingResponse response = new AwaitingResponse();
+            client.Send(request("GET"), response);
+            response.Await();
+        }
+
+        CircuitBreaker breaker = client.getCircuitBreaker("http://LOCALHOST:8096/Users");
+        assertEquals(CircuitBreaker.State.Open, breaker.getState());
+
+        AwaitingResponse rejected = new AwaitingResponse();
+        client.Send(request("GET"), rejected);
+        assertTrue(rejected.Await() instanceof CircuitBreakerOpenException);
+        assertEquals(2, inner.sendCount.get());
+
+        Thread.sleep(60);
+
+        AwaitingResponse probe = new AwaitingResponse();
+        client.Send(request("GET"), probe);
+        assertEquals("ok", probe.Await());
+        assertEquals(CircuitBreaker.State.Closed, breaker.getState());
+    }
+}
@@ -0,0 +1,129 @@
+package org.jellyfin.apiclient.interaction.scheduling;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.interaction.http.RequestPriority;
+import org.jellyfin.apiclient.interaction.tasks.CancellationToken;
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class PriorityHttpClientTest {
+    // Holds every request until the test answers it
+    private static class PendingHttpClient implements IAsyncHttpClient {
+        final ArrayList<HttpRequest> requests = new ArrayList<>();
+        final ArrayList<Response<String>> responses = new ArrayList<>();
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            requests.add(request);
+            responses.add(response);
+        }
+    }
+
+    private static HttpRequest request(String path, RequestPriority priority) {
+        HttpRequest request = new HttpRequest();
+        request.setMethod("GET");
+        request.setUrl("http://localhost:8096/" + path);
+        request.setPriority(priority);
+        return request;
+    }
+
+    @Test
+    public void testQueuedRequestsStartByPriority() {
+        PendingHttpClient inner = new PendingHttpClient();
+        PriorityHttpClient client = new PriorityHttpClient(inner);
+        client.setLimits(1, 1, 4);
+
+        client.Send(request("first", RequestPriority.Interactive), new Response<String>());
+        client.Send(request("sync", RequestPriority.Background), new Response<String>());
+        client.Send(request("prefetch", RequestPriority.Prefetch), new Response<String>());
+        client.Send(request("screen", RequestPriority.Interactive), new Response<String>());
+
+        // Another server has its own limit
+        HttpRequest other = request("other", RequestPriority.Background);
+        other.setUrl("http://otherhost:8096/other");
+        client.Send(other, new Response<String>());
+
+        assertEquals(2, inner.requests.size());
+        assertEquals(3, client.getQueuedCount("http://localhost:8096/"));
+
+        inner.responses.get(0).onResponse("done");
+        assertEquals("http://localhost:8096/screen", inner.requests.get(2).getUrl());
+
+        inner.responses.get(2).onResponse("done");
+        assertEquals("http://localhost:8096/prefetch", inner.requests.get(3).getUrl());
+        assertEquals(1, client.getSentCount(RequestPriority.Prefetch));
+    }
+
+    @Test
+    public void testCancellingFreesQueueAndSlot() {
+        PendingHttpClient inner = new PendingHttpClient();
+        PriorityHttpClient client = new PriorityHttpClient(inner);
+        client.setLimits(1, 1, 4);
+
+        HttpRequest running = request("running", RequestPriority.Interactive);
+        running.setCancellationToken(new CancellationToken());
+        HttpRequest queued = request("queued", RequestPriority.Interactive);
+        queued.setCancellationToken(new CancellationToken());
+
+        client.Send(running, new Response<String>());
+        client.Send(queued, new Response<String>());
+        client.Send(request("last", RequestPriority.Background), new Response<String>());
+
+        queued.getCancellationToken().cancel();
+        assertEquals(1, client.getQueuedCount("http://localhost:8096/"));
+
+        // The client never answers a cancelled request, the slot is freed anyway
+        running.getCancellationToken().cancel();
+        assertEquals(2, inner.requests.size());
+        assertEquals("http://localhost:8096/last", inner.requests.get(1).getUrl());
+        assertEquals(1, client.getInFlightCount("http://localhost:8096/"));
+    }
+
+    @Test
+    public void testLimitBacksOffOnSlowResponses() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 32, 0.5, 2.0);
+
+        for (int i = 0; i < 20; i++) {
+            limit.OnSuccess("Users/{id}/Items", 20, 8);
+        }
+        assertTrue(limit.getLimit() > 8);
+
+        int grown = limit.getLimit();
+        limit.OnSuccess("Users/{id}/Items", 200, grown);
+        assertEquals(grown / 2, limit.getLimit());
+
+        // Once per limit's worth of completions
+        limit.OnOverload();
+        assertEquals(grown / 2, limit.getLimit());
+    }
+
+    @Test
+    public void testSlowEndpointsAreNotComparedWithFastOnes() {
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(8, 1, 32, 0.5, 2.0);
+
+        // A healthy mix: progress reports and System/Info in a few ms, library queries and images much slower
+        for (int i = 0; i < 300; i++) {
+            limit.OnSuccess("Sessions/Playing/Progress", 3, 8);
+            limit.OnSuccess("System/Info", 4, 8);
+            limit.OnSuccess("Users/{id}/Items", 150 + i % 40, 8);
+            limit.OnSuccess("Items/{id}/Images/Primary", 90 + i % 20, 8);
+        }
+
+        assertEquals(0, limit.getDecreaseCount());
+        assertTrue(limit.getLimit() > 8);
+        assertEquals(3, limit.getMinLatencyMs("Sessions/Playing/Progress"));
+        assertEquals(150, limit.getMinLatencyMs("Users/{id}/Items"));
+        assertEquals(-1, limit.getMinLatencyMs("Shows/NextUp"));
+
+        // Queueing shows up as an endpoint getting slower than it used to be
+        int grown = limit.getLimit();
+        limit.OnSuccess("Users/{id}/Items", 400, grown);
+        assertEquals(1, limit.getDecreaseCount());
+        assertEquals(grown / 2, limit.getLimit());
+    }
+}
@@ -0,0 +1,143 @@
+package org.jellyfin.apiclient.interaction.sync;
+
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.model.sync.SyncDataRequest;
+import org.jellyfin.apiclient.model.sync.SyncDataResponse;
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class SyncDataReconcilerTest {
+    /**
+     * Answers Sync/Data the way the server does: local items that no longer exist are removed, and the synced job
+     * items of the target that are missing from SyncJobItemIds are queued for transfer again.
+     */
+    private static final class SyncServer implements IAsyncHttpClient {
+        final GsonJsonSerializer serializer = new GsonJsonSerializer();
+        final HashSet<String> existingItems = new HashSet<>();
+        final HashMap<String, String> jobItemStatus = new HashMap<>();
+        final ArrayList<SyncDataRequest> requests = new ArrayList<>();
+
+        @Override
+        public void Send(HttpRequest request, Response<String> response) {
+            SyncDataRequest inventory = serializer.DeserializeFromString(request.getRequestContent(), SyncDataRequest.class);
+            requests.add(inventory);
+
+            SyncDataResponse result = new SyncDataResponse();
+            result.setItemIdsToRemove(new ArrayList<String>());
+            for (String id : inventory.getLocalItemIds()) {
+                if (!existingItems.contains(id)) {
+                    result.getItemIdsToRemove().add(id);
+                }
+            }
+
+            if (inventory.getSyncJobItemIds() != null) {
+                for (String jobItemId : jobItemStatus.keySet()) {
+                    if (!inventory.getSyncJobItemIds().contains(jobItemId)) {
+                        jobItemStatus.put(jobItemId, "Queued");
+                    }
+                }
+            }
+
+            response.onResponse(serializer.SerializeToString(result));
+        }
+    }
+
+    private static SyncServer CreateServer() {
+        SyncServer server = new SyncServer();
+        server.existingItems.addAll(Arrays.asList("a", "b"));
+        server.jobItemStatus.put("j1", "Synced");
+        server.jobItemStatus.put("j2", "Synced");
+        return server;
+    }
+
+    @Test
+    public void testLargeInventoryIsSentInOneRequest() {
+        SyncServer server = CreateServer();
+        ArrayList<String> localItemIds = new ArrayList<>();
+        ArrayList<String> jobItemIds = new ArrayList<>(Arrays.asList("j1", "j2"));
+        for (int i = 0; i < 5000; i++) {
+            localItemIds.add("local" + i);
+            jobItemIds.add("job" + i);
+            server.jobItemStatus.put("job" + i, "Synced");
+        }
+
+        SyncDataRequest request = new SyncDataRequest();
+        request.setTargetId("sync-device");
+        request.setLocalItemIds(localItemIds);
+        request.setSyncJobItemIds(jobItemIds);
+
+        new SyncDataReconciler(TestApiClients.Create(server)).SyncData(request, new Response<SyncDataReconciliation>());
+
+        // Sending any part of the inventory alone would make the server requeue the job items of the rest
+        assertEquals(1, server.requests.size());
+        assertEquals(localItemIds, server.requests.get(0).getLocalItemIds());
+        assertEquals(jobItemIds, server.requests.get(0).getSyncJobItemIds());
+        assertFalse(server.jobItemStatus.containsValue("Queued"));
+    }
+
+    @Test
+    public void testInventoryIsSentWholeAndReconciled() {
+        SyncServer server = CreateServer();
+        SyncDataReconciler reconciler = new SyncDataReconciler(TestApiClients.Create(server));
+
+        SyncDataRequest request = new SyncDataRequest();
+        request.setTargetId("sync-device");
+        request.setLocalItemIds(new ArrayList<>(Arrays.asList("a", "x1", "b", "x2")));
+        request.setSyncJobItemIds(new ArrayList<>(Arrays.asList("j1", "j2")));
+
+        final SyncDataReconciliation[] result = new SyncDataReconciliation[1];
+        reconciler.SyncData(request, new Response<SyncDataReconciliation>() {
+            @Override
+            public void onResponse(SyncDataReconciliation response) {
+                result[0] = response;
+            }
+        });
+
+        assertEquals(1, server.requests.size());
+        assertEquals("Synced", server.jobItemStatus.get("j1"));
+        assertEquals("Synced", server.jobItemStatus.get("j2"));
+        assertEquals(Arrays.asList("x1", "x2"), result[0].getItemIdsToRemove());
+        assertEquals(Arrays.asList("a", "b"), result[0].getItemIdsToKeep());
+    }
+
+    @Test
+    public void testLocalItemsOnlyRequestKeepsNullJobItems() {
+        SyncServer server = CreateServer();
+        SyncDataReconciler reconciler = new SyncDataReconciler(TestApiClients.Create(server));
+
+        SyncDataRequest request = new SyncDataRequest();
+        request.setLocalItemIds(new ArrayList<>(Arrays.asList("a", "gone")));
+
+        reconciler.SyncData(request, new Response<SyncDataReconciliation>());
+
+        assertNull(server.requests.get(0).getSyncJobItemIds());
+        assertEquals("Synced", server.jobItemStatus.get("j1"));
+    }
+
+    @Test
+    public void testReconcileAppliesUserAccess() {
+        SyncDataResponse response = new SyncDataResponse();
+        response.setItemIdsToRemove(new ArrayList<>(Arrays.asList("b")));
+        HashMap<String, ArrayList<String>> access = new HashMap<>();
+        access.put("a", new ArrayList<>(Arrays.asList("user")));
+        access.put("b", new ArrayList<>(Arrays.asList("user")));
+        response.setItemUserAccess(access);
+
+        SyncDataReconciliation reconciliation = SyncDataReconciler.Reconcile(Arrays.asList("a", "b", "c"), response);
+
+        assertTrue(reconciliation.HasAccess("a", "user"));
+        assertFalse(reconciliation.HasUserAccessInfo("b"));
+        assertFalse(reconciliation.HasUserAccessInfo("c"));
+        assertEquals(Arrays.asList("a", "c"), reconciliation.getItemIdsToKeep());
+    }
+}
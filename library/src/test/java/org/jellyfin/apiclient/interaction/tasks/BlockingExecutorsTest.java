@@ -0,0 +1,103 @@
+package org.jellyfin.apiclient.interaction.tasks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class BlockingExecutorsTest {
+    private static boolean HasVirtualThreads() {
+        try {
+            Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return true;
+        } catch (NoSuchMethodException ex) {
+            return false;
+        }
+    }
+
+    /**
+     * Parks every task until released, recording the thread each one ran on.
+     */
+    private static final class Gate {
+        final CountDownLatch release = new CountDownLatch(1);
+        final ArrayList<Thread> threads = new ArrayList<>();
+
+        Runnable Task(final CountDownLatch started) {
+            return new Runnable() {
+                @Override
+                public void run() {
+                    synchronized (threads) {
+                        threads.add(Thread.currentThread());
+                    }
+                    started.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            };
+        }
+    }
+
+    @Test
+    public void testDefaultMatchesTheRuntime() {
+        ExecutorService virtual = BlockingExecutors.TryCreateVirtualThreadExecutor();
+        ExecutorService executor = BlockingExecutors.CreateDefault();
+        try {
+            if (HasVirtualThreads()) {
+                assertNotNull(virtual);
+                assertFalse(executor instanceof ThreadPoolExecutor);
+            } else {
+                // Before Java 21 the lookup fails quietly and the bounded pool is used instead
+                assertNull(virtual);
+                ThreadPoolExecutor pool = (ThreadPoolExecutor) executor;
+                assertEquals(BlockingExecutors.DEFAULT_MAX_THREADS, pool.getMaximumPoolSize());
+                assertTrue(pool.allowsCoreThreadTimeOut());
+            }
+        } finally {
+            executor.shutdownNow();
+            if (virtual != null) {
+                virtual.shutdownNow();
+            }
+        }
+    }
+
+    @Test
+    public void testBoundedPoolQueuesBeyondItsThreads() throws Exception {
+        ExecutorService executor = BlockingExecutors.CreateBoundedPool(2);
+        Gate gate = new Gate();
+        CountDownLatch firstTwo = new CountDownLatch(2);
+        CountDownLatch third = new CountDownLatch(1);
+        try {
+            executor.execute(gate.Task(firstTwo));
+            executor.execute(gate.Task(firstTwo));
+            executor.execute(gate.Task(third));
+
+            assertTrue(firstTwo.await(5, TimeUnit.SECONDS));
+            assertFalse(third.await(100, TimeUnit.MILLISECONDS));
+            assertEquals(1, ((ThreadPoolExecutor) executor).getQueue().size());
+
+            gate.release.countDown();
+            assertTrue(third.await(5, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (Thread thread : gate.threads) {
+            assertTrue(thread.isDaemon());
+            assertTrue(thread.getName(), thread.getName().startsWith("ApiClient I/O "));
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testBoundedPoolNeedsAThread() {
+        BlockingExecutors.CreateBoundedPool(0);
+    }
+}
@@ -0,0 +1,88 @@
+package org.jellyfin.apiclient.interaction.tasks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class CancellationTokenTest {
+    private static Runnable record(final ArrayList<String> calls, final String name) {
+        return new Runnable() {
+            @Override
+            public void run() {
+                calls.add(name);
+            }
+        };
+    }
+
+    @Test
+    public void testCallbacksRunOnceMostRecentFirst() {
+        ArrayList<String> calls = new ArrayList<>();
+        CancellationToken token = new CancellationToken();
+
+        token.register(record(calls, "first"));
+        token.register(record(calls, "second")).unregister();
+        token.register(record(calls, "third"));
+
+        token.cancel();
+        token.cancel();
+
+        assertTrue(token.isCancellationRequested());
+        assertEquals(2, calls.size());
+        assertEquals("third", calls.get(0));
+        assertEquals("first", calls.get(1));
+
+        // Registering on a cancelled token runs the callback right away
+        token.register(record(calls, "late"));
+        assertEquals("late", calls.get(2));
+    }
+
+    @Test
+    public void testFailingCallbackDoesNotSkipOthers() {
+        ArrayList<String> calls = new ArrayList<>();
+        CancellationToken token = new CancellationToken();
+
+        token.register(record(calls, "first"));
+        token.register(new Runnable() {
+            @Override
+            public void run() {
+                throw new IllegalStateException("callback");
+            }
+        });
+
+        try {
+            token.cancel();
+            fail();
+        } catch (IllegalStateException expected) {
+        }
+
+        assertEquals(1, calls.size());
+    }
+
+    @Test
+    public void testLinkedTokenFollowsParentsOnly() {
+        CancellationToken parent = new CancellationToken();
+        CancellationToken other = new CancellationToken();
+
+        CancellationToken cancelledChild = CancellationToken.createLinked(parent, null);
+        cancelledChild.cancel();
+        assertFalse(parent.isCancellationRequested());
+
+        CancellationToken child = CancellationToken.createLinked(parent, other);
+        parent.cancel();
+
+        assertTrue(child.isCancellationRequested());
+        assertFalse(other.isCancellationRequested());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testFixedTokenCannotBeCancelled() {
+        CancellationToken token = new CancellationToken(false);
+
+        ArrayList<String> calls = new ArrayList<>();
+        token.register(record(calls, "never"));
+
+        token.cancel();
+    }
+}
@@ -0,0 +1,40 @@
+package org.jellyfin.apiclient.interaction.websocket;
+
+import org.jellyfin.apiclient.interaction.ApiClient;
+import org.jellyfin.apiclient.interaction.ApiEventListener;
+import org.jellyfin.apiclient.interaction.Response;
+import org.jellyfin.apiclient.interaction.TestApiClients;
+import org.jellyfin.apiclient.interaction.cache.ItemCache;
+import org.jellyfin.apiclient.interaction.http.HttpRequest;
+import org.jellyfin.apiclient.interaction.http.IAsyncHttpClient;
+import org.jellyfin.apiclient.logging.NullLogger;
+import org.jellyfin.apiclient.model.dto.BaseItemDto;
+import org.jellyfin.apiclient.serialization.GsonJsonSerializer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ApiWebSocketTest {
+    @Test
+    public void testReconnectDropsTheCachedItemsOfTheServer() {
+        // Only the cache is exercised, no request is sent
+        ApiClient apiClient = TestApiClients.Create(new IAsyncHttpClient() {
+            @Override
+            public void Send(HttpRequest request, Response<String> response) {
+                fail(request.getUrl());
+            }
+        }, "http://media-box:8096");
+        ItemCache cache = new ItemCache();
+        apiClient.setItemCache(cache);
+
+        BaseItemDto item = new BaseItemDto();
+        item.setId("episode");
+        cache.Put(apiClient.getItemCacheServerId(), "user", item);
+        cache.Put("another-server", "user", item);
+
+        new ApiWebSocket(new GsonJsonSerializer(), new NullLogger(), new ApiEventListener(), apiClient).onOpen();
+
+        assertNull(cache.Get(apiClient.getItemCacheServerId(), "user", "episode"));
+        assertSame(item, cache.Get("another-server", "user", "episode"));
+    }
+}
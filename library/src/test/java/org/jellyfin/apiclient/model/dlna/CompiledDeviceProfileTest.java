@@ -0,0 +1,239 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+
+import static org.junit.Assert.*;
+
+public class CompiledDeviceProfileTest {
+    // Inputs are compared exactly as an item would pass them: mixed case, with dots, empty or missing
+    private static final String[] Containers = new String[] { null, "", "mkv", "MKV", ".mkv", "mp4", ".M4V", "m4v", "ts", "mpegts", "mp3", "FLAC", "jpeg", "png" };
+    private static final String[] AudioCodecs = new String[] { null, "", "aac", "AAC", "ac3", "E-AC3", "mp3", "flac", "opus" };
+    private static final String[] VideoCodecs = new String[] { null, "", "h264", "H264", "hevc", "HEVC", "vp9", "mpeg2video" };
+    private static final Integer[] Sizes = new Integer[] { null, 720, 1920, 3840 };
+    private static final Integer[] Bitrates = new Integer[] { null, 192000, 8000000, 40000000 };
+    private static final Integer Stereo = 2;
+
+    private static DirectPlayProfile DirectPlay(DlnaProfileType type, String container, String audioCodec, String videoCodec) {
+        DirectPlayProfile profile = new DirectPlayProfile();
+        profile.setType(type);
+        profile.setContainer(container);
+        profile.setAudioCodec(audioCodec);
+        profile.setVideoCodec(videoCodec);
+        return profile;
+    }
+
+    private static TranscodingProfile Transcoding(DlnaProfileType type, String container, String audioCodec, String videoCodec) {
+        TranscodingProfile profile = new TranscodingProfile();
+        profile.setType(type);
+        profile.setContainer(container);
+        profile.setAudioCodec(audioCodec);
+        profile.setVideoCodec(videoCodec);
+        return profile;
+    }
+
+    private static ResponseProfile Response(DlnaProfileType type, String container, String audioCodec, String videoCodec, ProfileCondition... conditions) {
+        ResponseProfile profile = new ResponseProfile();
+        profile.setType(type);
+        profile.setContainer(container);
+        profile.setAudioCodec(audioCodec);
+        profile.setVideoCodec(videoCodec);
+        profile.setConditions(conditions);
+        return profile;
+    }
+
+    private static CodecProfile Codec(CodecType type, String codec, String container) {
+        CodecProfile profile = new CodecProfile();
+        profile.setType(type);
+        profile.setCodec(codec);
+        profile.setContainer(container);
+        profile.setConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "1920")
+        });
+        return profile;
+    }
+
+    // A set top box profile, written with the inconsistent casing, dots and empty entries found in real profiles
+    private static DeviceProfile CreateProfile() {
+        DeviceProfile profile = new DeviceProfile();
+        profile.setDirectPlayProfiles(new DirectPlayProfile[] {
+                DirectPlay(DlnaProfileType.Video, "MKV,mp4,.m4v", "AAC,ac3,,e-ac3", "H264,hevc"),
+                DirectPlay(DlnaProfileType.Video, "ts", "", null),
+                DirectPlay(DlnaProfileType.Audio, "mp3,Flac", null, null),
+                DirectPlay(DlnaProfileType.Photo, "", null, null),
+        });
+        profile.setTranscodingProfiles(new TranscodingProfile[] {
+                Transcoding(DlnaProfileType.Audio, "MP3", "mp3", null),
+                Transcoding(DlnaProfileType.Audio, "flac", "", null),
+                Transcoding(DlnaProfileType.Video, "TS", "aac,AC3", "H264"),
+                Transcoding(DlnaProfileType.Video, "mkv", "aac", null),
+                Transcoding(DlnaProfileType.Video, null, "aac", "h264"),
+        });
+        profile.setResponseProfiles(new ResponseProfile[] {
+                Response(DlnaProfileType.Video, "ts,MPEGTS", "AAC", "h264",
+                        new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "1920"),
+                        new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoBitrate, "10000000")),
+                Response(DlnaProfileType.Video, ".m4v", "", ""),
+                Response(DlnaProfileType.Video, "mkv,,", null, "HEVC"),
+                Response(DlnaProfileType.Audio, "MP3", "", null,
+                        new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.AudioBitrate, "320000")),
+                Response(DlnaProfileType.Audio, "", "flac", null),
+                Response(DlnaProfileType.Photo, "JPEG,png", null, null,
+                        new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "1920")),
+        });
+        profile.setCodecProfiles(new CodecProfile[] {
+                Codec(CodecType.Video, "H264,hevc", "MKV,mp4"),
+                Codec(CodecType.Video, "", "ts"),
+                Codec(CodecType.VideoAudio, "AAC", null),
+                Codec(CodecType.Audio, "flac,,", ""),
+        });
+        return profile;
+    }
+
+    @Test
+    public void testTranscodingProfilesMatchTheSourceProfile() {
+        DeviceProfile profile = CreateProfile();
+        CompiledDeviceProfile compiled = new CompiledDeviceProfile(profile);
+
+        for (String container : Containers) {
+            for (String audioCodec : AudioCodecs) {
+                String message = container + " " + audioCodec;
+                assertSame(message, profile.GetAudioTranscodingProfile(container, audioCodec), compiled.GetAudioTranscodingProfile(container, audioCodec));
+
+                for (String videoCodec : VideoCodecs) {
+                    assertSame(message + " " + videoCodec, profile.GetVideoTranscodingProfile(container, audioCodec, videoCodec),
+                            compiled.GetVideoTranscodingProfile(container, audioCodec, videoCodec));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testResponseProfilesMatchTheSourceProfile() {
+        DeviceProfile profile = CreateProfile();
+        CompiledDeviceProfile compiled = new CompiledDeviceProfile(profile);
+
+        for (String container : Containers) {
+            for (Integer size : Sizes) {
+                assertSame(container + " " + size, profile.GetImageMediaProfile(container, size, size), compiled.GetImageMediaProfile(container, size, size));
+            }
+
+            for (String audioCodec : AudioCodecs) {
+                for (Integer bitrate : Bitrates) {
+                    assertSame(container + " " + audioCodec + " " + bitrate, profile.GetAudioMediaProfile(container, audioCodec, Stereo, bitrate),
+                            compiled.GetAudioMediaProfile(container, audioCodec, Stereo, bitrate));
+                }
+
+                for (String videoCodec : VideoCodecs) {
+                    for (Integer width : Sizes) {
+                        for (Integer bitrate : Bitrates) {
+                            String message = container + " " + audioCodec + " " + videoCodec + " " + width + " " + bitrate;
+                            assertSame(message,
+                                    profile.GetVideoMediaProfile(container, audioCodec, videoCodec, width, null, null, bitrate, null, null, null, null, null, null, null, null, null, null, null),
+                                    compiled.GetVideoMediaProfile(container, audioCodec, videoCodec, width, null, null, bitrate, null, null, null, null, null, null, null, null, null, null, null));
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testDirectPlayProfilesMatchTheSourceLists() {
+        DeviceProfile profile = CreateProfile();
+        CompiledDeviceProfile compiled = new CompiledDeviceProfile(profile);
+
+        int count = 0;
+        for (DlnaProfileType type : DlnaProfileType.values()) {
+            for (CompiledDirectPlayProfile directPlay : compiled.GetDirectPlayProfiles(type)) {
+                DirectPlayProfile source = directPlay.getProfile();
+                assertEquals(type, source.getType());
+                count++;
+
+                for (String container : Containers) {
+                    assertEquals(source.getContainer() + " " + container, IsEmptyOrContains(source.GetContainers(), container), directPlay.SupportsContainer(container));
+                }
+                for (String codec : AudioCodecs) {
+                    assertEquals(source.getAudioCodec() + " " + codec, IsEmptyOrContains(source.GetAudioCodecs(), codec), directPlay.SupportsAudioCodec(codec));
+                }
+                for (String codec : VideoCodecs) {
+                    assertEquals(source.getVideoCodec() + " " + codec, IsEmptyOrContains(source.GetVideoCodecs(), codec), directPlay.SupportsVideoCodec(codec));
+                }
+            }
+        }
+
+        // Grouped by type, in profile order
+        assertEquals(profile.getDirectPlayProfiles().length, count);
+        assertSame(profile.getDirectPlayProfiles()[1], compiled.GetDirectPlayProfiles(DlnaProfileType.Video)[1].getProfile());
+    }
+
+    @Test
+    public void testCodecProfilesMatchTheSourceProfile() {
+        DeviceProfile profile = CreateProfile();
+        CompiledDeviceProfile compiled = new CompiledDeviceProfile(profile);
+
+        int count = 0;
+        for (CodecType type : CodecType.values()) {
+            for (CompiledCodecProfile codec : compiled.GetCodecProfiles(type)) {
+                CodecProfile source = codec.getProfile();
+                assertEquals(type, source.getType());
+                assertEquals(source.getConditions().length, codec.getConditions().length);
+                count++;
+
+                for (String container : Containers) {
+                    for (String value : VideoCodecs) {
+                        // Both refuse a missing codec once the profile lists codecs
+                        String message = source.getCodec() + " " + source.getContainer() + " " + value + " " + container;
+                        assertEquals(message, ContainsCodec(source, value, container), ContainsCodec(codec, value, container));
+                    }
+                }
+            }
+        }
+
+        assertEquals(profile.getCodecProfiles().length, count);
+        assertEquals(2, compiled.GetCodecProfiles(CodecType.Video).length);
+    }
+
+    @Test
+    public void testLaterChangesToTheSourceAreNotSeen() {
+        DeviceProfile profile = CreateProfile();
+        CompiledDeviceProfile compiled = new CompiledDeviceProfile(profile);
+        TranscodingProfile mp3 = compiled.GetAudioTranscodingProfile(".mp3", "MP3");
+
+        profile.getTranscodingProfiles()[0].setContainer("aac");
+
+        assertNotNull(mp3);
+        assertSame(mp3, compiled.GetAudioTranscodingProfile("mp3", "mp3"));
+        assertNull(profile.GetAudioTranscodingProfile("mp3", "mp3"));
+    }
+
+    private static boolean IsEmptyOrContains(ArrayList<String> values, String value) {
+        if (values.isEmpty()) {
+            return true;
+        }
+
+        for (String i : values) {
+            if (i.equalsIgnoreCase(value != null ? value : "")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String ContainsCodec(CodecProfile profile, String codec, String container) {
+        try {
+            return String.valueOf(profile.ContainsCodec(codec, container));
+        } catch (IllegalArgumentException ex) {
+            return "refused";
+        }
+    }
+
+    private static String ContainsCodec(CompiledCodecProfile profile, String codec, String container) {
+        try {
+            return String.valueOf(profile.ContainsCodec(codec, container));
+        } catch (IllegalArgumentException ex) {
+            return "refused";
+        }
+    }
+}
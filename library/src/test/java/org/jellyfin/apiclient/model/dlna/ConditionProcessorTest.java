@@ -0,0 +1,68 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ConditionProcessorTest {
+    private final ConditionProcessor processor = new ConditionProcessor();
+
+    private static ProfileCondition createCondition(ProfileConditionType type, ProfileConditionValue property, String value, boolean isRequired) {
+        ProfileCondition condition = new ProfileCondition();
+        condition.setCondition(type);
+        condition.setProperty(property);
+        condition.setValue(value);
+        condition.setIsRequired(isRequired);
+        return condition;
+    }
+
+    @Test
+    public void testCompiledConditionsMatchRawConditions() {
+        ProfileCondition[] conditions = new ProfileCondition[] {
+                createCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "1920", true),
+                createCondition(ProfileConditionType.GreaterThanEqual, ProfileConditionValue.VideoBitDepth, "8", false),
+                createCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoLevel, "41", true),
+                createCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.VideoFramerate, "30", false),
+                createCondition(ProfileConditionType.NotEquals, ProfileConditionValue.IsAnamorphic, "true", false),
+                createCondition(ProfileConditionType.EqualsAny, ProfileConditionValue.VideoProfile, "high|main|baseline", true),
+        };
+        Integer[] widths = new Integer[] { null, 1280, 1920, 3840 };
+        Double[] levels = new Double[] { null, 40.0, 51.0 };
+        String[] profiles = new String[] { null, "High", "high 10" };
+
+        for (ProfileCondition condition : conditions) {
+            CompiledProfileCondition compiled = new CompiledProfileCondition(condition);
+            for (Integer width : widths) {
+                for (Double level : levels) {
+                    for (String profile : profiles) {
+                        boolean expected = processor.IsVideoConditionSatisfied(condition, width, width, width, null, profile, level, null, null, null, Boolean.TRUE, null, null, null, null, null);
+                        boolean boxed = processor.IsVideoConditionSatisfied(compiled, width, width, width, null, profile, level, null, null, null, Boolean.TRUE, null, null, null, null, null);
+                        boolean primitive = processor.IsVideoConditionSatisfied(compiled, ConditionProcessor.ToInt(width), ConditionProcessor.ToInt(width), ConditionProcessor.ToInt(width), ConditionProcessor.UnknownValue, profile, ConditionProcessor.ToDouble(level), Float.NaN, ConditionProcessor.UnknownValue, null, Boolean.TRUE, ConditionProcessor.UnknownValue, ConditionProcessor.UnknownValue, ConditionProcessor.UnknownValue, null, null);
+
+                        assertEquals(expected, boxed);
+                        assertEquals(expected, primitive);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEqualsAnyIgnoresCase() {
+        CompiledProfileCondition compiled = new CompiledProfileCondition(
+                createCondition(ProfileConditionType.EqualsAny, ProfileConditionValue.AudioProfile, "LC|HE-AAC", true));
+
+        assertTrue(processor.IsVideoAudioConditionSatisfied(compiled, 2, 128000, "lc", null));
+        assertTrue(processor.IsVideoAudioConditionSatisfied(compiled, 2, 128000, "he-aac", null));
+        assertFalse(processor.IsVideoAudioConditionSatisfied(compiled, 2, 128000, "main", null));
+        assertFalse(processor.IsVideoAudioConditionSatisfied(compiled, 2, 128000, null, null));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void testInvalidValueFailsOnEvaluation() {
+        CompiledProfileCondition compiled = new CompiledProfileCondition(
+                createCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.AudioChannels, "six", false));
+
+        processor.IsAudioConditionSatisfied(compiled, 6, 128000);
+    }
+}
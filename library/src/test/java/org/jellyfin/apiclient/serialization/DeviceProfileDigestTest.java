@@ -0,0 +1,106 @@
+package org.jellyfin.apiclient.serialization;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.jellyfin.apiclient.model.dlna.CodecProfile;
+import org.jellyfin.apiclient.model.dlna.CodecType;
+import org.jellyfin.apiclient.model.dlna.DeviceProfile;
+import org.jellyfin.apiclient.model.dlna.DirectPlayProfile;
+import org.jellyfin.apiclient.model.dlna.DlnaProfileType;
+import org.jellyfin.apiclient.model.dlna.ProfileCondition;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionType;
+import org.jellyfin.apiclient.model.dlna.ProfileConditionValue;
+import org.jellyfin.apiclient.model.mediainfo.PlaybackInfoRequest;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class DeviceProfileDigestTest {
+    // A small profile with nested arrays, built the same way for every test
+    private static DeviceProfile CreateProfile() {
+        DeviceProfile profile = new DeviceProfile();
+        profile.setName("Living room");
+
+        DirectPlayProfile mkv = new DirectPlayProfile();
+        mkv.setContainer("mkv");
+        mkv.setVideoCodec("h264");
+        mkv.setType(DlnaProfileType.Video);
+        profile.setDirectPlayProfiles(new DirectPlayProfile[] { mkv });
+
+        CodecProfile h264 = new CodecProfile();
+        h264.setType(CodecType.Video);
+        h264.setCodec("h264");
+        h264.setConditions(new ProfileCondition[] {
+                new ProfileCondition(ProfileConditionType.LessThanEqual, ProfileConditionValue.Width, "1920")
+        });
+        profile.setCodecProfiles(new CodecProfile[] { h264 });
+
+        return profile;
+    }
+
+    @Test
+    public void testEqualProfilesHaveEqualDigests() {
+        assertEquals(DeviceProfileDigest.Compute(CreateProfile()), DeviceProfileDigest.Compute(CreateProfile()));
+    }
+
+    @Test
+    public void testChangesInPlaceChangeTheDigest() {
+        DeviceProfile profile = CreateProfile();
+        long digest = DeviceProfileDigest.Compute(profile);
+
+        profile.getCodecProfiles()[0].getConditions()[0].setValue("3840");
+        long afterCondition = DeviceProfileDigest.Compute(profile);
+        assertNotEquals(digest, afterCondition);
+
+        profile.setMaxStreamingBitrate(profile.getMaxStreamingBitrate() + 1);
+        assertNotEquals(afterCondition, DeviceProfileDigest.Compute(profile));
+    }
+
+    @Test
+    public void testValuesDoNotBleedIntoTheirNeighbours() {
+        DeviceProfile audioOnly = CreateProfile();
+        audioOnly.getDirectPlayProfiles()[0].setAudioCodec("aac");
+        audioOnly.getDirectPlayProfiles()[0].setVideoCodec(null);
+
+        DeviceProfile videoOnly = CreateProfile();
+        videoOnly.getDirectPlayProfiles()[0].setAudioCodec(null);
+        videoOnly.getDirectPlayProfiles()[0].setVideoCodec("aac");
+        assertNotEquals(DeviceProfileDigest.Compute(audioOnly), DeviceProfileDigest.Compute(videoOnly));
+
+        DeviceProfile empty = CreateProfile();
+        empty.setName("");
+        DeviceProfile unnamed = CreateProfile();
+        unnamed.setName(null);
+        assertNotEquals(DeviceProfileDigest.Compute(empty), DeviceProfileDigest.Compute(unnamed));
+
+        DeviceProfile noCodecs = CreateProfile();
+        noCodecs.setCodecProfiles(null);
+        DeviceProfile emptyCodecs = CreateProfile();
+        emptyCodecs.setCodecProfiles(new CodecProfile[0]);
+        assertNotEquals(DeviceProfileDigest.Compute(noCodecs), DeviceProfileDigest.Compute(emptyCodecs));
+    }
+
+    @Test
+    public void testSerializerPicksUpChangesMadeInPlace() {
+        GsonJsonSerializer jsonSerializer = new GsonJsonSerializer();
+        PlaybackInfoRequestSerializer serializer = new PlaybackInfoRequestSerializer(jsonSerializer);
+
+        PlaybackInfoRequest request = new PlaybackInfoRequest();
+        request.setId("item");
+        request.setDeviceProfile(CreateProfile());
+
+        assertEquals(Parse(jsonSerializer.gson.toJson(request)), Parse(serializer.Serialize(request)));
+
+        request.getDeviceProfile().getCodecProfiles()[0].getConditions()[0].setValue("720");
+        JsonObject json = Parse(serializer.Serialize(request));
+
+        assertEquals(Parse(jsonSerializer.gson.toJson(request)), json);
+        assertEquals("720", json.getAsJsonObject("DeviceProfile").getAsJsonArray("CodecProfiles").get(0).getAsJsonObject()
+                .getAsJsonArray("Conditions").get(0).getAsJsonObject().get("Value").getAsString());
+    }
+
+    private static JsonObject Parse(String json) {
+        return JsonParser.parseString(json).getAsJsonObject();
+    }
+}
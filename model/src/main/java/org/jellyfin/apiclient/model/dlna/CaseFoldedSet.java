@@ -0,0 +1,84 @@
+package org.jellyfin.apiclient.model.dlna;
+
+/**
+ An immutable set of comma separated profile values (containers, codecs, ...) folded to lower case once,
+ so lookups are hash based and do not allocate for values that are already lower case.
+*/
+final class CaseFoldedSet
+{
+	private final java.util.HashSet<String> values;
+
+	private CaseFoldedSet(java.util.HashSet<String> values)
+	{
+		this.values = values;
+	}
+
+	public static CaseFoldedSet Parse(String value, String delimiter)
+	{
+		java.util.HashSet<String> set = new java.util.HashSet<String>();
+		if (value != null)
+		{
+			for (String i : value.split(java.util.regex.Pattern.quote(delimiter), -1))
+			{
+				if (i != null && !i.isEmpty())
+				{
+					set.add(Fold(i));
+				}
+			}
+		}
+		return new CaseFoldedSet(set);
+	}
+
+	public static CaseFoldedSet Parse(String value)
+	{
+		return Parse(value, ",");
+	}
+
+	public static String Fold(String value)
+	{
+		// toLowerCase returns the same instance when nothing changes
+		return (value != null) ? value.toLowerCase(java.util.Locale.ROOT) : "";
+	}
+
+	/**
+	 Strips the dots from a container name (".mkv" -> "mkv") without going through a regex.
+	*/
+	public static String NormalizeContainer(String container)
+	{
+		if (container == null)
+		{
+			return "";
+		}
+		if (container.indexOf('.') == -1)
+		{
+			return container;
+		}
+		return container.replace(".", "");
+	}
+
+	public boolean isEmpty()
+	{
+		return values.isEmpty();
+	}
+
+	public int size()
+	{
+		return values.size();
+	}
+
+	/**
+	 Determines whether the set contains the value, ignoring case. A null value is treated as an empty string.
+	*/
+	public boolean Contains(String value)
+	{
+		return values.contains(Fold(value));
+	}
+
+	/**
+	 Determines whether the set is empty (meaning "any") or contains the value.
+	*/
+	public boolean IsEmptyOrContains(String value)
+	{
+		return values.isEmpty() || values.contains(Fold(value));
+	}
+}
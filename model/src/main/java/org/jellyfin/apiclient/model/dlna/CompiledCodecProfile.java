@@ -0,0 +1,70 @@
+package org.jellyfin.apiclient.model.dlna;
+
+/**
+ An immutable {@link CodecProfile} with its codec and container lists folded into hash sets and its conditions pre-parsed.
+*/
+public final class CompiledCodecProfile
+{
+	private final CodecProfile profile;
+	private final CaseFoldedSet codecs;
+	private final CaseFoldedSet containers;
+	private final CompiledProfileCondition[] conditions;
+	private final CompiledProfileCondition[] applyConditions;
+
+	public CompiledCodecProfile(CodecProfile profile)
+	{
+		if (profile == null)
+		{
+			throw new IllegalArgumentException("profile");
+		}
+
+		this.profile = profile;
+		codecs = CaseFoldedSet.Parse(profile.getCodec());
+		containers = CaseFoldedSet.Parse(profile.getContainer());
+		conditions = CompiledProfileCondition.Compile(profile.getConditions());
+		applyConditions = CompiledProfileCondition.Compile(profile.getApplyConditions());
+	}
+
+	public CodecProfile getProfile()
+	{
+		return profile;
+	}
+
+	public CodecType getType()
+	{
+		return profile.getType();
+	}
+
+	public CompiledProfileCondition[] getConditions()
+	{
+		return conditions;
+	}
+
+	public CompiledProfileCondition[] getApplyConditions()
+	{
+		return applyConditions;
+	}
+
+	/**
+	 Same as {@link CodecProfile#ContainsCodec(String, String)}, without splitting the lists again.
+	*/
+	public boolean ContainsCodec(String codec, String container)
+	{
+		if (!containers.IsEmptyOrContains(container))
+		{
+			return false;
+		}
+
+		if (codecs.isEmpty())
+		{
+			return true;
+		}
+
+		if (codec == null)
+		{
+			throw new IllegalArgumentException("value");
+		}
+
+		return codecs.Contains(codec);
+	}
+}
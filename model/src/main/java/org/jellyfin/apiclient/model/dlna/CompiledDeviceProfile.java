@@ -0,0 +1,320 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.jellyfin.apiclient.model.mediainfo.*;
+
+/**
+ An immutable, pre-indexed form of a {@link DeviceProfile}.
+
+ Container and codec lists are folded into hash sets, profiles are grouped by type and condition values are parsed once,
+ so the lookups below give the same answers as the ones on {@link DeviceProfile} without splitting strings or parsing
+ numbers for every item. The compiled form is a snapshot: changes made to the source profile afterwards are not seen.
+*/
+public final class CompiledDeviceProfile
+{
+	private static final CompiledCodecProfile[] EmptyCodecProfiles = new CompiledCodecProfile[] { };
+	private static final CompiledDirectPlayProfile[] EmptyDirectPlayProfiles = new CompiledDirectPlayProfile[] { };
+
+	private final DeviceProfile profile;
+	private final CompiledTranscodingProfile[] audioTranscodingProfiles;
+	private final CompiledTranscodingProfile[] videoTranscodingProfiles;
+	private final CompiledResponseProfile[] audioResponseProfiles;
+	private final CompiledResponseProfile[] videoResponseProfiles;
+	private final CompiledResponseProfile[] photoResponseProfiles;
+	private final java.util.EnumMap<CodecType, CompiledCodecProfile[]> codecProfiles = new java.util.EnumMap<CodecType, CompiledCodecProfile[]>(CodecType.class);
+	private final java.util.EnumMap<DlnaProfileType, CompiledDirectPlayProfile[]> directPlayProfiles = new java.util.EnumMap<DlnaProfileType, CompiledDirectPlayProfile[]>(DlnaProfileType.class);
+	private final ConditionProcessor conditionProcessor = new ConditionProcessor();
+
+	public CompiledDeviceProfile(DeviceProfile profile)
+	{
+		if (profile == null)
+		{
+			throw new IllegalArgumentException("profile");
+		}
+
+		this.profile = profile;
+
+		java.util.ArrayList<CompiledTranscodingProfile> audioTranscoding = new java.util.ArrayList<CompiledTranscodingProfile>();
+		java.util.ArrayList<CompiledTranscodingProfile> videoTranscoding = new java.util.ArrayList<CompiledTranscodingProfile>();
+		if (profile.getTranscodingProfiles() != null)
+		{
+			for (TranscodingProfile i : profile.getTranscodingProfiles())
+			{
+				if (i.getType() == DlnaProfileType.Audio)
+				{
+					audioTranscoding.add(new CompiledTranscodingProfile(i));
+				}
+				else if (i.getType() == DlnaProfileType.Video)
+				{
+					videoTranscoding.add(new CompiledTranscodingProfile(i));
+				}
+			}
+		}
+		audioTranscodingProfiles = audioTranscoding.toArray(new CompiledTranscodingProfile[audioTranscoding.size()]);
+		videoTranscodingProfiles = videoTranscoding.toArray(new CompiledTranscodingProfile[videoTranscoding.size()]);
+
+		java.util.ArrayList<CompiledResponseProfile> audioResponse = new java.util.ArrayList<CompiledResponseProfile>();
+		java.util.ArrayList<CompiledResponseProfile> videoResponse = new java.util.ArrayList<CompiledResponseProfile>();
+		java.util.ArrayList<CompiledResponseProfile> photoResponse = new java.util.ArrayList<CompiledResponseProfile>();
+		if (profile.getResponseProfiles() != null)
+		{
+			for (ResponseProfile i : profile.getResponseProfiles())
+			{
+				if (i.getType() == DlnaProfileType.Audio)
+				{
+					audioResponse.add(new CompiledResponseProfile(i));
+				}
+				else if (i.getType() == DlnaProfileType.Video)
+				{
+					videoResponse.add(new CompiledResponseProfile(i));
+				}
+				else if (i.getType() == DlnaProfileType.Photo)
+				{
+					photoResponse.add(new CompiledResponseProfile(i));
+				}
+			}
+		}
+		audioResponseProfiles = audioResponse.toArray(new CompiledResponseProfile[audioResponse.size()]);
+		videoResponseProfiles = videoResponse.toArray(new CompiledResponseProfile[videoResponse.size()]);
+		photoResponseProfiles = photoResponse.toArray(new CompiledResponseProfile[photoResponse.size()]);
+
+		java.util.EnumMap<CodecType, java.util.ArrayList<CompiledCodecProfile>> codecs = new java.util.EnumMap<CodecType, java.util.ArrayList<CompiledCodecProfile>>(CodecType.class);
+		if (profile.getCodecProfiles() != null)
+		{
+			for (CodecProfile i : profile.getCodecProfiles())
+			{
+				java.util.ArrayList<CompiledCodecProfile> list = codecs.get(i.getType());
+				if (list == null)
+				{
+					list = new java.util.ArrayList<CompiledCodecProfile>();
+					codecs.put(i.getType(), list);
+				}
+				list.add(new CompiledCodecProfile(i));
+			}
+		}
+		for (java.util.Map.Entry<CodecType, java.util.ArrayList<CompiledCodecProfile>> entry : codecs.entrySet())
+		{
+			codecProfiles.put(entry.getKey(), entry.getValue().toArray(new CompiledCodecProfile[entry.getValue().size()]));
+		}
+
+		java.util.EnumMap<DlnaProfileType, java.util.ArrayList<CompiledDirectPlayProfile>> directPlay = new java.util.EnumMap<DlnaProfileType, java.util.ArrayList<CompiledDirectPlayProfile>>(DlnaProfileType.class);
+		if (profile.getDirectPlayProfiles() != null)
+		{
+			for (DirectPlayProfile i : profile.getDirectPlayProfiles())
+			{
+				java.util.ArrayList<CompiledDirectPlayProfile> list = directPlay.get(i.getType());
+				if (list == null)
+				{
+					list = new java.util.ArrayList<CompiledDirectPlayProfile>();
+					directPlay.put(i.getType(), list);
+				}
+				list.add(new CompiledDirectPlayProfile(i));
+			}
+		}
+		for (java.util.Map.Entry<DlnaProfileType, java.util.ArrayList<CompiledDirectPlayProfile>> entry : directPlay.entrySet())
+		{
+			directPlayProfiles.put(entry.getKey(), entry.getValue().toArray(new CompiledDirectPlayProfile[entry.getValue().size()]));
+		}
+	}
+
+	public DeviceProfile getProfile()
+	{
+		return profile;
+	}
+
+	/**
+	 Gets the codec profiles of the given type, in profile order. The returned array must not be modified.
+	*/
+	public CompiledCodecProfile[] GetCodecProfiles(CodecType type)
+	{
+		CompiledCodecProfile[] profiles = codecProfiles.get(type);
+		return (profiles != null) ? profiles : EmptyCodecProfiles;
+	}
+
+	/**
+	 Gets the direct play profiles of the given type, in profile order. The returned array must not be modified.
+	*/
+	public CompiledDirectPlayProfile[] GetDirectPlayProfiles(DlnaProfileType type)
+	{
+		CompiledDirectPlayProfile[] profiles = directPlayProfiles.get(type);
+		return (profiles != null) ? profiles : EmptyDirectPlayProfiles;
+	}
+
+	public TranscodingProfile GetAudioTranscodingProfile(String container, String audioCodec)
+	{
+		String foldedContainer = CaseFoldedSet.Fold(CaseFoldedSet.NormalizeContainer(container));
+		for (CompiledTranscodingProfile i : audioTranscodingProfiles)
+		{
+			if (i.MatchesContainer(foldedContainer) && i.audioCodecs.Contains(audioCodec))
+			{
+				return i.profile;
+			}
+		}
+		return null;
+	}
+
+	public TranscodingProfile GetVideoTranscodingProfile(String container, String audioCodec, String videoCodec)
+	{
+		String foldedContainer = CaseFoldedSet.Fold(CaseFoldedSet.NormalizeContainer(container));
+		for (CompiledTranscodingProfile i : videoTranscodingProfiles)
+		{
+			if (i.MatchesContainer(foldedContainer) && i.audioCodecs.Contains(audioCodec) && i.MatchesVideoCodec(videoCodec))
+			{
+				return i.profile;
+			}
+		}
+		return null;
+	}
+
+	public ResponseProfile GetAudioMediaProfile(String container, String audioCodec, Integer audioChannels, Integer audioBitrate)
+	{
+		return GetAudioMediaProfile(container, audioCodec, ConditionProcessor.ToInt(audioChannels), ConditionProcessor.ToInt(audioBitrate));
+	}
+
+	/**
+	 Same as the boxed overload, unknown values are passed as {@link ConditionProcessor#UnknownValue}.
+	*/
+	public ResponseProfile GetAudioMediaProfile(String container, String audioCodec, int audioChannels, int audioBitrate)
+	{
+		container = CaseFoldedSet.NormalizeContainer(container);
+		for (CompiledResponseProfile i : audioResponseProfiles)
+		{
+			if (!i.containers.IsEmptyOrContains(container) || !i.audioCodecs.IsEmptyOrContains(audioCodec))
+			{
+				continue;
+			}
+
+			boolean anyOff = false;
+			for (CompiledProfileCondition c : i.conditions)
+			{
+				if (!conditionProcessor.IsAudioConditionSatisfied(c, audioChannels, audioBitrate))
+				{
+					anyOff = true;
+					break;
+				}
+			}
+
+			if (!anyOff)
+			{
+				return i.profile;
+			}
+		}
+		return null;
+	}
+
+	public ResponseProfile GetImageMediaProfile(String container, Integer width, Integer height)
+	{
+		return GetImageMediaProfile(container, ConditionProcessor.ToInt(width), ConditionProcessor.ToInt(height));
+	}
+
+	/**
+	 Same as the boxed overload, unknown values are passed as {@link ConditionProcessor#UnknownValue}.
+	*/
+	public ResponseProfile GetImageMediaProfile(String container, int width, int height)
+	{
+		container = CaseFoldedSet.NormalizeContainer(container);
+		for (CompiledResponseProfile i : photoResponseProfiles)
+		{
+			if (!i.containers.IsEmptyOrContains(container))
+			{
+				continue;
+			}
+
+			boolean anyOff = false;
+			for (CompiledProfileCondition c : i.conditions)
+			{
+				if (!conditionProcessor.IsImageConditionSatisfied(c, width, height))
+				{
+					anyOff = true;
+					break;
+				}
+			}
+
+			if (!anyOff)
+			{
+				return i.profile;
+			}
+		}
+		return null;
+	}
+
+	public ResponseProfile GetVideoMediaProfile(String container, String audioCodec, String videoCodec, Integer width, Integer height, Integer bitDepth, Integer videoBitrate, String videoProfile, Double videoLevel, Float videoFramerate, Integer packetLength, TransportStreamTimestamp timestamp, Boolean isAnamorphic, Integer refFrames, Integer numVideoStreams, Integer numAudioStreams, String videoCodecTag, Boolean isAvc)
+	{
+		return GetVideoMediaProfile(container, audioCodec, videoCodec, ConditionProcessor.ToInt(width), ConditionProcessor.ToInt(height), ConditionProcessor.ToInt(bitDepth), ConditionProcessor.ToInt(videoBitrate), videoProfile, ConditionProcessor.ToDouble(videoLevel), ConditionProcessor.ToFloat(videoFramerate), ConditionProcessor.ToInt(packetLength), timestamp, isAnamorphic, ConditionProcessor.ToInt(refFrames), ConditionProcessor.ToInt(numVideoStreams), ConditionProcessor.ToInt(numAudioStreams), videoCodecTag, isAvc);
+	}
+
+	/**
+	 Same as the boxed overload, unknown values are passed as {@link ConditionProcessor#UnknownValue} or NaN.
+	*/
+	public ResponseProfile GetVideoMediaProfile(String container, String audioCodec, String videoCodec, int width, int height, int bitDepth, int videoBitrate, String videoProfile, double videoLevel, float videoFramerate, int packetLength, TransportStreamTimestamp timestamp, Boolean isAnamorphic, int refFrames, int numVideoStreams, int numAudioStreams, String videoCodecTag, Boolean isAvc)
+	{
+		container = CaseFoldedSet.NormalizeContainer(container);
+		for (CompiledResponseProfile i : videoResponseProfiles)
+		{
+			if (!i.containers.IsEmptyOrContains(container) || !i.audioCodecs.IsEmptyOrContains(audioCodec) || !i.videoCodecs.IsEmptyOrContains(videoCodec))
+			{
+				continue;
+			}
+
+			boolean anyOff = false;
+			for (CompiledProfileCondition c : i.conditions)
+			{
+				if (!conditionProcessor.IsVideoConditionSatisfied(c, width, height, bitDepth, videoBitrate, videoProfile, videoLevel, videoFramerate, packetLength, timestamp, isAnamorphic, refFrames, numVideoStreams, numAudioStreams, videoCodecTag, isAvc))
+				{
+					anyOff = true;
+					break;
+				}
+			}
+
+			if (!anyOff)
+			{
+				return i.profile;
+			}
+		}
+		return null;
+	}
+
+	private static final class CompiledTranscodingProfile
+	{
+		final TranscodingProfile profile;
+		final String container;
+		final String videoCodec;
+		final CaseFoldedSet audioCodecs;
+
+		CompiledTranscodingProfile(TranscodingProfile profile)
+		{
+			this.profile = profile;
+			container = (profile.getContainer() != null) ? CaseFoldedSet.Fold(profile.getContainer()) : null;
+			videoCodec = CaseFoldedSet.Fold(profile.getVideoCodec());
+			audioCodecs = CaseFoldedSet.Parse(profile.getAudioCodec());
+		}
+
+		boolean MatchesContainer(String foldedContainer)
+		{
+			// The whole container attribute is compared, transcoding profiles target a single container
+			return foldedContainer.equals(container);
+		}
+
+		boolean MatchesVideoCodec(String codec)
+		{
+			return codec != null && videoCodec.equals(CaseFoldedSet.Fold(codec));
+		}
+	}
+
+	private static final class CompiledResponseProfile
+	{
+		final ResponseProfile profile;
+		final CaseFoldedSet containers;
+		final CaseFoldedSet audioCodecs;
+		final CaseFoldedSet videoCodecs;
+		final CompiledProfileCondition[] conditions;
+
+		CompiledResponseProfile(ResponseProfile profile)
+		{
+			this.profile = profile;
+			containers = CaseFoldedSet.Parse(profile.getContainer());
+			audioCodecs = CaseFoldedSet.Parse(profile.getAudioCodec());
+			videoCodecs = CaseFoldedSet.Parse(profile.getVideoCodec());
+			conditions = CompiledProfileCondition.Compile(profile.getConditions());
+		}
+	}
+}
@@ -0,0 +1,51 @@
+package org.jellyfin.apiclient.model.dlna;
+
+/**
+ An immutable {@link DirectPlayProfile} with its container and codec lists folded into hash sets.
+ An empty list matches anything.
+*/
+public final class CompiledDirectPlayProfile
+{
+	private final DirectPlayProfile profile;
+	private final CaseFoldedSet containers;
+	private final CaseFoldedSet audioCodecs;
+	private final CaseFoldedSet videoCodecs;
+
+	public CompiledDirectPlayProfile(DirectPlayProfile profile)
+	{
+		if (profile == null)
+		{
+			throw new IllegalArgumentException("profile");
+		}
+
+		this.profile = profile;
+		containers = CaseFoldedSet.Parse(profile.getContainer());
+		audioCodecs = CaseFoldedSet.Parse(profile.getAudioCodec());
+		videoCodecs = CaseFoldedSet.Parse(profile.getVideoCodec());
+	}
+
+	public DirectPlayProfile getProfile()
+	{
+		return profile;
+	}
+
+	public DlnaProfileType getType()
+	{
+		return profile.getType();
+	}
+
+	public boolean SupportsContainer(String container)
+	{
+		return containers.IsEmptyOrContains(container);
+	}
+
+	public boolean SupportsAudioCodec(String codec)
+	{
+		return audioCodecs.IsEmptyOrContains(codec);
+	}
+
+	public boolean SupportsVideoCodec(String codec)
+	{
+		return videoCodecs.IsEmptyOrContains(codec);
+	}
+}
@@ -0,0 +1,205 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.jellyfin.apiclient.model.mediainfo.*;
+
+/**
+ An immutable {@link ProfileCondition} whose value has been parsed once, according to the type of its property.
+ Values that cannot be parsed are reported when the condition is evaluated, like {@link ConditionProcessor} does.
+*/
+public final class CompiledProfileCondition
+{
+	private final ProfileConditionType condition;
+	private final ProfileConditionValue property;
+	private final boolean isRequired;
+	private final String value;
+
+	private final int intValue;
+	private final float floatValue;
+	private final double doubleValue;
+	private final boolean booleanValue;
+	private final TransportStreamTimestamp timestampValue;
+	private final CaseFoldedSet anyValues;
+	private final RuntimeException parseError;
+
+	public CompiledProfileCondition(ProfileCondition source)
+	{
+		if (source == null)
+		{
+			throw new IllegalArgumentException("source");
+		}
+
+		condition = source.getCondition();
+		property = source.getProperty();
+		isRequired = source.getIsRequired();
+		value = source.getValue();
+
+		int parsedInt = 0;
+		float parsedFloat = 0;
+		double parsedDouble = 0;
+		boolean parsedBoolean = false;
+		TransportStreamTimestamp parsedTimestamp = null;
+		CaseFoldedSet parsedAny = null;
+		RuntimeException error = null;
+
+		try
+		{
+			switch (GetValueType(property))
+			{
+				case Integer:
+					parsedInt = Integer.parseInt(value);
+					break;
+				case Float:
+					parsedFloat = Float.parseFloat(value);
+					break;
+				case Double:
+					parsedDouble = Double.parseDouble(value);
+					break;
+				case Boolean:
+					parsedBoolean = Boolean.parseBoolean(value);
+					break;
+				case Timestamp:
+					parsedTimestamp = TransportStreamTimestamp.valueOf(value);
+					break;
+				default:
+					if (condition == ProfileConditionType.EqualsAny)
+					{
+						parsedAny = CaseFoldedSet.Parse(value, "|");
+					}
+					break;
+			}
+		}
+		catch (RuntimeException ex)
+		{
+			// NumberFormatException, IllegalArgumentException or NullPointerException, same as evaluating the raw condition
+			error = ex;
+		}
+
+		intValue = parsedInt;
+		floatValue = parsedFloat;
+		doubleValue = parsedDouble;
+		booleanValue = parsedBoolean;
+		timestampValue = parsedTimestamp;
+		anyValues = parsedAny;
+		parseError = error;
+	}
+
+	public static CompiledProfileCondition[] Compile(ProfileCondition[] conditions)
+	{
+		if (conditions == null)
+		{
+			return new CompiledProfileCondition[] { };
+		}
+
+		CompiledProfileCondition[] compiled = new CompiledProfileCondition[conditions.length];
+		for (int i = 0; i < conditions.length; i++)
+		{
+			compiled[i] = new CompiledProfileCondition(conditions[i]);
+		}
+		return compiled;
+	}
+
+	public ProfileConditionType getCondition()
+	{
+		return condition;
+	}
+
+	public ProfileConditionValue getProperty()
+	{
+		return property;
+	}
+
+	public boolean getIsRequired()
+	{
+		return isRequired;
+	}
+
+	public String getValue()
+	{
+		return value;
+	}
+
+	int getIntValue()
+	{
+		ThrowIfInvalid();
+		return intValue;
+	}
+
+	float getFloatValue()
+	{
+		ThrowIfInvalid();
+		return floatValue;
+	}
+
+	double getDoubleValue()
+	{
+		ThrowIfInvalid();
+		return doubleValue;
+	}
+
+	boolean getBooleanValue()
+	{
+		ThrowIfInvalid();
+		return booleanValue;
+	}
+
+	TransportStreamTimestamp getTimestampValue()
+	{
+		ThrowIfInvalid();
+		return timestampValue;
+	}
+
+	CaseFoldedSet getAnyValues()
+	{
+		return anyValues;
+	}
+
+	private void ThrowIfInvalid()
+	{
+		if (parseError != null)
+		{
+			throw parseError;
+		}
+	}
+
+	enum ValueType
+	{
+		Integer,
+		Float,
+		Double,
+		Boolean,
+		Timestamp,
+		String
+	}
+
+	static ValueType GetValueType(ProfileConditionValue property)
+	{
+		switch (property)
+		{
+			case AudioChannels:
+			case AudioBitrate:
+			case Width:
+			case Height:
+			case PacketLength:
+			case VideoBitDepth:
+			case VideoBitrate:
+			case RefFrames:
+			case NumAudioStreams:
+			case NumVideoStreams:
+				return ValueType.Integer;
+			case VideoFramerate:
+				return ValueType.Float;
+			case VideoLevel:
+				return ValueType.Double;
+			case IsAnamorphic:
+			case IsAvc:
+			case IsSecondaryAudio:
+			case IsInterlaced:
+			case Has64BitOffsets:
+				return ValueType.Boolean;
+			case VideoTimestamp:
+				return ValueType.Timestamp;
+			default:
+				return ValueType.String;
+		}
+	}
+}
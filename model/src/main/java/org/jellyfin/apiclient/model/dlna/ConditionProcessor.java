@@ -220,4 +220,261 @@ public class ConditionProcessor
 				throw new IllegalStateException("Unexpected ProfileConditionType");
 		}
 	}
+
+	/**
+	 Passed to the primitive overloads below when an integer attribute of the stream is unknown.
+	 Unknown float and double attributes are passed as NaN.
+	*/
+	public static final int UnknownValue = Integer.MIN_VALUE;
+
+	public final boolean IsVideoConditionSatisfied(CompiledProfileCondition condition, Integer width, Integer height, Integer bitDepth, Integer videoBitrate, String videoProfile, Double videoLevel, Float videoFramerate, Integer packetLength, TransportStreamTimestamp timestamp, Boolean isAnamorphic, Integer refFrames, Integer numVideoStreams, Integer numAudioStreams, String videoCodecTag, Boolean isAvc)
+	{
+		return IsVideoConditionSatisfied(condition, ToInt(width), ToInt(height), ToInt(bitDepth), ToInt(videoBitrate), videoProfile, ToDouble(videoLevel), ToFloat(videoFramerate), ToInt(packetLength), timestamp, isAnamorphic, ToInt(refFrames), ToInt(numVideoStreams), ToInt(numAudioStreams), videoCodecTag, isAvc);
+	}
+
+	public final boolean IsVideoConditionSatisfied(CompiledProfileCondition condition, int width, int height, int bitDepth, int videoBitrate, String videoProfile, double videoLevel, float videoFramerate, int packetLength, TransportStreamTimestamp timestamp, Boolean isAnamorphic, int refFrames, int numVideoStreams, int numAudioStreams, String videoCodecTag, Boolean isAvc)
+	{
+		switch (condition.getProperty())
+		{
+			case IsAnamorphic:
+				return IsConditionSatisfied(condition, isAnamorphic);
+			case IsAvc:
+				return IsConditionSatisfied(condition, isAvc);
+			case VideoFramerate:
+				return IsConditionSatisfied(condition, videoFramerate);
+			case VideoLevel:
+				return IsConditionSatisfied(condition, videoLevel);
+			case VideoProfile:
+				return IsConditionSatisfied(condition, videoProfile);
+			case VideoCodecTag:
+				return IsConditionSatisfied(condition, videoCodecTag);
+			case PacketLength:
+				return IsConditionSatisfied(condition, packetLength);
+			case VideoBitDepth:
+				return IsConditionSatisfied(condition, bitDepth);
+			case VideoBitrate:
+				return IsConditionSatisfied(condition, videoBitrate);
+			case Height:
+				return IsConditionSatisfied(condition, height);
+			case Width:
+				return IsConditionSatisfied(condition, width);
+			case RefFrames:
+				return IsConditionSatisfied(condition, refFrames);
+			case NumAudioStreams:
+				return IsConditionSatisfied(condition, numAudioStreams);
+			case NumVideoStreams:
+				return IsConditionSatisfied(condition, numVideoStreams);
+			case VideoTimestamp:
+				return IsConditionSatisfied(condition, timestamp);
+			default:
+				return true;
+		}
+	}
+
+	public final boolean IsImageConditionSatisfied(CompiledProfileCondition condition, Integer width, Integer height)
+	{
+		return IsImageConditionSatisfied(condition, ToInt(width), ToInt(height));
+	}
+
+	public final boolean IsImageConditionSatisfied(CompiledProfileCondition condition, int width, int height)
+	{
+		switch (condition.getProperty())
+		{
+			case Height:
+				return IsConditionSatisfied(condition, height);
+			case Width:
+				return IsConditionSatisfied(condition, width);
+			default:
+				throw new IllegalArgumentException("Unexpected condition on image file: " + condition.getProperty());
+		}
+	}
+
+	public final boolean IsAudioConditionSatisfied(CompiledProfileCondition condition, Integer audioChannels, Integer audioBitrate)
+	{
+		return IsAudioConditionSatisfied(condition, ToInt(audioChannels), ToInt(audioBitrate));
+	}
+
+	public final boolean IsAudioConditionSatisfied(CompiledProfileCondition condition, int audioChannels, int audioBitrate)
+	{
+		switch (condition.getProperty())
+		{
+			case AudioBitrate:
+				return IsConditionSatisfied(condition, audioBitrate);
+			case AudioChannels:
+				return IsConditionSatisfied(condition, audioChannels);
+			default:
+				throw new IllegalArgumentException("Unexpected condition on audio file: " + condition.getProperty());
+		}
+	}
+
+	public final boolean IsVideoAudioConditionSatisfied(CompiledProfileCondition condition, Integer audioChannels, Integer audioBitrate, String audioProfile, Boolean isSecondaryTrack)
+	{
+		return IsVideoAudioConditionSatisfied(condition, ToInt(audioChannels), ToInt(audioBitrate), audioProfile, isSecondaryTrack);
+	}
+
+	public final boolean IsVideoAudioConditionSatisfied(CompiledProfileCondition condition, int audioChannels, int audioBitrate, String audioProfile, Boolean isSecondaryTrack)
+	{
+		switch (condition.getProperty())
+		{
+			case AudioProfile:
+				return IsConditionSatisfied(condition, audioProfile);
+			case AudioBitrate:
+				return IsConditionSatisfied(condition, audioBitrate);
+			case AudioChannels:
+				return IsConditionSatisfied(condition, audioChannels);
+			case IsSecondaryAudio:
+				return IsConditionSatisfied(condition, isSecondaryTrack);
+			default:
+				throw new IllegalArgumentException("Unexpected condition on audio file: " + condition.getProperty());
+		}
+	}
+
+	public static int ToInt(Integer value)
+	{
+		return (value != null) ? value : UnknownValue;
+	}
+
+	public static float ToFloat(Float value)
+	{
+		return (value != null) ? value : Float.NaN;
+	}
+
+	public static double ToDouble(Double value)
+	{
+		return (value != null) ? value : Double.NaN;
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, int currentValue)
+	{
+		if (currentValue == UnknownValue)
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		int expected = condition.getIntValue();
+		switch (condition.getCondition())
+		{
+			case Equals:
+				return currentValue == expected;
+			case GreaterThanEqual:
+				return currentValue >= expected;
+			case LessThanEqual:
+				return currentValue <= expected;
+			case NotEquals:
+				return currentValue != expected;
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, String currentValue)
+	{
+		if (currentValue == null || currentValue.isEmpty())
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		String expected = condition.getValue();
+		switch (condition.getCondition())
+		{
+			case EqualsAny:
+				return condition.getAnyValues().Contains(currentValue);
+			case Equals:
+				return StringHelper.equalsIgnoreCase(currentValue, expected);
+			case NotEquals:
+				return !StringHelper.equalsIgnoreCase(currentValue, expected);
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, Boolean currentValue)
+	{
+		if (currentValue == null)
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		boolean expected = condition.getBooleanValue();
+		switch (condition.getCondition())
+		{
+			case Equals:
+				return currentValue == expected;
+			case NotEquals:
+				return currentValue != expected;
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, float currentValue)
+	{
+		if (Float.isNaN(currentValue))
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		float expected = condition.getFloatValue();
+		switch (condition.getCondition())
+		{
+			case Equals:
+				return Float.compare(currentValue, expected) == 0;
+			case GreaterThanEqual:
+				return currentValue >= expected;
+			case LessThanEqual:
+				return currentValue <= expected;
+			case NotEquals:
+				return Float.compare(currentValue, expected) != 0;
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, double currentValue)
+	{
+		if (Double.isNaN(currentValue))
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		double expected = condition.getDoubleValue();
+		switch (condition.getCondition())
+		{
+			case Equals:
+				return Double.compare(currentValue, expected) == 0;
+			case GreaterThanEqual:
+				return currentValue >= expected;
+			case LessThanEqual:
+				return currentValue <= expected;
+			case NotEquals:
+				return Double.compare(currentValue, expected) != 0;
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
+
+	private boolean IsConditionSatisfied(CompiledProfileCondition condition, TransportStreamTimestamp timestamp)
+	{
+		if (timestamp == null)
+		{
+			// If the value is unknown, it satisfies if not marked as required
+			return !condition.getIsRequired();
+		}
+
+		TransportStreamTimestamp expected = condition.getTimestampValue();
+		switch (condition.getCondition())
+		{
+			case Equals:
+				return timestamp == expected;
+			case NotEquals:
+				return timestamp != expected;
+			default:
+				throw new IllegalStateException("Unexpected ProfileConditionType");
+		}
+	}
 }
@@ -0,0 +1,66 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.jellyfin.apiclient.model.dto.*;
+import org.jellyfin.apiclient.model.session.*;
+
+/**
+ The outcome of deciding locally how a media source can be played.
+ A {@link PlayMethod#Transcode} decision means the server has to be asked for a stream.
+*/
+public class StreamDecision
+{
+	private MediaSourceInfo MediaSource;
+	public final MediaSourceInfo getMediaSource()
+	{
+		return MediaSource;
+	}
+	public final void setMediaSource(MediaSourceInfo value)
+	{
+		MediaSource = value;
+	}
+
+	private PlayMethod PlayMethod = org.jellyfin.apiclient.model.session.PlayMethod.values()[0];
+	public final PlayMethod getPlayMethod()
+	{
+		return PlayMethod;
+	}
+	public final void setPlayMethod(PlayMethod value)
+	{
+		PlayMethod = value;
+	}
+
+	private Integer AudioStreamIndex = null;
+	public final Integer getAudioStreamIndex()
+	{
+		return AudioStreamIndex;
+	}
+	public final void setAudioStreamIndex(Integer value)
+	{
+		AudioStreamIndex = value;
+	}
+
+	private Integer SubtitleStreamIndex = null;
+	public final Integer getSubtitleStreamIndex()
+	{
+		return SubtitleStreamIndex;
+	}
+	public final void setSubtitleStreamIndex(Integer value)
+	{
+		SubtitleStreamIndex = value;
+	}
+
+	private SubtitleDeliveryMethod SubtitleDeliveryMethod = null;
+	public final SubtitleDeliveryMethod getSubtitleDeliveryMethod()
+	{
+		return SubtitleDeliveryMethod;
+	}
+	public final void setSubtitleDeliveryMethod(SubtitleDeliveryMethod value)
+	{
+		SubtitleDeliveryMethod = value;
+	}
+
+	public final boolean getIsDirect()
+	{
+		return getPlayMethod() != org.jellyfin.apiclient.model.session.PlayMethod.Transcode;
+	}
+}
@@ -0,0 +1,470 @@
+package org.jellyfin.apiclient.model.dlna;
+
+import org.jellyfin.apiclient.model.dto.*;
+import org.jellyfin.apiclient.model.entities.*;
+import org.jellyfin.apiclient.model.extensions.*;
+import org.jellyfin.apiclient.model.mediainfo.*;
+import org.jellyfin.apiclient.model.session.*;
+
+/**
+ Predicts on the client whether a media source can be direct played or direct streamed with a device profile,
+ using the same direct play, codec and subtitle profiles the server evaluates.
+
+ Only the direct cases are decided locally. Anything that needs the server to open, remux with transcoding
+ or burn in subtitles comes back as {@link PlayMethod#Transcode}, so the caller can fall back to PlaybackInfo.
+*/
+public class StreamDecisionEngine
+{
+	private final CompiledDeviceProfile profile;
+	private final ConditionProcessor conditionProcessor = new ConditionProcessor();
+
+	public StreamDecisionEngine(CompiledDeviceProfile profile)
+	{
+		if (profile == null)
+		{
+			throw new IllegalArgumentException("profile");
+		}
+
+		this.profile = profile;
+	}
+
+	public final CompiledDeviceProfile getProfile()
+	{
+		return profile;
+	}
+
+	/**
+	 Picks the first of the media sources that can be played directly, honoring the media source, stream indexes,
+	 bitrate and direct play/stream switches of the request.
+
+	 Subtitles delivered as an external stream need the server too, for the delivery url of the converted format,
+	 so only embedded subtitles are decided locally.
+
+	 @return The decision, or null if every source needs the server.
+	*/
+	public final StreamDecision GetDirectDecision(PlaybackInfoRequest request, String mediaType, java.util.ArrayList<MediaSourceInfo> mediaSources)
+	{
+		if (request == null)
+		{
+			throw new IllegalArgumentException("request");
+		}
+
+		if (mediaSources == null)
+		{
+			return null;
+		}
+
+		Long maxBitrate = request.getMaxStreamingBitrate();
+		if (maxBitrate == null && profile.getProfile().getMaxStreamingBitrate() != null)
+		{
+			maxBitrate = (long)profile.getProfile().getMaxStreamingBitrate();
+		}
+
+		for (MediaSourceInfo source : mediaSources)
+		{
+			if (request.getMediaSourceId() != null && !request.getMediaSourceId().isEmpty() && !request.getMediaSourceId().equals(source.getId()))
+			{
+				continue;
+			}
+
+			StreamDecision decision;
+			if (MediaType.Audio.equalsIgnoreCase(mediaType))
+			{
+				decision = GetAudioDecision(source, maxBitrate, request.getEnableDirectPlay(), request.getEnableDirectStream());
+			}
+			else if (MediaType.Video.equalsIgnoreCase(mediaType))
+			{
+				decision = GetVideoDecision(source, request.getAudioStreamIndex(), request.getSubtitleStreamIndex(), maxBitrate, request.getEnableDirectPlay(), request.getEnableDirectStream());
+			}
+			else
+			{
+				return null;
+			}
+
+			if (decision.getIsDirect())
+			{
+				if (decision.getSubtitleDeliveryMethod() != null && decision.getSubtitleDeliveryMethod() != SubtitleDeliveryMethod.Embed)
+				{
+					return null;
+				}
+
+				return decision;
+			}
+		}
+
+		return null;
+	}
+
+	public final StreamDecision GetAudioDecision(MediaSourceInfo source, Long maxBitrate, boolean enableDirectPlay, boolean enableDirectStream)
+	{
+		StreamDecision decision = new StreamDecision();
+		decision.setMediaSource(source);
+		decision.setPlayMethod(PlayMethod.Transcode);
+
+		if (!CanPlayDirectly(source, maxBitrate) || !IsAudioSupported(source))
+		{
+			return decision;
+		}
+
+		MediaStream audioStream = source.getDefaultAudioStream();
+		if (audioStream != null)
+		{
+			decision.setAudioStreamIndex(audioStream.getIndex());
+		}
+		decision.setPlayMethod(GetDirectPlayMethod(source, enableDirectPlay, enableDirectStream));
+		return decision;
+	}
+
+	/**
+	 Determines whether the direct play and audio codec profiles accept the container and default audio stream
+	 of the source. Only reads the streams, see {@link #CanPlayDirectly} for the rest of the source.
+	*/
+	public final boolean IsAudioSupported(MediaSourceInfo source)
+	{
+		MediaStream audioStream = source.getDefaultAudioStream();
+		String container = CaseFoldedSet.NormalizeContainer(source.getContainer());
+		String audioCodec = (audioStream != null) ? audioStream.getCodec() : null;
+
+		boolean supported = false;
+		for (CompiledDirectPlayProfile i : profile.GetDirectPlayProfiles(DlnaProfileType.Audio))
+		{
+			if (i.SupportsContainer(container) && i.SupportsAudioCodec(audioCodec))
+			{
+				supported = true;
+				break;
+			}
+		}
+
+		if (!supported)
+		{
+			return false;
+		}
+
+		int audioChannels = (audioStream != null) ? ConditionProcessor.ToInt(audioStream.getChannels()) : ConditionProcessor.UnknownValue;
+		int audioBitrate = (audioStream != null) ? ConditionProcessor.ToInt(audioStream.getBitRate()) : ConditionProcessor.UnknownValue;
+
+		for (CompiledCodecProfile i : profile.GetCodecProfiles(CodecType.Audio))
+		{
+			if (!i.ContainsCodec((audioCodec != null) ? audioCodec : "", container))
+			{
+				continue;
+			}
+
+			if (AllAudioConditionsSatisfied(i.getApplyConditions(), audioChannels, audioBitrate) && !AllAudioConditionsSatisfied(i.getConditions(), audioChannels, audioBitrate))
+			{
+				return false;
+			}
+		}
+
+		return true;
+	}
+
+	public final StreamDecision GetVideoDecision(MediaSourceInfo source, Integer audioStreamIndex, Integer subtitleStreamIndex, Long maxBitrate, boolean enableDirectPlay, boolean enableDirectStream)
+	{
+		StreamDecision decision = new StreamDecision();
+		decision.setMediaSource(source);
+		decision.setPlayMethod(PlayMethod.Transcode);
+
+		MediaStream audioStream = GetVideoAudioStream(source, audioStreamIndex);
+		if (!CanPlayDirectly(source, maxBitrate) || !IsVideoSupported(source, audioStream))
+		{
+			return decision;
+		}
+
+		if (subtitleStreamIndex != null && subtitleStreamIndex >= 0)
+		{
+			MediaStream subtitleStream = source.GetMediaStream(MediaStreamType.Subtitle, subtitleStreamIndex);
+			SubtitleDeliveryMethod method = (subtitleStream != null) ? GetDirectSubtitleDeliveryMethod(subtitleStream) : null;
+			if (method == null)
+			{
+				// Subtitles would have to be burned in
+				return decision;
+			}
+
+			decision.setSubtitleStreamIndex(subtitleStreamIndex);
+			decision.setSubtitleDeliveryMethod(method);
+		}
+
+		if (audioStream != null)
+		{
+			decision.setAudioStreamIndex(audioStream.getIndex());
+		}
+		decision.setPlayMethod(GetDirectPlayMethod(source, enableDirectPlay, enableDirectStream));
+		return decision;
+	}
+
+	/**
+	 Determines whether the direct play, container and codec profiles accept the container, video stream and
+	 given audio stream of the source. Only reads the streams, see {@link #CanPlayDirectly} for the rest of the source.
+	*/
+	public final boolean IsVideoSupported(MediaSourceInfo source, MediaStream audioStream)
+	{
+		MediaStream videoStream = GetVideoStream(source);
+		String container = CaseFoldedSet.NormalizeContainer(source.getContainer());
+		String videoCodec = (videoStream != null) ? videoStream.getCodec() : null;
+		String audioCodec = (audioStream != null) ? audioStream.getCodec() : null;
+
+		boolean supported = false;
+		for (CompiledDirectPlayProfile i : profile.GetDirectPlayProfiles(DlnaProfileType.Video))
+		{
+			if (i.SupportsContainer(container) && i.SupportsVideoCodec(videoCodec) && (audioStream == null || i.SupportsAudioCodec(audioCodec)))
+			{
+				supported = true;
+				break;
+			}
+		}
+
+		if (!supported)
+		{
+			return false;
+		}
+
+		if (!IsContainerSupported(source, videoStream, container))
+		{
+			return false;
+		}
+
+		if (videoStream != null && !IsVideoStreamSupported(source, videoStream, container))
+		{
+			return false;
+		}
+
+		return audioStream == null || IsVideoAudioSupported(source, audioStream, container);
+	}
+
+	/**
+	 Determines whether the source itself allows direct playback: it is not a live stream, it supports direct
+	 play or direct stream, and it is within the bitrate limit.
+	*/
+	public final boolean CanPlayDirectly(MediaSourceInfo source, Long maxBitrate)
+	{
+		// Live streams have to be opened by the server first
+		if (source.getRequiresOpening() || source.getIsInfiniteStream())
+		{
+			return false;
+		}
+
+		if (!source.getSupportsDirectPlay() && !source.getSupportsDirectStream())
+		{
+			return false;
+		}
+
+		return maxBitrate == null || source.getBitrate() == null || source.getBitrate() <= maxBitrate;
+	}
+
+	public final PlayMethod GetDirectPlayMethod(MediaSourceInfo source, boolean enableDirectPlay, boolean enableDirectStream)
+	{
+		if (enableDirectPlay && source.getSupportsDirectPlay())
+		{
+			return PlayMethod.DirectPlay;
+		}
+
+		if (enableDirectStream && source.getSupportsDirectStream())
+		{
+			return PlayMethod.DirectStream;
+		}
+
+		return PlayMethod.Transcode;
+	}
+
+	private boolean IsContainerSupported(MediaSourceInfo source, MediaStream videoStream, String container)
+	{
+		ContainerProfile[] containerProfiles = profile.getProfile().getContainerProfiles();
+		if (containerProfiles == null)
+		{
+			return true;
+		}
+
+		for (ContainerProfile i : containerProfiles)
+		{
+			if (i.getType() != DlnaProfileType.Video || !i.ContainsContainer(container))
+			{
+				continue;
+			}
+
+			for (ProfileCondition c : i.getConditions())
+			{
+				boolean satisfied = (videoStream != null)
+					? conditionProcessor.IsVideoConditionSatisfied(c, videoStream.getWidth(), videoStream.getHeight(), videoStream.getBitDepth(), videoStream.getBitRate(), videoStream.getProfile(), videoStream.getLevel(), videoStream.getAverageFrameRate(), videoStream.getPacketLength(), source.getTimestamp(), videoStream.getIsAnamorphic(), videoStream.getRefFrames(), source.GetStreamCount(MediaStreamType.Video), source.GetStreamCount(MediaStreamType.Audio), videoStream.getCodecTag(), videoStream.getIsAVC())
+					: conditionProcessor.IsVideoConditionSatisfied(c, null, null, null, null, null, null, null, null, source.getTimestamp(), null, null, source.GetStreamCount(MediaStreamType.Video), source.GetStreamCount(MediaStreamType.Audio), null, null);
+
+				if (!satisfied)
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean IsVideoStreamSupported(MediaSourceInfo source, MediaStream videoStream, String container)
+	{
+		String videoCodec = (videoStream.getCodec() != null) ? videoStream.getCodec() : "";
+		Float framerate = (videoStream.getAverageFrameRate() != null) ? videoStream.getAverageFrameRate() : videoStream.getRealFrameRate();
+
+		int width = ConditionProcessor.ToInt(videoStream.getWidth());
+		int height = ConditionProcessor.ToInt(videoStream.getHeight());
+		int bitDepth = ConditionProcessor.ToInt(videoStream.getBitDepth());
+		int videoBitrate = ConditionProcessor.ToInt(videoStream.getBitRate());
+		double videoLevel = ConditionProcessor.ToDouble(videoStream.getLevel());
+		float videoFramerate = ConditionProcessor.ToFloat(framerate);
+		int packetLength = ConditionProcessor.ToInt(videoStream.getPacketLength());
+		int refFrames = ConditionProcessor.ToInt(videoStream.getRefFrames());
+		int numVideoStreams = ConditionProcessor.ToInt(source.GetStreamCount(MediaStreamType.Video));
+		int numAudioStreams = ConditionProcessor.ToInt(source.GetStreamCount(MediaStreamType.Audio));
+
+		for (CompiledCodecProfile i : profile.GetCodecProfiles(CodecType.Video))
+		{
+			if (!i.ContainsCodec(videoCodec, container))
+			{
+				continue;
+			}
+
+			boolean applies = true;
+			for (CompiledProfileCondition c : i.getApplyConditions())
+			{
+				if (!conditionProcessor.IsVideoConditionSatisfied(c, width, height, bitDepth, videoBitrate, videoStream.getProfile(), videoLevel, videoFramerate, packetLength, source.getTimestamp(), videoStream.getIsAnamorphic(), refFrames, numVideoStreams, numAudioStreams, videoStream.getCodecTag(), videoStream.getIsAVC()))
+				{
+					applies = false;
+					break;
+				}
+			}
+
+			if (!applies)
+			{
+				continue;
+			}
+
+			for (CompiledProfileCondition c : i.getConditions())
+			{
+				if (!conditionProcessor.IsVideoConditionSatisfied(c, width, height, bitDepth, videoBitrate, videoStream.getProfile(), videoLevel, videoFramerate, packetLength, source.getTimestamp(), videoStream.getIsAnamorphic(), refFrames, numVideoStreams, numAudioStreams, videoStream.getCodecTag(), videoStream.getIsAVC()))
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean IsVideoAudioSupported(MediaSourceInfo source, MediaStream audioStream, String container)
+	{
+		String audioCodec = (audioStream.getCodec() != null) ? audioStream.getCodec() : "";
+		int audioChannels = ConditionProcessor.ToInt(audioStream.getChannels());
+		int audioBitrate = ConditionProcessor.ToInt(audioStream.getBitRate());
+		Boolean isSecondaryAudio = source.IsSecondaryAudio(audioStream);
+
+		for (CompiledCodecProfile i : profile.GetCodecProfiles(CodecType.VideoAudio))
+		{
+			if (!i.ContainsCodec(audioCodec, container))
+			{
+				continue;
+			}
+
+			boolean applies = true;
+			for (CompiledProfileCondition c : i.getApplyConditions())
+			{
+				if (!conditionProcessor.IsVideoAudioConditionSatisfied(c, audioChannels, audioBitrate, audioStream.getProfile(), isSecondaryAudio))
+				{
+					applies = false;
+					break;
+				}
+			}
+
+			if (!applies)
+			{
+				continue;
+			}
+
+			for (CompiledProfileCondition c : i.getConditions())
+			{
+				if (!conditionProcessor.IsVideoAudioConditionSatisfied(c, audioChannels, audioBitrate, audioStream.getProfile(), isSecondaryAudio))
+				{
+					return false;
+				}
+			}
+		}
+
+		return true;
+	}
+
+	private boolean AllAudioConditionsSatisfied(CompiledProfileCondition[] conditions, int audioChannels, int audioBitrate)
+	{
+		for (CompiledProfileCondition c : conditions)
+		{
+			if (!conditionProcessor.IsAudioConditionSatisfied(c, audioChannels, audioBitrate))
+			{
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 Gets how a subtitle stream can be delivered without burning it in, or null if it can't.
+	 Embedded delivery is preferred over external delivery, like the server does for direct play.
+	*/
+	private SubtitleDeliveryMethod GetDirectSubtitleDeliveryMethod(MediaStream subtitleStream)
+	{
+		SubtitleProfile[] subtitleProfiles = profile.getProfile().getSubtitleProfiles();
+		if (subtitleProfiles == null)
+		{
+			return null;
+		}
+
+		if (!subtitleStream.getIsExternal())
+		{
+			for (SubtitleProfile i : subtitleProfiles)
+			{
+				if (i.getMethod() == SubtitleDeliveryMethod.Embed && i.SupportsLanguage(subtitleStream.getLanguage()) && StringHelper.equalsIgnoreCase(i.getFormat(), subtitleStream.getCodec()))
+				{
+					return SubtitleDeliveryMethod.Embed;
+				}
+			}
+		}
+
+		if (subtitleStream.getIsExternal() || subtitleStream.getSupportsExternalStream())
+		{
+			for (SubtitleProfile i : subtitleProfiles)
+			{
+				if (i.getMethod() != SubtitleDeliveryMethod.External || !i.SupportsLanguage(subtitleStream.getLanguage()))
+				{
+					continue;
+				}
+
+				if (StringHelper.equalsIgnoreCase(i.getFormat(), subtitleStream.getCodec()) || subtitleStream.SupportsSubtitleConversionTo(i.getFormat()))
+				{
+					return SubtitleDeliveryMethod.External;
+				}
+			}
+		}
+
+		return null;
+	}
+
+	/**
+	 Gets the audio stream a video decision is made for: the requested one, or the default one.
+	*/
+	public static MediaStream GetVideoAudioStream(MediaSourceInfo source, Integer audioStreamIndex)
+	{
+		return source.GetDefaultAudioStream((audioStreamIndex != null) ? audioStreamIndex : source.getDefaultAudioStreamIndex());
+	}
+
+	/**
+	 Gets the video stream a decision is made for, the first one that is not an embedded image.
+	*/
+	public static MediaStream GetVideoStream(MediaSourceInfo source)
+	{
+		// Same as MediaSourceInfo.getVideoStream, without failing on streams that have no codec
+		for (MediaStream i : source.getMediaStreams())
+		{
+			if (i.getType() == MediaStreamType.Video && (i.getCodec() == null || !i.getCodec().toLowerCase(java.util.Locale.ROOT).contains("jpeg")))
+			{
+				return i;
+			}
+		}
+
+		return null;
+	}
+}